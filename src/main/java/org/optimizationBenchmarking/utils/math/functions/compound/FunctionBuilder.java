@@ -263,6 +263,53 @@ public abstract class FunctionBuilder<T extends MathematicalFunction> {
    */
   public abstract T constant(final Number value);
 
+  /**
+   * Compile a function created by this builder. The nested compound,
+   * parameter, and constant functions of the function are composed into
+   * a single {@link java.lang.invoke.MethodHandle} which computes
+   * {@code double} results without a chain of virtual calls through the
+   * function tree. The compiled function returns exactly the same results
+   * as {@code function}, is rendered the same way, and is serialized as
+   * {@code function}. Functions which are not compound functions, or
+   * cannot be compiled, are returned as is.
+   *
+   * @param function
+   *          the function to compile
+   * @return the compiled function
+   */
+  @SuppressWarnings("unchecked")
+  public final T compile(final T function) {
+    if (function == null) {
+      throw new IllegalArgumentException(//
+          "Function to compile must not be null."); //$NON-NLS-1$
+    }
+    return ((T) (_FunctionCompiler._compile(function)));
+  }
+
+  /**
+   * Optimize a function created by this builder. The function is rebuilt
+   * bottom-up, functions applied to constants only are replaced by
+   * constants, identities like {@code x/1} or, if {@code x} can never be
+   * {@code -0}, {@code x+0}, {@code x-0}, and {@code x*1} are removed. A
+   * constant replaces a function only if it yields the same results for
+   * all numerical types, so the {@code long} and {@code double} results of
+   * the function are kept. The optimized function computes exactly the
+   * same results as {@code function} and can then be
+   * {@link #compile(MathematicalFunction) compiled}.
+   *
+   * @param function
+   *          the function to optimize
+   * @return the optimized function, or {@code function} if it cannot be
+   *         optimized
+   */
+  public final T optimize(final T function) {
+    if (function == null) {
+      throw new IllegalArgumentException(//
+          "Function to optimize must not be null."); //$NON-NLS-1$
+    }
+    return _FunctionOptimizer._optimize(this, function);
+  }
+
   /**
    * Obtain the class of the functions which will be created by this
    * builder
@@ -0,0 +1,182 @@
+package org.optimizationBenchmarking.utils.math.functions.compound;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Iterator;
+
+import org.optimizationBenchmarking.utils.ICloneable;
+import org.optimizationBenchmarking.utils.document.spec.IMath;
+import org.optimizationBenchmarking.utils.document.spec.IParameterRenderer;
+import org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction;
+import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
+
+/**
+ * A
+ * {@linkplain FunctionBuilder#compile(org.optimizationBenchmarking.utils.math.functions.MathematicalFunction)
+ * compiled}
+ * {@link org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction
+ * 4-ary} function: {@code double} results are computed by the compiled
+ * method handle, everything else by the original function. The tree of
+ * the original function can still be inspected via {@link #iterator()}.
+ */
+final class _Compiled4 extends QuaternaryFunction
+    implements ICloneable, Iterable<Object> {
+
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** @serial the original function */
+  final QuaternaryFunction m_original;
+
+  /** the method handle computing the {@code double} results */
+  private final transient MethodHandle m_kernel;
+
+  /**
+   * create
+   *
+   * @param original
+   *          the original function
+   * @param kernel
+   *          the method handle computing the {@code double} results
+   */
+  _Compiled4(final QuaternaryFunction original,
+      final MethodHandle kernel) {
+    super();
+    this.m_original = original;
+    this.m_kernel = kernel;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final byte computeAsByte(final byte x0, final byte x1, final byte x2,
+      final byte x3) {
+    return this.m_original.computeAsByte(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final short computeAsShort(final short x0, final short x1,
+      final short x2, final short x3) {
+    return this.m_original.computeAsShort(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int computeAsInt(final int x0, final int x1, final int x2,
+      final int x3) {
+    return this.m_original.computeAsInt(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long computeAsLong(final long x0, final long x1, final long x2,
+      final long x3) {
+    return this.m_original.computeAsLong(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final float computeAsFloat(final float x0, final float x1,
+      final float x2, final float x3) {
+    return this.m_original.computeAsFloat(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double computeAsDouble(final double x0, final double x1,
+      final double x2, final double x3) {
+    try {
+      return ((double) this.m_kernel.invokeExact(x0, x1, x2, x3));
+    } catch (final Throwable error) {
+      throw _FunctionCompiler._rethrow(error);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double computeAsDouble(final int x0, final int x1, final int x2,
+      final int x3) {
+    return this.m_original.computeAsDouble(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double computeAsDouble(final long x0, final long x1,
+      final long x2, final long x3) {
+    return this.m_original.computeAsDouble(x0, x1, x2, x3);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isLongArithmeticAccurate() {
+    return this.m_original.isLongArithmeticAccurate();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int getPrecedencePriority() {
+    return this.m_original.getPrecedencePriority();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void mathRender(final IMath out,
+      final IParameterRenderer renderer) {
+    this.m_original.mathRender(out, renderer);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void mathRender(final ITextOutput out,
+      final IParameterRenderer renderer) {
+    this.m_original.mathRender(out, renderer);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int hashCode() {
+    return this.m_original.hashCode();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean equals(final Object o) {
+    return ((o == this) || ((o instanceof _Compiled4) && //
+        this.m_original.equals(((_Compiled4) o).m_original)));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final QuaternaryFunction clone() {
+    final Object original;
+
+    original = ((ICloneable) (this.m_original)).clone();
+    if (original == this.m_original) {
+      return this;
+    }
+    return ((QuaternaryFunction) (_FunctionCompiler
+        ._compile(((QuaternaryFunction) original))));
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings("unchecked")
+  @Override
+  public final Iterator<Object> iterator() {
+    return ((Iterable<Object>) (this.m_original)).iterator();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final String toString() {
+    return this.m_original.toString();
+  }
+
+  /**
+   * Write replace: the compiled function is serialized as the original
+   * function, since the method handle cannot be serialized.
+   *
+   * @return the original function
+   */
+  private final Object writeReplace() {
+    return this.m_original;
+  }
+}
@@ -0,0 +1,577 @@
+package org.optimizationBenchmarking.utils.math.functions.compound;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+import org.apache.commons.math3.util.FastMath;
+import org.optimizationBenchmarking.utils.error.ErrorUtils;
+import org.optimizationBenchmarking.utils.math.functions.BinaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.MathematicalFunction;
+import org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.TernaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.UnaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Negate;
+import org.optimizationBenchmarking.utils.math.functions.basic.Identity;
+import org.optimizationBenchmarking.utils.math.functions.power.Exp;
+import org.optimizationBenchmarking.utils.math.functions.power.Ln;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqr;
+
+/**
+ * <p>
+ * The compiler for compound functions: A tree of compound, parameter
+ * selection, and constant functions is turned into a single
+ * {@link java.lang.invoke.MethodHandle} whose {@code invokeExact} method
+ * evaluates the whole tree on primitive {@code double} values. The JVM
+ * turns such a composition of method handles into straight-line code,
+ * without boxing and without a chain of virtual calls through the
+ * function tree. Parameters and constants become argument selections and
+ * constant handles, and
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Negate},
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute},
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Div},
+ * {@link org.optimizationBenchmarking.utils.math.functions.power.Sqr},
+ * {@link org.optimizationBenchmarking.utils.math.functions.power.Exp},
+ * and {@link org.optimizationBenchmarking.utils.math.functions.power.Ln}
+ * become static calls. All other functions are called through a handle
+ * bound to their {@code computeAsDouble} method. This also covers
+ * functions like
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Add}
+ * whose exact {@code long} arithmetic on integer values must be kept to
+ * produce the same results as the tree.
+ * </p>
+ */
+final class _FunctionCompiler {
+
+  /** the handle of {@link #__negate(double)} */
+  private static final MethodHandle NEGATE = _FunctionCompiler.__static(
+      _FunctionCompiler.class, "__negate", 1); //$NON-NLS-1$
+
+  /** the handle of {@link #__sqr(double)} */
+  private static final MethodHandle SQR = _FunctionCompiler.__static(
+      _FunctionCompiler.class, "__sqr", 1); //$NON-NLS-1$
+
+  /** the handle of {@link #__div(double, double)} */
+  private static final MethodHandle DIV = _FunctionCompiler.__static(
+      _FunctionCompiler.class, "__div", 2); //$NON-NLS-1$
+
+  /** the handle of {@link java.lang.Math#abs(double)} */
+  private static final MethodHandle ABS = _FunctionCompiler.__static(
+      Math.class, "abs", 1); //$NON-NLS-1$
+
+  /**
+   * the handle of
+   * {@link org.apache.commons.math3.util.FastMath#exp(double)}
+   */
+  private static final MethodHandle EXP = _FunctionCompiler.__static(
+      FastMath.class, "exp", 1); //$NON-NLS-1$
+
+  /**
+   * the handle of
+   * {@link org.apache.commons.math3.util.FastMath#log(double)}
+   */
+  private static final MethodHandle LN = _FunctionCompiler.__static(
+      FastMath.class, "log", 1); //$NON-NLS-1$
+
+  /** the forbidden constructor */
+  private _FunctionCompiler() {
+    ErrorUtils.doNotCall();
+  }
+
+  /**
+   * Get the method type of a function taking {@code arity}
+   * {@code double} arguments and returning a {@code double}
+   *
+   * @param arity
+   *          the arity
+   * @return the method type
+   */
+  private static final MethodType __type(final int arity) {
+    return MethodType.methodType(double.class,
+        _FunctionCompiler.__doubles(arity));
+  }
+
+  /**
+   * Get an array of {@code count} {@code double} classes
+   *
+   * @param count
+   *          the number of classes
+   * @return the array
+   */
+  private static final Class<?>[] __doubles(final int count) {
+    final Class<?>[] classes;
+
+    classes = new Class<?>[count];
+    Arrays.fill(classes, double.class);
+    return classes;
+  }
+
+  /**
+   * Find a static method working on {@code double}s
+   *
+   * @param owner
+   *          the owning class
+   * @param name
+   *          the method name
+   * @param arity
+   *          the number of {@code double} arguments
+   * @return the method handle
+   */
+  private static final MethodHandle __static(final Class<?> owner,
+      final String name, final int arity) {
+    try {
+      return MethodHandles.lookup().findStatic(owner, name,
+          _FunctionCompiler.__type(arity));
+    } catch (final ReflectiveOperationException error) {
+      throw new IllegalStateException(((("Cannot find method " + //$NON-NLS-1$
+          owner.getName()) + '.') + name), error);
+    }
+  }
+
+  /**
+   * negate a value
+   *
+   * @param x0
+   *          the value
+   * @return {@code -x0}
+   */
+  private static final double __negate(final double x0) {
+    return (-x0);
+  }
+
+  /**
+   * square a value
+   *
+   * @param x0
+   *          the value
+   * @return {@code x0*x0}
+   */
+  private static final double __sqr(final double x0) {
+    return (x0 * x0);
+  }
+
+  /**
+   * divide two values
+   *
+   * @param x0
+   *          the dividend
+   * @param x1
+   *          the divisor
+   * @return {@code x0/x1}
+   */
+  private static final double __div(final double x0, final double x1) {
+    return (x0 / x1);
+  }
+
+  /**
+   * Get the arity of a function
+   *
+   * @param function
+   *          the function
+   * @return the arity, or {@code -1} if it is not supported
+   */
+  private static final int __arity(final MathematicalFunction function) {
+    if (function instanceof UnaryFunction) {
+      return 1;
+    }
+    if (function instanceof BinaryFunction) {
+      return 2;
+    }
+    if (function instanceof TernaryFunction) {
+      return 3;
+    }
+    if (function instanceof QuaternaryFunction) {
+      return 4;
+    }
+    return (-1);
+  }
+
+  /**
+   * Get the result function and the child functions of a compound
+   * function
+   *
+   * @param function
+   *          the function
+   * @return an array with the result function followed by the children,
+   *         or {@code null} if {@code function} is not a compound
+   */
+  static final MathematicalFunction[] _compound(
+      final MathematicalFunction function) {
+    if (function instanceof _Compound1x1) {
+      final _Compound1x1 c = ((_Compound1x1) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1 };
+    }
+    if (function instanceof _Compound1x2) {
+      final _Compound1x2 c = ((_Compound1x2) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1 };
+    }
+    if (function instanceof _Compound1x3) {
+      final _Compound1x3 c = ((_Compound1x3) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1 };
+    }
+    if (function instanceof _Compound1x4) {
+      final _Compound1x4 c = ((_Compound1x4) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1 };
+    }
+    if (function instanceof _Compound2x1) {
+      final _Compound2x1 c = ((_Compound2x1) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2 };
+    }
+    if (function instanceof _Compound2x2) {
+      final _Compound2x2 c = ((_Compound2x2) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2 };
+    }
+    if (function instanceof _Compound2x3) {
+      final _Compound2x3 c = ((_Compound2x3) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2 };
+    }
+    if (function instanceof _Compound2x4) {
+      final _Compound2x4 c = ((_Compound2x4) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2 };
+    }
+    if (function instanceof _Compound3x1) {
+      final _Compound3x1 c = ((_Compound3x1) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3 };
+    }
+    if (function instanceof _Compound3x2) {
+      final _Compound3x2 c = ((_Compound3x2) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3 };
+    }
+    if (function instanceof _Compound3x3) {
+      final _Compound3x3 c = ((_Compound3x3) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3 };
+    }
+    if (function instanceof _Compound3x4) {
+      final _Compound3x4 c = ((_Compound3x4) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3 };
+    }
+    if (function instanceof _Compound4x1) {
+      final _Compound4x1 c = ((_Compound4x1) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3, c.m_child4 };
+    }
+    if (function instanceof _Compound4x2) {
+      final _Compound4x2 c = ((_Compound4x2) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3, c.m_child4 };
+    }
+    if (function instanceof _Compound4x3) {
+      final _Compound4x3 c = ((_Compound4x3) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3, c.m_child4 };
+    }
+    if (function instanceof _Compound4x4) {
+      final _Compound4x4 c = ((_Compound4x4) function);
+      return new MathematicalFunction[] { c.m_result, c.m_child1, c.m_child2, c.m_child3, c.m_child4 };
+    }
+    return null;
+  }
+
+  /**
+   * Get the index of the parameter selected by a function
+   *
+   * @param function
+   *          the function
+   * @return the index, or {@code -1} if {@code function} does not select
+   *         a parameter
+   */
+  private static final int __select(final MathematicalFunction function) {
+    if (function instanceof Identity) {
+      return 0;
+    }
+    if (function instanceof _Select1of2) {
+      return 0;
+    }
+    if (function instanceof _Select2of2) {
+      return 1;
+    }
+    if (function instanceof _Select1of3) {
+      return 0;
+    }
+    if (function instanceof _Select2of3) {
+      return 1;
+    }
+    if (function instanceof _Select3of3) {
+      return 2;
+    }
+    if (function instanceof _Select1of4) {
+      return 0;
+    }
+    if (function instanceof _Select2of4) {
+      return 1;
+    }
+    if (function instanceof _Select3of4) {
+      return 2;
+    }
+    if (function instanceof _Select4of4) {
+      return 3;
+    }
+    return (-1);
+  }
+
+  /**
+   * Get the value of a constant function
+   *
+   * @param function
+   *          the function
+   * @return the value, or {@code null} if {@code function} is not a
+   *         constant
+   */
+  static final Number _constant(
+      final MathematicalFunction function) {
+    if (function instanceof _Const1) {
+      return ((_Const1) function).m_const;
+    }
+    if (function instanceof _Const2) {
+      return ((_Const2) function).m_const;
+    }
+    if (function instanceof _Const3) {
+      return ((_Const3) function).m_const;
+    }
+    if (function instanceof _Const4) {
+      return ((_Const4) function).m_const;
+    }
+    return null;
+  }
+
+  /**
+   * Get the handle of the {@code computeAsDouble} method of a function,
+   * bound to the function
+   *
+   * @param function
+   *          the function
+   * @param arity
+   *          the arity of {@code function}
+   * @return the bound method handle
+   * @throws ReflectiveOperationException
+   *           if the method cannot be accessed
+   */
+  private static final MethodHandle __bind(
+      final MathematicalFunction function, final int arity)
+      throws ReflectiveOperationException {
+    final Class<?> owner;
+
+    switch (arity) {
+      case 1: {
+        owner = UnaryFunction.class;
+        break;
+      }
+      case 2: {
+        owner = BinaryFunction.class;
+        break;
+      }
+      case 3: {
+        owner = TernaryFunction.class;
+        break;
+      }
+      default: {
+        owner = QuaternaryFunction.class;
+      }
+    }
+    return MethodHandles.publicLookup()
+        .findVirtual(owner, "computeAsDouble", //$NON-NLS-1$
+            _FunctionCompiler.__type(arity))
+        .bindTo(function);
+  }
+
+  /**
+   * Feed the results of the children into the arguments of an outer
+   * function: The returned handle takes the {@code arity} arguments of
+   * the compiled function, applies each child to them, and passes the
+   * child results to {@code outer}.
+   *
+   * @param outer
+   *          the handle of the outer function, taking one argument per
+   *          child
+   * @param children
+   *          the handles of the children, each taking {@code arity}
+   *          arguments
+   * @param arity
+   *          the arity of the compiled function
+   * @return the combined handle
+   */
+  private static final MethodHandle __combine(final MethodHandle outer,
+      final MethodHandle[] children, final int arity) {
+    MethodHandle handle;
+    int[] reorder;
+    int remaining, index;
+
+    // (x..., r1, ..., rn): the arguments are ignored by the outer function
+    handle = MethodHandles.dropArguments(outer, 0,
+        _FunctionCompiler.__doubles(arity));
+    // fold the child results in from the last to the first: move the last
+    // child result to the front, followed by the arguments, so that
+    // foldArguments can compute it from the arguments
+    for (remaining = children.length; remaining > 0; remaining--) {
+      reorder = new int[arity + remaining];
+      for (index = 0; index < arity; index++) {
+        reorder[index] = (index + 1);
+      }
+      for (index = 1; index < remaining; index++) {
+        reorder[(arity + index) - 1] = (arity + index);
+      }
+      reorder[(arity + remaining) - 1] = 0;
+      handle = MethodHandles.permuteArguments(handle,
+          _FunctionCompiler.__type(arity + remaining), reorder);
+      handle = MethodHandles.foldArguments(handle,
+          children[remaining - 1]);
+    }
+    return handle;
+  }
+
+  /**
+   * Create the method handle computing the result of a function applied
+   * to the arguments of the compiled function
+   *
+   * @param function
+   *          the function
+   * @param arity
+   *          the arity of {@code function}
+   * @return the method handle, taking {@code arity} {@code double}
+   *         arguments and returning a {@code double}
+   * @throws ReflectiveOperationException
+   *           if a method cannot be accessed
+   */
+  private static final MethodHandle __handle(
+      final MathematicalFunction function, final int arity)
+      throws ReflectiveOperationException {
+    final MathematicalFunction[] compound;
+    final MathematicalFunction result;
+    final MethodHandle[] children;
+    final Number constant;
+    final int select;
+    int index;
+
+    select = _FunctionCompiler.__select(function);
+    if (select >= 0) {
+      return MethodHandles.dropArguments(
+          MethodHandles.dropArguments(
+              MethodHandles.identity(double.class), 1,
+              _FunctionCompiler.__doubles(arity - select - 1)),
+          0, _FunctionCompiler.__doubles(select));
+    }
+
+    constant = _FunctionCompiler._constant(function);
+    if (constant != null) {
+      return MethodHandles.dropArguments(
+          MethodHandles.constant(double.class,
+              Double.valueOf(constant.doubleValue())),
+          0, _FunctionCompiler.__doubles(arity));
+    }
+
+    compound = _FunctionCompiler._compound(function);
+    if (compound == null) {
+      // a function applied directly to the arguments
+      return _FunctionCompiler.__bind(function, arity);
+    }
+
+    result = compound[0];
+    if (result instanceof Negate) {
+      return MethodHandles.filterReturnValue(
+          _FunctionCompiler.__handle(compound[1], arity),
+          _FunctionCompiler.NEGATE);
+    }
+    if (result instanceof Sqr) {
+      return MethodHandles.filterReturnValue(
+          _FunctionCompiler.__handle(compound[1], arity),
+          _FunctionCompiler.SQR);
+    }
+    if (result instanceof Absolute) {
+      return MethodHandles.filterReturnValue(
+          _FunctionCompiler.__handle(compound[1], arity),
+          _FunctionCompiler.ABS);
+    }
+    if (result instanceof Exp) {
+      return MethodHandles.filterReturnValue(
+          _FunctionCompiler.__handle(compound[1], arity),
+          _FunctionCompiler.EXP);
+    }
+    if (result instanceof Ln) {
+      return MethodHandles.filterReturnValue(
+          _FunctionCompiler.__handle(compound[1], arity),
+          _FunctionCompiler.LN);
+    }
+
+    children = new MethodHandle[compound.length - 1];
+    for (index = 0; index < children.length; index++) {
+      children[index] = _FunctionCompiler.__handle(compound[index + 1],
+          arity);
+    }
+    if (children.length == 1) {
+      return MethodHandles.filterReturnValue(children[0],
+          _FunctionCompiler.__bind(result, 1));
+    }
+    return _FunctionCompiler.__combine(((result instanceof Div)
+        ? _FunctionCompiler.DIV
+        : _FunctionCompiler.__bind(result, children.length)), children,
+        arity);
+  }
+
+  /**
+   * Re-throw an error raised by a compiled method handle
+   *
+   * @param error
+   *          the error
+   * @return never, the return type only allows writing
+   *         {@code throw _FunctionCompiler._rethrow(error);}
+   */
+  static final RuntimeException _rethrow(final Throwable error) {
+    if (error instanceof RuntimeException) {
+      throw ((RuntimeException) error);
+    }
+    if (error instanceof Error) {
+      throw ((Error) error);
+    }
+    throw new IllegalStateException(error);
+  }
+
+  /**
+   * Compile a function. If the function is not a compound function or
+   * cannot be compiled for any other reason, it is returned as is.
+   *
+   * @param function
+   *          the function
+   * @return the compiled function, which computes exactly the same
+   *         results as {@code function}
+   */
+  static final MathematicalFunction _compile(
+      final MathematicalFunction function) {
+    final MethodHandle kernel;
+    final int arity;
+
+    if ((function instanceof _Compiled1) || (function instanceof _Compiled2)
+        || (function instanceof _Compiled3)
+        || (function instanceof _Compiled4)) {
+      return function;
+    }
+    if (_FunctionCompiler._compound(function) == null) {
+      return function;
+    }
+    arity = _FunctionCompiler.__arity(function);
+    if (arity <= 0) {
+      return function;
+    }
+
+    try {
+      kernel = _FunctionCompiler.__handle(function, arity);
+    } catch (final ReflectiveOperationException | SecurityException error) {
+      // the function cannot be compiled, so we use it as is
+      return function;
+    }
+
+    switch (arity) {
+      case 1: {
+        return new _Compiled1(((UnaryFunction) function), kernel);
+      }
+      case 2: {
+        return new _Compiled2(((BinaryFunction) function), kernel);
+      }
+      case 3: {
+        return new _Compiled3(((TernaryFunction) function), kernel);
+      }
+      default: {
+        return new _Compiled4(((QuaternaryFunction) function), kernel);
+      }
+    }
+  }
+}
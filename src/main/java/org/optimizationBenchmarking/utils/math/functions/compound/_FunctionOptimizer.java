@@ -0,0 +1,350 @@
+package org.optimizationBenchmarking.utils.math.functions.compound;
+
+import java.util.ArrayList;
+
+import org.optimizationBenchmarking.utils.error.ErrorUtils;
+import org.optimizationBenchmarking.utils.math.functions.BinaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.MathematicalFunction;
+import org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.TernaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.UnaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Add;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Mul;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Sub;
+
+/**
+ * <p>
+ * The optimizer for compound functions: A tree of compound, parameter
+ * selection, and constant functions is rebuilt bottom-up with a
+ * {@link FunctionBuilder}, applying the following rewrites:
+ * </p>
+ * <ol>
+ * <li>A function applied to constants only is replaced by a constant, but
+ * only if one constant yields exactly the same result as the function for
+ * every numerical type, i.e., if the {@code byte}, {@code short},
+ * {@code int}, {@code long}, {@code float}, and {@code double} results of
+ * the function are all the same as the corresponding values of the
+ * constant. {@code 2*9223372036854775807}, for instance, is not folded,
+ * because it overflows in {@code long} but not in {@code double}
+ * arithmetic.</li>
+ * <li>{@code x/1} is replaced by {@code x}. {@code x+0}, {@code 0+x},
+ * {@code x-0}, {@code x*1}, and {@code 1*x} are replaced by {@code x} only
+ * if {@code x} can never be {@code -0}: Since
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Add}
+ * ,
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Sub}
+ * , and
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Mul}
+ * compute integer values in {@code long} arithmetic, they return
+ * {@code 0} for {@code x=-0}, and the sign of a zero matters, e.g., in a
+ * division.</li>
+ * </ol>
+ * <p>
+ * Rewrites which are not exact in floating point arithmetic, such as
+ * replacing {@code sqr(sqrt(x))} with {@code x}, are not performed.
+ * Nested additions are not flattened into
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Add3}
+ * or
+ * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Add4}
+ * either, since these compute a differently rounded sum and return
+ * {@code NaN} instead of an infinity if an intermediate sum overflows.
+ * </p>
+ */
+final class _FunctionOptimizer {
+
+  /** the forbidden constructor */
+  private _FunctionOptimizer() {
+    ErrorUtils.doNotCall();
+  }
+
+  /**
+   * Check whether a function is a constant with exactly the given value
+   * in all numerical types
+   *
+   * @param function
+   *          the function
+   * @param value
+   *          the value
+   * @return {@code true} if {@code function} is a constant of the given
+   *         value, {@code false} otherwise
+   */
+  private static final boolean __isConstant(
+      final MathematicalFunction function, final int value) {
+    final Number constant;
+
+    constant = _FunctionCompiler._constant(function);
+    return ((constant != null) && //
+        (constant.byteValue() == value) && //
+        (constant.shortValue() == value) && //
+        (constant.intValue() == value) && //
+        (constant.longValue() == value) && //
+        (constant.floatValue() == value) && //
+        (constant.doubleValue() == value));
+  }
+
+  /**
+   * Check whether a function can never return {@code -0}, i.e., whether it
+   * is a constant which is not {@code -0}, or an
+   * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Add
+   * addition},
+   * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Sub
+   * subtraction}, or
+   * {@link org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute
+   * absolute value} of the parameters or of other functions.
+   *
+   * @param function
+   *          the function
+   * @return {@code true} if {@code function} never returns {@code -0},
+   *         {@code false} if it may
+   */
+  private static final boolean __isNeverNegativeZero(
+      final MathematicalFunction function) {
+    final Number constant;
+    final MathematicalFunction[] compound;
+    final MathematicalFunction result;
+
+    constant = _FunctionCompiler._constant(function);
+    if (constant != null) {
+      return ((Double.compare(constant.doubleValue(), -0d) != 0) && //
+          (Float.compare(constant.floatValue(), -0f) != 0));
+    }
+    compound = _FunctionCompiler._compound(function);
+    result = ((compound != null) ? compound[0] : function);
+    return ((result instanceof Add) || (result instanceof Sub) || //
+        (result instanceof Absolute));
+  }
+
+  /**
+   * Check whether a function applied to the given arguments computes
+   * exactly the given result in all numerical types
+   *
+   * @param function
+   *          the function
+   * @param x
+   *          the arguments
+   * @param y
+   *          the result
+   * @return {@code true} if the results are the same for all numerical
+   *         types, {@code false} otherwise
+   */
+  private static final boolean __matches(
+      final MathematicalFunction function, final Number[] x,
+      final Number y) {
+    final UnaryFunction unary;
+    final BinaryFunction binary;
+    final TernaryFunction ternary;
+    final QuaternaryFunction quaternary;
+
+    if (function instanceof UnaryFunction) {
+      unary = ((UnaryFunction) function);
+      return ((unary.computeAsByte(x[0].byteValue()) == y.byteValue())
+          && (unary.computeAsShort(x[0].shortValue()) == y.shortValue())
+          && (unary.computeAsInt(x[0].intValue()) == y.intValue())
+          && (unary.computeAsLong(x[0].longValue()) == y.longValue())
+          && (Float.compare(unary.computeAsFloat(x[0].floatValue()),
+              y.floatValue()) == 0)
+          && (Double.compare(unary.computeAsDouble(x[0].doubleValue()),
+              y.doubleValue()) == 0));
+    }
+
+    if (function instanceof BinaryFunction) {
+      binary = ((BinaryFunction) function);
+      return ((binary.computeAsByte(x[0].byteValue(),
+          x[1].byteValue()) == y.byteValue())
+          && (binary.computeAsShort(x[0].shortValue(),
+              x[1].shortValue()) == y.shortValue())
+          && (binary.computeAsInt(x[0].intValue(),
+              x[1].intValue()) == y.intValue())
+          && (binary.computeAsLong(x[0].longValue(),
+              x[1].longValue()) == y.longValue())
+          && (Float.compare(binary.computeAsFloat(x[0].floatValue(),
+              x[1].floatValue()), y.floatValue()) == 0)
+          && (Double.compare(binary.computeAsDouble(x[0].doubleValue(),
+              x[1].doubleValue()), y.doubleValue()) == 0));
+    }
+
+    if (function instanceof TernaryFunction) {
+      ternary = ((TernaryFunction) function);
+      return ((ternary.computeAsByte(x[0].byteValue(), x[1].byteValue(),
+          x[2].byteValue()) == y.byteValue())
+          && (ternary.computeAsShort(x[0].shortValue(),
+              x[1].shortValue(), x[2].shortValue()) == y.shortValue())
+          && (ternary.computeAsInt(x[0].intValue(), x[1].intValue(),
+              x[2].intValue()) == y.intValue())
+          && (ternary.computeAsLong(x[0].longValue(), x[1].longValue(),
+              x[2].longValue()) == y.longValue())
+          && (Float.compare(ternary.computeAsFloat(x[0].floatValue(),
+              x[1].floatValue(), x[2].floatValue()), y.floatValue()) == 0)
+          && (Double.compare(ternary.computeAsDouble(x[0].doubleValue(),
+              x[1].doubleValue(), x[2].doubleValue()),
+              y.doubleValue()) == 0));
+    }
+
+    quaternary = ((QuaternaryFunction) function);
+    return ((quaternary.computeAsByte(x[0].byteValue(), x[1].byteValue(),
+        x[2].byteValue(), x[3].byteValue()) == y.byteValue())
+        && (quaternary.computeAsShort(x[0].shortValue(),
+            x[1].shortValue(), x[2].shortValue(),
+            x[3].shortValue()) == y.shortValue())
+        && (quaternary.computeAsInt(x[0].intValue(), x[1].intValue(),
+            x[2].intValue(), x[3].intValue()) == y.intValue())
+        && (quaternary.computeAsLong(x[0].longValue(), x[1].longValue(),
+            x[2].longValue(), x[3].longValue()) == y.longValue())
+        && (Float.compare(quaternary.computeAsFloat(x[0].floatValue(),
+            x[1].floatValue(), x[2].floatValue(), x[3].floatValue()),
+            y.floatValue()) == 0)
+        && (Double.compare(quaternary.computeAsDouble(x[0].doubleValue(),
+            x[1].doubleValue(), x[2].doubleValue(), x[3].doubleValue()),
+            y.doubleValue()) == 0));
+  }
+
+  /**
+   * Compute the {@code double} result of a function applied to the given
+   * arguments
+   *
+   * @param function
+   *          the function
+   * @param x
+   *          the arguments
+   * @return the result
+   */
+  private static final double __computeAsDouble(
+      final MathematicalFunction function, final Number[] x) {
+    if (function instanceof UnaryFunction) {
+      return ((UnaryFunction) function).computeAsDouble(//
+          x[0].doubleValue());
+    }
+    if (function instanceof BinaryFunction) {
+      return ((BinaryFunction) function).computeAsDouble(//
+          x[0].doubleValue(), x[1].doubleValue());
+    }
+    if (function instanceof TernaryFunction) {
+      return ((TernaryFunction) function).computeAsDouble(//
+          x[0].doubleValue(), x[1].doubleValue(), x[2].doubleValue());
+    }
+    return ((QuaternaryFunction) function).computeAsDouble(//
+        x[0].doubleValue(), x[1].doubleValue(), x[2].doubleValue(),
+        x[3].doubleValue());
+  }
+
+  /**
+   * Try to replace a function applied to constants with a constant
+   *
+   * @param builder
+   *          the function builder
+   * @param result
+   *          the function
+   * @param children
+   *          the arguments of the function
+   * @return the constant, or {@code null} if not all arguments are
+   *         constants or if there is no constant which yields the same
+   *         results as the function for all numerical types
+   * @param <T>
+   *          the function type
+   */
+  private static final <T extends MathematicalFunction> T __fold(
+      final FunctionBuilder<T> builder, final MathematicalFunction result,
+      final ArrayList<T> children) {
+    final Number[] values;
+    final T constant;
+    int index;
+
+    values = new Number[children.size()];
+    for (index = values.length; (--index) >= 0;) {
+      values[index] = _FunctionCompiler._constant(children.get(index));
+      if (values[index] == null) {
+        return null;
+      }
+    }
+
+    try {
+      constant = builder.constant(//
+          _FunctionOptimizer.__computeAsDouble(result, values));
+      if (_FunctionOptimizer.__matches(result, values,
+          _FunctionCompiler._constant(constant))) {
+        return constant;
+      }
+    } catch (final RuntimeException error) {
+      // the function cannot be computed for some numerical type, e.g.,
+      // an integer division by zero, so we keep it
+    }
+    return null;
+  }
+
+  /**
+   * Optimize a function
+   *
+   * @param builder
+   *          the function builder
+   * @param function
+   *          the function
+   * @return the optimized function, or {@code function} if it cannot be
+   *         optimized
+   * @param <T>
+   *          the function type
+   */
+  @SuppressWarnings("unchecked")
+  static final <T extends MathematicalFunction> T _optimize(
+      final FunctionBuilder<T> builder, final T function) {
+    final MathematicalFunction[] compound;
+    final MathematicalFunction result;
+    final ArrayList<T> children;
+    boolean changed;
+    T child;
+    int index;
+
+    compound = _FunctionCompiler._compound(function);
+    if (compound == null) {
+      return function;
+    }
+
+    result = compound[0];
+    children = new ArrayList<>(compound.length - 1);
+    changed = false;
+    for (index = 1; index < compound.length; index++) {
+      child = _FunctionOptimizer._optimize(builder, //
+          ((T) (compound[index])));
+      changed |= (child != compound[index]);
+      children.add(child);
+    }
+
+    child = _FunctionOptimizer.__fold(builder, result, children);
+    if (child != null) {
+      return child;
+    }
+
+    if ((result instanceof Add) || (result instanceof Sub)) {
+      if (_FunctionOptimizer.__isConstant(children.get(1), 0)
+          && _FunctionOptimizer.__isNeverNegativeZero(children.get(0))) {
+        return children.get(0);
+      }
+      if (result instanceof Add) {
+        if (_FunctionOptimizer.__isConstant(children.get(0), 0)
+            && _FunctionOptimizer.__isNeverNegativeZero(children.get(1))) {
+          return children.get(1);
+        }
+      }
+    } else {
+      if (result instanceof Mul) {
+        if (_FunctionOptimizer.__isConstant(children.get(1), 1)
+            && _FunctionOptimizer.__isNeverNegativeZero(children.get(0))) {
+          return children.get(0);
+        }
+        if (_FunctionOptimizer.__isConstant(children.get(0), 1)
+            && _FunctionOptimizer.__isNeverNegativeZero(children.get(1))) {
+          return children.get(1);
+        }
+      } else {
+        if (result instanceof Div) {
+          if (_FunctionOptimizer.__isConstant(children.get(1), 1)) {
+            return children.get(0);
+          }
+        }
+      }
+    }
+
+    return (changed ? builder.compound(result, children) : function);
+  }
+}
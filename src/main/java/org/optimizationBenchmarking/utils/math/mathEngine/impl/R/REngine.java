@@ -3,11 +3,24 @@ package org.optimizationBenchmarking.utils.math.mathEngine.impl.R;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.optimizationBenchmarking.utils.io.paths.PathUtils;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
 import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngineBatch;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
 import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
 import org.optimizationBenchmarking.utils.parsers.LooseBooleanParser;
@@ -36,8 +49,38 @@ public final class REngine extends MathEngine {
   /** the {@code true} */
   private static final String TRUE = "TRUE"; //$NON-NLS-1$
 
-  /** the function to print a matrix */
-  private static final String PRINT_FUNCTION_NAME = "safePrintMatrix";//$NON-NLS-1$
+  /**
+   * the function to transfer a matrix either in binary form via a file
+   * created by {@code R} or as text
+   */
+  private static final String TRANSFER_FUNCTION_NAME = "safeTransferMatrix";//$NON-NLS-1$
+
+  /**
+   * the minimum number of elements of a matrix for which we use binary
+   * transfer via a temporary file instead of text transfer via the
+   * standard streams
+   */
+  private static final int BINARY_TRANSFER_THRESHOLD = 1024;
+
+  /** the size of the buffer used for binary transfer */
+  private static final int BINARY_BUFFER_SIZE = 65536;
+
+  /**
+   * the header line sent by {@code R} if a matrix is transferred as text
+   */
+  private static final String TEXT_TRANSFER = "t"; //$NON-NLS-1$
+
+  /**
+   * the directory for the binary transfer files, preferably a file system
+   * in memory
+   */
+  private static final Path TRANSFER_DIR = REngine.__transferDir();
+
+  /**
+   * the maximum number of values requested in a batch which we do not
+   * read before writing further commands
+   */
+  static final int MAX_PENDING_REQUESTS = 256;
 
   /** the engine ID */
   private static final AtomicLong ENGINE_ID = new AtomicLong();
@@ -51,6 +94,9 @@ public final class REngine extends MathEngine {
   /** have we been closed? */
   private boolean m_closed;
 
+  /** the counter for synchronization markers */
+  private long m_sync;
+
   /**
    * create
    *
@@ -89,6 +135,78 @@ public final class REngine extends MathEngine {
     }
   }
 
+  /**
+   * Synchronize with {@code R}: We ask {@code R} to print a unique marker
+   * and skip all output until we find it. This makes sure that all
+   * previous commands have been processed and that no stale output is
+   * left in the stream.
+   *
+   * @throws IOException
+   *           if i/o fails or the process has terminated
+   */
+  @SuppressWarnings("resource")
+  private final void __synchronize() throws IOException {
+    final BufferedWriter out;
+    final BufferedReader in;
+    final String marker;
+    String line;
+
+    marker = ("sync" + (++this.m_sync)); //$NON-NLS-1$
+    out = this.m_process.getStdIn();
+    out.write("cat('"); //$NON-NLS-1$
+    out.write(marker);
+    out.write("\\n');"); //$NON-NLS-1$
+    out.newLine();
+    out.flush();
+
+    in = this.m_process.getStdOut();
+    for (;;) {
+      line = in.readLine();
+      if (line == null) {
+        throw new IOException(((//
+        "Prematurely reached end of output stream of the REngine ") //$NON-NLS-1$
+            + this.m_id) + '.');
+      }
+      if (marker.equals(line.trim())) {
+        return;
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final boolean isAlive() {
+    if (this.m_closed || (this.m_process == null)) {
+      return false;
+    }
+    try {
+      this.__synchronize();
+      return true;
+    } catch (final Throwable error) {
+      return false;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings("resource")
+  @Override
+  protected final boolean resetSession() {
+    final BufferedWriter out;
+
+    if (this.m_closed || (this.m_process == null)) {
+      return false;
+    }
+    try {
+      out = this.m_process.getStdIn();
+      out.write("safeResetWorkspace();"); //$NON-NLS-1$
+      out.newLine();
+      this.__synchronize();
+      return true;
+    } catch (final Throwable error) {
+      return false;
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void close() {
@@ -168,29 +286,92 @@ public final class REngine extends MathEngine {
   }
 
   /** {@inheritDoc} */
-  @SuppressWarnings("resource")
   @Override
   public final IMatrix getMatrix(final String variable) {
-    final BufferedWriter out;
-    final BufferedReader in;
-    int m, n;
-    String line, token;
-    MatrixBuilder mb;
-    int i, j, index, last;
+    Path file;
+    String header;
 
     this.__checkState();
-    line = null;
-    i = j = m = n = -1;
+    this.__requestMatrix(variable);
+    header = null;
+    file = null;
+    try {
+      header = this.__nextLine().trim();
+      if (REngine.TEXT_TRANSFER.equals(header)) {
+        return this.__readTextMatrix(variable);
+      }
+      // only matrices above the threshold are sent via a file, which R
+      // creates and we delete
+      file = Paths.get(this.__nextLine().trim());
+      return this.__readBinaryMatrix(header, file);
+    } catch (final IllegalStateException ise) {
+      throw ise;
+    } catch (final Throwable error) {
+      throw new IllegalStateException((((((((//
+      "Error while reading the binary matrix " + variable) //$NON-NLS-1$
+          + " from R Engine ") //$NON-NLS-1$
+          + this.m_id) + ", encountered header '")//$NON-NLS-1$
+          + header) + '\'') + '.'), error);
+    } finally {
+      if (file != null) {
+        REngine.__deleteTransferFile(file);
+      }
+    }
+  }
+
+  /**
+   * Ask {@code R} to send a matrix, either as text or, if it has enough
+   * elements, via a binary file which {@code R} creates in the
+   * {@link #TRANSFER_DIR transfer directory}.
+   *
+   * @param variable
+   *          the variable
+   */
+  @SuppressWarnings("resource")
+  private final void __requestMatrix(final String variable) {
+    final BufferedWriter out;
+
     try {
       out = this.m_process.getStdIn();
-      out.write(REngine.PRINT_FUNCTION_NAME);
+      out.write(REngine.TRANSFER_FUNCTION_NAME);
       out.write('(');
       out.write(variable);
+      out.write(',');
+      out.write('"');
+      out.write(REngine.__rPath(REngine.TRANSFER_DIR));
+      out.write('"');
+      out.write(',');
+      out.write(Integer.toString(REngine.BINARY_TRANSFER_THRESHOLD));
       out.write(')');
       out.write(';');
       out.newLine();
       out.flush();
+    } catch (final Throwable error) {
+      throw new IllegalStateException(((((//
+      "Error while requesting matrix " + variable) + //$NON-NLS-1$
+          " from R Engine ") //$NON-NLS-1$
+          + this.m_id) + '.'), error);
+    }
+  }
 
+  /**
+   * Read a matrix which {@code R} sends as text.
+   *
+   * @param variable
+   *          the variable
+   * @return the matrix
+   */
+  @SuppressWarnings("resource")
+  private final IMatrix __readTextMatrix(final String variable) {
+    final BufferedReader in;
+    int m, n;
+    String line, token;
+    MatrixBuilder mb;
+    int i, j, index, last;
+
+    line = null;
+    i = j = m = n = -1;
+    try {
       mb = new MatrixBuilder(EPrimitiveType.BYTE);
 
       line = this.__nextLine();
@@ -257,6 +438,109 @@ public final class REngine extends MathEngine {
     }
   }
 
+  /**
+   * Read a matrix which {@code R} has written to a binary file in
+   * column-major order.
+   *
+   * @param header
+   *          the header line sent by {@code R}, consisting of the element
+   *          type ({@code i} for {@code int}s, {@code d} for
+   *          {@code double}s), the number of rows, and the number of
+   *          columns
+   * @param file
+   *          the file
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails
+   */
+  private final IMatrix __readBinaryMatrix(final String header,
+      final Path file) throws IOException {
+    final String[] tokens;
+    final boolean ints;
+    final int m, n;
+    final long size;
+    final ByteBuffer buffer;
+    final MatrixBuilder mb;
+    final int[] intData;
+    final double[] doubleData;
+    double value;
+    int i, j, index;
+
+    tokens = header.split(" "); //$NON-NLS-1$
+    if (tokens.length != 3) {
+      throw new IOException(//
+          "Binary matrix header must consist of three tokens."); //$NON-NLS-1$
+    }
+    ints = "i".equals(tokens[0]); //$NON-NLS-1$
+    if ((!ints) && (!("d".equals(tokens[0])))) { //$NON-NLS-1$
+      throw new IOException(//
+          "Binary matrix element type must be either 'i' or 'd'."); //$NON-NLS-1$
+    }
+    m = Integer.parseInt(tokens[1]);
+    n = Integer.parseInt(tokens[2]);
+    if ((m < 0) || (n < 0)) {
+      throw new IOException(//
+          "Binary matrix dimensions must not be negative."); //$NON-NLS-1$
+    }
+    size = (((long) m) * n);
+    if (size > (Integer.MAX_VALUE - 8)) {
+      throw new IOException(((((//
+      "A " + m) + 'x') + n) + //$NON-NLS-1$
+          " matrix has too many elements to be stored in an array.")); //$NON-NLS-1$
+    }
+
+    buffer = ByteBuffer.allocateDirect(REngine.BINARY_BUFFER_SIZE);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.flip();
+
+    if (ints) {
+      intData = new int[(int) size];
+      doubleData = null;
+    } else {
+      intData = null;
+      doubleData = new double[(int) size];
+    }
+
+    try (final FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ)) {
+      if (ints) {
+        for (index = 0; index < size; index++) {
+          if (buffer.remaining() < 4) {
+            REngine.__fill(buffer, channel, 4);
+          }
+          intData[index] = buffer.getInt();
+        }
+      } else {
+        for (index = 0; index < size; index++) {
+          if (buffer.remaining() < 8) {
+            REngine.__fill(buffer, channel, 8);
+          }
+          doubleData[index] = buffer.getDouble();
+        }
+      }
+    }
+
+    // the data is column-major, the matrix builder expects rows
+    mb = new MatrixBuilder(EPrimitiveType.BYTE, ((int) size));
+    mb.setM(m);
+    mb.setN(n);
+    for (i = 0; i < m; i++) {
+      for (j = 0, index = i; j < n; j++, index += m) {
+        if (ints) {
+          mb.append(intData[index]);
+        } else {
+          value = doubleData[index];
+          if (NumericalTypes.isLong(value)) {
+            mb.append((long) value);
+          } else {
+            mb.append(value);
+          }
+        }
+      }
+    }
+    return mb.make();
+  }
+
   /**
    * issue a command to get a scalar
    *
@@ -296,9 +580,19 @@ public final class REngine extends MathEngine {
   /** {@inheritDoc} */
   @Override
   public final double getDouble(final String variable) {
-    final String token;
+    return this.__toDouble(variable, this.__getScalar(variable));
+  }
 
-    token = this.__getScalar(variable);
+  /**
+   * Convert a token read from {@code R} to a {@code double}
+   *
+   * @param variable
+   *          the variable
+   * @param token
+   *          the token
+   * @return the {@code double}
+   */
+  final double __toDouble(final String variable, final String token) {
     if (REngine.NAN.equalsIgnoreCase(token)) {
       return Double.NaN;
     }
@@ -326,12 +620,22 @@ public final class REngine extends MathEngine {
   }
 
   /** {@inheritDoc} */
-  @SuppressWarnings("unused")
   @Override
   public final long getLong(final String variable) {
-    final String token;
+    return this.__toLong(variable, this.__getScalar(variable));
+  }
 
-    token = this.__getScalar(variable);
+  /**
+   * Convert a token read from {@code R} to a {@code long}
+   *
+   * @param variable
+   *          the variable
+   * @param token
+   *          the token
+   * @return the {@code long}
+   */
+  @SuppressWarnings("unused")
+  final long __toLong(final String variable, final String token) {
     if (REngine.TRUE.equalsIgnoreCase(token)) {
       return 1L;
     }
@@ -357,9 +661,19 @@ public final class REngine extends MathEngine {
   /** {@inheritDoc} */
   @Override
   public final boolean getBoolean(final String variable) {
-    final String token;
+    return this.__toBoolean(variable, this.__getScalar(variable));
+  }
 
-    token = this.__getScalar(variable);
+  /**
+   * Convert a token read from {@code R} to a {@code boolean}
+   *
+   * @param variable
+   *          the variable
+   * @param token
+   *          the token
+   * @return the {@code boolean}
+   */
+  final boolean __toBoolean(final String variable, final String token) {
     if (REngine.TRUE.equalsIgnoreCase(token)) {
       return true;
     }
@@ -400,16 +714,21 @@ public final class REngine extends MathEngine {
   }
 
   /**
-   * Finalize an assignment.
+   * Finalize an assignment. Outside of a batch, we block until the
+   * assignment has been completed. Inside a batch, the assignment is only
+   * confirmed when the batch is committed.
    *
    * @param variable
    *          the variable name
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
    * @throws IOException
    *           if i/o fails
    */
   @SuppressWarnings("resource")
-  private final void __assignmentEnd(final String variable)
-      throws IOException {
+  private final void __assignmentEnd(final String variable,
+      final __Batch batch) throws IOException {
     final BufferedWriter out;
     String line;
 
@@ -417,6 +736,10 @@ public final class REngine extends MathEngine {
 
     out.write(';');
     out.newLine();
+    if (batch != null) {
+      batch.m_assigned.add(variable);
+      return;
+    }
     out.flush();
 
     // block until assignment is completed
@@ -459,12 +782,28 @@ public final class REngine extends MathEngine {
   @Override
   public final void setBoolean(final String variable,
       final boolean value) {
+    this.__setBoolean(variable, value, null);
+  }
+
+  /**
+   * Set a boolean variable
+   *
+   * @param variable
+   *          the variable
+   * @param value
+   *          the value
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
+   */
+  final void __setBoolean(final String variable, final boolean value,
+      final __Batch batch) {
     this.__checkState();
     try {
       this.__assignmentBegin(variable);
       this.m_process.getStdIn().write(//
           value ? REngine.TRUE : REngine.FALSE);
-      this.__assignmentEnd(variable);
+      this.__assignmentEnd(variable, batch);
     } catch (final Throwable error) {
       throw new IllegalStateException(((((((//
       "Error while sending boolean " //$NON-NLS-1$
@@ -477,11 +816,27 @@ public final class REngine extends MathEngine {
   /** {@inheritDoc} */
   @Override
   public final void setLong(final String variable, final long value) {
+    this.__setLong(variable, value, null);
+  }
+
+  /**
+   * Set a long variable
+   *
+   * @param variable
+   *          the variable
+   * @param value
+   *          the value
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
+   */
+  final void __setLong(final String variable, final long value,
+      final __Batch batch) {
     this.__checkState();
     try {
       this.__assignmentBegin(variable);
       REngine.__writeLong(value, this.m_process.getStdIn());
-      this.__assignmentEnd(variable);
+      this.__assignmentEnd(variable, batch);
     } catch (final Throwable error) {
       throw new IllegalStateException(((((((//
       "Error while sending long " //$NON-NLS-1$
@@ -543,11 +898,27 @@ public final class REngine extends MathEngine {
   /** {@inheritDoc} */
   @Override
   public final void setDouble(final String variable, final double value) {
+    this.__setDouble(variable, value, null);
+  }
+
+  /**
+   * Set a double variable
+   *
+   * @param variable
+   *          the variable
+   * @param value
+   *          the value
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
+   */
+  final void __setDouble(final String variable, final double value,
+      final __Batch batch) {
     this.__checkState();
     try {
       this.__assignmentBegin(variable);
       REngine.__writeDouble(value, this.m_process.getStdIn());
-      this.__assignmentEnd(variable);
+      this.__assignmentEnd(variable, batch);
     } catch (final Throwable error) {
       throw new IllegalStateException(((((((//
       "Error while sending double " //$NON-NLS-1$
@@ -567,13 +938,17 @@ public final class REngine extends MathEngine {
    * @param isVector
    *          is the value a vector ({@code true}) or a matrix (
    *          {@code false})?
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
    */
   @SuppressWarnings("resource")
-  private final void __setMatrix(final String variable,
-      final IMatrix value, final boolean isVector) {
+  final void __setMatrix(final String variable, final IMatrix value,
+      final boolean isVector, final __Batch batch) {
 
     final BufferedWriter out;
     final int m, n;
+    final Path file;
     int i, j, q;
     boolean first;
 
@@ -594,6 +969,32 @@ public final class REngine extends MathEngine {
           + m) + 'x') + n) + " matrix.");//$NON-NLS-1$
     }
 
+    if ((((long) m) * n) >= REngine.BINARY_TRANSFER_THRESHOLD) {
+      file = REngine.__createTransferFile();
+      if (file != null) {
+        if (batch != null) {
+          // the file must remain until R has read it
+          batch.m_files.add(file);
+        }
+        try {
+          this.__setMatrixBinary(variable, value, file, batch);
+        } catch (final Throwable error) {
+          throw new IllegalStateException(((((((((((//
+          "Error appeared while while sending "//$NON-NLS-1$
+              + m) + 'x') + n) + //
+              " matrix ") + variable) + //$NON-NLS-1$
+              " to R Engine ") //$NON-NLS-1$
+              + this.m_id) + " via binary file ") + file) + '.'), //$NON-NLS-1$
+              error);
+        } finally {
+          if (batch == null) {
+            REngine.__deleteTransferFile(file);
+          }
+        }
+        return;
+      }
+    }
+
     out = this.m_process.getStdIn();
     i = j = (-1);
     try {
@@ -639,7 +1040,7 @@ public final class REngine extends MathEngine {
       out.write(",byrow="); //$NON-NLS-1$
       out.write(REngine.FALSE);
       out.write(')');
-      this.__assignmentEnd(variable);
+      this.__assignmentEnd(variable, batch);
     } catch (final Throwable error) {
       throw new IllegalStateException(((((((((((((//
       "Error appeared while while sending "//$NON-NLS-1$
@@ -651,16 +1052,221 @@ public final class REngine extends MathEngine {
     }
   }
 
+  /**
+   * Set a matrix by writing its elements in column-major order to a
+   * binary file, which is then read by {@code R}. Integer matrices whose
+   * elements all fit into {@code R}'s 32 bit integers are written as
+   * {@code int}s, all other matrices as {@code double}s.
+   *
+   * @param variable
+   *          the variable
+   * @param value
+   *          the value
+   * @param file
+   *          the file
+   * @param batch
+   *          the batch, or {@code null} if the assignment is not part of
+   *          a batch
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("resource")
+  private final void __setMatrixBinary(final String variable,
+      final IMatrix value, final Path file, final __Batch batch)
+      throws IOException {
+    final BufferedWriter out;
+    final ByteBuffer buffer;
+    final boolean ints;
+    final int m, n;
+    int i, j;
+
+    m = value.m();
+    n = value.n();
+
+    ints = value.isIntegerMatrix() && REngine.__fitsInts(value);
+
+    buffer = ByteBuffer.allocateDirect(REngine.BINARY_BUFFER_SIZE);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    try (final FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (j = 0; j < n; j++) {
+        for (i = 0; i < m; i++) {
+          if (buffer.remaining() < 8) {
+            REngine.__flush(buffer, channel);
+          }
+          if (ints) {
+            buffer.putInt((int) (value.getLong(i, j)));
+          } else {
+            buffer.putDouble(value.getDouble(i, j));
+          }
+        }
+      }
+      REngine.__flush(buffer, channel);
+    }
+
+    out = this.m_process.getStdIn();
+    this.__assignmentBegin(variable);
+    out.write("matrix(readBin(\""); //$NON-NLS-1$
+    out.write(REngine.__rPath(file));
+    out.write(ints ? "\",what=\"integer\",size=4" : //$NON-NLS-1$
+        "\",what=\"double\",size=8"); //$NON-NLS-1$
+    out.write(",n="); //$NON-NLS-1$
+    out.write(Long.toString(((long) m) * n));
+    out.write(",endian=\"little\"),nrow=");//$NON-NLS-1$
+    out.write(Integer.toString(m));
+    out.write(",ncol=");//$NON-NLS-1$
+    out.write(Integer.toString(n));
+    out.write(",byrow="); //$NON-NLS-1$
+    out.write(REngine.FALSE);
+    out.write(')');
+    this.__assignmentEnd(variable, batch);
+  }
+
+  /**
+   * Check whether all elements of an integer matrix can be represented as
+   * {@code R} integers, i.e., are in the 32 bit integer range but not
+   * equal to {@link Integer#MIN_VALUE}, which is {@code NA} in {@code R}.
+   *
+   * @param value
+   *          the matrix
+   * @return {@code true} if the matrix can be transferred as {@code int}s
+   */
+  private static final boolean __fitsInts(final IMatrix value) {
+    long element;
+    int i, j;
+
+    for (j = value.n(); (--j) >= 0;) {
+      for (i = value.m(); (--i) >= 0;) {
+        element = value.getLong(i, j);
+        if ((element <= Integer.MIN_VALUE)
+            || (element > Integer.MAX_VALUE)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write the contents of a buffer to a channel and clear the buffer.
+   *
+   * @param buffer
+   *          the buffer
+   * @param channel
+   *          the channel
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __flush(final ByteBuffer buffer,
+      final FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Read more data from a channel into a buffer so that at least the given
+   * number of bytes become available.
+   *
+   * @param buffer
+   *          the buffer, ready for reading
+   * @param channel
+   *          the channel
+   * @param needed
+   *          the number of bytes needed
+   * @throws IOException
+   *           if i/o fails or the end of the channel is reached before
+   *           enough bytes could be read
+   */
+  private static final void __fill(final ByteBuffer buffer,
+      final FileChannel channel, final int needed) throws IOException {
+    buffer.compact();
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    if (buffer.remaining() < needed) {
+      throw new IOException(//
+          "Binary matrix file is shorter than indicated by its header."); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Get the directory for the binary transfer files. We prefer
+   * {@code /dev/shm}, a file system in memory available on many Linux
+   * systems, and use the temporary directory otherwise.
+   *
+   * @return the directory
+   */
+  private static final Path __transferDir() {
+    final Path shm;
+
+    try {
+      shm = Paths.get("/dev/shm"); //$NON-NLS-1$
+      if (Files.isDirectory(shm) && Files.isWritable(shm)) {
+        return shm;
+      }
+    } catch (final Throwable ignore) {
+      // use the temporary directory
+    }
+    return PathUtils.getTempDir();
+  }
+
+  /**
+   * Create a temporary file for binary matrix transfer.
+   *
+   * @return the file, or {@code null} if none could be created, in which
+   *         case we should use text transfer
+   */
+  private static final Path __createTransferFile() {
+    try {
+      return Files.createTempFile(REngine.TRANSFER_DIR, "rEngine", //$NON-NLS-1$
+          ".bin"); //$NON-NLS-1$
+    } catch (final Throwable ignore) {
+      return null;
+    }
+  }
+
+  /**
+   * Delete a temporary file used for binary matrix transfer.
+   *
+   * @param file
+   *          the file
+   */
+  private static final void __deleteTransferFile(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (final Throwable ignore) {
+      file.toFile().deleteOnExit();
+    }
+  }
+
+  /**
+   * Get the path of a file in a form which can be put into an {@code R}
+   * string literal.
+   *
+   * @param file
+   *          the file
+   * @return the path
+   */
+  private static final String __rPath(final Path file) {
+    return file.toAbsolutePath().toString().replace('\\', '/');
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void setMatrix(final String variable, final IMatrix value) {
-    this.__setMatrix(variable, value, false);
+    this.__setMatrix(variable, value, false, null);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void setVector(final String variable, final IMatrix value) {
-    this.__setMatrix(variable, value, true);
+    this.__setMatrix(variable, value, true, null);
   }
 
   /** {@inheritDoc} */
@@ -693,4 +1299,374 @@ public final class REngine extends MathEngine {
           error);
     }
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The commands of a batch are written to {@code R} without waiting for
+   * any response. All requested values are printed by {@code R} on lines
+   * starting with a tag unique to the batch, and the existence of all
+   * assigned variables is checked only once, when the batch is committed.
+   * Hence, the whole batch needs only a single round trip.
+   * </p>
+   */
+  @Override
+  public final IMathEngineBatch batch() {
+    this.__checkState();
+    return new __Batch(this, (("batch" + (++this.m_sync)) + ':')); //$NON-NLS-1$
+  }
+
+  /** a value request in a batch */
+  private static final class __Request {
+
+    /** the variable */
+    final String m_variable;
+
+    /** the type of the value */
+    final EPrimitiveType m_type;
+
+    /** the result */
+    final MathEngineBatch.Result<?> m_result;
+
+    /**
+     * create
+     *
+     * @param variable
+     *          the variable
+     * @param type
+     *          the type of the value
+     * @param result
+     *          the result
+     */
+    __Request(final String variable, final EPrimitiveType type,
+        final MathEngineBatch.Result<?> result) {
+      super();
+      this.m_variable = variable;
+      this.m_type = type;
+      this.m_result = result;
+    }
+  }
+
+  /** a batch of commands for the {@code R} engine */
+  private static final class __Batch extends MathEngineBatch {
+
+    /** the owning engine */
+    private final REngine m_owner;
+
+    /** the tag marking the output lines belonging to this batch */
+    private final String m_tag;
+
+    /** the variables assigned in this batch */
+    final ArrayList<String> m_assigned;
+
+    /** the binary transfer files to be deleted after committing */
+    final ArrayList<Path> m_files;
+
+    /** the value requests */
+    private final ArrayList<__Request> m_requests;
+
+    /** the number of value requests whose results have been delivered */
+    private int m_delivered;
+
+    /**
+     * create
+     *
+     * @param owner
+     *          the owning engine
+     * @param tag
+     *          the tag
+     */
+    __Batch(final REngine owner, final String tag) {
+      super();
+      this.m_owner = owner;
+      this.m_tag = tag;
+      this.m_assigned = new ArrayList<>();
+      this.m_files = new ArrayList<>();
+      this.m_requests = new ArrayList<>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Batch setBoolean(final String variable,
+        final boolean value) {
+      this.checkOpen();
+      this.m_owner.__setBoolean(variable, value, this);
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Batch setLong(final String variable, final long value) {
+      this.checkOpen();
+      this.m_owner.__setLong(variable, value, this);
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Batch setDouble(final String variable,
+        final double value) {
+      this.checkOpen();
+      this.m_owner.__setDouble(variable, value, this);
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Batch setMatrix(final String variable,
+        final IMatrix value) {
+      this.checkOpen();
+      this.m_owner.__setMatrix(variable, value, false, this);
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Batch setVector(final String variable,
+        final IMatrix value) {
+      this.checkOpen();
+      this.m_owner.__setMatrix(variable, value, true, this);
+      return this;
+    }
+
+    /**
+     * Request a value
+     *
+     * @param variable
+     *          the variable
+     * @param type
+     *          the type
+     * @return the result
+     * @param <T>
+     *          the result type
+     */
+    @SuppressWarnings("resource")
+    private final <T> Result<T> __request(final String variable,
+        final EPrimitiveType type) {
+      final BufferedWriter out;
+      final Result<T> result;
+
+      this.checkOpen();
+      this.m_owner.__checkState();
+      try {
+        out = this.m_owner.m_process.getStdIn();
+        out.write("safeBatchValue('"); //$NON-NLS-1$
+        out.write(this.m_tag);
+        out.write("',"); //$NON-NLS-1$
+        out.write(variable);
+        out.write(");"); //$NON-NLS-1$
+        out.newLine();
+      } catch (final Throwable error) {
+        throw new IllegalStateException(((((//
+        "Error while writing request to read value "//$NON-NLS-1$
+            + variable) + " from R Engine ") //$NON-NLS-1$
+            + this.m_owner.m_id) + '.'), error);
+      }
+      result = this.createResult();
+      this.m_requests.add(new __Request(variable, type, result));
+      if ((this.m_requests.size() - this.m_delivered) >= //
+      REngine.MAX_PENDING_REQUESTS) {
+        // read the results so far, so that R does not block on a full
+        // output stream while we are still writing commands
+        try {
+          out.flush();
+          this.__deliver();
+        } catch (final Throwable error) {
+          throw new IllegalStateException((((//
+          "Error while reading values requested in batch from R Engine ")//$NON-NLS-1$
+              + this.m_owner.m_id) + '.'), error);
+        }
+      }
+      return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Boolean> getBoolean(final String variable) {
+      return this.__request(variable, EPrimitiveType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Long> getLong(final String variable) {
+      return this.__request(variable, EPrimitiveType.LONG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Double> getDouble(final String variable) {
+      return this.__request(variable, EPrimitiveType.DOUBLE);
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings("resource")
+    @Override
+    public final __Batch dispose(final String variable) {
+      final BufferedWriter out;
+
+      this.checkOpen();
+      this.m_owner.__checkState();
+      try {
+        out = this.m_owner.m_process.getStdIn();
+        out.write("rm(\"");//$NON-NLS-1$
+        out.write(variable);
+        out.write("\");");//$NON-NLS-1$
+        out.newLine();
+      } catch (final Throwable error) {
+        throw new IllegalStateException((((//
+        "Error while disposing variable in R Engine ") //$NON-NLS-1$
+            + this.m_owner.m_id) + '.'), error);
+      }
+      while (this.m_assigned.remove(variable)) {
+        // remove all assignments of the variable
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings("resource")
+    @Override
+    public final __Batch execute(final Iterable<String> script) {
+      final BufferedWriter out;
+
+      this.checkOpen();
+      this.m_owner.__checkState();
+      try {
+        out = this.m_owner.m_process.getStdIn();
+        out.newLine();
+        for (final String line : script) {
+          out.write(line);
+          out.newLine();
+        }
+        out.newLine();
+      } catch (final Throwable error) {
+        throw new IllegalStateException((((//
+        "Error while execuring script in R Engine ") //$NON-NLS-1$
+            + this.m_owner.m_id) + '.'), error);
+      }
+      return this;
+    }
+
+    /**
+     * Read the next line belonging to this batch.
+     *
+     * @return the line, without the tag
+     * @throws IOException
+     *           if i/o fails
+     */
+    @SuppressWarnings("resource")
+    private final String __nextLine() throws IOException {
+      final BufferedReader in;
+      String line;
+      int index;
+
+      in = this.m_owner.m_process.getStdOut();
+      for (;;) {
+        line = in.readLine();
+        if (line == null) {
+          throw new IOException(((//
+          "Prematurely reached end of output stream of the REngine ") //$NON-NLS-1$
+              + this.m_owner.m_id) + '.');
+        }
+        index = line.indexOf(this.m_tag);
+        if (index >= 0) {
+          return line.substring(index + this.m_tag.length()).trim();
+        }
+      }
+    }
+
+    /**
+     * Read and deliver the results of all value requests which have been
+     * written but not yet delivered.
+     *
+     * @throws IOException
+     *           if i/o fails
+     */
+    @SuppressWarnings("unchecked")
+    private final void __deliver() throws IOException {
+      final int size;
+      __Request request;
+      String token;
+
+      size = this.m_requests.size();
+      for (; this.m_delivered < size; this.m_delivered++) {
+        request = this.m_requests.get(this.m_delivered);
+        token = this.__nextLine();
+        try {
+          switch (request.m_type) {
+            case BOOLEAN: {
+              ((Result<Boolean>) (request.m_result))
+                  .set(Boolean.valueOf(this.m_owner
+                      .__toBoolean(request.m_variable, token)));
+              break;
+            }
+            case LONG: {
+              ((Result<Long>) (request.m_result)).set(Long.valueOf(
+                  this.m_owner.__toLong(request.m_variable, token)));
+              break;
+            }
+            default: {
+              ((Result<Double>) (request.m_result))
+                  .set(Double.valueOf(this.m_owner
+                      .__toDouble(request.m_variable, token)));
+            }
+          }
+        } catch (final Throwable error) {
+          request.m_result.fail(error);
+        }
+      }
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings("resource")
+    @Override
+    protected final void commitCommands() {
+      final BufferedWriter out;
+      String token;
+      boolean first;
+
+      try {
+        this.m_owner.__checkState();
+        try {
+          out = this.m_owner.m_process.getStdIn();
+          out.write("safeBatchCommit('"); //$NON-NLS-1$
+          out.write(this.m_tag);
+          out.write("',c("); //$NON-NLS-1$
+          first = true;
+          for (final String variable : this.m_assigned) {
+            if (first) {
+              first = false;
+            } else {
+              out.write(',');
+            }
+            out.write('"');
+            out.write(variable);
+            out.write('"');
+          }
+          out.write("));"); //$NON-NLS-1$
+          out.newLine();
+          out.flush();
+
+          this.__deliver();
+          token = this.__nextLine();
+        } catch (final Throwable error) {
+          throw new IllegalStateException((((//
+          "Error while committing batch to R Engine ") //$NON-NLS-1$
+              + this.m_owner.m_id) + '.'), error);
+        }
+
+        if (!(token.contains(REngine.TRUE))) {
+          throw new IllegalStateException(((((//
+          "Assignment of at least one of the variables " //$NON-NLS-1$
+              + this.m_assigned) + " in a batch sent to R Engine ") //$NON-NLS-1$
+              + this.m_owner.m_id) + " has failed.")); //$NON-NLS-1$
+        }
+      } finally {
+        for (final Path file : this.m_files) {
+          REngine.__deleteTransferFile(file);
+        }
+        this.m_files.clear();
+      }
+    }
+  }
 }
@@ -3,6 +3,7 @@ package org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr;
 import java.util.logging.Logger;
 
 import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
 import org.optimizationBenchmarking.utils.tools.impl.abstr.ToolJob;
 
 /** The base class for math engines */
@@ -18,4 +19,42 @@ public abstract class MathEngine extends ToolJob implements IMathEngine {
   protected MathEngine(final Logger logger) {
     super(logger);
   }
+
+  /**
+   * Check whether the engine is still alive and responsive. This is used
+   * by the {@link MathEnginePool} before handing out a pooled engine. By
+   * default, we assume the engine is alive.
+   *
+   * @return {@code true} if the engine can be used, {@code false} if it
+   *         has crashed or has been closed
+   */
+  protected boolean isAlive() {
+    return true;
+  }
+
+  /**
+   * Reset the session of this engine by removing all variables, so that
+   * the engine can be handed out again by a {@link MathEnginePool}. By
+   * default, engines cannot be reset and will be closed instead of being
+   * pooled.
+   *
+   * @return {@code true} if the session was reset, {@code false} if this
+   *         is not supported or failed
+   */
+  protected boolean resetSession() {
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * By default, the commands of a batch are carried out immediately, one
+   * by one. Engines which can send several commands together should
+   * override this method.
+   * </p>
+   */
+  @Override
+  public IMathEngineBatch batch() {
+    return new _ImmediateBatch(this);
+  }
 }
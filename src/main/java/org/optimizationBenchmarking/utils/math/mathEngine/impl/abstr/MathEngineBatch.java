@@ -0,0 +1,241 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
+
+/**
+ * The base class for batches of math engine commands. It makes sure that
+ * a batch is committed only once and that all results requested in the
+ * batch are either delivered or failed once the batch has been committed.
+ */
+public abstract class MathEngineBatch implements IMathEngineBatch {
+
+  /** the results requested in this batch */
+  private final ArrayList<Result<?>> m_results;
+
+  /**
+   * has the batch been committed? This is volatile since results may be
+   * queried from other threads.
+   */
+  private volatile boolean m_committed;
+
+  /** create */
+  protected MathEngineBatch() {
+    super();
+    this.m_results = new ArrayList<>();
+  }
+
+  /**
+   * Check that the batch has not yet been committed
+   *
+   * @throws IllegalStateException
+   *           if the batch has already been committed
+   */
+  protected final void checkOpen() {
+    if (this.m_committed) {
+      throw new IllegalStateException(//
+          "Math engine batch has already been committed."); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Create a new result, which must be delivered when the batch is
+   * committed
+   *
+   * @return the result
+   * @param <T>
+   *          the result type
+   */
+  protected final <T> Result<T> createResult() {
+    final Result<T> result;
+
+    result = new Result<>(this);
+    this.m_results.add(result);
+    return result;
+  }
+
+  /**
+   * Send all commands of this batch to the engine, wait until they have
+   * been carried out, and deliver all results.
+   */
+  protected abstract void commitCommands();
+
+  /** {@inheritDoc} */
+  @Override
+  public final void commit() {
+    Throwable failure;
+
+    this.checkOpen();
+    this.m_committed = true;
+
+    failure = null;
+    try {
+      this.commitCommands();
+    } catch (final Throwable error) {
+      failure = error;
+      throw error;
+    } finally {
+      for (final Result<?> result : this.m_results) {
+        result._failIfPending(failure);
+      }
+    }
+  }
+
+  /**
+   * The result of a value request in a batch.
+   *
+   * @param <T>
+   *          the result type
+   */
+  public static final class Result<T> implements Future<T> {
+
+    /** the batch owning this result */
+    private final MathEngineBatch m_owner;
+
+    /** the value */
+    private T m_value;
+
+    /** the error */
+    private Throwable m_error;
+
+    /** is the result available? */
+    private boolean m_done;
+
+    /**
+     * create
+     *
+     * @param owner
+     *          the batch owning this result
+     */
+    Result(final MathEngineBatch owner) {
+      super();
+      this.m_owner = owner;
+    }
+
+    /**
+     * Deliver the value
+     *
+     * @param value
+     *          the value
+     */
+    public synchronized final void set(final T value) {
+      if (!(this.m_done)) {
+        this.m_value = value;
+        this.m_done = true;
+        this.notifyAll();
+      }
+    }
+
+    /**
+     * Fail the result
+     *
+     * @param error
+     *          the error
+     */
+    public synchronized final void fail(final Throwable error) {
+      if (!(this.m_done)) {
+        this.m_error = error;
+        this.m_done = true;
+        this.notifyAll();
+      }
+    }
+
+    /**
+     * Fail the result if it has not yet been delivered
+     *
+     * @param cause
+     *          the cause of the failure, or {@code null} if the batch
+     *          was committed successfully but the result was not
+     *          delivered
+     */
+    final void _failIfPending(final Throwable cause) {
+      this.fail(new IllegalStateException(//
+          "Result was not delivered by math engine batch.", //$NON-NLS-1$
+          cause));
+    }
+
+    /**
+     * Make sure that the batch has been committed: Since a batch is
+     * committed by the thread which created it, waiting for the result
+     * of an uncommitted batch would never end.
+     *
+     * @throws IllegalStateException
+     *           if the result is not available and the batch has not yet
+     *           been committed
+     */
+    private final void __checkCommitted() {
+      if (!(this.m_owner.m_committed)) {
+        throw new IllegalStateException(//
+            "Math engine batch must be committed before its results can be obtained."); //$NON-NLS-1$
+      }
+    }
+
+    /**
+     * Get the value or throw the error
+     *
+     * @return the value
+     * @throws ExecutionException
+     *           if the result has failed
+     */
+    private final T __get() throws ExecutionException {
+      if (this.m_error != null) {
+        throw new ExecutionException(this.m_error);
+      }
+      return this.m_value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean cancel(final boolean mayInterruptIfRunning) {
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isCancelled() {
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized final boolean isDone() {
+      return this.m_done;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized final T get()
+        throws InterruptedException, ExecutionException {
+      while (!(this.m_done)) {
+        this.__checkCommitted();
+        this.wait();
+      }
+      return this.__get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized final T get(final long timeout,
+        final TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      final long end;
+      long remaining;
+
+      end = (System.nanoTime() + unit.toNanos(timeout));
+      while (!(this.m_done)) {
+        this.__checkCommitted();
+        remaining = (end - System.nanoTime());
+        if (remaining <= 0L) {
+          throw new TimeoutException();
+        }
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      }
+      return this.__get();
+    }
+  }
+}
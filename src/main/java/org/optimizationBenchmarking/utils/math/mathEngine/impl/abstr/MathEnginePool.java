@@ -0,0 +1,1299 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineTool;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * <p>
+ * A pool of warm math engines. Starting an engine, such as an {@code R}
+ * process, may take seconds, so creating many short-lived engines is
+ * expensive. A pool keeps up to a given number of engines alive and
+ * {@linkplain #lease() leases} them out. Closing a leased engine does not
+ * close the underlying engine but returns it to the pool, where its
+ * session is {@linkplain MathEngine#resetSession() reset}, i.e., its
+ * variables are wiped.
+ * </p>
+ * <p>
+ * Engines which cannot be reset or for which an operation has failed are
+ * closed instead of being returned to the pool. Before an idle engine is
+ * leased out again, we {@linkplain MathEngine#isAlive() check} whether it
+ * is still alive and start a new engine if it has crashed. Engines which
+ * stay idle for longer than the maximum idle time are closed, either when
+ * the pool is used or by a background task which periodically looks for
+ * such engines.
+ * </p>
+ * <p>
+ * Checking and resetting an engine may require talking to an external
+ * process, which may hang, e.g., if it is stuck in a computation or waits
+ * for further input of a script with unbalanced brackets. Both operations
+ * are therefore carried out on a helper thread and abandoned after a
+ * timeout, in which case the engine is discarded and closed in the
+ * background.
+ * </p>
+ */
+public final class MathEnginePool implements Closeable {
+
+  /** the default maximum idle time in milliseconds: five minutes */
+  public static final long DEFAULT_MAX_IDLE_TIME = 300000L;
+
+  /**
+   * the default timeout for checking and resetting an engine in
+   * milliseconds: thirty seconds
+   */
+  public static final long DEFAULT_CHECK_TIMEOUT = 30000L;
+
+  /**
+   * the minimum delay between two runs of the background task evicting
+   * idle engines, in milliseconds
+   */
+  private static final long MIN_REAPER_DELAY = 1000L;
+
+  /** the tool used to create the engines */
+  private final IMathEngineTool m_tool;
+
+  /** the logger, or {@code null} if none should be used */
+  private final Logger m_logger;
+
+  /** the maximum number of engines */
+  private final int m_maxEngines;
+
+  /** the maximum idle time in nanoseconds */
+  private final long m_maxIdleTime;
+
+  /** the timeout for checking and resetting engines, in milliseconds */
+  private final long m_checkTimeout;
+
+  /** the background task evicting idle engines */
+  private final Future<?> m_reaper;
+
+  /** the idle engines, the most recently returned one comes last */
+  private final ArrayDeque<__Idle> m_idle;
+
+  /**
+   * the number of existing engines, i.e., of idle, leased, and currently
+   * created engines
+   */
+  private int m_engines;
+
+  /** has the pool been closed? */
+  private boolean m_closed;
+
+  /** the number of leases */
+  private long m_leases;
+
+  /** the number of engines created */
+  private long m_creations;
+
+  /** the number of failed engine creations */
+  private long m_creationFailures;
+
+  /** the number of idle engines which were found dead and replaced */
+  private long m_restarts;
+
+  /**
+   * the number of returned engines which were closed because they could
+   * not be reset or an operation had failed
+   */
+  private long m_discards;
+
+  /** the number of engines closed since they were idle for too long */
+  private long m_evictions;
+
+  /**
+   * the number of engines which were discarded because checking or
+   * resetting them took longer than the timeout
+   */
+  private long m_checkTimeouts;
+
+  /** the total time spent waiting for leases, in nanoseconds */
+  private long m_totalLeaseWaitTime;
+
+  /** the longest time spent waiting for a lease, in nanoseconds */
+  private long m_maxLeaseWaitTime;
+
+  /**
+   * Create a math engine pool with the
+   * {@linkplain #DEFAULT_MAX_IDLE_TIME default maximum idle time}
+   *
+   * @param tool
+   *          the tool used to create the engines
+   * @param logger
+   *          the logger, or {@code null} if none should be used
+   * @param maxEngines
+   *          the maximum number of engines
+   */
+  public MathEnginePool(final IMathEngineTool tool, final Logger logger,
+      final int maxEngines) {
+    this(tool, logger, maxEngines, MathEnginePool.DEFAULT_MAX_IDLE_TIME);
+  }
+
+  /**
+   * Create a math engine pool with the
+   * {@linkplain #DEFAULT_CHECK_TIMEOUT default check timeout}
+   *
+   * @param tool
+   *          the tool used to create the engines
+   * @param logger
+   *          the logger, or {@code null} if none should be used
+   * @param maxEngines
+   *          the maximum number of engines
+   * @param maxIdleTime
+   *          the maximum time in milliseconds an engine can stay idle in
+   *          the pool before it is closed
+   */
+  public MathEnginePool(final IMathEngineTool tool, final Logger logger,
+      final int maxEngines, final long maxIdleTime) {
+    this(tool, logger, maxEngines, maxIdleTime,
+        MathEnginePool.DEFAULT_CHECK_TIMEOUT);
+  }
+
+  /**
+   * Create a math engine pool
+   *
+   * @param tool
+   *          the tool used to create the engines
+   * @param logger
+   *          the logger, or {@code null} if none should be used
+   * @param maxEngines
+   *          the maximum number of engines
+   * @param maxIdleTime
+   *          the maximum time in milliseconds an engine can stay idle in
+   *          the pool before it is closed
+   * @param checkTimeout
+   *          the maximum time in milliseconds which checking whether an
+   *          engine is alive or resetting its session may take before the
+   *          engine is discarded
+   */
+  public MathEnginePool(final IMathEngineTool tool, final Logger logger,
+      final int maxEngines, final long maxIdleTime,
+      final long checkTimeout) {
+    super();
+
+    if (tool == null) {
+      throw new IllegalArgumentException(//
+          "Math engine tool cannot be null."); //$NON-NLS-1$
+    }
+    if (maxEngines <= 0) {
+      throw new IllegalArgumentException(//
+          "Maximum number of engines must be positive, but is " //$NON-NLS-1$
+              + maxEngines);
+    }
+    if (maxIdleTime <= 0L) {
+      throw new IllegalArgumentException(//
+          "Maximum idle time must be positive, but is " //$NON-NLS-1$
+              + maxIdleTime);
+    }
+    if (checkTimeout <= 0L) {
+      throw new IllegalArgumentException(//
+          "Check timeout must be positive, but is " //$NON-NLS-1$
+              + checkTimeout);
+    }
+
+    this.m_tool = tool;
+    this.m_logger = logger;
+    this.m_maxEngines = maxEngines;
+    this.m_maxIdleTime = ((maxIdleTime >= (Long.MAX_VALUE / 1000000L))
+        ? Long.MAX_VALUE : (maxIdleTime * 1000000L));
+    this.m_idle = new ArrayDeque<>();
+    this.m_checkTimeout = checkTimeout;
+    this.m_reaper = __Helpers.REAPER.scheduleWithFixedDelay(
+        new __Reaper(this), //
+        Math.max(maxIdleTime, MathEnginePool.MIN_REAPER_DELAY), //
+        Math.max(maxIdleTime, MathEnginePool.MIN_REAPER_DELAY), //
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Check whether the pool is still open
+   *
+   * @throws IllegalStateException
+   *           if the pool has been closed
+   */
+  private final void __checkOpen() {
+    if (this.m_closed) {
+      throw new IllegalStateException(//
+          "Math engine pool has already been closed."); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Remove all engines from the idle list which have been idle for too
+   * long. This method must be called while holding the pool's lock.
+   *
+   * @param now
+   *          the current time in nanoseconds
+   * @param dest
+   *          the list to add the engines to close to, or {@code null} to
+   *          create a new list if needed
+   * @return the list of engines to close, or {@code null} if none
+   */
+  private final ArrayList<IMathEngine> __evict(final long now,
+      final ArrayList<IMathEngine> dest) {
+    ArrayList<IMathEngine> evicted;
+    __Idle idle;
+
+    evicted = dest;
+    while ((idle = this.m_idle.peekFirst()) != null) {
+      if ((now - idle.m_since) <= this.m_maxIdleTime) {
+        break;
+      }
+      this.m_idle.pollFirst();
+      if (evicted == null) {
+        evicted = new ArrayList<>();
+      }
+      evicted.add(idle.m_engine);
+      this.m_engines--;
+      this.m_evictions++;
+    }
+
+    if (evicted != dest) {
+      this.notifyAll();
+    }
+    return evicted;
+  }
+
+  /**
+   * Close an engine, logging any error
+   *
+   * @param engine
+   *          the engine
+   */
+  private final void __close(final IMathEngine engine) {
+    try {
+      engine.close();
+    } catch (final Throwable error) {
+      if ((this.m_logger != null)
+          && (this.m_logger.isLoggable(Level.WARNING))) {
+        this.m_logger.log(Level.WARNING,//
+            ("Error while closing pooled math engine " + engine), //$NON-NLS-1$
+            error);
+      }
+    }
+  }
+
+  /**
+   * Close a list of engines
+   *
+   * @param engines
+   *          the list of engines, or {@code null} if there is nothing to
+   *          close
+   */
+  private final void __close(final ArrayList<IMathEngine> engines) {
+    if (engines != null) {
+      for (final IMathEngine engine : engines) {
+        this.__close(engine);
+      }
+    }
+  }
+
+  /**
+   * Create a new engine. The slot for the engine must already have been
+   * counted in {@link #m_engines} and is released again if the creation
+   * fails.
+   *
+   * @return the engine
+   * @throws IOException
+   *           if the engine could not be created
+   */
+  private final IMathEngine __create() throws IOException {
+    final IMathEngine engine;
+
+    try {
+      engine = this.m_tool.use().setLogger(this.m_logger).create();
+    } catch (final Throwable error) {
+      synchronized (this) {
+        this.m_engines--;
+        this.m_creationFailures++;
+        this.notifyAll();
+      }
+      throw error;
+    }
+
+    synchronized (this) {
+      this.m_creations++;
+    }
+    return engine;
+  }
+
+  /**
+   * Check whether an engine is alive or reset its session. The operation
+   * is carried out on a helper thread. If it does not finish within the
+   * {@linkplain #m_checkTimeout timeout}, the engine is closed in the
+   * background.
+   *
+   * @param engine
+   *          the engine
+   * @param reset
+   *          {@code true} to reset the session of the engine,
+   *          {@code false} to check whether it is alive
+   * @return {@code true} if the engine is alive or its session was reset,
+   *         {@code false} if the check failed, the session could not be
+   *         reset, or the timeout has expired
+   */
+  private final boolean __check(final IMathEngine engine,
+      final boolean reset) {
+    final Future<Boolean> check;
+
+    if (!(engine instanceof MathEngine)) {
+      // only math engines can be reset
+      if (reset) {
+        this.__close(engine);
+        return false;
+      }
+      return true;
+    }
+
+    try {
+      check = __Helpers.HELPERS.submit(//
+          new __Check(((MathEngine) engine), reset));
+    } catch (final Throwable error) {
+      this.__close(engine);
+      return false;
+    }
+
+    try {
+      if (check.get(this.m_checkTimeout, TimeUnit.MILLISECONDS)
+          .booleanValue()) {
+        return true;
+      }
+    } catch (final InterruptedException interrupted) {
+      // the check may still be running, so we cannot close the engine here
+      check.cancel(true);
+      Thread.currentThread().interrupt();
+      this.__closeInBackground(engine);
+      return false;
+    } catch (final TimeoutException timeout) {
+      check.cancel(true);
+      synchronized (this) {
+        this.m_checkTimeouts++;
+      }
+      if ((this.m_logger != null)
+          && (this.m_logger.isLoggable(Level.WARNING))) {
+        this.m_logger.warning(((((//
+        "Pooled math engine " + engine) + //$NON-NLS-1$
+            " did not respond within ") + this.m_checkTimeout) + //$NON-NLS-1$
+            " ms and is discarded.")); //$NON-NLS-1$
+      }
+      this.__closeInBackground(engine);
+      return false;
+    } catch (final Throwable error) {
+      // the check failed
+    }
+    this.__close(engine);
+    return false;
+  }
+
+  /**
+   * Close an engine which did not respond on a helper thread, so that
+   * the caller does not block if closing it hangs as well
+   *
+   * @param engine
+   *          the engine
+   */
+  private final void __closeInBackground(final IMathEngine engine) {
+    try {
+      __Helpers.HELPERS.execute(new __Close(this, engine));
+    } catch (final Throwable error) {
+      if ((this.m_logger != null)
+          && (this.m_logger.isLoggable(Level.WARNING))) {
+        this.m_logger.log(Level.WARNING,//
+            ("Could not close pooled math engine " + engine), //$NON-NLS-1$
+            error);
+      }
+    }
+  }
+
+  /**
+   * Evict the engines which have been idle for too long. This method is
+   * called periodically by a background task, so that idle engines are
+   * closed even if the pool is not used anymore.
+   */
+  final void _reap() {
+    final ArrayList<IMathEngine> evicted;
+
+    synchronized (this) {
+      if (this.m_closed) {
+        return;
+      }
+      evicted = this.__evict(System.nanoTime(), null);
+    }
+    this.__close(evicted);
+  }
+
+  /**
+   * Start engines until the given number of engines exists or the maximum
+   * number of engines is reached, so that they are warm when they are
+   * leased.
+   *
+   * @param count
+   *          the number of engines which should exist
+   * @throws IOException
+   *           if an engine could not be created
+   */
+  public final void warmUp(final int count) throws IOException {
+    IMathEngine engine;
+
+    for (;;) {
+      synchronized (this) {
+        this.__checkOpen();
+        if ((this.m_engines >= count)
+            || (this.m_engines >= this.m_maxEngines)) {
+          return;
+        }
+        this.m_engines++;
+      }
+
+      engine = this.__create();
+
+      synchronized (this) {
+        if (!(this.m_closed)) {
+          this.m_idle.addLast(new __Idle(engine, System.nanoTime()));
+          this.notifyAll();
+          continue;
+        }
+        this.m_engines--;
+      }
+      this.__close(engine);
+      return;
+    }
+  }
+
+  /**
+   * Lease an engine from the pool. If no idle engine is available and
+   * the maximum number of engines has not yet been reached, a new engine
+   * is started. Otherwise, this method waits until an engine is returned.
+   * The engine must be {@linkplain IMathEngine#close() closed} after use,
+   * which returns it to the pool.
+   *
+   * @return the engine
+   * @throws IOException
+   *           if no engine could be created or the calling thread was
+   *           interrupted while waiting
+   */
+  public final IMathEngine lease() throws IOException {
+    final long start;
+    long wait;
+    IMathEngine engine;
+    ArrayList<IMathEngine> evicted;
+
+    start = System.nanoTime();
+    engine = null;
+    evicted = null;
+    try {
+      synchronized (this) {
+        for (;;) {
+          this.__checkOpen();
+          evicted = this.__evict(System.nanoTime(), evicted);
+          if (!(this.m_idle.isEmpty())) {
+            engine = this.m_idle.pollLast().m_engine;
+            break;
+          }
+          if (this.m_engines < this.m_maxEngines) {
+            this.m_engines++;
+            break;
+          }
+          try {
+            this.wait();
+          } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(//
+                "Interrupted while waiting for a math engine."); //$NON-NLS-1$
+          }
+        }
+      }
+    } finally {
+      this.__close(evicted);
+    }
+
+    if ((engine != null) && (!(this.__check(engine, false)))) {
+      // the engine has crashed or hangs and has been closed: replace it,
+      // its slot remains taken
+      engine = null;
+      synchronized (this) {
+        this.m_restarts++;
+      }
+    }
+
+    if (engine == null) {
+      engine = this.__create();
+    }
+
+    wait = (System.nanoTime() - start);
+    synchronized (this) {
+      this.m_leases++;
+      this.m_totalLeaseWaitTime += wait;
+      if (wait > this.m_maxLeaseWaitTime) {
+        this.m_maxLeaseWaitTime = wait;
+      }
+    }
+
+    return new __Lease(this, engine);
+  }
+
+  /**
+   * Return an engine to the pool
+   *
+   * @param engine
+   *          the engine
+   * @param failed
+   *          has an operation on the engine failed?
+   */
+  final void _return(final IMathEngine engine, final boolean failed) {
+    final boolean reuse;
+    boolean pooled;
+    ArrayList<IMathEngine> evicted;
+
+    // if the session cannot be reset, the engine is closed by __check
+    reuse = ((!failed) && this.__check(engine, true));
+    pooled = false;
+    evicted = null;
+    synchronized (this) {
+      if (reuse && (!(this.m_closed))) {
+        this.m_idle.addLast(new __Idle(engine, System.nanoTime()));
+        evicted = this.__evict(System.nanoTime(), null);
+        pooled = true;
+      } else {
+        this.m_engines--;
+        if (!reuse) {
+          this.m_discards++;
+        }
+      }
+      this.notifyAll();
+    }
+
+    if (failed || (reuse && (!pooled))) {
+      this.__close(engine);
+    }
+    this.__close(evicted);
+  }
+
+  /**
+   * Close the pool and all idle engines. Engines which are currently
+   * leased are closed when they are returned.
+   */
+  @Override
+  public final void close() {
+    final ArrayList<IMathEngine> idle;
+
+    synchronized (this) {
+      if (this.m_closed) {
+        return;
+      }
+      this.m_closed = true;
+      this.m_reaper.cancel(false);
+      idle = new ArrayList<>(this.m_idle.size());
+      for (final __Idle engine : this.m_idle) {
+        idle.add(engine.m_engine);
+      }
+      this.m_engines -= idle.size();
+      this.m_idle.clear();
+      this.notifyAll();
+    }
+
+    this.__close(idle);
+  }
+
+  /**
+   * Get the maximum number of engines in this pool
+   *
+   * @return the maximum number of engines in this pool
+   */
+  public final int getMaximumEngines() {
+    return this.m_maxEngines;
+  }
+
+  /**
+   * Get the number of idle engines
+   *
+   * @return the number of idle engines
+   */
+  public synchronized final int getIdleCount() {
+    return this.m_idle.size();
+  }
+
+  /**
+   * Get the number of engines which are currently leased or being
+   * created
+   *
+   * @return the number of engines which are currently leased or being
+   *         created
+   */
+  public synchronized final int getLeasedCount() {
+    return (this.m_engines - this.m_idle.size());
+  }
+
+  /**
+   * Get the total number of leases
+   *
+   * @return the total number of leases
+   */
+  public synchronized final long getLeaseCount() {
+    return this.m_leases;
+  }
+
+  /**
+   * Get the number of engines which have been created
+   *
+   * @return the number of engines which have been created
+   */
+  public synchronized final long getCreationCount() {
+    return this.m_creations;
+  }
+
+  /**
+   * Get the number of failed attempts to create an engine
+   *
+   * @return the number of failed attempts to create an engine
+   */
+  public synchronized final long getCreationFailureCount() {
+    return this.m_creationFailures;
+  }
+
+  /**
+   * Get the number of idle engines which were found to have crashed and
+   * were replaced by new engines
+   *
+   * @return the number of restarted engines
+   */
+  public synchronized final long getRestartCount() {
+    return this.m_restarts;
+  }
+
+  /**
+   * Get the number of returned engines which were closed because they
+   * could not be reset or because an operation on them had failed
+   *
+   * @return the number of discarded engines
+   */
+  public synchronized final long getDiscardCount() {
+    return this.m_discards;
+  }
+
+  /**
+   * Get the number of engines which were closed because they had been
+   * idle for too long
+   *
+   * @return the number of evicted engines
+   */
+  public synchronized final long getEvictionCount() {
+    return this.m_evictions;
+  }
+
+  /**
+   * Get the number of engines which were discarded because checking
+   * whether they are alive or resetting their session took longer than
+   * the timeout
+   *
+   * @return the number of engines discarded due to a timeout
+   */
+  public synchronized final long getCheckTimeoutCount() {
+    return this.m_checkTimeouts;
+  }
+
+  /**
+   * Get the timeout for checking whether an engine is alive and for
+   * resetting its session, in milliseconds
+   *
+   * @return the timeout in milliseconds
+   */
+  public final long getCheckTimeout() {
+    return this.m_checkTimeout;
+  }
+
+  /**
+   * Get the total time spent in {@link #lease()}, including waiting for
+   * and starting engines, in nanoseconds
+   *
+   * @return the total lease wait time in nanoseconds
+   */
+  public synchronized final long getTotalLeaseWaitTime() {
+    return this.m_totalLeaseWaitTime;
+  }
+
+  /**
+   * Get the longest time spent in a single call to {@link #lease()}, in
+   * nanoseconds
+   *
+   * @return the maximum lease wait time in nanoseconds
+   */
+  public synchronized final long getMaximumLeaseWaitTime() {
+    return this.m_maxLeaseWaitTime;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized final String toString() {
+    return (((((((((("MathEnginePool for " + this.m_tool) + //$NON-NLS-1$
+        ": ") + this.getLeasedCount()) + " leased, ") //$NON-NLS-1$ //$NON-NLS-2$
+        + this.m_idle.size()) + " idle, ") + this.m_creations) //$NON-NLS-1$
+        + " created, ") + this.m_leases) + " leases"); //$NON-NLS-1$//$NON-NLS-2$
+  }
+
+  /** an idle engine */
+  private static final class __Idle {
+    /** the engine */
+    final IMathEngine m_engine;
+    /** the time when the engine became idle, in nanoseconds */
+    final long m_since;
+
+    /**
+     * create
+     *
+     * @param engine
+     *          the engine
+     * @param since
+     *          the time when the engine became idle, in nanoseconds
+     */
+    __Idle(final IMathEngine engine, final long since) {
+      super();
+      this.m_engine = engine;
+      this.m_since = since;
+    }
+  }
+
+  /**
+   * The threads used by all pools: The helper threads check, reset, and
+   * close engines, the reaper evicts idle engines. All of them are daemon
+   * threads, so they do not keep the JVM alive.
+   */
+  private static final class __Helpers implements ThreadFactory {
+
+    /** the helper threads */
+    static final ExecutorService HELPERS = Executors
+        .newCachedThreadPool(new __Helpers("MathEnginePool Helper")); //$NON-NLS-1$
+
+    /** the reaper thread */
+    static final ScheduledExecutorService REAPER = Executors
+        .newSingleThreadScheduledExecutor(new __Helpers(
+            "MathEnginePool Reaper")); //$NON-NLS-1$
+
+    /** the thread name */
+    private final String m_name;
+
+    /**
+     * create
+     *
+     * @param name
+     *          the thread name
+     */
+    private __Helpers(final String name) {
+      super();
+      this.m_name = name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Thread newThread(final Runnable r) {
+      final Thread thread;
+
+      thread = new Thread(r, this.m_name);
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /** check whether an engine is alive or reset its session */
+  private static final class __Check implements Callable<Boolean> {
+
+    /** the engine */
+    private final MathEngine m_engine;
+
+    /** should the session be reset? */
+    private final boolean m_reset;
+
+    /**
+     * create
+     *
+     * @param engine
+     *          the engine
+     * @param reset
+     *          should the session be reset?
+     */
+    __Check(final MathEngine engine, final boolean reset) {
+      super();
+      this.m_engine = engine;
+      this.m_reset = reset;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Boolean call() {
+      return Boolean.valueOf(this.m_reset ? this.m_engine.resetSession()
+          : this.m_engine.isAlive());
+    }
+  }
+
+  /** close an engine in the background */
+  private static final class __Close implements Runnable {
+
+    /** the owning pool */
+    private final MathEnginePool m_pool;
+
+    /** the engine */
+    private final IMathEngine m_engine;
+
+    /**
+     * create
+     *
+     * @param pool
+     *          the owning pool
+     * @param engine
+     *          the engine
+     */
+    __Close(final MathEnginePool pool, final IMathEngine engine) {
+      super();
+      this.m_pool = pool;
+      this.m_engine = engine;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void run() {
+      this.m_pool.__close(this.m_engine);
+    }
+  }
+
+  /**
+   * The background task evicting idle engines. It is cancelled when the
+   * pool is closed.
+   */
+  private static final class __Reaper implements Runnable {
+
+    /** the owning pool */
+    private final MathEnginePool m_pool;
+
+    /**
+     * create
+     *
+     * @param pool
+     *          the owning pool
+     */
+    __Reaper(final MathEnginePool pool) {
+      super();
+      this.m_pool = pool;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void run() {
+      try {
+        this.m_pool._reap();
+      } catch (final Throwable error) {
+        // an exception would stop the periodic execution
+      }
+    }
+  }
+
+  /**
+   * A leased engine: All calls are forwarded to the pooled engine.
+   * Closing the lease returns the engine to the pool.
+   */
+  private static final class __Lease extends MathEngine {
+
+    /** the owning pool */
+    private final MathEnginePool m_pool;
+
+    /** the engine, or {@code null} if it has been returned */
+    private IMathEngine m_engine;
+
+    /** has an operation failed? */
+    private boolean m_failed;
+
+    /**
+     * create
+     *
+     * @param pool
+     *          the owning pool
+     * @param engine
+     *          the engine
+     */
+    __Lease(final MathEnginePool pool, final IMathEngine engine) {
+      super(pool.m_logger);
+      this.m_pool = pool;
+      this.m_engine = engine;
+    }
+
+    /**
+     * Get the engine
+     *
+     * @return the engine
+     * @throws IllegalStateException
+     *           if the engine has already been returned to the pool
+     */
+    private final IMathEngine __engine() {
+      if (this.m_engine == null) {
+        throw new IllegalStateException(//
+            "Pooled math engine has already been closed."); //$NON-NLS-1$
+      }
+      return this.m_engine;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(final String variable,
+        final boolean value) {
+      try {
+        this.__engine().setBoolean(variable, value);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(final String variable) {
+      try {
+        return this.__engine().getBoolean(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(final String variable, final long value) {
+      try {
+        this.__engine().setLong(variable, value);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final String variable) {
+      try {
+        return this.__engine().getLong(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(final String variable,
+        final double value) {
+      try {
+        this.__engine().setDouble(variable, value);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final String variable) {
+      try {
+        return this.__engine().getDouble(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setMatrix(final String variable,
+        final IMatrix value) {
+      try {
+        this.__engine().setMatrix(variable, value);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMatrix getMatrix(final String variable) {
+      try {
+        return this.__engine().getMatrix(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setVector(final String variable,
+        final IMatrix value) {
+      try {
+        this.__engine().setVector(variable, value);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMatrix getVector(final String variable) {
+      try {
+        return this.__engine().getVector(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void dispose(final String variable) {
+      try {
+        this.__engine().dispose(variable);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void execute(final Iterable<String> script) {
+      try {
+        this.__engine().execute(script);
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch batch() {
+      try {
+        return new __LeaseBatch(this, this.__engine().batch());
+      } catch (final Throwable error) {
+        this.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** Return the engine to the pool. */
+    @Override
+    public final void close() {
+      final IMathEngine engine;
+
+      engine = this.m_engine;
+      if (engine != null) {
+        this.m_engine = null;
+        this.m_pool._return(engine, this.m_failed);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      final IMathEngine engine;
+
+      engine = this.m_engine;
+      return ("Lease of " + //$NON-NLS-1$
+          ((engine != null) ? engine.toString() : "returned engine")); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * A batch of a leased engine: All calls are forwarded to the batch of
+   * the pooled engine. A failing call marks the lease as failed, so that
+   * the engine is not returned to the pool, and the batch cannot be used
+   * anymore once the lease has been closed, since the engine may then
+   * already be leased to someone else.
+   */
+  private static final class __LeaseBatch implements IMathEngineBatch {
+
+    /** the owning lease */
+    private final __Lease m_lease;
+
+    /** the batch of the pooled engine */
+    private final IMathEngineBatch m_batch;
+
+    /**
+     * create
+     *
+     * @param lease
+     *          the owning lease
+     * @param batch
+     *          the batch of the pooled engine
+     */
+    __LeaseBatch(final __Lease lease, final IMathEngineBatch batch) {
+      super();
+      this.m_lease = lease;
+      this.m_batch = batch;
+    }
+
+    /**
+     * Get the batch
+     *
+     * @return the batch
+     * @throws IllegalStateException
+     *           if the lease has already been closed
+     */
+    private final IMathEngineBatch __batch() {
+      this.m_lease.__engine();
+      return this.m_batch;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch setBoolean(final String variable,
+        final boolean value) {
+      try {
+        this.__batch().setBoolean(variable, value);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Boolean> getBoolean(final String variable) {
+      try {
+        return this.__batch().getBoolean(variable);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch setLong(final String variable,
+        final long value) {
+      try {
+        this.__batch().setLong(variable, value);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Long> getLong(final String variable) {
+      try {
+        return this.__batch().getLong(variable);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch setDouble(final String variable,
+        final double value) {
+      try {
+        this.__batch().setDouble(variable, value);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final Future<Double> getDouble(final String variable) {
+      try {
+        return this.__batch().getDouble(variable);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch setMatrix(final String variable,
+        final IMatrix value) {
+      try {
+        this.__batch().setMatrix(variable, value);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch setVector(final String variable,
+        final IMatrix value) {
+      try {
+        this.__batch().setVector(variable, value);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch dispose(final String variable) {
+      try {
+        this.__batch().dispose(variable);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMathEngineBatch execute(final Iterable<String> script) {
+      try {
+        this.__batch().execute(script);
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void commit() {
+      try {
+        this.__batch().commit();
+      } catch (final Throwable error) {
+        this.m_lease.m_failed = true;
+        throw error;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return ("Batch of " + this.m_lease.toString()); //$NON-NLS-1$
+    }
+  }
+}
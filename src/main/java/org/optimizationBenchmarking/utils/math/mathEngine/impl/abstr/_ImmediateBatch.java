@@ -0,0 +1,127 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr;
+
+import java.util.concurrent.Future;
+
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * A batch which carries out each command immediately. This is the default
+ * for engines which do not support sending commands together.
+ */
+final class _ImmediateBatch extends MathEngineBatch {
+
+  /** the engine */
+  private final IMathEngine m_engine;
+
+  /**
+   * create
+   *
+   * @param engine
+   *          the engine
+   */
+  _ImmediateBatch(final IMathEngine engine) {
+    super();
+    this.m_engine = engine;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch setBoolean(final String variable,
+      final boolean value) {
+    this.checkOpen();
+    this.m_engine.setBoolean(variable, value);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final Future<Boolean> getBoolean(final String variable) {
+    final Result<Boolean> result;
+
+    this.checkOpen();
+    result = this.createResult();
+    result.set(Boolean.valueOf(this.m_engine.getBoolean(variable)));
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch setLong(final String variable,
+      final long value) {
+    this.checkOpen();
+    this.m_engine.setLong(variable, value);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final Future<Long> getLong(final String variable) {
+    final Result<Long> result;
+
+    this.checkOpen();
+    result = this.createResult();
+    result.set(Long.valueOf(this.m_engine.getLong(variable)));
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch setDouble(final String variable,
+      final double value) {
+    this.checkOpen();
+    this.m_engine.setDouble(variable, value);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final Future<Double> getDouble(final String variable) {
+    final Result<Double> result;
+
+    this.checkOpen();
+    result = this.createResult();
+    result.set(Double.valueOf(this.m_engine.getDouble(variable)));
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch setMatrix(final String variable,
+      final IMatrix value) {
+    this.checkOpen();
+    this.m_engine.setMatrix(variable, value);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch setVector(final String variable,
+      final IMatrix value) {
+    this.checkOpen();
+    this.m_engine.setVector(variable, value);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch dispose(final String variable) {
+    this.checkOpen();
+    this.m_engine.dispose(variable);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final _ImmediateBatch execute(final Iterable<String> script) {
+    this.checkOpen();
+    this.m_engine.execute(script);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final void commitCommands() {
+    // nothing to do, all commands have already been carried out
+  }
+}
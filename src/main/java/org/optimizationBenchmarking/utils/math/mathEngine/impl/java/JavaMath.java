@@ -0,0 +1,61 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.java;
+
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngineTool;
+
+/**
+ * <p>
+ * The entry point for the math engine running inside the Java process.
+ * </p>
+ * <p>
+ * Different from {@link org.optimizationBenchmarking.utils.math.mathEngine.impl.R.R
+ * R}, this engine does not need any external program and does not need to
+ * transfer any data between processes: Variables are kept as
+ * {@link org.optimizationBenchmarking.utils.math.matrix.IMatrix matrices}
+ * in memory. In exchange, it can only execute a small subset of scripts,
+ * namely element-wise arithmetic expressions over variables and a few
+ * summary functions, see {@link JavaMathEngine#execute(Iterable)}. It is
+ * always available and can thus also serve as stand-in if {@code R} is
+ * not installed.
+ * </p>
+ */
+public final class JavaMath extends MathEngineTool {
+
+  /** create */
+  JavaMath() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean canUse() {
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final JavaMathEngineBuilder use() {
+    this.checkCanUse();
+    return new JavaMathEngineBuilder();
+  }
+
+  /**
+   * Get the globally shared instance of the Java math engine tool
+   *
+   * @return the globally shared instance of the Java math engine tool
+   */
+  public static final JavaMath getInstance() {
+    return __JavaMathLoader.INSTANCE;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final String toString() {
+    return "Java Math Engine"; //$NON-NLS-1$
+  }
+
+  /** the holder for the shared instance */
+  private static final class __JavaMathLoader {
+    /** the shared instance */
+    static final JavaMath INSTANCE = new JavaMath();
+  }
+}
@@ -0,0 +1,640 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.compound.QuaternaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngine;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StandardDeviationAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.VarianceAggregate;
+import org.optimizationBenchmarking.utils.math.text.CompoundFunctionParser;
+
+/**
+ * A math engine running inside the Java process. All variables are kept
+ * as {@link org.optimizationBenchmarking.utils.math.matrix.IMatrix
+ * matrices} in a map, scalars being {@code 1x1} matrices. Setting and
+ * getting variables hence does not involve any inter-process
+ * communication or text conversion.
+ */
+public final class JavaMathEngine extends MathEngine {
+
+  /** the engine ID */
+  private static final AtomicLong ENGINE_ID = new AtomicLong();
+
+  /** the variables */
+  private final HashMap<String, IMatrix> m_variables;
+
+  /** the id of the engine */
+  private final String m_id;
+
+  /** have we been closed? */
+  private boolean m_closed;
+
+  /**
+   * create
+   *
+   * @param logger
+   *          the logger, or {@code null} if none should be used
+   */
+  JavaMathEngine(final Logger logger) {
+    super(logger);
+
+    this.m_variables = new HashMap<>();
+    this.m_id = (("JavaMathEngine #") + //$NON-NLS-1$
+        Long.toString(JavaMathEngine.ENGINE_ID.incrementAndGet()));
+
+    if ((logger != null) && (logger.isLoggable(Level.INFO))) {
+      logger.info(this.m_id + " successfully started"); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Check the engine's state.
+   *
+   * @throws IllegalStateException
+   *           if the engine has already been closed
+   */
+  private final void __checkState() {
+    if (this.m_closed) {
+      throw new IllegalStateException("Java math engine "//$NON-NLS-1$
+          + this.m_id + //
+          " has already been closed."); //$NON-NLS-1$
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final boolean isAlive() {
+    return (!(this.m_closed));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final boolean resetSession() {
+    if (this.m_closed) {
+      return false;
+    }
+    this.m_variables.clear();
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void close() {
+    this.m_closed = true;
+    this.m_variables.clear();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void dispose(final String variable) {
+    this.__checkState();
+    this.m_variables.remove(variable);
+  }
+
+  /**
+   * Check whether a string is a valid variable name, i.e., starts with a
+   * letter or {@code .} and only contains letters, digits, {@code .}, and
+   * {@code _}.
+   *
+   * @param variable
+   *          the variable name
+   * @return the variable name
+   * @throws IllegalArgumentException
+   *           if the name is invalid
+   */
+  private static final String __checkName(final String variable) {
+    final int length;
+    char ch;
+    int index;
+
+    checkName: {
+      if (variable == null) {
+        break checkName;
+      }
+      length = variable.length();
+      if (length <= 0) {
+        break checkName;
+      }
+      ch = variable.charAt(0);
+      if (!(Character.isLetter(ch) || (ch == '.'))) {
+        break checkName;
+      }
+      for (index = 1; index < length; index++) {
+        ch = variable.charAt(index);
+        if (!(Character.isLetterOrDigit(ch) || (ch == '.')
+            || (ch == '_'))) {
+          break checkName;
+        }
+      }
+      return variable;
+    }
+
+    throw new IllegalArgumentException(//
+        "Invalid variable name '" + variable + '\'' + '.'); //$NON-NLS-1$
+  }
+
+  /**
+   * Store a variable
+   *
+   * @param variable
+   *          the variable
+   * @param value
+   *          the value
+   */
+  private final void __put(final String variable, final IMatrix value) {
+    this.__checkState();
+    this.m_variables.put(JavaMathEngine.__checkName(variable), value);
+  }
+
+  /**
+   * Get a variable
+   *
+   * @param variable
+   *          the variable
+   * @return the value
+   * @throws IllegalArgumentException
+   *           if the variable does not exist
+   */
+  private final IMatrix __get(final String variable) {
+    final IMatrix value;
+
+    this.__checkState();
+    value = this.m_variables.get(variable);
+    if (value == null) {
+      throw new IllegalArgumentException((((//
+      "Variable '" + variable) + //$NON-NLS-1$
+          "' is not defined in ") + this.m_id) + '.'); //$NON-NLS-1$
+    }
+    return value;
+  }
+
+  /**
+   * Get a scalar variable
+   *
+   * @param variable
+   *          the variable
+   * @return the {@code 1x1} matrix holding the value
+   * @throws IllegalStateException
+   *           if the variable is not a scalar
+   */
+  private final IMatrix __getScalar(final String variable) {
+    final IMatrix value;
+
+    value = this.__get(variable);
+    if ((value.m() != 1) || (value.n() != 1)) {
+      throw new IllegalStateException((((((((//
+      "Variable '" + variable) + //$NON-NLS-1$
+          "' in ") + this.m_id) + //$NON-NLS-1$
+          " is a ") + value.m()) + 'x') + value.n()) + //
+          " matrix, not a scalar.");//$NON-NLS-1$
+    }
+    return value;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void setBoolean(final String variable,
+      final boolean value) {
+    this.__put(variable,
+        new LongMatrix1D(new long[] { (value ? 1L : 0L) }, 1, 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean getBoolean(final String variable) {
+    final IMatrix value;
+
+    value = this.__getScalar(variable);
+    if (value.isIntegerMatrix()) {
+      return (value.getLong(0, 0) != 0L);
+    }
+    return (value.getDouble(0, 0) != 0d);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void setLong(final String variable, final long value) {
+    this.__put(variable, new LongMatrix1D(new long[] { value }, 1, 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long getLong(final String variable) {
+    final IMatrix value;
+
+    value = this.__getScalar(variable);
+    if (value.isIntegerMatrix()) {
+      return value.getLong(0, 0);
+    }
+    return ((long) (value.getDouble(0, 0)));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void setDouble(final String variable, final double value) {
+    this.__put(variable,
+        new DoubleMatrix1D(new double[] { value }, 1, 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double getDouble(final String variable) {
+    return this.__getScalar(variable).getDouble(0, 0);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void setMatrix(final String variable, final IMatrix value) {
+    if (value == null) {
+      throw new IllegalArgumentException((((//
+      "Cannot set null matrix " + variable) + //$NON-NLS-1$
+          " in ") //$NON-NLS-1$
+          + this.m_id) + '.');
+    }
+    // matrices are immutable, so we can store them directly
+    this.__put(variable, value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IMatrix getMatrix(final String variable) {
+    return this.__get(variable);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void setVector(final String variable, final IMatrix value) {
+    if ((value != null) && ((value.m() != 1) && (value.n() != 1))) {
+      throw new IllegalArgumentException((((((((//
+      "A vector " + variable) + //$NON-NLS-1$
+          " to be set in ") //$NON-NLS-1$
+          + this.m_id) + //
+          " must be a matrix with either only one row or only one column, but you passed in a ")//$NON-NLS-1$
+          + value.m()) + 'x') + value.n()) + " matrix.");//$NON-NLS-1$
+    }
+    this.setMatrix(variable, value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IMatrix getVector(final String variable) {
+    final IMatrix res;
+
+    res = this.__get(variable);
+    if ((res.n() == 1) || (res.m() == 1)) {
+      return res;
+    }
+    throw new IllegalStateException((((((((//
+    "Error reading vector " + variable) //$NON-NLS-1$
+        + " from ") + this.m_id) + //$NON-NLS-1$
+        ": vector must have either one column or one row, but we encountered a") //$NON-NLS-1$
+        + res.m()) + 'x') + res.n()) + " matrix instead.");//$NON-NLS-1$
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This engine supports a small subset of the {@code R} syntax. Each
+   * line may contain several statements separated by {@code ;}. Lines
+   * starting with {@code #} are comments. A statement can either be
+   * {@code rm(a, b, ...)}, which disposes the given variables, or an
+   * assignment of the form {@code a <- expression} (or
+   * {@code a = expression}), where the expression is either
+   * </p>
+   * <ol>
+   * <li>the name of a variable, which is then copied,</li>
+   * <li>a summary function applied to one variable, i.e., one of
+   * {@code sum}, {@code mean}, {@code min}, {@code max}, {@code var},
+   * {@code sd}, {@code median}, {@code length}, {@code nrow},
+   * {@code ncol}, or {@code t} (transpose), or</li>
+   * <li>an arithmetic expression as understood by the
+   * {@link org.optimizationBenchmarking.utils.math.text.CompoundFunctionParser
+   * compound function parser}, which is applied element-wise. Scalar
+   * variables are treated as constants, and up to four non-scalar
+   * variables of the same dimensions may be used.</li>
+   * </ol>
+   */
+  @Override
+  public final void execute(final Iterable<String> script) {
+    String statement;
+    int lineIndex, start, end;
+
+    this.__checkState();
+    if (script == null) {
+      throw new IllegalArgumentException(//
+          "Script to be executed by " + this.m_id + //$NON-NLS-1$
+              " cannot be null."); //$NON-NLS-1$
+    }
+
+    lineIndex = 0;
+    for (final String line : script) {
+      ++lineIndex;
+      if ((line == null) || line.trim().startsWith("#")) { //$NON-NLS-1$
+        continue;
+      }
+
+      for (start = 0; start <= line.length(); start = (end + 1)) {
+        end = line.indexOf(';', start);
+        if (end < 0) {
+          end = line.length();
+        }
+        statement = line.substring(start, end).trim();
+        if (statement.isEmpty()) {
+          continue;
+        }
+
+        try {
+          this.__executeStatement(statement);
+        } catch (final Throwable error) {
+          throw new IllegalArgumentException(((((((//
+          "Error while executing statement '" + statement) + //$NON-NLS-1$
+              "' in line ") + lineIndex) + //$NON-NLS-1$
+              " of script in ") + this.m_id) + '.'), //$NON-NLS-1$
+              error);
+        }
+      }
+    }
+  }
+
+  /**
+   * Execute a single statement
+   *
+   * @param statement
+   *          the statement
+   */
+  private final void __executeStatement(final String statement) {
+    final int length;
+    String variable;
+    int index, end;
+
+    length = statement.length();
+    if (statement.startsWith("rm(") && //$NON-NLS-1$
+        (statement.charAt(length - 1) == ')')) {
+      for (index = 3; index < length; index = (end + 1)) {
+        end = statement.indexOf(',', index);
+        if (end < 0) {
+          end = (length - 1);
+        }
+        variable = statement.substring(index, end).trim();
+        if ((variable.length() > 1) && (variable.charAt(0) == '"')
+            && (variable.charAt(variable.length() - 1) == '"')) {
+          variable = variable.substring(1, variable.length() - 1);
+        }
+        this.m_variables.remove(variable);
+      }
+      return;
+    }
+
+    index = statement.indexOf("<-"); //$NON-NLS-1$
+    if (index > 0) {
+      end = (index + 2);
+    } else {
+      index = statement.indexOf('=');
+      if ((index <= 0) || ((index + 1) >= length)
+          || (statement.charAt(index + 1) == '=')) {
+        throw new IllegalArgumentException(//
+            "Only assignments and 'rm' are supported."); //$NON-NLS-1$
+      }
+      end = (index + 1);
+    }
+
+    this.__put(statement.substring(0, index).trim(),
+        this.__evaluate(statement.substring(end).trim()));
+  }
+
+  /**
+   * Evaluate an expression
+   *
+   * @param expression
+   *          the expression
+   * @return the result
+   */
+  private final IMatrix __evaluate(final String expression) {
+    final _VariableResolver resolver;
+    final QuaternaryFunction function;
+    final int length, open;
+    IMatrix value;
+
+    value = this.m_variables.get(expression);
+    if (value != null) {
+      return value; // matrices are immutable
+    }
+
+    length = expression.length();
+    open = expression.indexOf('(');
+    if ((open > 0) && (expression.charAt(length - 1) == ')')) {
+      value = this.m_variables
+          .get(expression.substring((open + 1), (length - 1)).trim());
+      if (value != null) {
+        value = JavaMathEngine.__summarize(
+            expression.substring(0, open).trim(), value);
+        if (value != null) {
+          return value;
+        }
+      }
+    }
+
+    resolver = new _VariableResolver(this.m_variables);
+    function = new CompoundFunctionParser<>(
+        QuaternaryFunctionBuilder.getInstance(), resolver)
+            .parseString(expression);
+    return JavaMathEngine.__apply(function, resolver.m_parameters);
+  }
+
+  /**
+   * Apply a summary function to a matrix
+   *
+   * @param function
+   *          the function name
+   * @param matrix
+   *          the matrix
+   * @return the result, or {@code null} if {@code function} is not a
+   *         summary function
+   */
+  private static final IMatrix __summarize(final String function,
+      final IMatrix matrix) {
+    final ScalarAggregate aggregate;
+    int column;
+
+    switch (function) {
+      case "t": { //$NON-NLS-1$
+        return matrix.transpose();
+      }
+      case "length": { //$NON-NLS-1$
+        return new LongMatrix1D(
+            new long[] { (((long) (matrix.m())) * matrix.n()) }, 1, 1);
+      }
+      case "nrow": { //$NON-NLS-1$
+        return new LongMatrix1D(new long[] { matrix.m() }, 1, 1);
+      }
+      case "ncol": { //$NON-NLS-1$
+        return new LongMatrix1D(new long[] { matrix.n() }, 1, 1);
+      }
+      case "sum": { //$NON-NLS-1$
+        aggregate = new StableSum();
+        break;
+      }
+      case "mean": { //$NON-NLS-1$
+        aggregate = new ArithmeticMeanAggregate();
+        break;
+      }
+      case "min": { //$NON-NLS-1$
+        aggregate = new MinimumAggregate();
+        break;
+      }
+      case "max": { //$NON-NLS-1$
+        aggregate = new MaximumAggregate();
+        break;
+      }
+      case "var": { //$NON-NLS-1$
+        aggregate = new VarianceAggregate();
+        break;
+      }
+      case "sd": { //$NON-NLS-1$
+        aggregate = new StandardDeviationAggregate();
+        break;
+      }
+      case "median": { //$NON-NLS-1$
+        aggregate = new QuantileAggregate(0.5d);
+        break;
+      }
+      default: {
+        return null;
+      }
+    }
+
+    for (column = matrix.n(); (--column) >= 0;) {
+      matrix.aggregateColumn(column, aggregate);
+    }
+
+    if (aggregate.isInteger()) {
+      return new LongMatrix1D(new long[] { aggregate.longValue() }, 1, 1);
+    }
+    return new DoubleMatrix1D(new double[] { aggregate.doubleValue() }, 1,
+        1);
+  }
+
+  /**
+   * Apply a function element-wise to the given matrices, which must all
+   * have the same dimensions.
+   *
+   * @param function
+   *          the function
+   * @param parameters
+   *          the parameter matrices
+   * @return the result
+   */
+  private static final IMatrix __apply(final QuaternaryFunction function,
+      final ArrayList<IMatrix> parameters) {
+    final MatrixBuilder builder;
+    final IMatrix x0, x1, x2, x3;
+    final int size;
+    IMatrix parameter;
+    int m, n, i, j;
+    boolean integer;
+
+    size = parameters.size();
+    m = n = 1;
+    integer = function.isLongArithmeticAccurate();
+    for (i = 0; i < size; i++) {
+      parameter = parameters.get(i);
+      if (i <= 0) {
+        m = parameter.m();
+        n = parameter.n();
+      } else {
+        if ((parameter.m() != m) || (parameter.n() != n)) {
+          throw new IllegalArgumentException((((((((//
+          "All non-scalar variables in an expression must have the same dimensions, but we have a " //$NON-NLS-1$
+              + m) + 'x') + n) + " and a ") + parameter.m()) + 'x') //$NON-NLS-1$
+              + parameter.n())
+              + " matrix."); //$NON-NLS-1$
+        }
+      }
+      integer &= parameter.isIntegerMatrix();
+    }
+
+    x0 = ((size > 0) ? parameters.get(0) : null);
+    x1 = ((size > 1) ? parameters.get(1) : null);
+    x2 = ((size > 2) ? parameters.get(2) : null);
+    x3 = ((size > 3) ? parameters.get(3) : null);
+
+    builder = new MatrixBuilder(m * n);
+    builder.setM(m);
+    builder.setN(n);
+    if (integer) {
+      for (i = 0; i < m; i++) {
+        for (j = 0; j < n; j++) {
+          builder.append(function.computeAsLong(//
+              JavaMathEngine.__getLong(x0, i, j), //
+              JavaMathEngine.__getLong(x1, i, j), //
+              JavaMathEngine.__getLong(x2, i, j), //
+              JavaMathEngine.__getLong(x3, i, j)));
+        }
+      }
+    } else {
+      for (i = 0; i < m; i++) {
+        for (j = 0; j < n; j++) {
+          builder.append(function.computeAsDouble(//
+              JavaMathEngine.__getDouble(x0, i, j), //
+              JavaMathEngine.__getDouble(x1, i, j), //
+              JavaMathEngine.__getDouble(x2, i, j), //
+              JavaMathEngine.__getDouble(x3, i, j)));
+        }
+      }
+    }
+    return builder.make();
+  }
+
+  /**
+   * Get a {@code long} element of a parameter matrix
+   *
+   * @param matrix
+   *          the matrix, or {@code null} if the parameter is not used
+   * @param i
+   *          the row
+   * @param j
+   *          the column
+   * @return the element
+   */
+  private static final long __getLong(final IMatrix matrix, final int i,
+      final int j) {
+    return ((matrix != null) ? matrix.getLong(i, j) : 0L);
+  }
+
+  /**
+   * Get a {@code double} element of a parameter matrix
+   *
+   * @param matrix
+   *          the matrix, or {@code null} if the parameter is not used
+   * @param i
+   *          the row
+   * @param j
+   *          the column
+   * @return the element
+   */
+  private static final double __getDouble(final IMatrix matrix,
+      final int i, final int j) {
+    return ((matrix != null) ? matrix.getDouble(i, j) : 0d);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final String toString() {
+    return this.m_id;
+  }
+}
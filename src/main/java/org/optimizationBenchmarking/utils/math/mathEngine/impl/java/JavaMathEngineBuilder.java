@@ -0,0 +1,21 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.java;
+
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngineBuilder;
+
+/**
+ * The builder for a Java math engine.
+ */
+public final class JavaMathEngineBuilder
+    extends MathEngineBuilder<JavaMathEngine, JavaMathEngineBuilder> {
+
+  /** create the Java math engine builder */
+  JavaMathEngineBuilder() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final JavaMathEngine create() {
+    return new JavaMathEngine(this.getLogger());
+  }
+}
@@ -0,0 +1,80 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.java;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.optimizationBenchmarking.utils.math.functions.MathematicalFunction;
+import org.optimizationBenchmarking.utils.math.functions.compound.FunctionBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.text.AbstractNameResolver;
+
+/**
+ * A name resolver which maps the variables of a
+ * {@link JavaMathEngine} to function parameters: Scalar variables become
+ * constants, all other variables become parameters of the function, which
+ * is then applied element-wise.
+ */
+final class _VariableResolver extends AbstractNameResolver {
+
+  /** the variables */
+  private final Map<String, IMatrix> m_variables;
+
+  /** the names of the variables used as parameters */
+  private final ArrayList<String> m_names;
+
+  /** the matrices corresponding to the function parameters */
+  final ArrayList<IMatrix> m_parameters;
+
+  /**
+   * create
+   *
+   * @param variables
+   *          the variables
+   */
+  _VariableResolver(final Map<String, IMatrix> variables) {
+    super();
+    this.m_variables = variables;
+    this.m_names = new ArrayList<>();
+    this.m_parameters = new ArrayList<>();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final MathematicalFunction resolve(final String name,
+      final FunctionBuilder<?> builder) {
+    final IMatrix matrix;
+    final Number number;
+    int index;
+
+    matrix = this.m_variables.get(name);
+    if (matrix != null) {
+      if ((matrix.m() == 1) && (matrix.n() == 1)) {
+        return builder.constant(matrix.isIntegerMatrix()//
+            ? ((Number) (Long.valueOf(matrix.getLong(0, 0))))//
+            : ((Number) (Double.valueOf(matrix.getDouble(0, 0)))));
+      }
+
+      index = this.m_names.indexOf(name);
+      if (index < 0) {
+        index = this.m_names.size();
+        if (index >= builder.getFunctionArity()) {
+          throw new IllegalArgumentException((((//
+          "An expression can refer to at most " //$NON-NLS-1$
+              + builder.getFunctionArity())
+              + " different non-scalar variables, but '") + name) //$NON-NLS-1$
+              + "' is one more.");//$NON-NLS-1$
+        }
+        this.m_names.add(name);
+        this.m_parameters.add(matrix);
+      }
+      return builder.parameter(index);
+    }
+
+    number = AbstractNameResolver.resolveDefaultConstant(name);
+    if (number != null) {
+      return builder.constant(number);
+    }
+
+    return super.resolve(name, builder);
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * A math engine running inside the Java process, which does not need any
+ * external program.
+ */
+package org.optimizationBenchmarking.utils.math.mathEngine.impl.java;
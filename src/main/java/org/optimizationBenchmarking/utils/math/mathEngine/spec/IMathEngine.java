@@ -130,6 +130,18 @@ public interface IMathEngine extends IToolJob, Closeable {
    */
   public abstract void execute(final Iterable<String> script);
 
+  /**
+   * Create a new batch of commands. The commands of a batch are sent to
+   * the engine together and confirmed together when the batch is
+   * {@linkplain IMathEngineBatch#commit() committed}, which can be much
+   * faster than waiting for the confirmation of each single command. The
+   * engine should not be used directly while a batch is not yet
+   * committed.
+   *
+   * @return the new batch
+   */
+  public abstract IMathEngineBatch batch();
+
   /** {@inheritDoc} */
   @Override
   public abstract void close();
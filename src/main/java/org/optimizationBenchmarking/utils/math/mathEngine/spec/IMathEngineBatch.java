@@ -0,0 +1,137 @@
+package org.optimizationBenchmarking.utils.math.mathEngine.spec;
+
+import java.util.concurrent.Future;
+
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * A batch of commands for a {@link IMathEngine math engine}. Instead of
+ * waiting for the engine to confirm each single command, the commands of
+ * a batch can be sent to the engine together and are confirmed together
+ * when the batch is {@link #commit() committed}. The commands are executed
+ * in the order in which they are added. Values read in a batch are
+ * returned as {@link java.util.concurrent.Future futures} which become
+ * available once the batch has been committed. Depending on the engine,
+ * commands may also be carried out immediately, and errors may surface
+ * either when a command is added or when the batch is committed. A batch
+ * can only be committed once.
+ */
+public interface IMathEngineBatch {
+
+  /**
+   * Set a boolean variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @param value
+   *          the variable value
+   * @return this batch
+   */
+  public abstract IMathEngineBatch setBoolean(final String variable,
+      final boolean value);
+
+  /**
+   * Get a boolean variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @return the future which will hold the value after the batch has been
+   *         committed
+   */
+  public abstract Future<Boolean> getBoolean(final String variable);
+
+  /**
+   * Set a long variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @param value
+   *          the variable value
+   * @return this batch
+   */
+  public abstract IMathEngineBatch setLong(final String variable,
+      final long value);
+
+  /**
+   * Get a long variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @return the future which will hold the value after the batch has been
+   *         committed
+   */
+  public abstract Future<Long> getLong(final String variable);
+
+  /**
+   * Set a double variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @param value
+   *          the variable value
+   * @return this batch
+   */
+  public abstract IMathEngineBatch setDouble(final String variable,
+      final double value);
+
+  /**
+   * Get a double variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @return the future which will hold the value after the batch has been
+   *         committed
+   */
+  public abstract Future<Double> getDouble(final String variable);
+
+  /**
+   * Set a matrix variable value.
+   *
+   * @param variable
+   *          the variable name
+   * @param value
+   *          the variable value
+   * @return this batch
+   */
+  public abstract IMathEngineBatch setMatrix(final String variable,
+      final IMatrix value);
+
+  /**
+   * Set a vector variable value. A vector is a matrix consisting either of
+   * only one column or only one row.
+   *
+   * @param variable
+   *          the variable name
+   * @param value
+   *          the variable value
+   * @return this batch
+   */
+  public abstract IMathEngineBatch setVector(final String variable,
+      final IMatrix value);
+
+  /**
+   * Dispose a variable.
+   *
+   * @param variable
+   *          the variable
+   * @return this batch
+   * @see IMathEngine#dispose(String)
+   */
+  public abstract IMathEngineBatch dispose(final String variable);
+
+  /**
+   * Execute the given script.
+   *
+   * @param script
+   *          the script to execute.
+   * @return this batch
+   */
+  public abstract IMathEngineBatch execute(final Iterable<String> script);
+
+  /**
+   * Send all commands of this batch to the engine, wait until they have
+   * been carried out, and make the results of all value requests
+   * available.
+   */
+  public abstract void commit();
+}
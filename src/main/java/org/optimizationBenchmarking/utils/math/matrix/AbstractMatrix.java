@@ -12,6 +12,7 @@ import org.optimizationBenchmarking.utils.math.matrix.impl.IntMatrix1D;
 import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
 import org.optimizationBenchmarking.utils.math.matrix.impl.ShortMatrix1D;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
 import org.optimizationBenchmarking.utils.text.ITextable;
 import org.optimizationBenchmarking.utils.text.TextUtils;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
@@ -20,6 +21,9 @@ import org.optimizationBenchmarking.utils.text.textOutput.MemoryTextOutput;
 /** The base class for matrix implementations. */
 public class AbstractMatrix implements IMatrix, ITextable {
 
+  /** the size of the buffer used for passing values to bulk aggregates */
+  private static final int BULK_BUFFER_SIZE = 1024;
+
   /** create */
   protected AbstractMatrix() {
     super();
@@ -448,10 +452,20 @@ public class AbstractMatrix implements IMatrix, ITextable {
 
       if (this.isIntegerMatrix() || (((n > 1)
           && (this.selectColumns(column).isIntegerMatrix())))) {
+        if (aggregate instanceof IBulkAggregate) {
+          this.__bulkAggregateLongs(column, false, m,
+              ((IBulkAggregate) aggregate));
+          return;
+        }
         for (i = m; (--i) >= 0;) {
           aggregate.append(this.getLong(i, column));
         }
       } else {
+        if (aggregate instanceof IBulkAggregate) {
+          this.__bulkAggregateDoubles(column, false, m,
+              ((IBulkAggregate) aggregate));
+          return;
+        }
         for (i = m; (--i) >= 0;) {
           aggregate.append(this.getDouble(i, column));
         }
@@ -475,10 +489,20 @@ public class AbstractMatrix implements IMatrix, ITextable {
 
       if (this.isIntegerMatrix()
           || ((m > 1) && (this.selectRows(row).isIntegerMatrix()))) {
+        if (aggregate instanceof IBulkAggregate) {
+          this.__bulkAggregateLongs(row, true, n,
+              ((IBulkAggregate) aggregate));
+          return;
+        }
         for (i = n; (--i) >= 0;) {
           aggregate.append(this.getLong(row, i));
         }
       } else {
+        if (aggregate instanceof IBulkAggregate) {
+          this.__bulkAggregateDoubles(row, true, n,
+              ((IBulkAggregate) aggregate));
+          return;
+        }
         for (i = n; (--i) >= 0;) {
           aggregate.append(this.getDouble(row, i));
         }
@@ -486,4 +510,83 @@ public class AbstractMatrix implements IMatrix, ITextable {
     }
   }
 
+  /**
+   * Pass the {@code long} values of a row or column to a bulk aggregate.
+   * The values are copied into a buffer in the same order in which they
+   * would be appended one by one and the buffer is appended whenever it
+   * is full.
+   *
+   * @param index
+   *          the row or column index
+   * @param isRow
+   *          {@code true} if {@code index} is a row, {@code false} if it
+   *          is a column
+   * @param length
+   *          the number of values in the row or column
+   * @param aggregate
+   *          the aggregate
+   */
+  private final void __bulkAggregateLongs(final int index,
+      final boolean isRow, final int length,
+      final IBulkAggregate aggregate) {
+    final long[] buffer;
+    int i, count;
+
+    buffer = new long[Math.min(length, AbstractMatrix.BULK_BUFFER_SIZE)];
+    i = length;
+    while (i > 0) {
+      count = 0;
+      if (isRow) {
+        while ((count < buffer.length) && (i > 0)) {
+          buffer[count++] = this.getLong(index, --i);
+        }
+      } else {
+        while ((count < buffer.length) && (i > 0)) {
+          buffer[count++] = this.getLong(--i, index);
+        }
+      }
+      aggregate.append(buffer, 0, count);
+    }
+  }
+
+  /**
+   * Pass the {@code double} values of a row or column to a bulk
+   * aggregate. The values are copied into a buffer in the same order in
+   * which they would be appended one by one and the buffer is appended
+   * whenever it is full.
+   *
+   * @param index
+   *          the row or column index
+   * @param isRow
+   *          {@code true} if {@code index} is a row, {@code false} if it
+   *          is a column
+   * @param length
+   *          the number of values in the row or column
+   * @param aggregate
+   *          the aggregate
+   */
+  private final void __bulkAggregateDoubles(final int index,
+      final boolean isRow, final int length,
+      final IBulkAggregate aggregate) {
+    final double[] buffer;
+    int i, count;
+
+    buffer = new double[Math.min(length,
+        AbstractMatrix.BULK_BUFFER_SIZE)];
+    i = length;
+    while (i > 0) {
+      count = 0;
+      if (isRow) {
+        while ((count < buffer.length) && (i > 0)) {
+          buffer[count++] = this.getDouble(index, --i);
+        }
+      } else {
+        while ((count < buffer.length) && (i > 0)) {
+          buffer[count++] = this.getDouble(--i, index);
+        }
+      }
+      aggregate.append(buffer, 0, count);
+    }
+  }
+
 }
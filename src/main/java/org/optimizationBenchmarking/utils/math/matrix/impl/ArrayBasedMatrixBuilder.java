@@ -3,12 +3,12 @@ package org.optimizationBenchmarking.utils.math.matrix.impl;
 import org.optimizationBenchmarking.utils.math.BasicNumber;
 import org.optimizationBenchmarking.utils.math.NumericalTypes;
 import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
-import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
 import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
 import org.optimizationBenchmarking.utils.text.TextUtils;
 
 /** A builder for arrays of numerical types. */
-public class ArrayBasedMatrixBuilder implements IAggregate {
+public class ArrayBasedMatrixBuilder implements IBulkAggregate {
 
   /** the default matrix type */
   static final EPrimitiveType DEFAULT_MATRIX_TYPE = EPrimitiveType.INT;
@@ -88,6 +88,24 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
     this(-1);
   }
 
+  /**
+   * create the array-based matrix builder
+   *
+   * @param chunked
+   *          should the values be recorded in fixed-size chunks? In this
+   *          mode, the backing array never needs to be copied when it
+   *          grows or needs a wider type. Instead, the narrowest array
+   *          which can represent all values exactly is created once in
+   *          {@link #make()}. This is faster for large matrices whose
+   *          size and element type are not known in advance.
+   */
+  protected ArrayBasedMatrixBuilder(final boolean chunked) {
+    this();
+    if (chunked) {
+      this.m_array = new _ChunkedArray();
+    }
+  }
+
   /**
    * Is the backing array currently an integer array (i.e., either
    * {@code byte[]}, {@code short[]}, {@code int[]}, or {@code long[]})? If
@@ -337,9 +355,7 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
    *          the series of {@code double}s
    */
   public final void append(final double[] data) {
-    for (final double x : data) {
-      this.append(x);
-    }
+    this.append(data, 0, data.length);
   }
 
   /**
@@ -349,8 +365,48 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
    *          the series of {@code long}s
    */
   public final void append(final long[] data) {
-    for (final long x : data) {
-      this.append(x);
+    this.append(data, 0, data.length);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    final int size;
+    int index;
+
+    size = this.m_size;
+    if ((end - start) > (this.m_maxSize - size)) {
+      // append one by one until the maximum size is reached
+      for (index = start; index < end; index++) {
+        this.append(data[index]);
+      }
+      return;
+    }
+    if (start < end) {
+      this.m_array = this.m_array._append(data, start, end, size);
+      this.m_size = (size + (end - start));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    final int size;
+    int index;
+
+    size = this.m_size;
+    if ((end - start) > (this.m_maxSize - size)) {
+      // append one by one until the maximum size is reached
+      for (index = start; index < end; index++) {
+        this.append(data[index]);
+      }
+      return;
+    }
+    if (start < end) {
+      this.m_array = this.m_array._append(data, start, end, size);
+      this.m_size = (size + (end - start));
     }
   }
 
@@ -423,6 +479,58 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
      */
     abstract _Array _append(double v, final int size);
 
+    /**
+     * add a slice of a {@code long} array
+     *
+     * @param data
+     *          the data
+     * @param start
+     *          the start index
+     * @param end
+     *          the exclusive end index
+     * @param size
+     *          the size
+     * @return an array
+     */
+    _Array _append(final long[] data, final int start, final int end,
+        final int size) {
+      _Array array;
+      int index, currentSize;
+
+      array = this;
+      currentSize = size;
+      for (index = start; index < end; index++) {
+        array = array._append(data[index], currentSize++);
+      }
+      return array;
+    }
+
+    /**
+     * add a slice of a {@code double} array
+     *
+     * @param data
+     *          the data
+     * @param start
+     *          the start index
+     * @param end
+     *          the exclusive end index
+     * @param size
+     *          the size
+     * @return an array
+     */
+    _Array _append(final double[] data, final int start, final int end,
+        final int size) {
+      _Array array;
+      int index, currentSize;
+
+      array = this;
+      currentSize = size;
+      for (index = start; index < end; index++) {
+        array = array._append(data[index], currentSize++);
+      }
+      return array;
+    }
+
     /**
      * make the matrix
      *
@@ -451,6 +559,344 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
     abstract boolean _isInteger();
   }
 
+  /**
+   * The internal chunked array: values are recorded in chunks of fixed
+   * size, so growing the array never copies data. While all values are
+   * integers, they are stored as {@code long}s and their range is
+   * tracked. The first non-integer value converts the chunks to
+   * {@code double}s once. The narrowest array which can represent all
+   * values exactly is only created in {@link #_make(int)}.
+   */
+  private final class _ChunkedArray extends _Array {
+
+    /** the chunk size as power of 2 */
+    private static final int CHUNK_SHIFT = 12;
+    /** the chunk size */
+    private static final int CHUNK_SIZE = (1 << _ChunkedArray.CHUNK_SHIFT);
+    /** the mask for the index inside a chunk */
+    private static final int CHUNK_MASK = (_ChunkedArray.CHUNK_SIZE - 1);
+
+    /** the {@code long} chunks, {@code null} once we store doubles */
+    private long[][] m_longs;
+
+    /** the {@code double} chunks, {@code null} while we store longs */
+    private double[][] m_doubles;
+
+    /** the smallest {@code long} value */
+    private long m_min;
+
+    /** the largest {@code long} value */
+    private long m_max;
+
+    /** can all {@code double} values be represented as {@code float}? */
+    private boolean m_isFloat;
+
+    /** create the array */
+    _ChunkedArray() {
+      this.m_longs = new long[16][];
+      this.m_min = Long.MAX_VALUE;
+      this.m_max = Long.MIN_VALUE;
+      this.m_isFloat = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final void _setMaxSize(final int curSize, final int maxSize) {
+      // nothing to do: chunks are allocated on demand
+    }
+
+    /**
+     * get the {@code long} chunk for the element at the given index
+     *
+     * @param size
+     *          the index
+     * @return the chunk
+     */
+    private final long[] __longChunk(final int size) {
+      final int index;
+      long[][] chunks;
+      long[] chunk;
+
+      index = (size >>> _ChunkedArray.CHUNK_SHIFT);
+      chunks = this.m_longs;
+      if (index >= chunks.length) {
+        chunks = new long[chunks.length << 1][];
+        System.arraycopy(this.m_longs, 0, chunks, 0, index);
+        this.m_longs = chunks;
+      }
+      chunk = chunks[index];
+      if (chunk == null) {
+        chunks[index] = chunk = new long[_ChunkedArray.CHUNK_SIZE];
+      }
+      return chunk;
+    }
+
+    /**
+     * get the {@code double} chunk for the element at the given index
+     *
+     * @param size
+     *          the index
+     * @return the chunk
+     */
+    private final double[] __doubleChunk(final int size) {
+      final int index;
+      double[][] chunks;
+      double[] chunk;
+
+      index = (size >>> _ChunkedArray.CHUNK_SHIFT);
+      chunks = this.m_doubles;
+      if (index >= chunks.length) {
+        chunks = new double[chunks.length << 1][];
+        System.arraycopy(this.m_doubles, 0, chunks, 0, index);
+        this.m_doubles = chunks;
+      }
+      chunk = chunks[index];
+      if (chunk == null) {
+        chunks[index] = chunk = new double[_ChunkedArray.CHUNK_SIZE];
+      }
+      return chunk;
+    }
+
+    /**
+     * Convert all {@code long} chunks to {@code double} chunks. This
+     * happens at most once.
+     *
+     * @param size
+     *          the current size
+     */
+    private final void __toDoubles(final int size) {
+      final long[][] longs;
+      final double[][] doubles;
+      long[] longChunk;
+      double[] doubleChunk;
+      final boolean isFloat;
+      long value;
+      int i, j;
+
+      longs = this.m_longs;
+      doubles = new double[longs.length][];
+      // all integers in [-2^24, 2^24] can be represented as float
+      isFloat = ((this.m_min >= (-(1L << 24))) && //
+          (this.m_max <= (1L << 24)));
+      for (i = 0; (i < longs.length)
+          && ((longChunk = longs[i]) != null); i++) {
+        doubles[i] = doubleChunk = new double[_ChunkedArray.CHUNK_SIZE];
+        for (j = Math.min(_ChunkedArray.CHUNK_SIZE,
+            (size - (i << _ChunkedArray.CHUNK_SHIFT))); (--j) >= 0;) {
+          value = longChunk[j];
+          doubleChunk[j] = value;
+          if ((!isFloat) && this.m_isFloat
+              && ((NumericalTypes.getBestFloatingPointRepresentation(value)
+                  & NumericalTypes.IS_FLOAT) == 0)) {
+            this.m_isFloat = false;
+          }
+        }
+        longs[i] = null;
+      }
+      this.m_longs = null;
+      this.m_doubles = doubles;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final byte v, final int size) {
+      return this._append(((long) v), size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final short v, final int size) {
+      return this._append(((long) v), size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final int v, final int size) {
+      return this._append(((long) v), size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final long v, final int size) {
+      if (this.m_longs == null) {
+        return this._append(((double) v), size);
+      }
+      this.__longChunk(size)[size & _ChunkedArray.CHUNK_MASK] = v;
+      if (v < this.m_min) {
+        this.m_min = v;
+      }
+      if (v > this.m_max) {
+        this.m_max = v;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final float v, final int size) {
+      return this._append(((double) v), size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final double v, final int size) {
+      if (this.m_longs != null) {
+        if (NumericalTypes.isLong(v)) {
+          return this._append(((long) v), size);
+        }
+        this.__toDoubles(size);
+      }
+      this.__doubleChunk(size)[size & _ChunkedArray.CHUNK_MASK] = v;
+      if (this.m_isFloat && (((float) v) != v) && (v == v)) {
+        this.m_isFloat = false;
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final long[] data, final int start,
+        final int end, final int size) {
+      long[] chunk;
+      long min, max, value;
+      int index, currentSize, offset, count;
+
+      if (this.m_longs == null) {
+        return super._append(data, start, end, size);
+      }
+
+      min = this.m_min;
+      max = this.m_max;
+      for (index = start; index < end; index++) {
+        value = data[index];
+        if (value < min) {
+          min = value;
+        }
+        if (value > max) {
+          max = value;
+        }
+      }
+      this.m_min = min;
+      this.m_max = max;
+
+      currentSize = size;
+      for (index = start; index < end; index += count) {
+        chunk = this.__longChunk(currentSize);
+        offset = (currentSize & _ChunkedArray.CHUNK_MASK);
+        count = Math.min((end - index), (_ChunkedArray.CHUNK_SIZE - offset));
+        System.arraycopy(data, index, chunk, offset, count);
+        currentSize += count;
+      }
+      return this;
+    }
+
+    /**
+     * Copy the {@code long} chunks into an array
+     *
+     * @param size
+     *          the size
+     * @return the array
+     */
+    private final long[] __longs(final int size) {
+      final long[] data;
+      int index;
+
+      data = new long[size];
+      for (index = 0; index < size; index += _ChunkedArray.CHUNK_SIZE) {
+        System.arraycopy(this.m_longs[index >>> _ChunkedArray.CHUNK_SHIFT],
+            0, data, index, Math.min(_ChunkedArray.CHUNK_SIZE,
+                (size - index)));
+      }
+      return data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final AbstractMatrix _make(final int size) {
+      final long min, max;
+      final byte[] bytes;
+      final short[] shorts;
+      final int[] ints;
+      final float[] floats;
+      final double[] doubles;
+      long[] longChunk;
+      double[] doubleChunk;
+      int index, end, i;
+
+      if (this.m_longs != null) {
+        min = ((size > 0) ? this.m_min : 0L);
+        max = ((size > 0) ? this.m_max : 0L);
+
+        if ((min >= Byte.MIN_VALUE) && (max <= Byte.MAX_VALUE)) {
+          bytes = new byte[size];
+          for (index = 0; index < size; index = end) {
+            longChunk = this.m_longs[index >>> _ChunkedArray.CHUNK_SHIFT];
+            end = Math.min(size, (index + _ChunkedArray.CHUNK_SIZE));
+            for (i = index; i < end; i++) {
+              bytes[i] = ((byte) (longChunk[i & _ChunkedArray.CHUNK_MASK]));
+            }
+          }
+          return ArrayBasedMatrixBuilder.this.make(bytes);
+        }
+
+        if ((min >= Short.MIN_VALUE) && (max <= Short.MAX_VALUE)) {
+          shorts = new short[size];
+          for (index = 0; index < size; index = end) {
+            longChunk = this.m_longs[index >>> _ChunkedArray.CHUNK_SHIFT];
+            end = Math.min(size, (index + _ChunkedArray.CHUNK_SIZE));
+            for (i = index; i < end; i++) {
+              shorts[i] = ((short) (longChunk[i
+                  & _ChunkedArray.CHUNK_MASK]));
+            }
+          }
+          return ArrayBasedMatrixBuilder.this.make(shorts);
+        }
+
+        if ((min >= Integer.MIN_VALUE) && (max <= Integer.MAX_VALUE)) {
+          ints = new int[size];
+          for (index = 0; index < size; index = end) {
+            longChunk = this.m_longs[index >>> _ChunkedArray.CHUNK_SHIFT];
+            end = Math.min(size, (index + _ChunkedArray.CHUNK_SIZE));
+            for (i = index; i < end; i++) {
+              ints[i] = ((int) (longChunk[i & _ChunkedArray.CHUNK_MASK]));
+            }
+          }
+          return ArrayBasedMatrixBuilder.this.make(ints);
+        }
+
+        return ArrayBasedMatrixBuilder.this.make(this.__longs(size));
+      }
+
+      if (this.m_isFloat) {
+        floats = new float[size];
+        for (index = 0; index < size; index = end) {
+          doubleChunk = this.m_doubles[index >>> _ChunkedArray.CHUNK_SHIFT];
+          end = Math.min(size, (index + _ChunkedArray.CHUNK_SIZE));
+          for (i = index; i < end; i++) {
+            floats[i] = ((float) (doubleChunk[i
+                & _ChunkedArray.CHUNK_MASK]));
+          }
+        }
+        return ArrayBasedMatrixBuilder.this.make(floats);
+      }
+
+      doubles = new double[size];
+      for (index = 0; index < size; index += _ChunkedArray.CHUNK_SIZE) {
+        System.arraycopy(
+            this.m_doubles[index >>> _ChunkedArray.CHUNK_SHIFT], 0,
+            doubles, index,
+            Math.min(_ChunkedArray.CHUNK_SIZE, (size - index)));
+      }
+      return ArrayBasedMatrixBuilder.this.make(doubles);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return (this.m_longs != null);
+    }
+  }
+
   /** the internal growable double array */
   private final class _DoubleArray extends _Array {
 
@@ -523,6 +969,52 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
       return this;
     }
 
+    /**
+     * make sure that the array can hold the given number of elements
+     *
+     * @param required
+     *          the required size
+     * @param size
+     *          the current size
+     * @return the data
+     */
+    private final double[] __reserve(final int required, final int size) {
+      double[] data;
+
+      data = this.m_data;
+      if (data.length < required) {
+        data = new double[Math.max(required, ((size + 16) << 1))];
+        System.arraycopy(this.m_data, 0, data, 0, size);
+        this.m_data = data;
+      }
+      return data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final long[] data, final int start,
+        final int end, final int size) {
+      final double[] dest;
+      int index, currentSize;
+
+      dest = this.__reserve((size + (end - start)), size);
+      currentSize = size;
+      for (index = start; index < end; index++) {
+        dest[currentSize++] = data[index];
+      }
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final double[] data, final int start,
+        final int end, final int size) {
+      System.arraycopy(data, start,
+          this.__reserve((size + (end - start)), size), size,
+          (end - start));
+      return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     final AbstractMatrix _make(final int size) {
@@ -603,6 +1095,23 @@ public class ArrayBasedMatrixBuilder implements IAggregate {
       return this;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    final _Array _append(final long[] data, final int start,
+        final int end, final int size) {
+      long[] dest;
+
+      dest = this.m_data;
+      if (dest.length < (size + (end - start))) {
+        dest = new long[Math.max((size + (end - start)),
+            ((size + 16) << 1))];
+        System.arraycopy(this.m_data, 0, dest, 0, size);
+        this.m_data = dest;
+      }
+      System.arraycopy(data, start, dest, size, (end - start));
+      return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     final _Array _append(final float v, final int size) {
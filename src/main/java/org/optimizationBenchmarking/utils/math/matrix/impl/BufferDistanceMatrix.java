@@ -0,0 +1,82 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+
+/**
+ * A square matrix whose diagonal elements are all {@code 0} and the
+ * elements below the diagonal mirror those above, whose data is stored
+ * outside of the Java heap, e.g., in a memory-mapped file. Matrices of
+ * this type are obtained via {@link MatrixIO#map(java.nio.file.Path)}.
+ */
+public final class BufferDistanceMatrix extends DistanceMatrix {
+
+  /** the data */
+  private final _Buffers m_data;
+
+  /**
+   * create the matrix
+   *
+   * @param data
+   *          the data
+   * @param m
+   *          the m
+   */
+  BufferDistanceMatrix(final _Buffers data, final int m) {
+    super(m);
+    this.m_data = data;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double getDouble(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_m)) {
+      if (row < column) {
+        return this.m_data
+            ._getDouble(DistanceMatrix._index(row, column, this.m_m));
+      }
+      if (row > column) {
+        return this.m_data
+            ._getDouble(DistanceMatrix._index(column, row, this.m_m));
+      }
+      return 0d;
+    }
+    return super.getDouble(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long getLong(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_m)) {
+      if (row < column) {
+        return this.m_data
+            ._getLong(DistanceMatrix._index(row, column, this.m_m));
+      }
+      if (row > column) {
+        return this.m_data
+            ._getLong(DistanceMatrix._index(column, row, this.m_m));
+      }
+      return 0L;
+    }
+    return super.getLong(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final double _get(final int index) {
+    return this.m_data._getDouble(index);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isIntegerMatrix() {
+    return _Buffers._isInteger(this.m_data.m_type);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final AbstractMatrix asRowVector() {
+    return new BufferMatrix(this.m_data, 1, DistanceMatrix._size(this.m_m));
+  }
+}
@@ -0,0 +1,190 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.optimizationBenchmarking.utils.IImmutable;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+/**
+ * A matrix whose data is stored outside of the Java heap, either in
+ * direct {@link java.nio.ByteBuffer}s or in a memory-mapped file. Such
+ * matrices can be much larger than the heap, cause no garbage collection
+ * work, and a matrix stored in a file can be {@link #map(Path) mapped}
+ * without reading it. The data is stored in row-major order as elements
+ * of one primitive type, in a sequence of chunks whose size is a power of
+ * two, so that matrices may be larger than the 2 GiB limit of a single
+ * buffer.
+ * <p>
+ * The file format consists of a {@link #HEADER_SIZE}-byte header
+ * followed by the data. The header holds the {@code int} values
+ * {@link #MAGIC}, {@link #VERSION}, the element type code, {@code m}, and
+ * {@code n}, padded with zeros. All values are stored in little-endian
+ * byte order. Files in this format are created with a
+ * {@link BufferMatrixBuilder}.
+ * </p>
+ */
+public final class BufferMatrix extends AbstractMatrix
+    implements IImmutable {
+
+  /** the magic number at the start of a matrix file */
+  static final int MAGIC = 0x584d424f;
+
+  /** the version of the file format */
+  static final int VERSION = 1;
+
+  /** the size of the file header */
+  static final int HEADER_SIZE = 32;
+
+  /** the data */
+  private final _Buffers m_data;
+
+  /** the m */
+  private final int m_m;
+
+  /** the n */
+  private final int m_n;
+
+  /**
+   * create the matrix
+   *
+   * @param data
+   *          the data
+   * @param m
+   *          the m
+   * @param n
+   *          the n
+   */
+  BufferMatrix(final _Buffers data, final int m, final int n) {
+    super();
+
+    if ((m <= 0) || (n <= 0)) {
+      throw new IllegalArgumentException(//
+          ((("Matrix must have at least one row and one column, but is " //$NON-NLS-1$
+              + m) + '*') + n) + '.');
+    }
+
+    this.m_data = data;
+    this.m_m = m;
+    this.m_n = n;
+  }
+
+  /**
+   * Map a matrix file created by a {@link BufferMatrixBuilder} into
+   * memory. The data is not read, but accessed via the operating system's
+   * virtual memory, so mapping is fast even for very large files. The
+   * mapping stays valid until the matrix is garbage collected.
+   *
+   * @param file
+   *          the file
+   * @return the matrix
+   * @throws IOException
+   *           if the file cannot be read or has an invalid format
+   */
+  public static final BufferMatrix map(final Path file)
+      throws IOException {
+    final ByteBuffer header;
+    final int magic, version, type, m, n;
+    final _Buffers data;
+
+    if (file == null) {
+      throw new IllegalArgumentException(//
+          "Matrix file must not be null."); //$NON-NLS-1$
+    }
+
+    try (final FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ)) {
+      header = ByteBuffer.allocate(BufferMatrix.HEADER_SIZE);
+      header.order(_Buffers.BYTE_ORDER);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          throw new IOException(//
+              "Matrix file " + file + //$NON-NLS-1$
+                  " is too short to contain a header."); //$NON-NLS-1$
+        }
+      }
+      header.flip();
+
+      magic = header.getInt();
+      version = header.getInt();
+      if ((magic != BufferMatrix.MAGIC)
+          || (version != BufferMatrix.VERSION)) {
+        throw new IOException(//
+            (("File " + file + //$NON-NLS-1$
+                " is not a matrix file of version ") + //$NON-NLS-1$
+                BufferMatrix.VERSION) + '.');
+      }
+      type = header.getInt();
+      m = header.getInt();
+      n = header.getInt();
+      if ((m <= 0) || (n <= 0)) {
+        throw new IOException(//
+            ((((("Matrix file " + file) + //$NON-NLS-1$
+                " has invalid dimensions ") + m) + '*') + n) + '.'); //$NON-NLS-1$
+      }
+
+      data = _Buffers._map(channel, BufferMatrix.HEADER_SIZE,
+          (((long) m) * n), type);
+    }
+
+    return new BufferMatrix(data, m, n);
+  }
+
+  /**
+   * Get the element type of this matrix
+   *
+   * @return the element type of this matrix
+   */
+  public final EPrimitiveType getElementType() {
+    return _Buffers._elementType(this.m_data.m_type);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int m() {
+    return this.m_m;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int n() {
+    return this.m_n;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double getDouble(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_n)) {
+      return this.m_data._getDouble((((long) row) * this.m_n) + column);
+    }
+    return super.getDouble(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long getLong(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_n)) {
+      return this.m_data._getLong((((long) row) * this.m_n) + column);
+    }
+    return super.getLong(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isIntegerMatrix() {
+    return _Buffers._isInteger(this.m_data.m_type);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IMatrix copy() {
+    return this;
+  }
+}
@@ -0,0 +1,437 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+/**
+ * A builder for {@link BufferMatrix off-heap matrices}. The matrix is
+ * built row by row and its values are written either into direct
+ * {@link java.nio.ByteBuffer}s or streamed straight into a file, which
+ * is {@link BufferMatrix#map(Path) mapped} into memory once the matrix is
+ * {@link #make() made}. Since the values are written immediately, the
+ * element type and the number of columns must be known in advance, and
+ * values which cannot be represented exactly by the element type are
+ * rejected.
+ */
+public final class BufferMatrixBuilder implements IBulkAggregate,
+    Closeable {
+
+  /** the chunk size used for direct buffers, as power of 2 */
+  static final int DIRECT_CHUNK_SHIFT = 20;
+
+  /** the size of the write buffer used for files */
+  private static final int FILE_BUFFER_SIZE = (1 << 16);
+
+  /** the element type code */
+  private final int m_type;
+
+  /** the n */
+  private final int m_n;
+
+  /** the file, or {@code null} if direct buffers are used */
+  private final Path m_file;
+
+  /** the channel to the file, or {@code null} if direct buffers are used */
+  private FileChannel m_channel;
+
+  /** the full chunks, or {@code null} if a file is written */
+  private ArrayList<ByteBuffer> m_chunks;
+
+  /** the buffer currently being filled */
+  private ByteBuffer m_buffer;
+
+  /** the number of values written */
+  private long m_count;
+
+  /** has the builder been closed? */
+  private boolean m_closed;
+
+  /**
+   * create a builder which stores the matrix in direct buffers
+   *
+   * @param type
+   *          the element type
+   * @param n
+   *          the number of columns
+   */
+  public BufferMatrixBuilder(final EPrimitiveType type, final int n) {
+    super();
+
+    this.m_type = _Buffers._typeCode(type);
+    this.m_n = BufferMatrixBuilder.__checkN(n);
+    this.m_file = null;
+    this.m_chunks = new ArrayList<>();
+    this.m_buffer = BufferMatrixBuilder.__allocate(
+        1 << BufferMatrixBuilder.DIRECT_CHUNK_SHIFT);
+  }
+
+  /**
+   * create a builder which streams the matrix into a file
+   *
+   * @param file
+   *          the file to write to, which will be overwritten
+   * @param type
+   *          the element type
+   * @param n
+   *          the number of columns
+   * @throws IOException
+   *           if the file cannot be created
+   */
+  public BufferMatrixBuilder(final Path file, final EPrimitiveType type,
+      final int n) throws IOException {
+    super();
+
+    if (file == null) {
+      throw new IllegalArgumentException(//
+          "Matrix file must not be null."); //$NON-NLS-1$
+    }
+
+    this.m_type = _Buffers._typeCode(type);
+    this.m_n = BufferMatrixBuilder.__checkN(n);
+    this.m_file = file;
+    this.m_buffer = BufferMatrixBuilder.__allocate(//
+        BufferMatrixBuilder.FILE_BUFFER_SIZE);
+    this.m_channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    this.m_channel.position(BufferMatrix.HEADER_SIZE);
+  }
+
+  /**
+   * check the number of columns
+   *
+   * @param n
+   *          the number of columns
+   * @return the number of columns
+   */
+  private static final int __checkN(final int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("N cannot be less than 1."); //$NON-NLS-1$
+    }
+    return n;
+  }
+
+  /**
+   * allocate a direct buffer
+   *
+   * @param size
+   *          the size
+   * @return the buffer
+   */
+  private static final ByteBuffer __allocate(final int size) {
+    final ByteBuffer buffer;
+
+    buffer = ByteBuffer.allocateDirect(size);
+    buffer.order(_Buffers.BYTE_ORDER);
+    return buffer;
+  }
+
+  /**
+   * Get the buffer to write the next value to
+   *
+   * @return the buffer
+   */
+  private final ByteBuffer __buffer() {
+    final ByteBuffer buffer;
+
+    if (this.m_closed) {
+      throw new IllegalStateException(//
+          "Matrix builder has already been closed."); //$NON-NLS-1$
+    }
+
+    buffer = this.m_buffer;
+    if (buffer.hasRemaining()) {
+      return buffer;
+    }
+    // all element sizes divide the buffer size: the buffer is full
+    if (this.m_chunks != null) {
+      this.m_chunks.add(buffer);
+      return (this.m_buffer = BufferMatrixBuilder
+          .__allocate(1 << BufferMatrixBuilder.DIRECT_CHUNK_SHIFT));
+    }
+    this.__flush();
+    return buffer;
+  }
+
+  /** write the contents of the file buffer to the file */
+  private final void __flush() {
+    final ByteBuffer buffer;
+
+    buffer = this.m_buffer;
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        this.m_channel.write(buffer);
+      }
+    } catch (final IOException ioe) {
+      throw new IllegalStateException(//
+          "Error while writing to matrix file " + this.m_file, //$NON-NLS-1$
+          ioe);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Throw an exception since a value cannot be represented
+   *
+   * @param value
+   *          the value
+   */
+  private final void __unrepresentable(final Object value) {
+    throw new IllegalArgumentException(//
+        ((("Value " + value) + //$NON-NLS-1$
+            " cannot be represented exactly as matrix element of type ") //$NON-NLS-1$
+            + this.getElementType()) + '.');
+  }
+
+  /**
+   * Get the element type of the matrix
+   *
+   * @return the element type of the matrix
+   */
+  public final EPrimitiveType getElementType() {
+    return _Buffers._elementType(this.m_type);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final byte v) {
+    this.append((long) v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final short v) {
+    this.append((long) v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final int v) {
+    this.append((long) v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long v) {
+    final ByteBuffer buffer;
+
+    buffer = this.__buffer();
+    switch (this.m_type) {
+      case _Buffers.TYPE_BYTE: {
+        if ((v < Byte.MIN_VALUE) || (v > Byte.MAX_VALUE)) {
+          this.__unrepresentable(Long.valueOf(v));
+        }
+        buffer.put((byte) v);
+        break;
+      }
+      case _Buffers.TYPE_SHORT: {
+        if ((v < Short.MIN_VALUE) || (v > Short.MAX_VALUE)) {
+          this.__unrepresentable(Long.valueOf(v));
+        }
+        buffer.putShort((short) v);
+        break;
+      }
+      case _Buffers.TYPE_INT: {
+        if ((v < Integer.MIN_VALUE) || (v > Integer.MAX_VALUE)) {
+          this.__unrepresentable(Long.valueOf(v));
+        }
+        buffer.putInt((int) v);
+        break;
+      }
+      case _Buffers.TYPE_LONG: {
+        buffer.putLong(v);
+        break;
+      }
+      case _Buffers.TYPE_FLOAT: {
+        if (((long) ((float) v)) != v) {
+          this.__unrepresentable(Long.valueOf(v));
+        }
+        buffer.putFloat(v);
+        break;
+      }
+      default: {
+        if (((long) ((double) v)) != v) {
+          this.__unrepresentable(Long.valueOf(v));
+        }
+        buffer.putDouble(v);
+      }
+    }
+    this.m_count++;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final float v) {
+    this.append((double) v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double v) {
+    final long l;
+
+    switch (this.m_type) {
+      case _Buffers.TYPE_FLOAT: {
+        if ((((float) v) != v) && (!(Double.isNaN(v)))) {
+          this.__unrepresentable(Double.valueOf(v));
+        }
+        this.__buffer().putFloat((float) v);
+        this.m_count++;
+        return;
+      }
+      case _Buffers.TYPE_DOUBLE: {
+        this.__buffer().putDouble(v);
+        this.m_count++;
+        return;
+      }
+      default: {
+        l = ((long) v);
+        if ((l != v) || (l <= Long.MIN_VALUE) || (l >= Long.MAX_VALUE)) {
+          this.__unrepresentable(Double.valueOf(v));
+        }
+        this.append(l);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    int index;
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    int index;
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
+  /**
+   * Append a basic number
+   *
+   * @param number
+   *          the number
+   */
+  public final void append(final BasicNumber number) {
+    if (number == null) {
+      throw new IllegalArgumentException(//
+          "Cannot append a null number."); //$NON-NLS-1$
+    }
+    switch (number.getState()) {
+      case BasicNumber.STATE_EMPTY: {
+        throw new IllegalArgumentException(//
+            "Cannot append an empty number."); //$NON-NLS-1$
+      }
+      case BasicNumber.STATE_INTEGER: {
+        this.append(number.longValue());
+        return;
+      }
+      default: {
+        this.append(number.doubleValue());
+      }
+    }
+  }
+
+  /**
+   * Make the matrix. If the matrix is written to a file, the file is
+   * completed and mapped into memory.
+   *
+   * @return the matrix
+   */
+  public final BufferMatrix make() {
+    final ByteBuffer header;
+    final ArrayList<ByteBuffer> chunks;
+    final long m;
+
+    if (this.m_closed) {
+      throw new IllegalStateException(//
+          "Matrix builder has already been closed."); //$NON-NLS-1$
+    }
+    if ((this.m_count % this.m_n) != 0L) {
+      throw new IllegalStateException(//
+          ((("The last row is incomplete, it has only " //$NON-NLS-1$
+              + (this.m_count % this.m_n)) + " of ") + this.m_n) //$NON-NLS-1$
+              + " elements."); //$NON-NLS-1$
+    }
+    m = (this.m_count / this.m_n);
+    if ((m <= 0L) || (m > Integer.MAX_VALUE)) {
+      throw new IllegalStateException(//
+          "Invalid number of rows: " + m); //$NON-NLS-1$
+    }
+
+    if (this.m_chunks != null) {
+      chunks = this.m_chunks;
+      chunks.add(this.m_buffer);
+      this.m_closed = true;
+      this.m_chunks = null;
+      this.m_buffer = null;
+      return new BufferMatrix(
+          new _Buffers(chunks.toArray(new ByteBuffer[chunks.size()]),
+              BufferMatrixBuilder.DIRECT_CHUNK_SHIFT, this.m_type),
+          ((int) m), this.m_n);
+    }
+
+    this.__flush();
+    header = ByteBuffer.allocate(BufferMatrix.HEADER_SIZE);
+    header.order(_Buffers.BYTE_ORDER);
+    header.putInt(BufferMatrix.MAGIC);
+    header.putInt(BufferMatrix.VERSION);
+    header.putInt(this.m_type);
+    header.putInt((int) m);
+    header.putInt(this.m_n);
+    header.clear();
+    try {
+      try {
+        while (header.hasRemaining()) {
+          this.m_channel.write(header, header.position());
+        }
+      } finally {
+        this.close();
+      }
+      return BufferMatrix.map(this.m_file);
+    } catch (final IOException ioe) {
+      throw new IllegalStateException(//
+          "Error while finishing matrix file " + this.m_file, //$NON-NLS-1$
+          ioe);
+    }
+  }
+
+  /**
+   * Close this builder without making a matrix. All resources are
+   * released. If the matrix is written to a file, the file will be
+   * incomplete.
+   *
+   * @throws IOException
+   *           if the file cannot be closed
+   */
+  @Override
+  public final void close() throws IOException {
+    final FileChannel channel;
+
+    this.m_closed = true;
+    this.m_chunks = null;
+    this.m_buffer = null;
+    channel = this.m_channel;
+    if (channel != null) {
+      this.m_channel = null;
+      channel.close();
+    }
+  }
+}
@@ -58,6 +58,12 @@ public final class ByteDistanceMatrix1D extends DistanceMatrix {
     return super.getLong(row, column);// throw IndexOutOfBoundsException
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final double _get(final int index) {
+    return this.m_data[index];
+  }
+
   /** {@inheritDoc} */
   @Override
   public final boolean isIntegerMatrix() {
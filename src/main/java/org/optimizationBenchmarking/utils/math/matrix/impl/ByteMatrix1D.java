@@ -14,10 +14,10 @@ public final class ByteMatrix1D extends AbstractMatrix
   private final int m_m;
 
   /** the n */
-  private final int m_n;
+  final int m_n;
 
   /** the data */
-  private final byte[] m_data;
+  final byte[] m_data;
 
   /**
    * create the matrix
@@ -0,0 +1,157 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import org.optimizationBenchmarking.utils.IImmutable;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+
+/**
+ * A matrix which stores each column separately. Every column uses its
+ * own representation: a primitive array of the narrowest type which can
+ * hold its values, or integers packed into as few bits as their range
+ * needs, either relative to the column minimum or to the minimum of
+ * small blocks of consecutive rows (which suits monotone columns). If
+ * one column needs {@code long} values, the other columns thus do not
+ * need to be widened. Matrices of this type are built with a
+ * {@link ColumnMatrixBuilder}.
+ */
+public final class ColumnMatrix extends AbstractMatrix
+    implements IImmutable {
+
+  /** the m */
+  private final int m_m;
+
+  /** the columns */
+  private final _Column[] m_columns;
+
+  /** is this an integer matrix? */
+  private final boolean m_isInteger;
+
+  /**
+   * create the matrix
+   *
+   * @param columns
+   *          the columns
+   * @param m
+   *          the m
+   */
+  ColumnMatrix(final _Column[] columns, final int m) {
+    super();
+
+    boolean isInteger;
+
+    if ((columns == null) || (columns.length <= 0) || (m <= 0)) {
+      throw new IllegalArgumentException(//
+          "Matrix must have at least one row and one column."); //$NON-NLS-1$
+    }
+
+    isInteger = true;
+    for (final _Column column : columns) {
+      if (!(column._isInteger())) {
+        isInteger = false;
+        break;
+      }
+    }
+
+    this.m_columns = columns;
+    this.m_m = m;
+    this.m_isInteger = isInteger;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int m() {
+    return this.m_m;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int n() {
+    return this.m_columns.length;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double getDouble(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_columns.length)) {
+      return this.m_columns[column]._getDouble(row);
+    }
+    return super.getDouble(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long getLong(final int row, final int column) {
+    if ((row >= 0) && (row < this.m_m) && (column >= 0)
+        && (column < this.m_columns.length)) {
+      return this.m_columns[column]._getLong(row);
+    }
+    return super.getLong(row, column);// throw IndexOutOfBoundsException
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isIntegerMatrix() {
+    return this.m_isInteger;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IMatrix copy() {
+    return this;
+  }
+
+  /**
+   * Select some columns. The selected columns are shared with this
+   * matrix, no data is copied.
+   *
+   * @param cols
+   *          the columns to select
+   * @return the matrix consisting of the selected columns
+   */
+  @Override
+  public final IMatrix selectColumns(final int... cols) {
+    final _Column[] columns;
+    int i;
+
+    if ((cols == null) || (cols.length <= 0)) {
+      return super.selectColumns(cols);
+    }
+
+    columns = new _Column[cols.length];
+    i = 0;
+    for (final int j : cols) {
+      if ((j < 0) || (j >= this.m_columns.length)) {
+        throw new IndexOutOfBoundsException(//
+            ((("Column " + j) + //$NON-NLS-1$
+                " outside valid range 0..") + //$NON-NLS-1$
+                (this.m_columns.length - 1)));
+      }
+      columns[i++] = this.m_columns[j];
+    }
+    return new ColumnMatrix(columns, this.m_m);
+  }
+
+  /**
+   * Aggregate a column. The values are taken directly from the column
+   * storage and, if the aggregate is an
+   * {@link org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate}
+   * , passed to it in slices.
+   *
+   * @param column
+   *          the column
+   * @param aggregate
+   *          the aggregate
+   */
+  @Override
+  public final void aggregateColumn(final int column,
+      final IAggregate aggregate) {
+    if ((column < 0) || (column >= this.m_columns.length)) {
+      throw new IllegalArgumentException("Column " //$NON-NLS-1$
+          + column + " outside valid range 0.." //$NON-NLS-1$
+          + (this.m_columns.length - 1));
+    }
+    this.m_columns[column]._aggregate(this.m_m, aggregate);
+  }
+}
@@ -0,0 +1,479 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Arrays;
+
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+
+/**
+ * A builder for {@link ColumnMatrix column matrices}. The matrix is built
+ * row by row, just like with the {@link MatrixBuilder}, but the number of
+ * columns must be known in advance. Each column is collected separately
+ * and, when the matrix is {@link #make() made}, stored in the
+ * representation which needs the least memory for its values.
+ */
+public final class ColumnMatrixBuilder implements IBulkAggregate {
+
+  /** the columns */
+  private __ColumnBuffer[] m_columns;
+
+  /** the index of the column receiving the next value */
+  private int m_next;
+
+  /** the number of complete rows */
+  private int m_m;
+
+  /**
+   * create the column matrix builder
+   *
+   * @param n
+   *          the number of columns
+   * @param expectedM
+   *          the expected number of rows, {@code -1} for default
+   */
+  public ColumnMatrixBuilder(final int n, final int expectedM) {
+    super();
+
+    final int size;
+    int i;
+
+    if (n <= 0) {
+      throw new IllegalArgumentException("N cannot be less than 1."); //$NON-NLS-1$
+    }
+
+    size = ((expectedM <= 0) ? 64 : expectedM);
+    this.m_columns = new __ColumnBuffer[n];
+    for (i = n; (--i) >= 0;) {
+      this.m_columns[i] = new __ColumnBuffer(size);
+    }
+  }
+
+  /**
+   * create the column matrix builder
+   *
+   * @param n
+   *          the number of columns
+   */
+  public ColumnMatrixBuilder(final int n) {
+    this(n, -1);
+  }
+
+  /**
+   * Get the buffer of the column receiving the next value and advance to
+   * the next column
+   *
+   * @return the column buffer
+   */
+  private final __ColumnBuffer __next() {
+    final __ColumnBuffer[] columns;
+    final int next;
+
+    columns = this.m_columns;
+    if (columns == null) {
+      throw new IllegalStateException(//
+          "Matrix has already been made."); //$NON-NLS-1$
+    }
+    next = this.m_next;
+    if ((next + 1) >= columns.length) {
+      this.m_next = 0;
+      this.m_m++;
+    } else {
+      this.m_next = (next + 1);
+    }
+    return columns[next];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final byte v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final short v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final int v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final float v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double v) {
+    this.__next()._append(v);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    int index;
+    for (index = start; index < end; index++) {
+      this.__next()._append(data[index]);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    int index;
+    for (index = start; index < end; index++) {
+      this.__next()._append(data[index]);
+    }
+  }
+
+  /**
+   * Append a given string
+   *
+   * @param str
+   *          the string
+   */
+  @SuppressWarnings("unused")
+  public final void append(final String str) {
+    try {
+      this.append(Long.parseLong(str));
+    } catch (final NumberFormatException nfe) {
+      this.append(Double.parseDouble(str));
+    }
+  }
+
+  /**
+   * Append a basic number
+   *
+   * @param number
+   *          the number
+   */
+  public final void append(final BasicNumber number) {
+    if (number == null) {
+      throw new IllegalArgumentException(//
+          "Cannot append a null number."); //$NON-NLS-1$
+    }
+    switch (number.getState()) {
+      case BasicNumber.STATE_EMPTY: {
+        throw new IllegalArgumentException(//
+            "Cannot append an empty number."); //$NON-NLS-1$
+      }
+      case BasicNumber.STATE_INTEGER: {
+        this.append(number.longValue());
+        return;
+      }
+      default: {
+        this.append(number.doubleValue());
+      }
+    }
+  }
+
+  /**
+   * Make the matrix
+   *
+   * @return the matrix
+   */
+  public final ColumnMatrix make() {
+    final __ColumnBuffer[] buffers;
+    final _Column[] columns;
+    final int m;
+    int i;
+
+    buffers = this.m_columns;
+    if (buffers == null) {
+      throw new IllegalStateException(//
+          "Matrix has already been made."); //$NON-NLS-1$
+    }
+    if (this.m_next != 0) {
+      throw new IllegalStateException(//
+          ((("The last row is incomplete, it has only " + this.m_next) + //$NON-NLS-1$
+              " of ") + buffers.length) + " elements."); //$NON-NLS-1$//$NON-NLS-2$
+    }
+    m = this.m_m;
+    if (m <= 0) {
+      throw new IllegalStateException(//
+          "Matrix must have at least one row."); //$NON-NLS-1$
+    }
+
+    this.m_columns = null;
+    columns = new _Column[buffers.length];
+    for (i = buffers.length; (--i) >= 0;) {
+      columns[i] = buffers[i]._make(m);
+      buffers[i] = null;
+    }
+    return new ColumnMatrix(columns, m);
+  }
+
+  /**
+   * The buffer collecting the values of a column. Values are collected as
+   * {@code long}s until the first value which is not an integer arrives,
+   * at which point the buffer switches to {@code double}s.
+   */
+  private static final class __ColumnBuffer {
+
+    /** the integer data, or {@code null} if the column is not integer */
+    private long[] m_longs;
+
+    /** the floating point data, or {@code null} if the column is integer */
+    private double[] m_doubles;
+
+    /** the number of values */
+    private int m_size;
+
+    /**
+     * create
+     *
+     * @param size
+     *          the initial capacity
+     */
+    __ColumnBuffer(final int size) {
+      super();
+      this.m_longs = new long[size];
+    }
+
+    /**
+     * append a {@code long}
+     *
+     * @param v
+     *          the value
+     */
+    final void _append(final long v) {
+      final int size;
+
+      size = this.m_size;
+      if (this.m_longs != null) {
+        if (size >= this.m_longs.length) {
+          this.m_longs = Arrays.copyOf(this.m_longs, (size << 1));
+        }
+        this.m_longs[size] = v;
+      } else {
+        if (size >= this.m_doubles.length) {
+          this.m_doubles = Arrays.copyOf(this.m_doubles, (size << 1));
+        }
+        this.m_doubles[size] = v;
+      }
+      this.m_size = (size + 1);
+    }
+
+    /**
+     * append a {@code double}
+     *
+     * @param v
+     *          the value
+     */
+    final void _append(final double v) {
+      final long[] longs;
+      final long l;
+      int i, size;
+
+      longs = this.m_longs;
+      if (longs != null) {
+        l = ((long) v);
+        if ((l == v) && (l > Long.MIN_VALUE) && (l < Long.MAX_VALUE)) {
+          this._append(l);
+          return;
+        }
+
+        size = this.m_size;
+        this.m_doubles = new double[longs.length];
+        for (i = size; (--i) >= 0;) {
+          this.m_doubles[i] = longs[i];
+        }
+        this.m_longs = null;
+      }
+
+      size = this.m_size;
+      if (size >= this.m_doubles.length) {
+        this.m_doubles = Arrays.copyOf(this.m_doubles, (size << 1));
+      }
+      this.m_doubles[size] = v;
+      this.m_size = (size + 1);
+    }
+
+    /**
+     * Make the column, choosing the representation which needs the least
+     * memory
+     *
+     * @param m
+     *          the number of rows
+     * @return the column
+     */
+    final _Column _make(final int m) {
+      if (this.m_longs != null) {
+        return __ColumnBuffer.__makeInteger(this.m_longs, m);
+      }
+      return __ColumnBuffer.__makeFloat(this.m_doubles, m);
+    }
+
+    /**
+     * Make a floating point column
+     *
+     * @param data
+     *          the data
+     * @param m
+     *          the number of rows
+     * @return the column
+     */
+    private static final _Column __makeFloat(final double[] data,
+        final int m) {
+      final float[] floats;
+      double d;
+      int i;
+
+      for (i = m; (--i) >= 0;) {
+        d = data[i];
+        if ((((float) d) != d) && (!(Double.isNaN(d)))) {
+          return new _Column._DoubleColumn(
+              (data.length == m) ? data : Arrays.copyOf(data, m));
+        }
+      }
+
+      floats = new float[m];
+      for (i = m; (--i) >= 0;) {
+        floats[i] = ((float) (data[i]));
+      }
+      return new _Column._FloatColumn(floats);
+    }
+
+    /**
+     * Make an integer column. We compute the memory needed by each of the
+     * possible representations and pick the smallest one. If a packed
+     * representation needs the same memory as a primitive array, the
+     * primitive array is preferred since it is faster to access.
+     *
+     * @param data
+     *          the data
+     * @param m
+     *          the number of rows
+     * @return the column
+     */
+    private static final _Column __makeInteger(final long[] data,
+        final int m) {
+      final int blocks;
+      final long[] bases;
+      final byte[] bytes;
+      final short[] shorts;
+      final int[] ints;
+      long min, max, blockMin, blockMax, v, cost, bestCost, range;
+      int i, j, end, bits, blockBits, best;
+
+      blocks = (((m - 1) >>> _Column.BLOCK_SHIFT) + 1);
+      bases = new long[blocks];
+      min = Long.MAX_VALUE;
+      max = Long.MIN_VALUE;
+      blockBits = 0;
+
+      for (i = 0; i < blocks; i++) {
+        blockMin = Long.MAX_VALUE;
+        blockMax = Long.MIN_VALUE;
+        end = Math.min(m, ((i + 1) << _Column.BLOCK_SHIFT));
+        for (j = (i << _Column.BLOCK_SHIFT); j < end; j++) {
+          v = data[j];
+          if (v < blockMin) {
+            blockMin = v;
+          }
+          if (v > blockMax) {
+            blockMax = v;
+          }
+        }
+        bases[i] = blockMin;
+        if (blockMin < min) {
+          min = blockMin;
+        }
+        if (blockMax > max) {
+          max = blockMax;
+        }
+        range = (blockMax - blockMin);
+        if ((range < 0L) || (blockBits >= 64)) {
+          blockBits = 64;// range overflow: block packing impossible
+        } else {
+          blockBits = Math.max(blockBits, _Column._bits(range));
+        }
+      }
+
+      // 0: byte, 1: short, 2: int, 3: long, 4: packed, 5: block-packed
+      best = 3;
+      bestCost = (((long) m) << 3);
+      if ((min >= Byte.MIN_VALUE) && (max <= Byte.MAX_VALUE)) {
+        best = 0;
+        bestCost = m;
+      } else {
+        if ((min >= Short.MIN_VALUE) && (max <= Short.MAX_VALUE)) {
+          best = 1;
+          bestCost = (((long) m) << 1);
+        } else {
+          if ((min >= Integer.MIN_VALUE) && (max <= Integer.MAX_VALUE)) {
+            best = 2;
+            bestCost = (((long) m) << 2);
+          }
+        }
+      }
+
+      range = (max - min);
+      bits = ((range < 0L) ? 64 : _Column._bits(range));
+      if (bits < 64) {
+        cost = (_Column._words(m, bits) << 3);
+        if (cost < bestCost) {
+          best = 4;
+          bestCost = cost;
+        }
+      }
+      if (blockBits < 64) {
+        cost = ((_Column._words(m, blockBits) + blocks) << 3);
+        if (cost < bestCost) {
+          best = 5;
+          bestCost = cost;
+        }
+      }
+
+      switch (best) {
+        case 0: {
+          bytes = new byte[m];
+          for (i = m; (--i) >= 0;) {
+            bytes[i] = ((byte) (data[i]));
+          }
+          return new _Column._ByteColumn(bytes);
+        }
+        case 1: {
+          shorts = new short[m];
+          for (i = m; (--i) >= 0;) {
+            shorts[i] = ((short) (data[i]));
+          }
+          return new _Column._ShortColumn(shorts);
+        }
+        case 2: {
+          ints = new int[m];
+          for (i = m; (--i) >= 0;) {
+            ints[i] = ((int) (data[i]));
+          }
+          return new _Column._IntColumn(ints);
+        }
+        case 4: {
+          return new _Column._PackedColumn(min, bits,
+              _Column._pack(data, m, new long[] { min }, 31, bits));
+        }
+        case 5: {
+          return new _Column._BlockPackedColumn(bases, blockBits,
+              _Column._pack(data, m, bases, _Column.BLOCK_SHIFT,
+                  blockBits));
+        }
+        default: {
+          return new _Column._LongColumn(
+              (data.length == m) ? data : Arrays.copyOf(data, m));
+        }
+      }
+    }
+  }
+}
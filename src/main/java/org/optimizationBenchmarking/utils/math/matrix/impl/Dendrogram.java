@@ -0,0 +1,173 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import org.optimizationBenchmarking.utils.IImmutable;
+
+/**
+ * The result of a hierarchical clustering of {@code m} elements: a
+ * sequence of {@code m-1} merges in ascending order of their
+ * {@linkplain #getHeight(int) height}. The elements are denoted by the
+ * cluster ids {@code 0} to {@code m-1}, and the cluster created by merge
+ * {@code k} has the id {@code m+k}.
+ */
+public final class Dendrogram implements IImmutable {
+
+  /** the number of elements */
+  private final int m_m;
+
+  /** the first cluster of each merge */
+  private final int[] m_left;
+
+  /** the second cluster of each merge */
+  private final int[] m_right;
+
+  /** the height of each merge */
+  private final double[] m_heights;
+
+  /** the size of the cluster created by each merge */
+  private final int[] m_sizes;
+
+  /**
+   * create the dendrogram
+   *
+   * @param m
+   *          the number of elements
+   * @param left
+   *          the first cluster of each merge
+   * @param right
+   *          the second cluster of each merge
+   * @param heights
+   *          the height of each merge
+   * @param sizes
+   *          the size of the cluster created by each merge
+   */
+  Dendrogram(final int m, final int[] left, final int[] right,
+      final double[] heights, final int[] sizes) {
+    super();
+    this.m_m = m;
+    this.m_left = left;
+    this.m_right = right;
+    this.m_heights = heights;
+    this.m_sizes = sizes;
+  }
+
+  /**
+   * Get the number of clustered elements
+   *
+   * @return the number of clustered elements
+   */
+  public final int getElementCount() {
+    return this.m_m;
+  }
+
+  /**
+   * Get the number of merges, i.e., {@link #getElementCount()}{@code -1}
+   *
+   * @return the number of merges
+   */
+  public final int getMergeCount() {
+    return this.m_heights.length;
+  }
+
+  /**
+   * Get the id of the first cluster joined by the given merge. This is
+   * always the smaller of the two ids.
+   *
+   * @param merge
+   *          the merge index
+   * @return the id of the first cluster
+   */
+  public final int getLeft(final int merge) {
+    return this.m_left[merge];
+  }
+
+  /**
+   * Get the id of the second cluster joined by the given merge
+   *
+   * @param merge
+   *          the merge index
+   * @return the id of the second cluster
+   */
+  public final int getRight(final int merge) {
+    return this.m_right[merge];
+  }
+
+  /**
+   * Get the distance between the two clusters joined by the given merge
+   *
+   * @param merge
+   *          the merge index
+   * @return the distance between the two clusters
+   */
+  public final double getHeight(final int merge) {
+    return this.m_heights[merge];
+  }
+
+  /**
+   * Get the number of elements in the cluster created by the given merge
+   *
+   * @param merge
+   *          the merge index
+   * @return the number of elements in the created cluster
+   */
+  public final int getSize(final int merge) {
+    return this.m_sizes[merge];
+  }
+
+  /**
+   * Cut the dendrogram into the given number of clusters by applying only
+   * the first {@code m-clusters} merges.
+   *
+   * @param clusters
+   *          the number of clusters, in {@code 1..m}
+   * @return an array holding the cluster index of each element; clusters
+   *         are numbered from {@code 0} in the order of their smallest
+   *         element
+   */
+  public final int[] cut(final int clusters) {
+    final int[] parent, labels, result;
+    final int m;
+    int merge, element, root, label, next;
+
+    m = this.m_m;
+    if ((clusters < 1) || (clusters > m)) {
+      throw new IllegalArgumentException(//
+          (((("Number of clusters must be in 1.." + m) + //$NON-NLS-1$
+              ", but is ") + clusters) + '.')); //$NON-NLS-1$
+    }
+
+    // parent[id] is the id of the cluster into which cluster id was merged
+    parent = new int[(m + m) - 1];
+    for (merge = parent.length; (--merge) >= 0;) {
+      parent[merge] = -1;
+    }
+    for (merge = (m - clusters); (--merge) >= 0;) {
+      parent[this.m_left[merge]] = parent[this.m_right[merge]] = //
+      (m + merge);
+    }
+
+    // label[id] is the cluster label of the top-level cluster id
+    labels = new int[parent.length];
+    for (merge = labels.length; (--merge) >= 0;) {
+      labels[merge] = -1;
+    }
+    result = new int[m];
+    label = 0;
+    for (element = 0; element < m; element++) {
+      root = element;
+      while (parent[root] >= 0) {
+        root = parent[root];
+      }
+      // compress the path to the root
+      for (merge = element; merge != root; merge = next) {
+        next = parent[merge];
+        parent[merge] = root;
+      }
+      if (labels[root] < 0) {
+        labels[root] = label++;
+      }
+      result[element] = labels[root];
+    }
+
+    return result;
+  }
+}
@@ -85,6 +85,43 @@ public abstract class DistanceMatrix extends AbstractMatrix
         + bigIndex) - 1;
   }
 
+  /**
+   * Get the distance stored at the given index of the upper triangle,
+   * i.e., the element at {@link #_index(int, int, int)}.
+   *
+   * @param index
+   *          the index into the upper triangle
+   * @return the distance
+   */
+  abstract double _get(final int index);
+
+  /**
+   * Copy a complete row of this matrix into an array.
+   *
+   * @param row
+   *          the row
+   * @param dest
+   *          the destination array, of length at least {@code m}
+   */
+  final void _getRow(final int row, final double[] dest) {
+    final int m;
+    int column, index;
+
+    m = this.m_m;
+    // the elements left of the diagonal are stored in the rows above
+    index = (row - 1);
+    for (column = 0; column < row; column++) {
+      dest[column] = this._get(index);
+      index += (m - column - 2);
+    }
+    dest[row] = 0d;
+    // the elements right of the diagonal are stored consecutively
+    index = DistanceMatrix._index(row, (row + 1), m);
+    for (column = (row + 1); column < m; column++) {
+      dest[column] = this._get(index++);
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public final DistanceMatrix copy() {
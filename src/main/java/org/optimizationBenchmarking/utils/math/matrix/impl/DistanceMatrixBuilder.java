@@ -42,6 +42,18 @@ public final class DistanceMatrixBuilder extends ArrayBasedMatrixBuilder {
     super();
   }
 
+  /**
+   * create the matrix builder
+   *
+   * @param chunked
+   *          should the values be recorded in fixed-size chunks and the
+   *          narrowest possible array be created only once in
+   *          {@link #make()}?
+   */
+  public DistanceMatrixBuilder(final boolean chunked) {
+    super(chunked);
+  }
+
   /**
    * create the matrix builder
    *
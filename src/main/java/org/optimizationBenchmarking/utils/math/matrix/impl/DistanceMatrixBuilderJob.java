@@ -27,6 +27,21 @@ public abstract class DistanceMatrixBuilderJob
     return ArrayBasedMatrixBuilder.DEFAULT_MATRIX_TYPE;
   }
 
+  /**
+   * Get the number of threads to use for computing the distances. If this
+   * is greater than {@code 1}, the rows of the distance matrix are
+   * partitioned into tiles which are processed in parallel, and
+   * {@link #setDistance(int, int, IAggregate)} must therefore be
+   * thread-safe. Each tile writes its distances directly into a
+   * preallocated array. The resulting matrix is the same as in sequential
+   * mode. By default, the distances are computed sequentially.
+   *
+   * @return the number of threads to use
+   */
+  protected int getParallelism() {
+    return 1;
+  }
+
   /**
    * Get the number of data elements
    *
@@ -57,7 +72,10 @@ public abstract class DistanceMatrixBuilderJob
 
   /**
    * The element at index {@code i} is no longer needed and may be
-   * released, nulled, or disposed.
+   * released, nulled, or disposed. This method is called after all
+   * distances involving element {@code i} have been computed, in
+   * ascending order of {@code i}, and never concurrently, even if the
+   * distances are computed in {@linkplain #getParallelism() parallel}.
    *
    * @param i
    *          the element index
@@ -70,10 +88,16 @@ public abstract class DistanceMatrixBuilderJob
   @Override
   public final DistanceMatrix call() {
     final DistanceMatrixBuilder builder;
-    final int m, size;
+    final int m, size, parallelism;
     int i, j;
 
     m = this.getElementCount();
+    parallelism = this.getParallelism();
+    if ((parallelism > 1) && (m > 2)) {
+      return new _ParallelDistanceMatrixBuilder(this, m, parallelism)
+          ._build();
+    }
+
     size = DistanceMatrix._size(m);
     builder = new DistanceMatrixBuilder(//
         this.getDistanceType(), size);
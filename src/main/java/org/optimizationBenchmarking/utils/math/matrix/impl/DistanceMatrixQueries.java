@@ -0,0 +1,696 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.optimizationBenchmarking.utils.parallel.Execute;
+
+/**
+ * Neighbourhood and clustering queries over a {@link DistanceMatrix}.
+ * All queries work directly on the backing data of the matrix. The
+ * neighbours of each element, sorted by distance, are computed on demand
+ * and cached, so repeated neighbourhood queries are cheap. Queries that
+ * need to look at all rows of a large matrix divide the rows into chunks
+ * which are processed in parallel via {@link Execute}.
+ */
+public final class DistanceMatrixQueries {
+
+  /** the number of rows from which on we use multiple threads */
+  private static final int PARALLEL_THRESHOLD = 512;
+
+  /** the minimum number of rows processed by one task */
+  private static final int ROWS_PER_TASK = 64;
+
+  /** the matrix */
+  private final DistanceMatrix m_matrix;
+
+  /** the cached neighbour lists */
+  private final AtomicReferenceArray<int[]> m_neighbours;
+
+  /**
+   * create the queries
+   *
+   * @param matrix
+   *          the distance matrix
+   */
+  public DistanceMatrixQueries(final DistanceMatrix matrix) {
+    super();
+    if (matrix == null) {
+      throw new IllegalArgumentException(//
+          "Distance matrix must not be null."); //$NON-NLS-1$
+    }
+    this.m_matrix = matrix;
+    this.m_neighbours = new AtomicReferenceArray<>(matrix.m_m);
+  }
+
+  /**
+   * Get the distance matrix
+   *
+   * @return the distance matrix
+   */
+  public final DistanceMatrix getMatrix() {
+    return this.m_matrix;
+  }
+
+  /**
+   * Check an element index
+   *
+   * @param element
+   *          the element index
+   */
+  private final void __checkElement(final int element) {
+    if ((element < 0) || (element >= this.m_matrix.m_m)) {
+      throw new IndexOutOfBoundsException(//
+          (((("Element index must be in 0.." + //$NON-NLS-1$
+              (this.m_matrix.m_m - 1)) + ", but is ") + //$NON-NLS-1$
+              element) + '.'));
+    }
+  }
+
+  /**
+   * Sort the indices {@code [start, end)} in {@code indices} by the
+   * corresponding {@code keys}. The sort is stable.
+   *
+   * @param indices
+   *          the indices
+   * @param temp
+   *          a temporary array of the same length
+   * @param keys
+   *          the keys
+   * @param start
+   *          the start index
+   * @param end
+   *          the exclusive end index
+   */
+  private static final void __sort(final int[] indices, final int[] temp,
+      final double[] keys, final int start, final int end) {
+    final int middle;
+    int i, j, k, a, b;
+
+    if ((end - start) <= 16) {
+      // insertion sort for small ranges
+      for (i = (start + 1); i < end; i++) {
+        a = indices[i];
+        for (j = i; (j > start)
+            && (Double.compare(keys[indices[j - 1]], keys[a]) > 0); j--) {
+          indices[j] = indices[j - 1];
+        }
+        indices[j] = a;
+      }
+      return;
+    }
+
+    middle = ((start + end) >>> 1);
+    DistanceMatrixQueries.__sort(indices, temp, keys, start, middle);
+    DistanceMatrixQueries.__sort(indices, temp, keys, middle, end);
+    if (Double.compare(keys[indices[middle - 1]],
+        keys[indices[middle]]) <= 0) {
+      return;// already in order
+    }
+
+    System.arraycopy(indices, start, temp, start, (end - start));
+    i = start;
+    j = middle;
+    for (k = start; k < end; k++) {
+      if (i >= middle) {
+        b = temp[j++];
+      } else {
+        if (j >= end) {
+          b = temp[i++];
+        } else {
+          a = temp[i];
+          b = temp[j];
+          if (Double.compare(keys[b], keys[a]) < 0) {
+            j++;
+          } else {
+            b = a;
+            i++;
+          }
+        }
+      }
+      indices[k] = b;
+    }
+  }
+
+  /**
+   * Compute the neighbour list of an element
+   *
+   * @param element
+   *          the element
+   * @param row
+   *          a buffer for the row
+   * @return the neighbour list
+   */
+  private final int[] __computeNeighbours(final int element,
+      final double[] row) {
+    final int[] neighbours;
+    final int m;
+    int i, j;
+
+    m = this.m_matrix.m_m;
+    this.m_matrix._getRow(element, row);
+    neighbours = new int[m - 1];
+    j = 0;
+    for (i = 0; i < m; i++) {
+      if (i != element) {
+        neighbours[j++] = i;
+      }
+    }
+    DistanceMatrixQueries.__sort(neighbours, new int[m - 1], row, 0,
+        (m - 1));
+    this.m_neighbours.compareAndSet(element, null, neighbours);
+    return this.m_neighbours.get(element);
+  }
+
+  /**
+   * Get the cached neighbour list of an element
+   *
+   * @param element
+   *          the element
+   * @return the neighbour list
+   */
+  private final int[] __neighbours(final int element) {
+    final int[] neighbours;
+
+    this.__checkElement(element);
+    neighbours = this.m_neighbours.get(element);
+    if (neighbours != null) {
+      return neighbours;
+    }
+    return this.__computeNeighbours(element,
+        new double[this.m_matrix.m_m]);
+  }
+
+  /**
+   * Get all other elements, sorted by their distance to the given element
+   * in ascending order. Elements with the same distance are sorted by
+   * their index. The list is computed on the first request and cached.
+   *
+   * @param element
+   *          the element
+   * @return the other elements, sorted by their distance to
+   *         {@code element}
+   */
+  public final int[] getNeighbours(final int element) {
+    return this.__neighbours(element).clone();
+  }
+
+  /**
+   * Get the {@code k} nearest neighbours of an element.
+   *
+   * @param element
+   *          the element
+   * @param k
+   *          the number of neighbours
+   * @return the (at most) {@code k} elements closest to {@code element},
+   *         sorted by their distance in ascending order
+   */
+  public final int[] getNearestNeighbours(final int element,
+      final int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException(//
+          "Number of neighbours cannot be negative, but is " + k); //$NON-NLS-1$
+    }
+    return Arrays.copyOf(this.__neighbours(element),
+        Math.min(k, (this.m_matrix.m_m - 1)));
+  }
+
+  /**
+   * Get the element nearest to the given element
+   *
+   * @param element
+   *          the element
+   * @return the nearest neighbour of {@code element}, or {@code -1} if
+   *         the matrix has only one element
+   */
+  public final int getNearestNeighbour(final int element) {
+    final int[] neighbours;
+
+    neighbours = this.__neighbours(element);
+    return ((neighbours.length > 0) ? neighbours[0] : (-1));
+  }
+
+  /**
+   * Compute and cache the neighbour lists of all elements, using
+   * multiple threads for large matrices.
+   */
+  public final void computeAllNeighbours() {
+    DistanceMatrixQueries.__run(new __NeighbourTask(this, 0,
+        this.m_matrix.m_m));
+  }
+
+  /**
+   * Get the medoid of all elements, i.e., the element with the smallest
+   * sum of distances to all other elements. If several elements have the
+   * same distance sum, the one with the smallest index is returned.
+   *
+   * @return the medoid
+   */
+  public final int getMedoid() {
+    final double[] sums;
+    final int m;
+    int element, best;
+
+    m = this.m_matrix.m_m;
+    if (m <= 0) {
+      throw new IllegalStateException(//
+          "Cannot compute the medoid of an empty matrix."); //$NON-NLS-1$
+    }
+    sums = new double[m];
+    DistanceMatrixQueries.__run(new __SumTask(this, 0, m, null, sums));
+
+    best = 0;
+    for (element = 1; element < m; element++) {
+      if (sums[element] < sums[best]) {
+        best = element;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Get the medoid of a subset of the elements, i.e., the element from
+   * the subset with the smallest sum of distances to all other elements
+   * in the subset. If several elements have the same distance sum, the
+   * one appearing first in {@code elements} is returned.
+   *
+   * @param elements
+   *          the elements
+   * @return the medoid
+   */
+  public final int getMedoid(final int[] elements) {
+    final double[] sums;
+    int index, best;
+
+    if ((elements == null) || (elements.length <= 0)) {
+      throw new IllegalArgumentException(//
+          "Cannot compute the medoid of an empty set of elements."); //$NON-NLS-1$
+    }
+    for (final int element : elements) {
+      this.__checkElement(element);
+    }
+
+    sums = new double[elements.length];
+    DistanceMatrixQueries.__run(new __SumTask(this, 0, elements.length,
+        elements, sums));
+
+    best = 0;
+    for (index = 1; index < elements.length; index++) {
+      if (sums[index] < sums[best]) {
+        best = index;
+      }
+    }
+    return elements[best];
+  }
+
+  /**
+   * Cluster the elements hierarchically. This uses the nearest-neighbour
+   * chain algorithm, which needs {@code O(m^2)} time. It works on a
+   * {@code double} copy of the distances, i.e., needs about {@code 4m^2}
+   * bytes of memory.
+   *
+   * @param linkage
+   *          the linkage criterion
+   * @return the dendrogram
+   */
+  public final Dendrogram cluster(final ELinkage linkage) {
+    final DistanceMatrix matrix;
+    final double[] distances, heights, sortedHeights;
+    final int[] sizes, chain, first, second, order, temp, parent, ids,
+        left, right, mergeSizes;
+    final boolean[] active;
+    final int m, merges;
+    int merge, chainLength, a, b, c, best, low, high, index, rootA, rootB;
+    double distance, bestDistance;
+
+    if (linkage == null) {
+      throw new IllegalArgumentException(//
+          "Linkage must not be null."); //$NON-NLS-1$
+    }
+
+    matrix = this.m_matrix;
+    m = matrix.m_m;
+    merges = ((m > 0) ? (m - 1) : 0);
+    distances = new double[DistanceMatrix._size(m)];
+    for (index = distances.length; (--index) >= 0;) {
+      distances[index] = matrix._get(index);
+    }
+
+    sizes = new int[m];
+    active = new boolean[m];
+    for (a = m; (--a) >= 0;) {
+      sizes[a] = 1;
+      active[a] = true;
+    }
+
+    chain = new int[m];
+    chainLength = 0;
+    first = new int[merges];
+    second = new int[merges];
+    heights = new double[merges];
+
+    for (merge = 0; merge < merges; merge++) {
+      if (chainLength <= 0) {
+        for (a = 0; !(active[a]); a++) {
+          // find the first active cluster
+        }
+        chain[chainLength++] = a;
+      }
+
+      // grow the chain until we find two reciprocal nearest neighbours
+      for (;;) {
+        a = chain[chainLength - 1];
+        best = ((chainLength > 1) ? chain[chainLength - 2] : (-1));
+        bestDistance = ((best >= 0) ? distances[DistanceMatrixQueries
+            .__index(a, best, m)] : Double.POSITIVE_INFINITY);
+        for (c = 0; c < m; c++) {
+          if (active[c] && (c != a)) {
+            distance = distances[DistanceMatrixQueries.__index(a, c, m)];
+            if ((best < 0) || (distance < bestDistance)) {
+              best = c;
+              bestDistance = distance;
+            }
+          }
+        }
+        if ((chainLength > 1) && (best == chain[chainLength - 2])) {
+          break;
+        }
+        chain[chainLength++] = best;
+      }
+
+      // merge the last two clusters in the chain
+      chainLength -= 2;
+      a = chain[chainLength];
+      b = chain[chainLength + 1];
+      if (a < b) {
+        low = a;
+        high = b;
+      } else {
+        low = b;
+        high = a;
+      }
+      first[merge] = low;
+      second[merge] = high;
+      heights[merge] = bestDistance;
+
+      for (c = 0; c < m; c++) {
+        if (active[c] && (c != low) && (c != high)) {
+          index = DistanceMatrixQueries.__index(low, c, m);
+          distances[index] = linkage._merge(distances[index],
+              distances[DistanceMatrixQueries.__index(high, c, m)],
+              sizes[low], sizes[high]);
+        }
+      }
+      sizes[low] += sizes[high];
+      active[high] = false;
+    }
+
+    // the merges were not necessarily found in the order of their heights
+    order = new int[merges];
+    for (merge = merges; (--merge) >= 0;) {
+      order[merge] = merge;
+    }
+    DistanceMatrixQueries.__sort(order, new int[merges], heights, 0,
+        merges);
+
+    // assign cluster ids in the sorted order via union-find
+    parent = new int[m];
+    ids = new int[m];
+    for (a = m; (--a) >= 0;) {
+      parent[a] = a;
+      ids[a] = a;
+    }
+    left = new int[merges];
+    right = new int[merges];
+    mergeSizes = new int[merges];
+    sortedHeights = new double[merges];
+    for (merge = 0; merge < merges; merge++) {
+      index = order[merge];
+      rootA = DistanceMatrixQueries.__find(parent, first[index]);
+      rootB = DistanceMatrixQueries.__find(parent, second[index]);
+      left[merge] = Math.min(ids[rootA], ids[rootB]);
+      right[merge] = Math.max(ids[rootA], ids[rootB]);
+      sortedHeights[merge] = heights[index];
+      mergeSizes[merge] = (((left[merge] < m) ? 1
+          : mergeSizes[left[merge] - m])
+          + ((right[merge] < m) ? 1 : mergeSizes[right[merge] - m]));
+      parent[rootB] = rootA;
+      ids[rootA] = (m + merge);
+    }
+
+    return new Dendrogram(m, left, right, sortedHeights, mergeSizes);
+  }
+
+  /**
+   * Find the root of an element in a union-find structure, compressing
+   * the path
+   *
+   * @param parent
+   *          the parent array
+   * @param element
+   *          the element
+   * @return the root
+   */
+  private static final int __find(final int[] parent, final int element) {
+    int root, current, next;
+
+    root = element;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    for (current = element; current != root; current = next) {
+      next = parent[current];
+      parent[current] = root;
+    }
+    return root;
+  }
+
+  /**
+   * Compute the index of the distance between two different elements in
+   * the upper triangle
+   *
+   * @param a
+   *          the first element
+   * @param b
+   *          the second element
+   * @param m
+   *          the matrix dimension
+   * @return the index
+   */
+  private static final int __index(final int a, final int b,
+      final int m) {
+    return ((a < b) ? DistanceMatrix._index(a, b, m)
+        : DistanceMatrix._index(b, a, m));
+  }
+
+  /**
+   * Run a task over rows. If there are many rows, they are divided into
+   * at most one chunk per available processor and the chunks are
+   * processed in parallel.
+   *
+   * @param task
+   *          the task
+   */
+  @SuppressWarnings("unchecked")
+  private static final void __run(final __RowTask task) {
+    final int rows, chunks;
+    final __RowTask[] jobs;
+    final Future<Void>[] futures;
+    int index, start, end;
+
+    rows = (task.m_end - task.m_start);
+    chunks = ((rows < DistanceMatrixQueries.PARALLEL_THRESHOLD) ? 1
+        : Math.min(Runtime.getRuntime().availableProcessors(),
+            (rows / DistanceMatrixQueries.ROWS_PER_TASK)));
+    if (chunks <= 1) {
+      task.call();
+      return;
+    }
+
+    jobs = new __RowTask[chunks];
+    end = task.m_start;
+    for (index = 0; index < chunks; index++) {
+      start = end;
+      end = (task.m_start + ((int) ((((long) rows) * (index + 1)) / chunks)));
+      jobs[index] = task._create(start, end);
+    }
+
+    futures = Execute.parallel(jobs);
+    Execute.join(futures, new Void[chunks], 0, false);
+  }
+
+  /** a task processing a range of rows */
+  private static abstract class __RowTask implements Callable<Void> {
+
+    /** the owner */
+    final DistanceMatrixQueries m_owner;
+
+    /** the start row */
+    final int m_start;
+
+    /** the exclusive end row */
+    final int m_end;
+
+    /**
+     * create
+     *
+     * @param owner
+     *          the owner
+     * @param start
+     *          the start row
+     * @param end
+     *          the exclusive end row
+     */
+    __RowTask(final DistanceMatrixQueries owner, final int start,
+        final int end) {
+      super();
+      this.m_owner = owner;
+      this.m_start = start;
+      this.m_end = end;
+    }
+
+    /**
+     * process a range of rows
+     *
+     * @param start
+     *          the start row
+     * @param end
+     *          the exclusive end row
+     */
+    abstract void _rows(final int start, final int end);
+
+    /**
+     * create a task for a sub-range
+     *
+     * @param start
+     *          the start row
+     * @param end
+     *          the exclusive end row
+     * @return the task
+     */
+    abstract __RowTask _create(final int start, final int end);
+
+    /** {@inheritDoc} */
+    @Override
+    public final Void call() {
+      this._rows(this.m_start, this.m_end);
+      return null;
+    }
+  }
+
+  /** a task computing the neighbour lists of a range of rows */
+  private static final class __NeighbourTask extends __RowTask {
+
+    /**
+     * create
+     *
+     * @param owner
+     *          the owner
+     * @param start
+     *          the start row
+     * @param end
+     *          the exclusive end row
+     */
+    __NeighbourTask(final DistanceMatrixQueries owner, final int start,
+        final int end) {
+      super(owner, start, end);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final void _rows(final int start, final int end) {
+      final double[] row;
+      int element;
+
+      row = new double[this.m_owner.m_matrix.m_m];
+      for (element = start; element < end; element++) {
+        if (this.m_owner.m_neighbours.get(element) == null) {
+          this.m_owner.__computeNeighbours(element, row);
+        }
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final __RowTask _create(final int start, final int end) {
+      return new __NeighbourTask(this.m_owner, start, end);
+    }
+  }
+
+  /** a task computing the distance sums of a range of elements */
+  private static final class __SumTask extends __RowTask {
+
+    /** the elements, or {@code null} for all elements */
+    private final int[] m_elements;
+
+    /** the destination for the sums */
+    private final double[] m_sums;
+
+    /**
+     * create
+     *
+     * @param owner
+     *          the owner
+     * @param start
+     *          the start index
+     * @param end
+     *          the exclusive end index
+     * @param elements
+     *          the elements, or {@code null} for all elements
+     * @param sums
+     *          the destination for the sums
+     */
+    __SumTask(final DistanceMatrixQueries owner, final int start,
+        final int end, final int[] elements, final double[] sums) {
+      super(owner, start, end);
+      this.m_elements = elements;
+      this.m_sums = sums;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final void _rows(final int start, final int end) {
+      final DistanceMatrix matrix;
+      final int m;
+      final double[] row;
+      int index, element, other;
+      double sum;
+
+      matrix = this.m_owner.m_matrix;
+      m = matrix.m_m;
+      if (this.m_elements == null) {
+        row = new double[m];
+        for (index = start; index < end; index++) {
+          matrix._getRow(index, row);
+          sum = 0d;
+          for (other = m; (--other) >= 0;) {
+            sum += row[other];
+          }
+          this.m_sums[index] = sum;
+        }
+        return;
+      }
+
+      for (index = start; index < end; index++) {
+        element = this.m_elements[index];
+        sum = 0d;
+        for (final int next : this.m_elements) {
+          if (next != element) {
+            sum += matrix._get(DistanceMatrixQueries.__index(element,
+                next, m));
+          }
+        }
+        this.m_sums[index] = sum;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final __RowTask _create(final int start, final int end) {
+      return new __SumTask(this.m_owner, start, end, this.m_elements,
+          this.m_sums);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+/**
+ * The linkage criterion for hierarchical clustering, i.e., how the
+ * distance between two clusters is derived from the distances of their
+ * elements.
+ */
+public enum ELinkage {
+
+  /**
+   * the distance of two clusters is the smallest distance between any of
+   * their elements
+   */
+  SINGLE {
+    /** {@inheritDoc} */
+    @Override
+    final double _merge(final double distanceA, final double distanceB,
+        final int sizeA, final int sizeB) {
+      return Math.min(distanceA, distanceB);
+    }
+  },
+
+  /**
+   * the distance of two clusters is the largest distance between any of
+   * their elements
+   */
+  COMPLETE {
+    /** {@inheritDoc} */
+    @Override
+    final double _merge(final double distanceA, final double distanceB,
+        final int sizeA, final int sizeB) {
+      return Math.max(distanceA, distanceB);
+    }
+  },
+
+  /**
+   * the distance of two clusters is the average distance between their
+   * elements
+   */
+  AVERAGE {
+    /** {@inheritDoc} */
+    @Override
+    final double _merge(final double distanceA, final double distanceB,
+        final int sizeA, final int sizeB) {
+      return (((sizeA * distanceA) + (sizeB * distanceB))
+          / (sizeA + sizeB));
+    }
+  };
+
+  /**
+   * Compute the distance between a cluster {@code C} and the cluster
+   * resulting from merging the clusters {@code A} and {@code B}.
+   *
+   * @param distanceA
+   *          the distance between {@code A} and {@code C}
+   * @param distanceB
+   *          the distance between {@code B} and {@code C}
+   * @param sizeA
+   *          the number of elements in {@code A}
+   * @param sizeB
+   *          the number of elements in {@code B}
+   * @return the distance between {@code C} and the union of {@code A}
+   *         and {@code B}
+   */
+  abstract double _merge(final double distanceA, final double distanceB,
+      final int sizeA, final int sizeB);
+}
@@ -60,6 +60,12 @@ public final class FloatDistanceMatrix1D extends DistanceMatrix {
     return super.getLong(row, column);// throw IndexOutOfBoundsException
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final double _get(final int index) {
+    return this.m_data[index];
+  }
+
   /** {@inheritDoc} */
   @Override
   public final boolean isIntegerMatrix() {
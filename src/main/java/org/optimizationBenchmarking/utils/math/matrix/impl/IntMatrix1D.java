@@ -14,10 +14,10 @@ public final class IntMatrix1D extends AbstractMatrix
   private final int m_m;
 
   /** the n */
-  private final int m_n;
+  final int m_n;
 
   /** the data */
-  private final int[] m_data;
+  final int[] m_data;
 
   /**
    * create the matrix
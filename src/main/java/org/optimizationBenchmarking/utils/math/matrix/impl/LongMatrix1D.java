@@ -3,6 +3,8 @@ package org.optimizationBenchmarking.utils.math.matrix.impl;
 import org.optimizationBenchmarking.utils.IImmutable;
 import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
 
 /**
  * A matrix backed by a one-dimensional {@code long} array.
@@ -14,10 +16,10 @@ public final class LongMatrix1D extends AbstractMatrix
   private final int m_m;
 
   /** the n */
-  private final int m_n;
+  final int m_n;
 
   /** the data */
-  private final long[] m_data;
+  final long[] m_data;
 
   /**
    * create the matrix
@@ -93,4 +95,50 @@ public final class LongMatrix1D extends AbstractMatrix
   public final IMatrix copy() {
     return this;
   }
+
+  /**
+   * Aggregate a column. If the matrix has only one column and the
+   * aggregate is an {@link IBulkAggregate}, the backing array is passed to
+   * it directly.
+   *
+   * @param column
+   *          the column
+   * @param aggregate
+   *          the aggregate
+   */
+  @Override
+  public final void aggregateColumn(final int column,
+      final IAggregate aggregate) {
+    if ((this.m_n == 1) && (column == 0)
+        && (aggregate instanceof IBulkAggregate)) {
+      ((IBulkAggregate) aggregate).append(this.m_data, 0,
+          this.m_data.length);
+      return;
+    }
+    super.aggregateColumn(column, aggregate);
+  }
+
+  /**
+   * Aggregate a row. If the aggregate is an {@link IBulkAggregate}, the
+   * slice of the backing array holding the row is passed to it directly.
+   *
+   * @param row
+   *          the row
+   * @param aggregate
+   *          the aggregate
+   */
+  @Override
+  public final void aggregateRow(final int row,
+      final IAggregate aggregate) {
+    final int start;
+
+    if ((aggregate instanceof IBulkAggregate) && (row >= 0)
+        && (row < this.m_m)) {
+      start = (row * this.m_n);
+      ((IBulkAggregate) aggregate).append(this.m_data, start,
+          (start + this.m_n));
+      return;
+    }
+    super.aggregateRow(row, aggregate);
+  }
 }
@@ -44,6 +44,18 @@ public final class MatrixBuilder extends ArrayBasedMatrixBuilder {
     super();
   }
 
+  /**
+   * create the matrix builder
+   *
+   * @param chunked
+   *          should the values be recorded in fixed-size chunks and the
+   *          narrowest possible array be created only once in
+   *          {@link #make()}?
+   */
+  public MatrixBuilder(final boolean chunked) {
+    super(chunked);
+  }
+
   /**
    * create the matrix builder
    *
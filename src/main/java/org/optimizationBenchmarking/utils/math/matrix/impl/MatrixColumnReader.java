@@ -0,0 +1,397 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * A fast, read-only accessor for a single column of a matrix. If the
+ * matrix is backed by a one-dimensional array, such as a
+ * {@link LongMatrix1D} or a {@link DoubleMatrix1D}, the accessor reads the
+ * array directly, computing the index of each element from the row and a
+ * fixed stride. This avoids the interface dispatch and the index checks of
+ * {@link IMatrix#getLong(int, int)} and
+ * {@link IMatrix#getDouble(int, int)}, which matters for algorithms which
+ * walk along the columns of matrices with millions of rows. All other
+ * matrices, e.g., views on other matrices, are accessed via their normal
+ * {@link IMatrix} interface.
+ */
+public abstract class MatrixColumnReader {
+
+  /** the column */
+  final int m_column;
+
+  /**
+   * create the column reader
+   *
+   * @param column
+   *          the column
+   */
+  MatrixColumnReader(final int column) {
+    super();
+    this.m_column = column;
+  }
+
+  /**
+   * Create a column reader for the given column of the given matrix
+   *
+   * @param matrix
+   *          the matrix
+   * @param column
+   *          the column
+   * @return the column reader
+   */
+  public static final MatrixColumnReader forColumn(final IMatrix matrix,
+      final int column) {
+    if (matrix == null) {
+      throw new IllegalArgumentException(//
+          "Matrix to read column from cannot be null."); //$NON-NLS-1$
+    }
+    if ((column < 0) || (column >= matrix.n())) {
+      throw new IllegalArgumentException(//
+          "Column index must be in 0.." + (matrix.n() - 1) + //$NON-NLS-1$
+              ", but is " + column); //$NON-NLS-1$
+    }
+
+    if (matrix instanceof ByteMatrix1D) {
+      return new __ByteColumnReader(((ByteMatrix1D) matrix), column);
+    }
+    if (matrix instanceof ShortMatrix1D) {
+      return new __ShortColumnReader(((ShortMatrix1D) matrix), column);
+    }
+    if (matrix instanceof IntMatrix1D) {
+      return new __IntColumnReader(((IntMatrix1D) matrix), column);
+    }
+    if (matrix instanceof LongMatrix1D) {
+      return new __LongColumnReader(((LongMatrix1D) matrix), column);
+    }
+    if (matrix instanceof FloatMatrix1D) {
+      return new __FloatColumnReader(((FloatMatrix1D) matrix), column);
+    }
+    if (matrix instanceof DoubleMatrix1D) {
+      return new __DoubleColumnReader(((DoubleMatrix1D) matrix), column);
+    }
+    return new __MatrixColumnReader(matrix, column);
+  }
+
+  /**
+   * Get the column index
+   *
+   * @return the column index
+   */
+  public final int getColumn() {
+    return this.m_column;
+  }
+
+  /**
+   * Does the column only contain integer values? This is the case if
+   * {@link #getLong(int)} returns exactly the value stored in the column.
+   *
+   * @return {@code true} if the column only contains integer values,
+   *         {@code false} otherwise
+   */
+  public abstract boolean isInteger();
+
+  /**
+   * Get the value in the given row of the column as {@code long}.
+   *
+   * @param row
+   *          the row
+   * @return the value
+   */
+  public abstract long getLong(final int row);
+
+  /**
+   * Get the value in the given row of the column as {@code double}.
+   *
+   * @param row
+   *          the row
+   * @return the value
+   */
+  public abstract double getDouble(final int row);
+
+  /** a reader for a column of a {@link ByteMatrix1D} */
+  private static final class __ByteColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final byte[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __ByteColumnReader(final ByteMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of a {@link ShortMatrix1D} */
+  private static final class __ShortColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final short[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __ShortColumnReader(final ShortMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of a {@link IntMatrix1D} */
+  private static final class __IntColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final int[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __IntColumnReader(final IntMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of a {@link LongMatrix1D} */
+  private static final class __LongColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final long[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __LongColumnReader(final LongMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of a {@link FloatMatrix1D} */
+  private static final class __FloatColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final float[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __FloatColumnReader(final FloatMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return ((long) (this.m_data[(row * this.m_stride)
+          + this.m_column]));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of a {@link DoubleMatrix1D} */
+  private static final class __DoubleColumnReader extends MatrixColumnReader {
+
+    /** the data */
+    private final double[] m_data;
+    /** the stride, i.e., the number of columns */
+    private final int m_stride;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __DoubleColumnReader(final DoubleMatrix1D matrix, final int column) {
+      super(column);
+      this.m_data = matrix.m_data;
+      this.m_stride = matrix.m_n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return ((long) (this.m_data[(row * this.m_stride)
+          + this.m_column]));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_data[(row * this.m_stride) + this.m_column];
+    }
+  }
+
+  /** a reader for a column of an arbitrary matrix */
+  private static final class __MatrixColumnReader extends MatrixColumnReader {
+
+    /** the matrix */
+    private final IMatrix m_matrix;
+
+    /**
+     * create the column reader
+     *
+     * @param matrix
+     *          the matrix
+     * @param column
+     *          the column
+     */
+    __MatrixColumnReader(final IMatrix matrix, final int column) {
+      super(column);
+      this.m_matrix = matrix;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isInteger() {
+      return (this.m_matrix.isIntegerMatrix() || //
+          this.m_matrix.selectColumns(this.m_column).isIntegerMatrix());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row) {
+      return this.m_matrix.getLong(row, this.m_column);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row) {
+      return this.m_matrix.getDouble(row, this.m_column);
+    }
+  }
+}
@@ -0,0 +1,1061 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.optimizationBenchmarking.utils.error.ErrorUtils;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * Reading and writing matrices in a compact, versioned binary format.
+ * <p>
+ * A matrix file starts with a {@link #HEADER_SIZE}-byte header holding
+ * the {@code int} values {@link #MAGIC}, {@link #VERSION}, the layout,
+ * the element type code of the whole matrix, {@code m}, and {@code n},
+ * padded with zeros. It is followed by one section per column for
+ * general matrices ({@link #LAYOUT_DENSE}), or a single section with the
+ * elements above the diagonal in row-major order for
+ * {@link DistanceMatrix distance matrices} ({@link #LAYOUT_DISTANCE}).
+ * Each section has a {@link #SECTION_HEADER_SIZE}-byte header holding
+ * the {@code int} element type code of the section, the {@code int}
+ * encoding, and the {@code long} length of the payload, followed by the
+ * payload, padded with zeros to a multiple of 8 bytes. The element type
+ * of each section is the narrowest type which can hold its values. The
+ * payload holds the elements either directly ({@link #ENCODING_RAW}) or
+ * compressed with {@link java.util.zip.Deflater}
+ * ({@link #ENCODING_DEFLATE}). All values are stored in little-endian
+ * byte order.
+ * </p>
+ * <p>
+ * A file can either be {@link #read(Path) read} into the narrowest
+ * array-based matrix class, or, if none of its sections is compressed,
+ * be {@link #map(Path) mapped} into memory without copying its data.
+ * </p>
+ */
+public final class MatrixIO {
+
+  /** the magic number at the start of a matrix file */
+  static final int MAGIC = 0x5a4d424f;
+
+  /** the version of the file format */
+  static final int VERSION = 1;
+
+  /** the size of the file header */
+  static final int HEADER_SIZE = 32;
+
+  /** the size of a section header */
+  static final int SECTION_HEADER_SIZE = 16;
+
+  /** the layout of general matrices: one section per column */
+  static final int LAYOUT_DENSE = 1;
+
+  /**
+   * the layout of distance matrices: one section with the elements above
+   * the diagonal
+   */
+  static final int LAYOUT_DISTANCE = 2;
+
+  /** the encoding of sections which store their elements directly */
+  static final int ENCODING_RAW = 0;
+
+  /** the encoding of compressed sections */
+  static final int ENCODING_DEFLATE = 1;
+
+  /**
+   * the size of the chunks in which uncompressed sections are written and
+   * read, a multiple of the size of all element types
+   */
+  private static final int CHUNK_SIZE = 65536;
+
+  /**
+   * the largest section, in bytes, which we can hold in a single array:
+   * Larger sections are neither compressed nor can compressed sections of
+   * this size be read.
+   */
+  private static final long MAX_BUFFERED_SECTION = (Integer.MAX_VALUE - 8);
+
+  /** the forbidden constructor */
+  private MatrixIO() {
+    ErrorUtils.doNotCall();
+  }
+
+  /**
+   * Write a matrix to a file
+   *
+   * @param matrix
+   *          the matrix
+   * @param file
+   *          the file
+   * @param compress
+   *          should the columns be compressed if this saves space?
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static final void write(final IMatrix matrix, final Path file,
+      final boolean compress) throws IOException {
+    try (final OutputStream out = new BufferedOutputStream(
+        Files.newOutputStream(file))) {
+      MatrixIO.write(matrix, out, compress);
+    }
+  }
+
+  /**
+   * Write a matrix to a stream
+   *
+   * @param matrix
+   *          the matrix
+   * @param out
+   *          the stream, which is not closed by this method
+   * @param compress
+   *          should the columns be compressed if this saves space?
+   * @throws IOException
+   *           if i/o fails
+   * @throws IllegalArgumentException
+   *           if the matrix is empty, since empty matrices cannot be read
+   */
+  public static final void write(final IMatrix matrix,
+      final OutputStream out, final boolean compress) throws IOException {
+    final ByteBuffer header;
+    final boolean distance;
+    final int m, n, sections;
+    final int[] types;
+    int section, type;
+    boolean allInteger, allFloat;
+
+    if (matrix == null) {
+      throw new IllegalArgumentException(//
+          "Matrix to write must not be null."); //$NON-NLS-1$
+    }
+
+    m = matrix.m();
+    n = matrix.n();
+    if ((m <= 0) || (n <= 0)) {
+      throw new IllegalArgumentException(//
+          ((("Invalid matrix dimensions " + m) + '*') + n)); //$NON-NLS-1$
+    }
+    distance = (matrix instanceof DistanceMatrix);
+    sections = (distance ? 1 : n);
+
+    types = new int[sections];
+    allInteger = allFloat = true;
+    for (section = sections; (--section) >= 0;) {
+      types[section] = type = MatrixIO.__sectionType(matrix, distance,
+          section);
+      if (_Buffers._isInteger(type)) {
+        if ((type != _Buffers.TYPE_BYTE) && (type != _Buffers.TYPE_SHORT)) {
+          allFloat = false;
+        }
+      } else {
+        allInteger = false;
+        if (type != _Buffers.TYPE_FLOAT) {
+          allFloat = false;
+        }
+      }
+    }
+
+    if (allInteger) {
+      type = _Buffers.TYPE_BYTE;
+      for (final int sectionType : types) {
+        type = Math.max(type, sectionType);
+      }
+    } else {
+      type = (allFloat ? _Buffers.TYPE_FLOAT : _Buffers.TYPE_DOUBLE);
+    }
+
+    header = MatrixIO.__allocate(MatrixIO.HEADER_SIZE);
+    header.putInt(MatrixIO.MAGIC);
+    header.putInt(MatrixIO.VERSION);
+    header.putInt(distance ? MatrixIO.LAYOUT_DISTANCE
+        : MatrixIO.LAYOUT_DENSE);
+    header.putInt(type);
+    header.putInt(m);
+    header.putInt(n);
+    out.write(header.array());
+
+    for (section = 0; section < sections; section++) {
+      MatrixIO.__writeSection(matrix, distance, section, types[section],
+          compress, out);
+    }
+  }
+
+  /**
+   * allocate a heap buffer in the byte order of matrix files
+   *
+   * @param size
+   *          the size
+   * @return the buffer
+   */
+  private static final ByteBuffer __allocate(final int size) {
+    final ByteBuffer buffer;
+
+    buffer = ByteBuffer.allocate(size);
+    buffer.order(_Buffers.BYTE_ORDER);
+    return buffer;
+  }
+
+  /**
+   * Get the number of elements of a section
+   *
+   * @param distance
+   *          is this a distance matrix?
+   * @param m
+   *          the number of rows
+   * @return the number of elements
+   */
+  private static final int __sectionSize(final boolean distance,
+      final int m) {
+    return (distance ? DistanceMatrix._size(m) : m);
+  }
+
+  /**
+   * Is the given section of a matrix integer?
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @return {@code true} if the section holds only integers
+   */
+  private static final boolean __isInteger(final IMatrix matrix,
+      final boolean distance, final int section) {
+    return (matrix.isIntegerMatrix() || ((!distance) && (matrix.n() > 1)
+        && matrix.selectColumns(section).isIntegerMatrix()));
+  }
+
+  /**
+   * Get an element of a section as {@code long}
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @param i
+   *          the row for dense matrices, the smaller index for distance
+   *          matrices
+   * @param j
+   *          the bigger index for distance matrices
+   * @return the element
+   */
+  private static final long __getLong(final IMatrix matrix,
+      final boolean distance, final int section, final int i,
+      final int j) {
+    return (distance ? matrix.getLong(i, j) : matrix.getLong(i, section));
+  }
+
+  /**
+   * Get an element of a section as {@code double}
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @param i
+   *          the row for dense matrices, the smaller index for distance
+   *          matrices
+   * @param j
+   *          the bigger index for distance matrices
+   * @return the element
+   */
+  private static final double __getDouble(final IMatrix matrix,
+      final boolean distance, final int section, final int i,
+      final int j) {
+    return (distance ? matrix.getDouble(i, j)
+        : matrix.getDouble(i, section));
+  }
+
+  /**
+   * Find the narrowest type which can hold all elements of a section
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @return the type code
+   */
+  private static final int __sectionType(final IMatrix matrix,
+      final boolean distance, final int section) {
+    final int m, rows;
+    long min, max, l;
+    double d;
+    int i, j;
+
+    m = matrix.m();
+    rows = (distance ? (m - 1) : m);
+
+    if (MatrixIO.__isInteger(matrix, distance, section)) {
+      min = max = 0L;
+      for (i = 0; i < rows; i++) {
+        for (j = (distance ? (i + 1) : 0); j < (distance ? m : 1); j++) {
+          l = MatrixIO.__getLong(matrix, distance, section, i, j);
+          if (l < min) {
+            min = l;
+          } else {
+            if (l > max) {
+              max = l;
+            }
+          }
+        }
+      }
+      if ((min >= Byte.MIN_VALUE) && (max <= Byte.MAX_VALUE)) {
+        return _Buffers.TYPE_BYTE;
+      }
+      if ((min >= Short.MIN_VALUE) && (max <= Short.MAX_VALUE)) {
+        return _Buffers.TYPE_SHORT;
+      }
+      if ((min >= Integer.MIN_VALUE) && (max <= Integer.MAX_VALUE)) {
+        return _Buffers.TYPE_INT;
+      }
+      return _Buffers.TYPE_LONG;
+    }
+
+    for (i = 0; i < rows; i++) {
+      for (j = (distance ? (i + 1) : 0); j < (distance ? m : 1); j++) {
+        d = MatrixIO.__getDouble(matrix, distance, section, i, j);
+        if ((((float) d) != d) && (!(Double.isNaN(d)))) {
+          return _Buffers.TYPE_DOUBLE;
+        }
+      }
+    }
+    return _Buffers.TYPE_FLOAT;
+  }
+
+  /**
+   * Write a section
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @param type
+   *          the element type code of the section
+   * @param compress
+   *          should the section be compressed if this saves space?
+   * @param out
+   *          the output stream
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __writeSection(final IMatrix matrix,
+      final boolean distance, final int section, final int type,
+      final boolean compress, final OutputStream out) throws IOException {
+    final long size;
+    ByteBuffer header, raw;
+    byte[] payload, compressed;
+    int length, encoding;
+
+    // the size may exceed 2 GiB, e.g., for a double distance matrix with
+    // more than 23170 rows
+    size = (((long) (MatrixIO.__sectionSize(distance, matrix.m()))) << //
+    _Buffers._elementShift(type));
+
+    if (compress && (size > 0L)
+        && (size <= MatrixIO.MAX_BUFFERED_SECTION)) {
+      raw = MatrixIO.__allocate((int) size);
+      MatrixIO.__fillSection(matrix, distance, section, type, raw, null);
+
+      payload = raw.array();
+      length = payload.length;
+      encoding = MatrixIO.ENCODING_RAW;
+      compressed = MatrixIO.__deflate(payload);
+      if (compressed.length < length) {
+        payload = compressed;
+        length = compressed.length;
+        encoding = MatrixIO.ENCODING_DEFLATE;
+      }
+
+      header = MatrixIO.__allocate(MatrixIO.SECTION_HEADER_SIZE);
+      header.putInt(type);
+      header.putInt(encoding);
+      header.putLong(length);
+      out.write(header.array());
+      out.write(payload, 0, length);
+      out.write(new byte[MatrixIO.__padding(length)]);
+      return;
+    }
+
+    // write the uncompressed section in chunks
+    header = MatrixIO.__allocate(MatrixIO.SECTION_HEADER_SIZE);
+    header.putInt(type);
+    header.putInt(MatrixIO.ENCODING_RAW);
+    header.putLong(size);
+    out.write(header.array());
+    raw = MatrixIO.__allocate((int) (Math.min(size, MatrixIO.CHUNK_SIZE)));
+    MatrixIO.__fillSection(matrix, distance, section, type, raw, out);
+    out.write(new byte[MatrixIO.__padding(size)]);
+  }
+
+  /**
+   * Store the elements of a section in a buffer. If an output stream is
+   * given, the buffer is written to the stream whenever it is full and
+   * once all elements have been stored. Otherwise, it must be large
+   * enough to hold all elements of the section.
+   *
+   * @param matrix
+   *          the matrix
+   * @param distance
+   *          is this a distance matrix?
+   * @param section
+   *          the section
+   * @param type
+   *          the element type code of the section
+   * @param raw
+   *          the buffer
+   * @param out
+   *          the output stream, or {@code null} if the buffer can hold
+   *          the whole section
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __fillSection(final IMatrix matrix,
+      final boolean distance, final int section, final int type,
+      final ByteBuffer raw, final OutputStream out) throws IOException {
+    final int m, rows;
+    int i, j;
+
+    m = matrix.m();
+    rows = (distance ? (m - 1) : m);
+    for (i = 0; i < rows; i++) {
+      for (j = (distance ? (i + 1) : 0); j < (distance ? m : 1); j++) {
+        if ((out != null) && (!(raw.hasRemaining()))) {
+          out.write(raw.array(), 0, raw.position());
+          raw.clear();
+        }
+        switch (type) {
+          case _Buffers.TYPE_BYTE: {
+            raw.put((byte) (MatrixIO.__getLong(matrix, distance, section,
+                i, j)));
+            break;
+          }
+          case _Buffers.TYPE_SHORT: {
+            raw.putShort((short) (MatrixIO.__getLong(matrix, distance,
+                section, i, j)));
+            break;
+          }
+          case _Buffers.TYPE_INT: {
+            raw.putInt((int) (MatrixIO.__getLong(matrix, distance,
+                section, i, j)));
+            break;
+          }
+          case _Buffers.TYPE_LONG: {
+            raw.putLong(
+                MatrixIO.__getLong(matrix, distance, section, i, j));
+            break;
+          }
+          case _Buffers.TYPE_FLOAT: {
+            raw.putFloat((float) (MatrixIO.__getDouble(matrix, distance,
+                section, i, j)));
+            break;
+          }
+          default: {
+            raw.putDouble(
+                MatrixIO.__getDouble(matrix, distance, section, i, j));
+          }
+        }
+      }
+    }
+
+    if (out != null) {
+      out.write(raw.array(), 0, raw.position());
+    }
+  }
+
+  /**
+   * Get the number of bytes needed to pad a payload to a multiple of 8
+   *
+   * @param length
+   *          the payload length
+   * @return the padding
+   */
+  private static final int __padding(final long length) {
+    return ((int) ((8L - (length & 7L)) & 7L));
+  }
+
+  /**
+   * Compress some data
+   *
+   * @param data
+   *          the data
+   * @return the compressed data
+   */
+  private static final byte[] __deflate(final byte[] data) {
+    final Deflater deflater;
+    final ByteArrayOutputStream out;
+    final byte[] buffer;
+
+    deflater = new Deflater();
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      out = new ByteArrayOutputStream(data.length);
+      buffer = new byte[4096];
+      while (!(deflater.finished())) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompress some data
+   *
+   * @param data
+   *          the compressed data
+   * @param length
+   *          the expected length of the decompressed data
+   * @return the decompressed data
+   * @throws IOException
+   *           if the data is corrupted
+   */
+  private static final byte[] __inflate(final byte[] data,
+      final int length) throws IOException {
+    final Inflater inflater;
+    final byte[] result;
+    int size;
+
+    inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      result = new byte[length];
+      size = 0;
+      while ((size < length) && (!(inflater.finished()))) {
+        size += inflater.inflate(result, size, (length - size));
+        if (inflater.needsInput() && (!(inflater.finished()))) {
+          break;
+        }
+      }
+      if ((size != length) || (!(inflater.finished()))) {
+        throw new IOException(//
+            "Compressed matrix section is corrupted."); //$NON-NLS-1$
+      }
+      return result;
+    } catch (final DataFormatException dfe) {
+      throw new IOException(//
+          "Compressed matrix section is corrupted.", dfe); //$NON-NLS-1$
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Read exactly as many bytes as fit into an array
+   *
+   * @param in
+   *          the input stream
+   * @param data
+   *          the array
+   * @throws IOException
+   *           if i/o fails or the stream ends too early
+   */
+  private static final void __readFully(final InputStream in,
+      final byte[] data) throws IOException {
+    MatrixIO.__readFully(in, data, data.length);
+  }
+
+  /**
+   * Read exactly the given number of bytes into the start of an array
+   *
+   * @param in
+   *          the input stream
+   * @param data
+   *          the array
+   * @param length
+   *          the number of bytes to read
+   * @throws IOException
+   *           if i/o fails or the stream ends too early
+   */
+  private static final void __readFully(final InputStream in,
+      final byte[] data, final int length) throws IOException {
+    int offset, read;
+
+    offset = 0;
+    while (offset < length) {
+      read = in.read(data, offset, (length - offset));
+      if (read < 0) {
+        throw new IOException(//
+            "Unexpected end of matrix data."); //$NON-NLS-1$
+      }
+      offset += read;
+    }
+  }
+
+  /**
+   * Read a matrix from a file into the narrowest array-based matrix class
+   *
+   * @param file
+   *          the file
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails or the file has an invalid format
+   */
+  public static final AbstractMatrix read(final Path file)
+      throws IOException {
+    try (final InputStream in = new BufferedInputStream(
+        Files.newInputStream(file))) {
+      return MatrixIO.read(in);
+    }
+  }
+
+  /**
+   * Read a matrix from a stream into the narrowest array-based matrix
+   * class, i.e., into an instance of {@link ByteMatrix1D},
+   * {@link ShortMatrix1D}, {@link IntMatrix1D}, {@link LongMatrix1D},
+   * {@link FloatMatrix1D}, or {@link DoubleMatrix1D} for general
+   * matrices and into the corresponding {@link DistanceMatrix} for
+   * distance matrices.
+   *
+   * @param in
+   *          the stream, which is not closed by this method
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails or the data has an invalid format
+   */
+  public static final AbstractMatrix read(final InputStream in)
+      throws IOException {
+    final __Header header;
+    final byte[] headerData, sectionHeaderData;
+    final ByteBuffer sectionHeader;
+    final int count;
+    final long total;
+    byte[] bytes;
+    short[] shorts;
+    int[] ints;
+    long[] longs;
+    float[] floats;
+    double[] doubles;
+    ByteBuffer data;
+    byte[] payload;
+    int section, type, encoding, k, index, start, end, chunk;
+    long length, size, l;
+    double d;
+
+    headerData = new byte[MatrixIO.HEADER_SIZE];
+    MatrixIO.__readFully(in, headerData);
+    header = new __Header(ByteBuffer.wrap(headerData)
+        .order(_Buffers.BYTE_ORDER));
+
+    count = MatrixIO.__sectionSize(header.m_distance, header.m_m);
+    total = (header.m_distance ? count
+        : (((long) header.m_m) * header.m_n));
+    if (total > Integer.MAX_VALUE) {
+      throw new IOException(//
+          ((("A " + header.m_m) + '*') + header.m_n) + //$NON-NLS-1$
+              " matrix is too large to be read into an array, map it instead."); //$NON-NLS-1$
+    }
+
+    bytes = null;
+    shorts = null;
+    ints = null;
+    longs = null;
+    floats = null;
+    doubles = null;
+    switch (header.m_type) {
+      case _Buffers.TYPE_BYTE: {
+        bytes = new byte[(int) total];
+        break;
+      }
+      case _Buffers.TYPE_SHORT: {
+        shorts = new short[(int) total];
+        break;
+      }
+      case _Buffers.TYPE_INT: {
+        ints = new int[(int) total];
+        break;
+      }
+      case _Buffers.TYPE_LONG: {
+        longs = new long[(int) total];
+        break;
+      }
+      case _Buffers.TYPE_FLOAT: {
+        floats = new float[(int) total];
+        break;
+      }
+      default: {
+        doubles = new double[(int) total];
+      }
+    }
+
+    sectionHeaderData = new byte[MatrixIO.SECTION_HEADER_SIZE];
+    sectionHeader = ByteBuffer.wrap(sectionHeaderData)
+        .order(_Buffers.BYTE_ORDER);
+    for (section = 0; section < header.m_sections; section++) {
+      MatrixIO.__readFully(in, sectionHeaderData);
+      sectionHeader.clear();
+      type = sectionHeader.getInt();
+      encoding = sectionHeader.getInt();
+      length = sectionHeader.getLong();
+      if ((type < _Buffers.TYPE_BYTE) || (type > _Buffers.TYPE_DOUBLE)
+          || ((!(_Buffers._isInteger(type)))
+              && _Buffers._isInteger(header.m_type))
+          || (length < 0L)) {
+        throw new IOException(//
+            "Invalid header of matrix section " + section); //$NON-NLS-1$
+      }
+      // the size may exceed 2 GiB, e.g., for a double distance matrix
+      // with more than 23170 rows
+      size = (((long) count) << _Buffers._elementShift(type));
+
+      switch (encoding) {
+        case ENCODING_RAW: {
+          if (length != size) {
+            throw new IOException(//
+                "Invalid length of matrix section " + section); //$NON-NLS-1$
+          }
+          // uncompressed sections are read in chunks
+          payload = new byte[(int) (Math.min(size, MatrixIO.CHUNK_SIZE))];
+          start = end = 0;
+          break;
+        }
+        case ENCODING_DEFLATE: {
+          if ((length > MatrixIO.MAX_BUFFERED_SECTION)
+              || (size > MatrixIO.MAX_BUFFERED_SECTION)) {
+            throw new IOException(//
+                ("Compressed matrix section " + section) + //$NON-NLS-1$
+                    " is too large to be read."); //$NON-NLS-1$
+          }
+          payload = new byte[(int) length];
+          MatrixIO.__readFully(in, payload);
+          MatrixIO.__readFully(in, new byte[MatrixIO.__padding(length)]);
+          payload = MatrixIO.__inflate(payload, ((int) size));
+          start = 0;
+          end = count;
+          break;
+        }
+        default: {
+          throw new IOException(//
+              ("Unknown encoding " + encoding) + //$NON-NLS-1$
+                  " of matrix section " + section); //$NON-NLS-1$
+        }
+      }
+
+      data = ByteBuffer.wrap(payload).order(_Buffers.BYTE_ORDER);
+      index = (header.m_distance ? 0 : section);
+      for (k = 0; k < count; k++) {
+        if (k >= end) {// read the next chunk of an uncompressed section
+          chunk = Math.min((count - k),
+              (payload.length >>> _Buffers._elementShift(type)));
+          MatrixIO.__readFully(in, payload,
+              (chunk << _Buffers._elementShift(type)));
+          start = k;
+          end = (k + chunk);
+        }
+        if (bytes != null) {
+          bytes[index] = ((byte) (MatrixIO.__getLong(data, type,
+              (k - start))));
+        } else {
+          if (shorts != null) {
+            shorts[index] = ((short) (MatrixIO.__getLong(data, type,
+                (k - start))));
+          } else {
+            if (ints != null) {
+              ints[index] = ((int) (MatrixIO.__getLong(data, type,
+                  (k - start))));
+            } else {
+              if (longs != null) {
+                longs[index] = MatrixIO.__getLong(data, type, (k - start));
+              } else {
+                d = MatrixIO.__getDouble(data, type, (k - start));
+                if (floats != null) {
+                  floats[index] = ((float) d);
+                } else {
+                  doubles[index] = d;
+                }
+              }
+            }
+          }
+        }
+        index += (header.m_distance ? 1 : header.m_n);
+      }
+      if (encoding == MatrixIO.ENCODING_RAW) {
+        MatrixIO.__readFully(in, new byte[MatrixIO.__padding(length)]);
+      }
+    }
+
+    if (header.m_distance) {
+      if (bytes != null) {
+        return new ByteDistanceMatrix1D(bytes, header.m_m);
+      }
+      if (shorts != null) {
+        return new ShortDistanceMatrix1D(shorts, header.m_m);
+      }
+      if (ints != null) {
+        return new IntDistanceMatrix1D(ints, header.m_m);
+      }
+      if (longs != null) {
+        return new LongDistanceMatrix1D(longs, header.m_m);
+      }
+      if (floats != null) {
+        return new FloatDistanceMatrix1D(floats, header.m_m);
+      }
+      return new DoubleDistanceMatrix1D(doubles, header.m_m);
+    }
+
+    if (bytes != null) {
+      return new ByteMatrix1D(bytes, header.m_m, header.m_n);
+    }
+    if (shorts != null) {
+      return new ShortMatrix1D(shorts, header.m_m, header.m_n);
+    }
+    if (ints != null) {
+      return new IntMatrix1D(ints, header.m_m, header.m_n);
+    }
+    if (longs != null) {
+      return new LongMatrix1D(longs, header.m_m, header.m_n);
+    }
+    if (floats != null) {
+      return new FloatMatrix1D(floats, header.m_m, header.m_n);
+    }
+    return new DoubleMatrix1D(doubles, header.m_m, header.m_n);
+  }
+
+  /**
+   * Get an element from a buffer as {@code long}
+   *
+   * @param data
+   *          the buffer
+   * @param type
+   *          the element type code
+   * @param index
+   *          the element index
+   * @return the element
+   */
+  private static final long __getLong(final ByteBuffer data,
+      final int type, final int index) {
+    switch (type) {
+      case _Buffers.TYPE_BYTE: {
+        return data.get(index);
+      }
+      case _Buffers.TYPE_SHORT: {
+        return data.getShort(index << 1);
+      }
+      case _Buffers.TYPE_INT: {
+        return data.getInt(index << 2);
+      }
+      default: {
+        return data.getLong(index << 3);
+      }
+    }
+  }
+
+  /**
+   * Get an element from a buffer as {@code double}
+   *
+   * @param data
+   *          the buffer
+   * @param type
+   *          the element type code
+   * @param index
+   *          the element index
+   * @return the element
+   */
+  private static final double __getDouble(final ByteBuffer data,
+      final int type, final int index) {
+    switch (type) {
+      case _Buffers.TYPE_FLOAT: {
+        return data.getFloat(index << 2);
+      }
+      case _Buffers.TYPE_DOUBLE: {
+        return data.getDouble(index << 3);
+      }
+      default: {
+        return MatrixIO.__getLong(data, type, index);
+      }
+    }
+  }
+
+  /**
+   * Map a matrix file into memory without copying its data. The columns
+   * of a general matrix keep the element types they were stored with, so
+   * the result is a {@link ColumnMatrix} whose columns are backed by the
+   * file, while distance matrices are returned as
+   * {@link BufferDistanceMatrix}. If any section of the file is
+   * compressed, the file cannot be mapped and is {@link #read(Path) read}
+   * instead.
+   *
+   * @param file
+   *          the file
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails or the file has an invalid format
+   */
+  public static final AbstractMatrix map(final Path file)
+      throws IOException {
+    final __Header header;
+    final ByteBuffer buffer;
+    final int count;
+    final _Column[] columns;
+    final _Buffers[] data;
+    long position, length;
+    int section, type;
+
+    try (final FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ)) {
+      buffer = MatrixIO.__allocate(MatrixIO.HEADER_SIZE);
+      MatrixIO.__read(channel, buffer, 0L);
+      header = new __Header(buffer);
+      count = MatrixIO.__sectionSize(header.m_distance, header.m_m);
+
+      data = new _Buffers[header.m_sections];
+      position = MatrixIO.HEADER_SIZE;
+      for (section = 0; section < header.m_sections; section++) {
+        buffer.clear();
+        buffer.limit(MatrixIO.SECTION_HEADER_SIZE);
+        MatrixIO.__read(channel, buffer, position);
+        type = buffer.getInt();
+        if (buffer.getInt() != MatrixIO.ENCODING_RAW) {
+          return MatrixIO.read(file);
+        }
+        if ((type < _Buffers.TYPE_BYTE) || (type > _Buffers.TYPE_DOUBLE)) {
+          throw new IOException(//
+              "Invalid header of matrix section " + section); //$NON-NLS-1$
+        }
+        length = buffer.getLong();
+        if (length != (((long) count) << _Buffers._elementShift(type))) {
+          throw new IOException(//
+              "Invalid length of matrix section " + section); //$NON-NLS-1$
+        }
+        position += MatrixIO.SECTION_HEADER_SIZE;
+        data[section] = _Buffers._map(channel, position, count, type);
+        position += (length + MatrixIO.__padding(length));
+      }
+    }
+
+    if (header.m_distance) {
+      return new BufferDistanceMatrix(data[0], header.m_m);
+    }
+    columns = new _Column[data.length];
+    for (section = data.length; (--section) >= 0;) {
+      columns[section] = new _Column._BufferColumn(data[section]);
+    }
+    return new ColumnMatrix(columns, header.m_m);
+  }
+
+  /**
+   * Fill a buffer from a channel
+   *
+   * @param channel
+   *          the channel
+   * @param buffer
+   *          the buffer
+   * @param position
+   *          the position in the channel
+   * @throws IOException
+   *           if i/o fails or the channel ends too early
+   */
+  private static final void __read(final FileChannel channel,
+      final ByteBuffer buffer, final long position) throws IOException {
+    int read;
+
+    read = 0;
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, (position + read)) < 0) {
+        throw new IOException(//
+            "Unexpected end of matrix file."); //$NON-NLS-1$
+      }
+      read = buffer.position();
+    }
+    buffer.flip();
+  }
+
+  /** the header of a matrix file */
+  private static final class __Header {
+
+    /** is this a distance matrix? */
+    final boolean m_distance;
+
+    /** the element type code of the whole matrix */
+    final int m_type;
+
+    /** the m */
+    final int m_m;
+
+    /** the n */
+    final int m_n;
+
+    /** the number of sections */
+    final int m_sections;
+
+    /**
+     * read the header
+     *
+     * @param buffer
+     *          the buffer holding the header
+     * @throws IOException
+     *           if the header is invalid
+     */
+    __Header(final ByteBuffer buffer) throws IOException {
+      super();
+
+      final int layout;
+
+      if ((buffer.getInt() != MatrixIO.MAGIC)
+          || (buffer.getInt() != MatrixIO.VERSION)) {
+        throw new IOException(//
+            "Data is not a matrix of format version " //$NON-NLS-1$
+                + MatrixIO.VERSION);
+      }
+
+      layout = buffer.getInt();
+      this.m_type = buffer.getInt();
+      this.m_m = buffer.getInt();
+      this.m_n = buffer.getInt();
+
+      if ((this.m_type < _Buffers.TYPE_BYTE)
+          || (this.m_type > _Buffers.TYPE_DOUBLE)) {
+        throw new IOException(//
+            "Unknown matrix element type code: " + this.m_type); //$NON-NLS-1$
+      }
+
+      switch (layout) {
+        case LAYOUT_DENSE: {
+          this.m_distance = false;
+          this.m_sections = this.m_n;
+          break;
+        }
+        case LAYOUT_DISTANCE: {
+          this.m_distance = true;
+          this.m_sections = 1;
+          if (this.m_m != this.m_n) {
+            throw new IOException(//
+                "Distance matrix must be square."); //$NON-NLS-1$
+          }
+          break;
+        }
+        default: {
+          throw new IOException(//
+              "Unknown matrix layout: " + layout); //$NON-NLS-1$
+        }
+      }
+
+      if ((this.m_m <= 0) || (this.m_n <= 0)) {
+        throw new IOException(//
+            ((("Invalid matrix dimensions " + this.m_m) + '*') //$NON-NLS-1$
+                + this.m_n));
+      }
+    }
+  }
+}
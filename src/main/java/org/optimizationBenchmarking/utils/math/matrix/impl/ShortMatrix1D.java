@@ -14,10 +14,10 @@ public final class ShortMatrix1D extends AbstractMatrix
   private final int m_m;
 
   /** the n */
-  private final int m_n;
+  final int m_n;
 
   /** the data */
-  private final short[] m_data;
+  final short[] m_data;
 
   /**
    * create the matrix
@@ -0,0 +1,303 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+/**
+ * A sequence of elements of one primitive type, stored in direct or
+ * memory-mapped {@link java.nio.ByteBuffer}s. The elements are split into
+ * chunks whose size is a power of two, so the sequence may be longer than
+ * the 2 GiB limit of a single buffer.
+ */
+final class _Buffers {
+
+  /** the byte order of all buffers */
+  static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  /** the chunk size used when mapping files, as power of 2 */
+  static final int MAP_CHUNK_SHIFT = 30;
+
+  /** the type code for {@code byte} */
+  static final int TYPE_BYTE = 1;
+  /** the type code for {@code short} */
+  static final int TYPE_SHORT = 2;
+  /** the type code for {@code int} */
+  static final int TYPE_INT = 3;
+  /** the type code for {@code long} */
+  static final int TYPE_LONG = 4;
+  /** the type code for {@code float} */
+  static final int TYPE_FLOAT = 5;
+  /** the type code for {@code double} */
+  static final int TYPE_DOUBLE = 6;
+
+  /** the chunks */
+  private final ByteBuffer[] m_chunks;
+
+  /** the chunk size as power of 2 */
+  private final int m_chunkShift;
+
+  /** the mask for the index inside a chunk */
+  private final long m_chunkMask;
+
+  /** the element type code */
+  final int m_type;
+
+  /** the element size as power of 2 */
+  private final int m_elementShift;
+
+  /**
+   * create
+   *
+   * @param chunks
+   *          the chunks holding the data
+   * @param chunkShift
+   *          the size of each chunk (except the last one) as power of 2
+   * @param type
+   *          the element type code
+   */
+  _Buffers(final ByteBuffer[] chunks, final int chunkShift,
+      final int type) {
+    super();
+    this.m_chunks = chunks;
+    this.m_chunkShift = chunkShift;
+    this.m_chunkMask = ((1L << chunkShift) - 1L);
+    this.m_type = type;
+    this.m_elementShift = _Buffers._elementShift(type);
+  }
+
+  /**
+   * Map a part of a file into memory
+   *
+   * @param channel
+   *          the channel to the file
+   * @param position
+   *          the position of the first element in the file
+   * @param count
+   *          the number of elements
+   * @param type
+   *          the element type code
+   * @return the buffers
+   * @throws IOException
+   *           if mapping fails
+   */
+  static final _Buffers _map(final FileChannel channel,
+      final long position, final long count, final int type)
+      throws IOException {
+    final ByteBuffer[] chunks;
+    final long size, chunkSize;
+    long offset;
+    int i;
+
+    size = (count << _Buffers._elementShift(type));
+    if (channel.size() < (position + size)) {
+      throw new IOException(//
+          (((("File is too short to contain " + count) + //$NON-NLS-1$
+              " elements of type ") + _Buffers._elementType(type)) + //$NON-NLS-1$
+              " at position ") + position); //$NON-NLS-1$
+    }
+
+    chunkSize = (1L << _Buffers.MAP_CHUNK_SHIFT);
+    chunks = new ByteBuffer[(int) ((size + chunkSize - 1L) >>> //
+    _Buffers.MAP_CHUNK_SHIFT)];
+    offset = 0L;
+    for (i = 0; i < chunks.length; i++) {
+      chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+          (position + offset), Math.min(chunkSize, (size - offset)));
+      chunks[i].order(_Buffers.BYTE_ORDER);
+      offset += chunkSize;
+    }
+    return new _Buffers(chunks, _Buffers.MAP_CHUNK_SHIFT, type);
+  }
+
+  /**
+   * Get the type code for the given element type
+   *
+   * @param type
+   *          the element type
+   * @return the type code
+   */
+  static final int _typeCode(final EPrimitiveType type) {
+    if (type != null) {
+      switch (type) {
+        case BYTE: {
+          return _Buffers.TYPE_BYTE;
+        }
+        case SHORT: {
+          return _Buffers.TYPE_SHORT;
+        }
+        case INT: {
+          return _Buffers.TYPE_INT;
+        }
+        case LONG: {
+          return _Buffers.TYPE_LONG;
+        }
+        case FLOAT: {
+          return _Buffers.TYPE_FLOAT;
+        }
+        case DOUBLE: {
+          return _Buffers.TYPE_DOUBLE;
+        }
+        default: {
+          // fall through to error
+        }
+      }
+    }
+    throw new IllegalArgumentException(//
+        "Unsupported matrix element type: " + type); //$NON-NLS-1$
+  }
+
+  /**
+   * Get the element type for the given type code
+   *
+   * @param type
+   *          the type code
+   * @return the element type
+   */
+  static final EPrimitiveType _elementType(final int type) {
+    switch (type) {
+      case TYPE_BYTE: {
+        return EPrimitiveType.BYTE;
+      }
+      case TYPE_SHORT: {
+        return EPrimitiveType.SHORT;
+      }
+      case TYPE_INT: {
+        return EPrimitiveType.INT;
+      }
+      case TYPE_LONG: {
+        return EPrimitiveType.LONG;
+      }
+      case TYPE_FLOAT: {
+        return EPrimitiveType.FLOAT;
+      }
+      case TYPE_DOUBLE: {
+        return EPrimitiveType.DOUBLE;
+      }
+      default: {
+        throw new IllegalArgumentException(//
+            "Unknown matrix element type code: " + type); //$NON-NLS-1$
+      }
+    }
+  }
+
+  /**
+   * Get the element size as power of 2 for the given type code
+   *
+   * @param type
+   *          the type code
+   * @return the element size as power of 2
+   */
+  static final int _elementShift(final int type) {
+    switch (type) {
+      case TYPE_BYTE: {
+        return 0;
+      }
+      case TYPE_SHORT: {
+        return 1;
+      }
+      case TYPE_INT:
+      case TYPE_FLOAT: {
+        return 2;
+      }
+      case TYPE_LONG:
+      case TYPE_DOUBLE: {
+        return 3;
+      }
+      default: {
+        throw new IllegalArgumentException(//
+            "Unknown matrix element type code: " + type); //$NON-NLS-1$
+      }
+    }
+  }
+
+  /**
+   * Is the given type code an integer type?
+   *
+   * @param type
+   *          the type code
+   * @return {@code true} if the type code denotes an integer type,
+   *         {@code false} otherwise
+   */
+  static final boolean _isInteger(final int type) {
+    return ((type != _Buffers.TYPE_FLOAT)
+        && (type != _Buffers.TYPE_DOUBLE));
+  }
+
+  /**
+   * Get the element at the given index as {@code long}
+   *
+   * @param index
+   *          the index
+   * @return the element
+   */
+  final long _getLong(final long index) {
+    final long position;
+    final ByteBuffer chunk;
+    final int offset;
+
+    position = (index << this.m_elementShift);
+    chunk = this.m_chunks[(int) (position >>> this.m_chunkShift)];
+    offset = ((int) (position & this.m_chunkMask));
+    switch (this.m_type) {
+      case TYPE_BYTE: {
+        return chunk.get(offset);
+      }
+      case TYPE_SHORT: {
+        return chunk.getShort(offset);
+      }
+      case TYPE_INT: {
+        return chunk.getInt(offset);
+      }
+      case TYPE_LONG: {
+        return chunk.getLong(offset);
+      }
+      case TYPE_FLOAT: {
+        return ((long) (chunk.getFloat(offset)));
+      }
+      default: {
+        return ((long) (chunk.getDouble(offset)));
+      }
+    }
+  }
+
+  /**
+   * Get the element at the given index as {@code double}
+   *
+   * @param index
+   *          the index
+   * @return the element
+   */
+  final double _getDouble(final long index) {
+    final long position;
+    final ByteBuffer chunk;
+    final int offset;
+
+    position = (index << this.m_elementShift);
+    chunk = this.m_chunks[(int) (position >>> this.m_chunkShift)];
+    offset = ((int) (position & this.m_chunkMask));
+    switch (this.m_type) {
+      case TYPE_BYTE: {
+        return chunk.get(offset);
+      }
+      case TYPE_SHORT: {
+        return chunk.getShort(offset);
+      }
+      case TYPE_INT: {
+        return chunk.getInt(offset);
+      }
+      case TYPE_LONG: {
+        return chunk.getLong(offset);
+      }
+      case TYPE_FLOAT: {
+        return chunk.getFloat(offset);
+      }
+      default: {
+        return chunk.getDouble(offset);
+      }
+    }
+  }
+}
@@ -0,0 +1,559 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+
+/**
+ * The internal storage of one column of a {@link ColumnMatrix}. Each
+ * column chooses its own representation, so a column with small values
+ * does not need to be widened just because another column of the same
+ * matrix holds large values.
+ */
+abstract class _Column {
+
+  /** the size of the blocks of a block-packed column as power of 2 */
+  static final int BLOCK_SHIFT = 6;
+
+  /** the size of the buffer used for passing values to bulk aggregates */
+  private static final int BULK_BUFFER_SIZE = 1024;
+
+  /** create */
+  _Column() {
+    super();
+  }
+
+  /**
+   * Get the value at the given row as {@code long}
+   *
+   * @param row
+   *          the row
+   * @return the value
+   */
+  abstract long _getLong(final int row);
+
+  /**
+   * Get the value at the given row as {@code double}
+   *
+   * @param row
+   *          the row
+   * @return the value
+   */
+  abstract double _getDouble(final int row);
+
+  /**
+   * Does this column hold only integer values?
+   *
+   * @return {@code true} if this column holds only integer values,
+   *         {@code false} otherwise
+   */
+  abstract boolean _isInteger();
+
+  /**
+   * Pass the values of this column to an aggregate.
+   *
+   * @param m
+   *          the number of rows
+   * @param aggregate
+   *          the aggregate
+   */
+  void _aggregate(final int m, final IAggregate aggregate) {
+    final long[] lbuffer;
+    final double[] dbuffer;
+    int i, count;
+
+    if (aggregate instanceof IBulkAggregate) {
+      if (this._isInteger()) {
+        lbuffer = new long[Math.min(m, _Column.BULK_BUFFER_SIZE)];
+        for (i = 0; i < m;) {
+          count = 0;
+          while ((count < lbuffer.length) && (i < m)) {
+            lbuffer[count++] = this._getLong(i++);
+          }
+          ((IBulkAggregate) aggregate).append(lbuffer, 0, count);
+        }
+      } else {
+        dbuffer = new double[Math.min(m, _Column.BULK_BUFFER_SIZE)];
+        for (i = 0; i < m;) {
+          count = 0;
+          while ((count < dbuffer.length) && (i < m)) {
+            dbuffer[count++] = this._getDouble(i++);
+          }
+          ((IBulkAggregate) aggregate).append(dbuffer, 0, count);
+        }
+      }
+      return;
+    }
+
+    if (this._isInteger()) {
+      for (i = 0; i < m; i++) {
+        aggregate.append(this._getLong(i));
+      }
+    } else {
+      for (i = 0; i < m; i++) {
+        aggregate.append(this._getDouble(i));
+      }
+    }
+  }
+
+  /**
+   * Get the number of bits needed to store the unsigned value
+   * {@code range}.
+   *
+   * @param range
+   *          the non-negative range
+   * @return the number of bits
+   */
+  static final int _bits(final long range) {
+    return (64 - Long.numberOfLeadingZeros(range));
+  }
+
+  /**
+   * Get the number of {@code long} words needed to pack {@code count}
+   * values of {@code bits} bits each
+   *
+   * @param count
+   *          the number of values
+   * @param bits
+   *          the bits per value
+   * @return the number of words
+   */
+  static final long _words(final int count, final int bits) {
+    return Math.max(1L, (((((long) count) * bits) + 63L) >>> 6));
+  }
+
+  /**
+   * Pack the non-negative values {@code values[i]-bases[i>>>shift]} into
+   * an array of {@code long} words, using {@code bits} bits for each
+   * value.
+   *
+   * @param values
+   *          the values
+   * @param count
+   *          the number of values
+   * @param bases
+   *          the base values to subtract
+   * @param shift
+   *          the shift to get the index into {@code bases}
+   * @param bits
+   *          the number of bits per value, in {@code 0..63}
+   * @return the packed words
+   */
+  static final long[] _pack(final long[] values, final int count,
+      final long[] bases, final int shift, final int bits) {
+    final long[] words;
+    long bit, value;
+    int i, word, offset;
+
+    words = new long[(int) (_Column._words(count, bits))];
+    if (bits > 0) {
+      for (i = 0; i < count; i++) {
+        value = (values[i] - bases[i >>> shift]);
+        bit = (((long) i) * bits);
+        word = ((int) (bit >>> 6));
+        offset = ((int) (bit & 63L));
+        words[word] |= (value << offset);
+        if ((offset + bits) > 64) {
+          words[word + 1] |= (value >>> (64 - offset));
+        }
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Unpack the value at index {@code index} from an array of {@code long}
+   * words
+   *
+   * @param words
+   *          the words
+   * @param bits
+   *          the number of bits per value, in {@code 0..63}
+   * @param index
+   *          the index
+   * @return the unpacked value
+   */
+  static final long _unpack(final long[] words, final int bits,
+      final int index) {
+    final long bit;
+    final int word, offset;
+    long value;
+
+    bit = (((long) index) * bits);
+    word = ((int) (bit >>> 6));
+    offset = ((int) (bit & 63L));
+    value = (words[word] >>> offset);
+    if ((offset + bits) > 64) {
+      value |= (words[word + 1] << (64 - offset));
+    }
+    return (value & ((1L << bits) - 1L));
+  }
+
+  /** a column backed by a {@code byte} array */
+  static final class _ByteColumn extends _Column {
+    /** the data */
+    private final byte[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _ByteColumn(final byte[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+  }
+
+  /** a column backed by a {@code short} array */
+  static final class _ShortColumn extends _Column {
+    /** the data */
+    private final short[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _ShortColumn(final short[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+  }
+
+  /** a column backed by an {@code int} array */
+  static final class _IntColumn extends _Column {
+    /** the data */
+    private final int[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _IntColumn(final int[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+  }
+
+  /** a column backed by a {@code long} array */
+  static final class _LongColumn extends _Column {
+    /** the data */
+    private final long[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _LongColumn(final long[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final void _aggregate(final int m, final IAggregate aggregate) {
+      if (aggregate instanceof IBulkAggregate) {
+        ((IBulkAggregate) aggregate).append(this.m_data, 0, m);
+        return;
+      }
+      super._aggregate(m, aggregate);
+    }
+  }
+
+  /** a column backed by a {@code float} array */
+  static final class _FloatColumn extends _Column {
+    /** the data */
+    private final float[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _FloatColumn(final float[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return ((long) (this.m_data[row]));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return false;
+    }
+  }
+
+  /** a column backed by a {@code double} array */
+  static final class _DoubleColumn extends _Column {
+    /** the data */
+    private final double[] m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _DoubleColumn(final double[] data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return ((long) (this.m_data[row]));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final void _aggregate(final int m, final IAggregate aggregate) {
+      if (aggregate instanceof IBulkAggregate) {
+        ((IBulkAggregate) aggregate).append(this.m_data, 0, m);
+        return;
+      }
+      super._aggregate(m, aggregate);
+    }
+  }
+
+  /** a column backed by direct or memory-mapped buffers */
+  static final class _BufferColumn extends _Column {
+    /** the data */
+    private final _Buffers m_data;
+
+    /**
+     * create
+     *
+     * @param data
+     *          the data
+     */
+    _BufferColumn(final _Buffers data) {
+      super();
+      this.m_data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return this.m_data._getLong(row);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this.m_data._getDouble(row);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return _Buffers._isInteger(this.m_data.m_type);
+    }
+  }
+
+  /**
+   * A column of integers which are stored as their difference to the
+   * column minimum, using only as many bits as needed for the range of
+   * the column. A constant column needs no bits at all.
+   */
+  static final class _PackedColumn extends _Column {
+    /** the minimum value */
+    private final long m_min;
+    /** the bits per value */
+    private final int m_bits;
+    /** the packed words */
+    private final long[] m_words;
+
+    /**
+     * create
+     *
+     * @param min
+     *          the minimum value
+     * @param bits
+     *          the bits per value
+     * @param words
+     *          the packed words
+     */
+    _PackedColumn(final long min, final int bits, final long[] words) {
+      super();
+      this.m_min = min;
+      this.m_bits = bits;
+      this.m_words = words;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return (this.m_min + _Column._unpack(this.m_words, this.m_bits, row));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this._getLong(row);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+  }
+
+  /**
+   * A column of integers which is divided into blocks of
+   * {@code 1<<}{@link #BLOCK_SHIFT} values. Each value is stored as its
+   * difference to the minimum of its block, using as many bits as needed
+   * for the largest range of any block. This frame-of-reference encoding
+   * needs very few bits for monotone columns, such as consumed function
+   * evaluations or runtime, while still allowing random access in
+   * constant time.
+   */
+  static final class _BlockPackedColumn extends _Column {
+    /** the block minima */
+    private final long[] m_bases;
+    /** the bits per value */
+    private final int m_bits;
+    /** the packed words */
+    private final long[] m_words;
+
+    /**
+     * create
+     *
+     * @param bases
+     *          the block minima
+     * @param bits
+     *          the bits per value
+     * @param words
+     *          the packed words
+     */
+    _BlockPackedColumn(final long[] bases, final int bits,
+        final long[] words) {
+      super();
+      this.m_bases = bases;
+      this.m_bits = bits;
+      this.m_words = words;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final long _getLong(final int row) {
+      return (this.m_bases[row >>> _Column.BLOCK_SHIFT]
+          + _Column._unpack(this.m_words, this.m_bits, row));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _getDouble(final int row) {
+      return this._getLong(row);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final boolean _isInteger() {
+      return true;
+    }
+  }
+}
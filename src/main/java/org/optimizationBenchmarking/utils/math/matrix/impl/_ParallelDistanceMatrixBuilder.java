@@ -0,0 +1,393 @@
+package org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.parallel.Execute;
+
+/**
+ * The parallel mode of a {@link DistanceMatrixBuilderJob}: The rows of
+ * the distance matrix are partitioned into tiles of consecutive rows with
+ * roughly the same number of elements. Since the upper triangle is stored
+ * row by row, each tile covers a contiguous range of the data, into which
+ * its distances are written directly. The tiles are processed by at
+ * most {@code parallelism} jobs executed via {@link Execute}, each of
+ * which takes the next unprocessed tile until none is left. Afterwards,
+ * the distances are added to a {@link DistanceMatrixBuilder} in bulk, so
+ * the resulting matrix is the same as in sequential mode.
+ */
+final class _ParallelDistanceMatrixBuilder implements Callable<Void> {
+
+  /** the minimum number of distances per tile */
+  private static final int MIN_TILE_SIZE = 1024;
+
+  /** the job */
+  private final DistanceMatrixBuilderJob m_job;
+
+  /** the matrix dimension */
+  private final int m_m;
+
+  /** the parallelism */
+  private final int m_parallelism;
+
+  /** the integer distances, or {@code null} if floating point expected */
+  private final long[] m_longs;
+
+  /** the floating point distances, allocated on demand */
+  private double[] m_doubles;
+
+  /** the tiles */
+  private final ArrayList<__Tile> m_tiles;
+
+  /** the index of the next tile to process */
+  private final AtomicInteger m_nextTile;
+
+  /** the first error which occurred while processing a tile */
+  private Throwable m_error;
+
+  /** which rows have been completed? */
+  private final boolean[] m_done;
+
+  /** the number of released elements */
+  private int m_released;
+
+  /**
+   * create
+   *
+   * @param job
+   *          the job
+   * @param m
+   *          the matrix dimension
+   * @param parallelism
+   *          the parallelism
+   */
+  _ParallelDistanceMatrixBuilder(final DistanceMatrixBuilderJob job,
+      final int m, final int parallelism) {
+    super();
+
+    final int size, tileSize;
+    int start, end, offset, count;
+
+    this.m_job = job;
+    this.m_m = m;
+    this.m_parallelism = parallelism;
+    this.m_done = new boolean[m];
+    this.m_nextTile = new AtomicInteger();
+
+    size = DistanceMatrix._size(m);
+    switch (job.getDistanceType()) {
+      case FLOAT:
+      case DOUBLE: {
+        this.m_longs = null;
+        this.m_doubles = new double[size];
+        break;
+      }
+      default: {
+        this.m_longs = new long[size];
+      }
+    }
+
+    tileSize = Math.max(_ParallelDistanceMatrixBuilder.MIN_TILE_SIZE,
+        (size / (parallelism << 3)));
+    this.m_tiles = new ArrayList<>();
+    offset = 0;
+    for (start = 0; start < m; start = end) {
+      count = 0;
+      for (end = start; (end < m) && (count < tileSize); end++) {
+        count += (m - 1 - end);
+      }
+      if ((m - end) <= 1) {
+        end = m;
+      }
+      this.m_tiles.add(new __Tile(start, end, offset));
+      offset += count;
+    }
+  }
+
+  /**
+   * Get the floating point distances array
+   *
+   * @return the floating point distances array
+   */
+  private synchronized final double[] __doubles() {
+    if (this.m_doubles == null) {
+      this.m_doubles = new double[this.m_longs.length];
+    }
+    return this.m_doubles;
+  }
+
+  /**
+   * A tile of rows has been completed: release all elements whose rows
+   * and all rows before them have been completed.
+   *
+   * @param start
+   *          the first row of the tile
+   * @param end
+   *          the exclusive end row of the tile
+   */
+  synchronized final void _done(final int start, final int end) {
+    int index;
+
+    for (index = start; index < end; index++) {
+      this.m_done[index] = true;
+    }
+    while ((this.m_released < this.m_m)
+        && this.m_done[this.m_released]) {
+      this.m_job.releaseElement(this.m_released++);
+    }
+  }
+
+  /**
+   * Process tiles until all tiles have been taken. This is done by each
+   * of the parallel jobs.
+   *
+   * @return {@code null}
+   */
+  @Override
+  public final Void call() {
+    final int tiles;
+    int index;
+
+    tiles = this.m_tiles.size();
+    while ((index = this.m_nextTile.getAndIncrement()) < tiles) {
+      try {
+        this.m_tiles.get(index)._compute();
+      } catch (final Throwable error) {
+        synchronized (this) {
+          if (this.m_error == null) {
+            this.m_error = error;
+          }
+        }
+        // no other tile needs to be processed anymore
+        this.m_nextTile.set(tiles);
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compute the distances and build the matrix
+   *
+   * @return the distance matrix
+   */
+  @SuppressWarnings("unchecked")
+  final DistanceMatrix _build() {
+    final DistanceMatrixBuilder builder;
+    final double[] doubles;
+    final _ParallelDistanceMatrixBuilder[] jobs;
+    final Future<Void>[] futures;
+    int index;
+
+    jobs = new _ParallelDistanceMatrixBuilder[Math.min(this.m_parallelism,
+        this.m_tiles.size())];
+    if (jobs.length <= 1) {
+      this.call();
+    } else {
+      // all jobs share the same state and take tiles one by one
+      for (index = jobs.length; (--index) >= 0;) {
+        jobs[index] = this;
+      }
+      futures = Execute.parallel(jobs);
+      Execute.join(futures, new Void[jobs.length], 0, false);
+    }
+
+    // throw the original error, not a wrapped one
+    synchronized (this) {
+      if (this.m_error instanceof RuntimeException) {
+        throw ((RuntimeException) (this.m_error));
+      }
+      if (this.m_error instanceof Error) {
+        throw ((Error) (this.m_error));
+      }
+      if (this.m_error != null) {
+        throw new IllegalStateException(this.m_error);
+      }
+    }
+
+    // the matrix type is determined in the same way as in sequential mode
+    builder = new DistanceMatrixBuilder(this.m_job.getDistanceType(),
+        DistanceMatrix._size(this.m_m));
+    builder.setM(this.m_m);
+    doubles = this.m_doubles;
+    if (doubles == null) {
+      builder.append(this.m_longs);
+    } else {
+      if (this.m_longs != null) {
+        for (final __Tile tile : this.m_tiles) {
+          if (!(tile.m_isDouble)) {
+            for (index = tile.m_start; index < tile.m_end; index++) {
+              doubles[index] = this.m_longs[index];
+            }
+          }
+        }
+      }
+      builder.append(doubles);
+    }
+    return builder.make();
+  }
+
+  /** a tile of consecutive rows */
+  private final class __Tile implements IAggregate {
+
+    /** the first row */
+    private final int m_startRow;
+
+    /** the exclusive end row */
+    private final int m_endRow;
+
+    /** the index of the first distance of this tile */
+    final int m_start;
+
+    /** the exclusive end index of the distances of this tile */
+    int m_end;
+
+    /** does this tile store floating point distances? */
+    boolean m_isDouble;
+
+    /** the floating point distance array, if {@link #m_isDouble} */
+    private double[] m_doubles;
+
+    /** the first element of the pair whose distance is computed */
+    private int m_i;
+
+    /** the second element of the pair whose distance is computed */
+    private int m_j;
+
+    /** are we waiting for the distance of the current pair? */
+    private boolean m_pending;
+
+    /**
+     * create
+     *
+     * @param startRow
+     *          the first row
+     * @param endRow
+     *          the exclusive end row
+     * @param start
+     *          the index of the first distance of this tile
+     */
+    __Tile(final int startRow, final int endRow, final int start) {
+      super();
+      this.m_startRow = startRow;
+      this.m_endRow = endRow;
+      this.m_start = start;
+      this.m_end = start;
+      if (_ParallelDistanceMatrixBuilder.this.m_longs == null) {
+        this.m_isDouble = true;
+        this.m_doubles = _ParallelDistanceMatrixBuilder.this.m_doubles;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final byte v) {
+      this.append((long) v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final short v) {
+      this.append((long) v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final int v) {
+      this.append((long) v);
+    }
+
+    /**
+     * Make sure that only one distance is appended for the current pair
+     * before it is stored, since a second distance would overwrite the
+     * first distance of the next pair or tile.
+     *
+     * @throws IllegalStateException
+     *           if a distance has already been appended for the current
+     *           pair
+     */
+    private final void __accept() {
+      if (!(this.m_pending)) {
+        throw new IllegalStateException(//
+            (((("Exactly one distance must be appended for elements " //$NON-NLS-1$
+                + this.m_i) + " and ") + this.m_j) + //$NON-NLS-1$
+                ", but more were appended.")); //$NON-NLS-1$
+      }
+      this.m_pending = false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final long v) {
+      this.__accept();
+      if (this.m_isDouble) {
+        this.m_doubles[this.m_end++] = v;
+      } else {
+        _ParallelDistanceMatrixBuilder.this.m_longs[this.m_end++] = v;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final float v) {
+      this.append((double) v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void append(final double v) {
+      final long[] longs;
+      int index;
+
+      if (!(this.m_isDouble)) {
+        if (NumericalTypes.isLong(v)) {
+          this.append((long) v);
+          return;
+        }
+
+        this.__accept();
+        // switch this tile to floating point distances
+        this.m_doubles = _ParallelDistanceMatrixBuilder.this.__doubles();
+        longs = _ParallelDistanceMatrixBuilder.this.m_longs;
+        for (index = this.m_start; index < this.m_end; index++) {
+          this.m_doubles[index] = longs[index];
+        }
+        this.m_isDouble = true;
+      } else {
+        this.__accept();
+      }
+      this.m_doubles[this.m_end++] = v;
+    }
+
+    /** compute the distances of this tile */
+    final void _compute() {
+      final DistanceMatrixBuilderJob job;
+      final int m;
+      int i, j;
+
+      job = _ParallelDistanceMatrixBuilder.this.m_job;
+      m = _ParallelDistanceMatrixBuilder.this.m_m;
+      for (i = this.m_startRow; i < this.m_endRow; i++) {
+        this.m_i = i;
+        for (j = (i + 1); j < m; j++) {
+          this.m_j = j;
+          this.m_pending = true;
+          job.setDistance(i, j, this);
+          if (this.m_pending) {
+            this.m_pending = false;
+            throw new IllegalStateException(//
+                (((("Exactly one distance must be appended for elements " //$NON-NLS-1$
+                    + i) + " and ") + j) + //$NON-NLS-1$
+                    ", but none was appended.")); //$NON-NLS-1$
+          }
+        }
+      }
+      _ParallelDistanceMatrixBuilder.this._done(this.m_startRow,
+          this.m_endRow);
+    }
+  }
+}
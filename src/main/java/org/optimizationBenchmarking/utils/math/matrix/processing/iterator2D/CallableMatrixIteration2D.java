@@ -34,7 +34,13 @@ public final class CallableMatrixIteration2D<R>
 
     visitor = ((MatrixIteration2DVisitor<R>) (this.m_iteration.m_visitor));
     visitor.initialize(this.m_iteration);
-    this.m_iteration.run();
+    if ((this.m_iteration.m_partitions > 1)
+        && (visitor instanceof MergeableMatrixIteration2DVisitor)) {
+      this.m_iteration._runPartitioned(
+          (MergeableMatrixIteration2DVisitor<R>) visitor);
+    } else {
+      this.m_iteration.run();
+    }
     this.m_iteration = null;
     return visitor.build();
   }
@@ -30,6 +30,26 @@ public class CallableMatrixIteration2DBuilder<R> extends
     return this;
   }
 
+  /**
+   * Set the number of partitions into which the {@code x} axis should be
+   * divided. If more than one partition is requested and the
+   * {@linkplain #setVisitor(IVisitor) visitor} is a
+   * {@link MergeableMatrixIteration2DVisitor}, the partitions are iterated
+   * over in parallel and the results are merged in order. The result is
+   * the same as for a sequential iteration.
+   *
+   * @param partitions
+   *          the number of partitions, {@code 1} for a sequential
+   *          iteration
+   * @return this builder
+   */
+  public final CallableMatrixIteration2DBuilder<R> setPartitions(
+      final int partitions) {
+    MatrixIteration2DSpec._checkPartitions(partitions);
+    this.m_partitions = partitions;
+    return this;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final CallableMatrixIteration2D<R> create() {
@@ -1,6 +1,6 @@
 package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
 
-import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixColumnReader;
 
 /** the direction into which to iterate */
 public enum EIterationDirection {
@@ -46,7 +46,7 @@ public enum EIterationDirection {
     hasNot = true;
     for (index = impl.m_matrices.length; (--index) >= 0;) {
       if ((first = impl.m_indexes[index]) < impl.m_end[index]) {
-        current = impl.m_matrices[index].getLong(first, impl.m_xDimension);
+        current = impl.m_xColumns[index].getLong(first);
         if (hasNot
             || (increasing ? (current < start) : (current > start))) {
           start = current;
@@ -82,8 +82,7 @@ public enum EIterationDirection {
     hasNot = true;
     for (index = impl.m_matrices.length; (--index) >= 0;) {
       if ((first = impl.m_indexes[index]) < impl.m_end[index]) {
-        current = impl.m_matrices[index].getDouble(first,
-            impl.m_xDimension);
+        current = impl.m_xColumns[index].getDouble(first);
         if (Double.isNaN(current)) {
           throw new IllegalStateException(//
               "Encountered unexpected NaN on x axis during matrix iteration when trying to find first x value in matrix "//$NON-NLS-1$
@@ -139,6 +138,193 @@ public enum EIterationDirection {
     return (this.m_increasing ? (before < after) : (before > after));
   }
 
+  /**
+   * Check whether the {@code x} coordinate in a given row of a given
+   * matrix is beyond the goal {@code x} coordinate.
+   *
+   * @param index
+   *          the matrix index
+   * @param position
+   *          the row
+   * @param goalX
+   *          the goal {@code x} value
+   * @param orEqual
+   *          should an {@code x} coordinate equal to {@code goalX} also
+   *          count as beyond it?
+   * @param impl
+   *          the matrix iteration implementation
+   * @return {@code true} if the {@code x} coordinate is beyond
+   *         {@code goalX}, {@code false} otherwise
+   */
+  private final boolean __isBeyondLong(final int index, final int position,
+      final long goalX, final boolean orEqual,
+      final MatrixIteration2DState impl) {
+    final long current;
+
+    current = impl.m_xColumns[index].getLong(position);
+    if (orEqual && (current == goalX)) {
+      return true;
+    }
+    return (this.m_increasing ? (current > goalX) : (current < goalX));
+  }
+
+  /**
+   * Find the first row at or after {@code from} in the given matrix whose
+   * {@code x} coordinate is beyond {@code goalX}. The {@code x}
+   * coordinates are sorted, so we first gallop forward with exponentially
+   * growing steps until we pass {@code goalX} and then do a binary search
+   * in the last step. If the goal is {@code d} rows away, this costs
+   * {@code O(log d)} matrix accesses instead of {@code O(d)}, which pays
+   * off if a matrix contains long runs of rows with the same {@code x}
+   * coordinate.
+   *
+   * @param index
+   *          the matrix index
+   * @param from
+   *          the first row to check
+   * @param goalX
+   *          the goal {@code x} value
+   * @param orEqual
+   *          should an {@code x} coordinate equal to {@code goalX} also
+   *          count as beyond it?
+   * @param impl
+   *          the matrix iteration implementation
+   * @return the first row whose {@code x} coordinate is beyond
+   *         {@code goalX}, or the (exclusive) end index of the matrix if
+   *         there is no such row
+   */
+  final int _findXLong(final int index, final int from, final long goalX,
+      final boolean orEqual, final MatrixIteration2DState impl) {
+    final int end;
+    int low, high, step, middle;
+
+    end = impl.m_end[index];
+    low = high = from;
+    step = 1;
+
+    // gallop: the answer is in [low, high] after this loop
+    for (;;) {
+      if (high >= end) {
+        high = end;
+        break;
+      }
+      if (this.__isBeyondLong(index, high, goalX, orEqual, impl)) {
+        break;
+      }
+      low = (high + 1);
+      high = (((end - low) > step) ? (low + step) : end);
+      step <<= 1;
+    }
+
+    // binary search: the row at high is either beyond goalX or the end
+    while (low < high) {
+      middle = ((low + high) >>> 1);
+      if (this.__isBeyondLong(index, middle, goalX, orEqual, impl)) {
+        high = middle;
+      } else {
+        low = (middle + 1);
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Check whether the {@code x} coordinate in a given row of a given
+   * matrix is beyond the goal {@code x} coordinate.
+   *
+   * @param index
+   *          the matrix index
+   * @param position
+   *          the row
+   * @param goalX
+   *          the goal {@code x} value
+   * @param orEqual
+   *          should an {@code x} coordinate equal to {@code goalX} also
+   *          count as beyond it?
+   * @param impl
+   *          the matrix iteration implementation
+   * @return {@code true} if the {@code x} coordinate is beyond
+   *         {@code goalX}, {@code false} otherwise
+   */
+  private final boolean __isBeyondDouble(final int index, final int position,
+      final double goalX, final boolean orEqual,
+      final MatrixIteration2DState impl) {
+    final double current;
+
+    current = impl.m_xColumns[index].getDouble(position);
+    if (Double.isNaN(current)) {
+      throw new IllegalStateException(//
+          "Encountered unexpected NaN on x axis during matrix iteration in matrix "//$NON-NLS-1$
+              + index + " in row " + position + '.'); //$NON-NLS-1$
+    }
+    if (orEqual && (current == goalX)) {
+      return true;
+    }
+    return (this.m_increasing ? (current > goalX) : (current < goalX));
+  }
+
+  /**
+   * Find the first row at or after {@code from} in the given matrix whose
+   * {@code x} coordinate is beyond {@code goalX}. The {@code x}
+   * coordinates are sorted, so we first gallop forward with exponentially
+   * growing steps until we pass {@code goalX} and then do a binary search
+   * in the last step. If the goal is {@code d} rows away, this costs
+   * {@code O(log d)} matrix accesses instead of {@code O(d)}, which pays
+   * off if a matrix contains long runs of rows with the same {@code x}
+   * coordinate.
+   *
+   * @param index
+   *          the matrix index
+   * @param from
+   *          the first row to check
+   * @param goalX
+   *          the goal {@code x} value
+   * @param orEqual
+   *          should an {@code x} coordinate equal to {@code goalX} also
+   *          count as beyond it?
+   * @param impl
+   *          the matrix iteration implementation
+   * @return the first row whose {@code x} coordinate is beyond
+   *         {@code goalX}, or the (exclusive) end index of the matrix if
+   *         there is no such row
+   */
+  final int _findXDouble(final int index, final int from, final double goalX,
+      final boolean orEqual, final MatrixIteration2DState impl) {
+    final int end;
+    int low, high, step, middle;
+
+    end = impl.m_end[index];
+    low = high = from;
+    step = 1;
+
+    // gallop: the answer is in [low, high] after this loop
+    for (;;) {
+      if (high >= end) {
+        high = end;
+        break;
+      }
+      if (this.__isBeyondDouble(index, high, goalX, orEqual, impl)) {
+        break;
+      }
+      low = (high + 1);
+      high = (((end - low) > step) ? (low + step) : end);
+      step <<= 1;
+    }
+
+    // binary search: the row at high is either beyond goalX or the end
+    while (low < high) {
+      middle = ((low + high) >>> 1);
+      if (this.__isBeyondDouble(index, middle, goalX, orEqual, impl)) {
+        high = middle;
+      } else {
+        low = (middle + 1);
+      }
+    }
+
+    return low;
+  }
+
   /**
    * set the {@code x} coordinate for a given matrix as {@code long}.
    *
@@ -151,28 +337,23 @@ public enum EIterationDirection {
    * @return {@code true} if setting was successful, {@code false} if
    *         nothing was set
    */
-  boolean _setXCoordinateForMatrixLong(final int index, final long goalX,
-      final MatrixIteration2DState impl) {
-    final IMatrix matrix;
+  boolean _setXCoordinateForMatrixLong(final int index,
+      final long goalX, final MatrixIteration2DState impl) {
+    final MatrixColumnReader column;
     final int origPosition, max;
-    final boolean isXIncreasing, checkExactFit;
-    long previousX, currentX;
-    boolean hadXBefore, returnValue, noExactFit;
+    final boolean checkExactFit;
+    boolean returnValue;
     int position;
 
-    matrix = impl.m_matrices[index];
+    column = impl.m_xColumns[index];
     max = impl.m_end[index];
 
     if (max <= impl.m_start[index]) {
       return false;
     }
 
-    position = origPosition = impl.m_indexes[index];
-    isXIncreasing = this.m_increasing;
-    previousX = (isXIncreasing ? Long.MAX_VALUE : Long.MIN_VALUE);
-    hadXBefore = false;
+    origPosition = impl.m_indexes[index];
     checkExactFit = impl.m_iterationMode.m_useFirstEntry;
-    noExactFit = true;
 
     // Comments here are based on the assumption that direction=increasing
     // There are 4 possible situations:
@@ -182,54 +363,40 @@ public enum EIterationDirection {
     // 4. the matrix has no x element >= goalX (can only happen at end)
     // 5. we have an exact fit and need to stop at the first exact fit
 
-    // find the largest x value <= goalX
-    if (position < max) {
-      loop: for (;;) {
-        currentX = matrix.getLong(position, impl.m_xDimension);
-        if (isXIncreasing ? (currentX > goalX) : (currentX < goalX)) {
-          // we arrived at an element greater than goalX
-          // this can either be case 1, 2, or 3
-          // case 1: position>oldPosition, previousX==goalX,
-          // hadXBefore==true, position is 1 too high
-          // case 2: position>oldPosition, previousX<goalX,
-          // hadXBefore==true, position is 1 too high
-          // case 3: position=0, hadXBefore=false
-          break loop;
-        }
-        previousX = currentX;
-        hadXBefore = true;
-        if (checkExactFit && (currentX == goalX)) {// case 5
-          noExactFit = false;
-          break loop;
-        }
-        if ((++position) >= max) {
-          break loop;
-        }
-      }
-    }
+    // find the first x value > goalX, or the first x value >= goalX if we
+    // need to stop at the first exact fit
+    position = this._findXLong(index, origPosition, goalX, checkExactFit,
+        impl);
 
     // Now we arrive at the following choices
-    // case 1: position>oldPosition, previousX==goalX, hadXBefore==true,
-    // position is 1 too high
-    // case 2: position>oldPosition, previousX<goalX, hadXBefore==true,
-    // position is 1 too high, position<max
-    // case 3: position==oldPosition==0, hadXBefore=false
+    // case 5: checkExactFit, position<max, x at position==goalX
+    // case 1: position>oldPosition, previousX==goalX, position is 1 too
+    // high
+    // case 2: position>oldPosition, previousX<goalX, position is 1 too
+    // high, position<max
+    // case 3: position==oldPosition==0
     // case 4: otherwise: position>=max
-    // case 5: noExactFit=false
 
     findXValue: {
-      if (hadXBefore) {
+      if (checkExactFit && (position < max)
+          && (column.getLong(position) == goalX)) {
+        // case 5
+        impl._setYCoordinateFromMatrix(index, position);
+        returnValue = true;
+        break findXValue;
+      }
 
-        if (previousX == goalX) {// case 1 and 5
-          if (noExactFit) {
-            --position;
-          }
+      if (position > origPosition) {
+
+        if (column.getLong(position - 1) == goalX) {
+          // case 1
+          --position;
           impl._setYCoordinateFromMatrix(index, position);
           returnValue = true;
           break findXValue;
         }
 
-        if (position < max) {
+        if (position < max) {// case 2
           --position;
           impl.m_iterationMode._handleGoalXBetweenTwoValues(index,
               position, impl);
@@ -265,26 +432,22 @@ public enum EIterationDirection {
   final boolean _setNextXCoordinateLong(
       final MatrixIteration2DState impl) {
     final boolean increasing;
-    IMatrix matrix;
     boolean hasNot;
-    int index, position, max;
+    int index, position;
     long forbidden, start, current;
 
     increasing = this.m_increasing;
     start = forbidden = impl.m_x.longValue();
     hasNot = true;
-    outer: for (index = impl.m_matrices.length; (--index) >= 0;) {
-      matrix = impl.m_matrices[index];
-      max = impl.m_end[index];
-      for (position = impl.m_indexes[index]; position < max; position++) {
-        current = matrix.getLong(position, impl.m_xDimension);
-        if (increasing ? (current > forbidden) : (current < forbidden)) {
-          if (hasNot || //
-              (increasing ? (current < start) : (current > start))) {
-            hasNot = false;
-            start = current;
-          }
-          continue outer;
+    for (index = impl.m_matrices.length; (--index) >= 0;) {
+      position = this._findXLong(index, impl.m_indexes[index], forbidden,
+          false, impl);
+      if (position < impl.m_end[index]) {
+        current = impl.m_xColumns[index].getLong(position);
+        if (hasNot || //
+            (increasing ? (current < start) : (current > start))) {
+          hasNot = false;
+          start = current;
         }
       }
     }
@@ -306,31 +469,22 @@ public enum EIterationDirection {
   final boolean _setNextXCoordinateDouble(
       final MatrixIteration2DState impl) {
     final boolean increasing;
-    IMatrix matrix;
     boolean hasNot;
-    int index, position, max;
+    int index, position;
     double forbidden, start, current;
 
     increasing = this.m_increasing;
     start = forbidden = impl.m_x.doubleValue();
     hasNot = true;
-    outer: for (index = impl.m_matrices.length; (--index) >= 0;) {
-      matrix = impl.m_matrices[index];
-      max = impl.m_end[index];
-      for (position = impl.m_indexes[index]; position < max; position++) {
-        current = matrix.getDouble(position, impl.m_xDimension);
-        if (Double.isNaN(current)) {
-          throw new IllegalStateException(//
-              "Encountered unexpected NaN on x axis during matrix iteration in matrix "//$NON-NLS-1$
-                  + index + " in row " + position + '.'); //$NON-NLS-1$
-        }
-        if (increasing ? (current > forbidden) : (current < forbidden)) {
-          if (hasNot || //
-              (increasing ? (current < start) : (current > start))) {
-            hasNot = false;
-            start = current;
-          }
-          continue outer;
+    for (index = impl.m_matrices.length; (--index) >= 0;) {
+      position = this._findXDouble(index, impl.m_indexes[index], forbidden,
+          false, impl);
+      if (position < impl.m_end[index]) {
+        current = impl.m_xColumns[index].getDouble(position);
+        if (hasNot || //
+            (increasing ? (current < start) : (current > start))) {
+          hasNot = false;
+          start = current;
         }
       }
     }
@@ -355,27 +509,21 @@ public enum EIterationDirection {
    */
   boolean _setXCoordinateForMatrixDouble(final int index,
       final double goalX, final MatrixIteration2DState impl) {
-    final IMatrix matrix;
+    final MatrixColumnReader column;
     final int origPosition, max;
-    final boolean isXIncreasing, checkExactFit;
-    double previousX, currentX;
-    boolean hadXBefore, returnValue, noExactFit;
+    final boolean checkExactFit;
+    boolean returnValue;
     int position;
 
-    matrix = impl.m_matrices[index];
+    column = impl.m_xColumns[index];
     max = impl.m_end[index];
 
     if (max <= impl.m_start[index]) {
       return false;
     }
 
-    position = origPosition = impl.m_indexes[index];
-    isXIncreasing = this.m_increasing;
-    previousX = (isXIncreasing ? Double.POSITIVE_INFINITY
-        : Double.NEGATIVE_INFINITY);
-    hadXBefore = false;
+    origPosition = impl.m_indexes[index];
     checkExactFit = impl.m_iterationMode.m_useFirstEntry;
-    noExactFit = true;
 
     // Comments here are based on the assumption that direction=increasing
     // There are 4 possible situations:
@@ -385,60 +533,40 @@ public enum EIterationDirection {
     // 4. the matrix has no x element >= goalX (can only happen at end)
     // 5. we have an exact fit and need to stop at the first exact fit
 
-    // find the largest x value <= goalX
-    if (position < max) {
-      loop: for (;;) {
-        currentX = matrix.getDouble(position, impl.m_xDimension);
-        if (Double.isNaN(currentX)) {
-          throw new IllegalStateException(//
-              "Encountered a (very!) unexpected NaN on x axis during matrix iteration in matrix "//$NON-NLS-1$
-                  + index + " in row " + position + '.'); //$NON-NLS-1$
-        }
-
-        if (isXIncreasing ? (currentX > goalX) : (currentX < goalX)) {
-          // we arrived at an element greater than goalX
-          // this can either be case 1, 2, or 3
-          // case 1: position>oldPosition, previousX==goalX,
-          // hadXBefore==true, position is 1 too high
-          // case 2: position>oldPosition, previousX<goalX,
-          // hadXBefore==true, position is 1 too high
-          // case 3: position=0, hadXBefore=false
-          break loop;
-        }
-        previousX = currentX;
-        hadXBefore = true;
-        if (checkExactFit && (currentX == goalX)) {// case 5
-          noExactFit = false;
-          break loop;
-        }
-        if ((++position) >= max) {
-          break loop;
-        }
-      }
-    }
+    // find the first x value > goalX, or the first x value >= goalX if we
+    // need to stop at the first exact fit
+    position = this._findXDouble(index, origPosition, goalX, checkExactFit,
+        impl);
 
     // Now we arrive at the following choices
-    // case 1: position>oldPosition, previousX==goalX, hadXBefore==true,
-    // position is 1 too high
-    // case 2: position>oldPosition, previousX<goalX, hadXBefore==true,
-    // position is 1 too high, position<max
-    // case 3: position==oldPosition==0, hadXBefore=false
+    // case 5: checkExactFit, position<max, x at position==goalX
+    // case 1: position>oldPosition, previousX==goalX, position is 1 too
+    // high
+    // case 2: position>oldPosition, previousX<goalX, position is 1 too
+    // high, position<max
+    // case 3: position==oldPosition==0
     // case 4: otherwise: position>=max
-    // case 5: noExactFit=false
 
     findXValue: {
-      if (hadXBefore) {
+      if (checkExactFit && (position < max)
+          && (column.getDouble(position) == goalX)) {
+        // case 5
+        impl._setYCoordinateFromMatrix(index, position);
+        returnValue = true;
+        break findXValue;
+      }
+
+      if (position > origPosition) {
 
-        if (previousX == goalX) {// case 1 and 5
-          if (noExactFit) {
-            --position;
-          }
+        if (column.getDouble(position - 1) == goalX) {
+          // case 1
+          --position;
           impl._setYCoordinateFromMatrix(index, position);
           returnValue = true;
           break findXValue;
         }
 
-        if (position < max) {
+        if (position < max) {// case 2
           --position;
           impl.m_iterationMode._handleGoalXBetweenTwoValues(index,
               position, impl);
@@ -0,0 +1,88 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+/**
+ * The engine used to find the next {@code x} coordinate during a matrix
+ * iteration. All engines produce exactly the same sequence of {@code x}
+ * and {@code y} coordinates, they only differ in their runtime
+ * behavior.
+ */
+public enum EIterationEngine {
+
+  /**
+   * In each iteration step, scan over all matrices to find the next
+   * {@code x} coordinate and update the {@code y} coordinates of all
+   * matrices. If we iterate over {@code k} matrices, each step costs
+   * {@code O(k)}. This engine has no overhead and is the best choice if
+   * only few matrices are processed.
+   */
+  LINEAR_SCAN {
+    /** {@inheritDoc} */
+    @Override
+    final void _iterate(final MatrixIteration2DState impl) {
+      final EIterationDirection direction;
+
+      direction = impl.m_xDirection;
+      if (impl.m_xIsInteger) {
+        if ((impl.m_firstX != null)
+            ? impl._setXCoordinateLong(impl.m_firstX.longValue())
+            : direction._setFirstXCoordinateLong(impl)) {
+          for (;;) {
+            if (!(direction._setNextXCoordinateLong(impl))) {
+              return;
+            }
+          }
+        }
+      } else {
+        if ((impl.m_firstX != null)
+            ? impl._setXCoordinateDouble(impl.m_firstX.doubleValue())
+            : direction._setFirstXCoordinateDouble(impl)) {
+          for (;;) {
+            if (!(direction._setNextXCoordinateDouble(impl))) {
+              return;
+            }
+          }
+        }
+      }
+    }
+  },
+
+  /**
+   * Keep the next {@code x} coordinate of each matrix in a primitive,
+   * array-based heap. The {@code y} coordinate of a matrix can only
+   * change in a step in which it has a row at the current {@code x}
+   * coordinate or in the step right after it, so only the {@code y}
+   * coordinates of these matrices are updated, while all others are kept.
+   * Each step thus costs {@code O(log k)} per matrix which actually
+   * advances, instead of {@code O(k)}, and a full pass over {@code N} rows
+   * costs {@code O(N log k)}, plus a shift of the {@code y} row whenever a
+   * matrix starts or stops having a {@code y} value. This engine is the
+   * better choice if many matrices, e.g., the runs of an experiment, are
+   * processed together.
+   */
+  PRIORITY_QUEUE {
+    /** {@inheritDoc} */
+    @Override
+    final void _iterate(final MatrixIteration2DState impl) {
+      if (impl.m_xIsInteger) {
+        new _LongXQueue(impl)._iterate();
+      } else {
+        new _DoubleXQueue(impl)._iterate();
+      }
+    }
+  };
+
+  /** the default iteration engine */
+  public static final EIterationEngine DEFAULT = LINEAR_SCAN;
+
+  /**
+   * Perform the iteration: Find all {@code x} coordinates in order and
+   * visit them.
+   *
+   * @param impl
+   *          the iteration implementation, whose start and end indices
+   *          have already been set up and which begins at
+   *          {@link MatrixIteration2DState#m_firstX} if that is not
+   *          {@code null}
+   */
+  abstract void _iterate(final MatrixIteration2DState impl);
+}
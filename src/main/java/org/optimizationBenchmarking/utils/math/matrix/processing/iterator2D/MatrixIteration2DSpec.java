@@ -27,6 +27,10 @@ public abstract class MatrixIteration2DSpec {
   EIterationDirection m_xDirection;
   /** the iteration mode */
   EIterationMode m_iterationMode;
+  /** the iteration engine */
+  EIterationEngine m_iterationEngine;
+  /** the number of partitions of the {@code x} axis */
+  int m_partitions;
   /** the start mode */
   EMissingValueMode m_startMode;
   /**
@@ -70,6 +74,8 @@ public abstract class MatrixIteration2DSpec {
     super();
     this.m_yDimension = 1;
     this.m_iterationMode = EIterationMode.DEFAULT;
+    this.m_iterationEngine = EIterationEngine.DEFAULT;
+    this.m_partitions = 1;
     this.m_startMode = EMissingValueMode.DEFAULT_START_MODE;
     this.m_endMode = EMissingValueMode.DEFAULT_END_MODE;
     this.m_xDirection = EIterationDirection.INCREASING;
@@ -93,6 +99,8 @@ public abstract class MatrixIteration2DSpec {
     this.m_xDimension = other.m_xDimension;
     this.m_yDimension = other.m_yDimension;
     this.m_iterationMode = other.m_iterationMode;
+    this.m_iterationEngine = other.m_iterationEngine;
+    this.m_partitions = other.m_partitions;
     this.m_startMode = other.m_startMode;
     this.m_endMode = other.m_endMode;
     this.m_xDirection = other.m_xDirection;
@@ -158,6 +166,30 @@ public abstract class MatrixIteration2DSpec {
     return this.m_iterationMode;
   }
 
+  /**
+   * Get the iteration engine, i.e., the algorithm used to find the next
+   * {@code x} coordinate. The engine has no impact on the result of the
+   * iteration, only on its speed.
+   *
+   * @return the iteration engine
+   */
+  public final EIterationEngine getIterationEngine() {
+    return this.m_iterationEngine;
+  }
+
+  /**
+   * Get the number of partitions of the {@code x} axis which may be
+   * processed in parallel. This only has an effect for
+   * {@linkplain CallableMatrixIteration2D callable iterations} whose
+   * visitor is a {@link MergeableMatrixIteration2DVisitor}. A value of
+   * {@code 1} means that the iteration is performed sequentially.
+   *
+   * @return the number of partitions of the {@code x} axis
+   */
+  public final int getPartitions() {
+    return this.m_partitions;
+  }
+
   /**
    * Get the modus defining how to deal with missing start values: We
    * iterate over multiple matrices. In the first iteration steps, the
@@ -466,6 +498,34 @@ public abstract class MatrixIteration2DSpec {
     }
   }
 
+  /**
+   * check the iteration engine
+   *
+   * @param iterationEngine
+   *          the engine
+   */
+  static final void _checkIterationEngine(
+      final EIterationEngine iterationEngine) {
+    if (iterationEngine == null) {
+      throw new IllegalArgumentException(
+          "Cannot set iteration engine to null."); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * check the number of partitions
+   *
+   * @param partitions
+   *          the number of partitions
+   */
+  static final void _checkPartitions(final int partitions) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException(
+          "The number of partitions must be at least 1, but is " //$NON-NLS-1$
+              + partitions);
+    }
+  }
+
   /**
    * Validate the iteration end
    *
@@ -1,10 +1,12 @@
 package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
 
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import org.optimizationBenchmarking.utils.math.BasicNumber;
 import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixColumnReader;
 
 /** The state of a 2-dimensional matrix iteration */
 public final class MatrixIteration2DState extends MatrixIteration2DSpec {
@@ -12,6 +14,18 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
   final int[] m_indexes;
   /** the sources */
   final int[] m_sources;
+  /**
+   * the column of each matrix in {@link #m_y}, indexed by matrix index,
+   * or {@code -1} if the matrix currently has no {@code y} value
+   */
+  final int[] m_slots;
+  /**
+   * the indexes of the matrices whose {@code y} value has changed in the
+   * current step
+   */
+  private final int[] m_changed;
+  /** the number of matrices in {@link #m_changed} */
+  private int m_changedCount;
   /** the {@code x}-coordinate */
   final _Number m_x;
   /** the {@code y}-coordinates */
@@ -20,29 +34,61 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
   final boolean m_xIsInteger;
   /** the {@code y}-coordinates are integers */
   final boolean m_yIsInteger;
+  /** the readers for the {@code x} columns, indexed by matrix index */
+  final MatrixColumnReader[] m_xColumns;
+  /** the readers for the {@code y} columns, indexed by matrix index */
+  final MatrixColumnReader[] m_yColumns;
   /** the inclusive start indices */
   final int[] m_start;
   /** the exclusive end indices */
   final int[] m_end;
+  /**
+   * the first {@code x} coordinate to visit, or {@code null} if the
+   * iteration should begin at the smallest {@code x} coordinate (w.r.t.
+   * the iteration direction)
+   */
+  Number m_firstX;
+  /**
+   * the exclusive limit of the {@code x} coordinates to visit, or
+   * {@code null} if all remaining {@code x} coordinates should be visited
+   */
+  Number m_xLimit;
+  /**
+   * has the iteration been stopped before all {@code x} coordinates have
+   * been visited, either by the visitor or since no {@code y} coordinate
+   * could be found?
+   */
+  boolean m_stopped;
 
   /**
    * create the matrix iteration 2d
    *
    * @param iteration
    *          the iteration
+   * @param xColumns
+   *          the readers for the {@code x} columns
+   * @param yColumns
+   *          the readers for the {@code y} columns
    * @param xIsInteger
    *          are the {@code x}-coordinates integers?
    * @param yIsInteger
    *          are the {@code y}-coordinates integers?
    */
   MatrixIteration2DState(final MatrixIteration2DSpec iteration,
-      final boolean xIsInteger, final boolean yIsInteger) {
+      final MatrixColumnReader[] xColumns,
+      final MatrixColumnReader[] yColumns, final boolean xIsInteger,
+      final boolean yIsInteger) {
     super(iteration);
     final int length;
 
     length = this.m_matrices.length;
+    this.m_xColumns = xColumns;
+    this.m_yColumns = yColumns;
     this.m_indexes = new int[length];
     this.m_sources = new int[length];
+    this.m_slots = new int[length];
+    Arrays.fill(this.m_slots, -1);
+    this.m_changed = new int[length];
     this.m_xIsInteger = xIsInteger;
     this.m_x = (this.m_xIsInteger ? new _Long() : new _Double());
     this.m_yIsInteger = yIsInteger;
@@ -60,6 +106,35 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
     this.m_end = new int[length];
   }
 
+  /**
+   * Create a copy of an iteration state whose start and end indices have
+   * already been set up. The copy will begin its iteration at the start
+   * indices.
+   *
+   * @param other
+   *          the other state
+   */
+  MatrixIteration2DState(final MatrixIteration2DState other) {
+    super(other);
+    final int length;
+
+    length = this.m_matrices.length;
+    this.m_xColumns = other.m_xColumns;
+    this.m_yColumns = other.m_yColumns;
+    this.m_sources = new int[length];
+    this.m_slots = new int[length];
+    Arrays.fill(this.m_slots, -1);
+    this.m_changed = new int[length];
+    this.m_xIsInteger = other.m_xIsInteger;
+    this.m_x = (this.m_xIsInteger ? new _Long() : new _Double());
+    this.m_yIsInteger = other.m_yIsInteger;
+    this.m_y = (this.m_yIsInteger ? new _Longs(length)
+        : new _Doubles(length));
+    this.m_start = other.m_start;
+    this.m_end = other.m_end;
+    this.m_indexes = this.m_start.clone();
+  }
+
   /**
    * Get the current {@code x} coordinate.
    *
@@ -140,11 +215,76 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
             " is invalid."); //$NON-NLS-1$
   }
 
+  /**
+   * Get the index of the {@code y} value of the source matrix at the
+   * given index in {@link #getY()}, i.e., the inverse of
+   * {@link #getSourceMatrixIndex(int)}.
+   *
+   * @param sourceMatrixIndex
+   *          the index of the source matrix in {@link #getMatrices()}
+   * @return the index of its {@code y} value in {@link #getY()}, or
+   *         {@code -1} if the matrix has no {@code y} value for the
+   *         current {@code x} coordinate
+   * @see #getSourceMatrixIndex(int)
+   */
+  public final int getYIndexOfSourceMatrix(final int sourceMatrixIndex) {
+    if ((sourceMatrixIndex >= 0)
+        && (sourceMatrixIndex < this.m_slots.length)) {
+      return this.m_slots[sourceMatrixIndex];
+    }
+    throw new IllegalArgumentException(//
+        "There are " + this.m_slots.length + //$NON-NLS-1$
+            " source matrices, so index " + sourceMatrixIndex + //$NON-NLS-1$
+            " is invalid."); //$NON-NLS-1$
+  }
+
+  /**
+   * Get the number of source matrices whose {@code y} value has changed
+   * since the previously visited {@code x} coordinate, including the
+   * matrices which gained or lost their {@code y} value. For the first
+   * visited {@code x} coordinate, these are all matrices which have a
+   * {@code y} value. A visitor which maintains some state over the
+   * {@code y} values can use this to only process the changes in each
+   * step.
+   *
+   * @return the number of source matrices whose {@code y} value has
+   *         changed
+   * @see #getChangedSourceMatrixIndex(int)
+   * @see #getYIndexOfSourceMatrix(int)
+   */
+  public final int getChangedSourceMatrixCount() {
+    return this.m_changedCount;
+  }
+
+  /**
+   * Get the index of the {@code index}th source matrix whose {@code y}
+   * value has changed since the previously visited {@code x} coordinate.
+   * Its new {@code y} value, if any, is at index
+   * <code>{@link #getYIndexOfSourceMatrix(int) getYIndexOfSourceMatrix}(getChangedSourceMatrixIndex(index))</code>
+   * in {@link #getY()}.
+   *
+   * @param index
+   *          the index, between {@code 0} and
+   *          {@link #getChangedSourceMatrixCount()}{@code -1}
+   * @return the index of the source matrix in {@link #getMatrices()}
+   * @see #getChangedSourceMatrixCount()
+   */
+  public final int getChangedSourceMatrixIndex(final int index) {
+    if ((index >= 0) && (index < this.m_changedCount)) {
+      return this.m_changed[index];
+    }
+    throw new IllegalArgumentException(//
+        "Only " + this.m_changedCount + //$NON-NLS-1$
+            " source matrices have changed for x-coordinate "//$NON-NLS-1$
+            + this.m_x + ", so index " + index + //$NON-NLS-1$
+            " is invalid."); //$NON-NLS-1$
+  }
+
   /** setup the start and end indices */
-  private final void __setupStartAndEnd() {
+  final void _setupStartAndEnd() {
     final int[] start, end;
     final IMatrix[] matrices;
-    IMatrix matrix;
+    MatrixColumnReader x, y;
     int index, useStart, useEnd;
     boolean changedStart, changedEnd;
 
@@ -152,29 +292,26 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
     start = this.m_start;
     end = this.m_end;
     for (index = matrices.length; (--index) >= 0;) {
-      matrix = matrices[index];
+      x = this.m_xColumns[index];
+      y = this.m_yColumns[index];
       useStart = 0;
-      useEnd = matrix.m();
+      useEnd = matrices[index].m();
       changedStart = changedEnd = false;
 
       while ((useStart < useEnd) && //
           ((this.m_skipLeadingAndTrailingXNaNs
-              && (Double.isNaN(matrix.getDouble(//
-                  useStart, this.m_xDimension))))
+              && (Double.isNaN(x.getDouble(useStart))))
               || (this.m_skipLeadingAndTrailingYNaNs
-                  && (Double.isNaN(matrix.getDouble(//
-                      useStart, this.m_yDimension)))))) {
+                  && (Double.isNaN(y.getDouble(useStart)))))) {
         useStart++;
         changedStart = true;
       }
 
       while ((useEnd > useStart) && //
           ((this.m_skipLeadingAndTrailingXNaNs
-              && (Double.isNaN(matrix.getDouble(//
-                  useEnd - 1, this.m_xDimension))))
+              && (Double.isNaN(x.getDouble(useEnd - 1))))
               || (this.m_skipLeadingAndTrailingYNaNs
-                  && (Double.isNaN(matrix.getDouble(//
-                      useEnd - 1, this.m_yDimension)))))) {
+                  && (Double.isNaN(y.getDouble(useEnd - 1)))))) {
         useEnd--;
         changedEnd = true;
       }
@@ -202,33 +339,153 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
 
   /** run! */
   final void _run() {
-    this.__setupStartAndEnd();
+    this._setupStartAndEnd();
+    this._iterate();
+  }
+
+  /** iterate, after the start and end indices have been set up */
+  final void _iterate() {
+    final int n;
+    int column;
+
+    n = this.m_y.m_currentN;
+    for (column = 0; column < n; column++) {
+      this.m_slots[this.m_sources[column]] = -1;
+    }
     this.m_y._reset();
+    this.m_iterationEngine._iterate(this);
+  }
 
-    if (this.m_xIsInteger) {
+  /**
+   * Choose up to {@code partitions-1} {@code x} coordinates at which the
+   * iteration can be split into partitions. The split points are
+   * approximate quantiles of the merged {@code x} columns of all
+   * matrices, obtained from a sample of rows. Each split point is an
+   * {@code x} coordinate which actually occurs in the data, so it will be
+   * visited by the iteration. The split points are strictly ordered
+   * according to the iteration direction and all come after the very
+   * first {@code x} coordinate. This method must be called after the
+   * start and end indices have been set up.
+   *
+   * @param partitions
+   *          the number of partitions
+   * @return the split points, as {@code long}s or {@code double}s
+   *         depending on whether the {@code x} coordinates are integer
+   */
+  final Number[] _chooseSplits(final int partitions) {
+    final long[] longs;
+    final double[] doubles;
+    final Number[] splits;
+    final boolean increasing;
+    final int stride;
+    MatrixColumnReader column;
+    long total, lastLong, currentLong;
+    double lastDouble, currentDouble;
+    int index, row, offset, samples, chosen, position;
+    boolean hasLast;
+
+    if (partitions <= 1) {
+      return new Number[0];
+    }
 
-      if (this.m_xDirection._setFirstXCoordinateLong(this)) {
-        for (;;) {
-          this.m_y._reset();
-          if (!(this.m_xDirection._setNextXCoordinateLong(this))) {
-            return;
+    total = 0L;
+    for (index = this.m_matrices.length; (--index) >= 0;) {
+      total += Math.max(0, (this.m_end[index] - this.m_start[index]));
+    }
+    if (total <= 1L) {
+      return new Number[0];
+    }
+
+    // sample about 16 rows per partition, evenly spread over all rows
+    stride = ((int) (Math.max(1L, (total / (partitions << 4)))));
+    samples = ((int) (((total + stride) - 1L) / stride));
+    longs = (this.m_xIsInteger ? new long[samples] : null);
+    doubles = (this.m_xIsInteger ? null : new double[samples]);
+
+    samples = offset = 0;
+    lastLong = 0L;
+    lastDouble = 0d;
+    hasLast = false;
+    increasing = (this.m_xDirection == EIterationDirection.INCREASING);
+    for (index = 0; index < this.m_matrices.length; index++) {
+      column = this.m_xColumns[index];
+      row = this.m_start[index];
+      if (row >= this.m_end[index]) {
+        continue;
+      }
+
+      // the split points must come after the very first x coordinate
+      if (this.m_xIsInteger) {
+        currentLong = column.getLong(row);
+        if ((!hasLast) || //
+            (this.m_xDirection._strictlyBeforeLong(currentLong,
+                lastLong))) {
+          lastLong = currentLong;
+        }
+      } else {
+        currentDouble = column.getDouble(row);
+        if ((!hasLast) || //
+            (this.m_xDirection._strictlyBeforeDouble(currentDouble,
+                lastDouble))) {
+          lastDouble = currentDouble;
+        }
+      }
+      hasLast = true;
+
+      for (row += offset; row < this.m_end[index]; row += stride) {
+        if (this.m_xIsInteger) {
+          longs[samples++] = column.getLong(row);
+        } else {
+          currentDouble = column.getDouble(row);
+          if (currentDouble == currentDouble) {
+            doubles[samples++] = currentDouble;
           }
         }
       }
+      offset = (row - this.m_end[index]);
+    }
+
+    if (this.m_xIsInteger) {
+      Arrays.sort(longs, 0, samples);
     } else {
-      if (this.m_xDirection._setFirstXCoordinateDouble(this)) {
-        for (;;) {
-          this.m_y._reset();
-          if (!(this.m_xDirection._setNextXCoordinateDouble(this))) {
-            return;
-          }
+      Arrays.sort(doubles, 0, samples);
+    }
+
+    splits = new Number[partitions - 1];
+    chosen = 0;
+    for (index = 1; index < partitions; index++) {
+      position = ((int) ((((long) index) * samples) / partitions));
+      if (!increasing) {
+        position = ((samples - 1) - position);
+      }
+      if ((position < 0) || (position >= samples)) {
+        continue;
+      }
+      if (this.m_xIsInteger) {
+        currentLong = longs[position];
+        if (this.m_xDirection._strictlyBeforeLong(lastLong, currentLong)) {
+          splits[chosen++] = Long.valueOf(currentLong);
+          lastLong = currentLong;
+        }
+      } else {
+        currentDouble = doubles[position];
+        if (this.m_xDirection._strictlyBeforeDouble(lastDouble,
+            currentDouble)) {
+          splits[chosen++] = Double.valueOf(currentDouble);
+          lastDouble = currentDouble;
         }
       }
     }
+
+    if (chosen < splits.length) {
+      return Arrays.copyOf(splits, chosen);
+    }
+    return splits;
   }
 
   /**
-   * set the {@code x} coordinate as {@code long} value.
+   * set the {@code x} coordinate as {@code long} value and update the
+   * {@code y} coordinates of all matrices.
    *
    * @param value
    *          the coordinate value
@@ -236,22 +493,53 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
    *         visiting elements
    */
   final boolean _setXCoordinateLong(final long value) {
-    boolean has;
-    int index;
-
-    has = false;
-    for (index = 0; index < this.m_matrices.length; ++index) {
-      if (this.m_xDirection._setXCoordinateForMatrixLong(index, value,
-          this)) {
-        has = true;
+    return this._setXCoordinateLong(value, null, this.m_matrices.length);
+  }
+
+  /**
+   * Set the {@code x} coordinate as {@code long} value and update the
+   * {@code y} coordinates of the given matrices. The {@code y}
+   * coordinates of all other matrices are kept as they were in the
+   * previous step, so the given matrices must include all matrices whose
+   * {@code y} coordinate may have changed.
+   *
+   * @param value
+   *          the coordinate value
+   * @param matrices
+   *          the indexes of the matrices to update, or {@code null} to
+   *          update the matrices {@code 0} to {@code count-1}
+   * @param count
+   *          the number of matrices to update
+   * @return {@code true} if everything went OK and we should continue
+   *         visiting elements
+   */
+  final boolean _setXCoordinateLong(final long value, final int[] matrices,
+      final int count) {
+    int i, index;
+
+    if ((this.m_xLimit != null) && (!(this.m_xDirection
+        ._strictlyBeforeLong(value, this.m_xLimit.longValue())))) {
+      // we have reached the end of our partition
+      return false;
+    }
+
+    this.m_changedCount = 0;
+    for (i = 0; i < count; i++) {
+      index = ((matrices == null) ? i : matrices[i]);
+      if (!(this.m_xDirection._setXCoordinateForMatrixLong(index, value,
+          this))) {
+        this.__removeYCoordinate(index);
       }
     }
 
-    if (has) {
+    if (this.m_y.m_currentN > 0) {
       this.m_x._setLongValue(value);
-      return this.m_visitor.visit(this);
+      if (this.m_visitor.visit(this)) {
+        return true;
+      }
     }
 
+    this.m_stopped = true;
     return false;
   }
 
@@ -266,7 +554,17 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
    */
   private final void __setYCoordinateLong(final int index,
       final long value) {
-    this.m_sources[this.m_y._addLong(value)] = index;
+    final int slot;
+
+    slot = this.m_slots[index];
+    if (slot >= 0) {
+      if (!(this.m_y._setLong(slot, value))) {
+        return;
+      }
+    } else {
+      this.m_y._insertLong(this.__insertSlot(index), value);
+    }
+    this.m_changed[this.m_changedCount++] = index;
   }
 
   /**
@@ -280,7 +578,79 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
    */
   private final void __setYCoordinateDouble(final int index,
       final double value) {
-    this.m_sources[this.m_y._addDouble(value)] = index;
+    final int slot;
+
+    slot = this.m_slots[index];
+    if (slot >= 0) {
+      if (!(this.m_y._setDouble(slot, value))) {
+        return;
+      }
+    } else {
+      this.m_y._insertDouble(this.__insertSlot(index), value);
+    }
+    this.m_changed[this.m_changedCount++] = index;
+  }
+
+  /**
+   * Reserve a column in {@link #m_y} for the matrix at the given
+   * {@code index}, which currently has no {@code y} value. The columns
+   * are ordered by matrix index, so the columns of all matrices with
+   * larger indexes are moved on by one. The caller must insert the value
+   * into {@link #m_y}.
+   *
+   * @param index
+   *          the matrix index
+   * @return the column
+   */
+  private final int __insertSlot(final int index) {
+    final int[] sources, slots;
+    final int n;
+    int slot, column;
+
+    sources = this.m_sources;
+    slots = this.m_slots;
+    n = this.m_y.m_currentN;
+    if ((n <= 0) || (sources[n - 1] < index)) {
+      slot = n;
+    } else {
+      slot = Arrays.binarySearch(sources, 0, n, index);
+      slot = ((-slot) - 1);
+      System.arraycopy(sources, slot, sources, (slot + 1), (n - slot));
+      for (column = n; column > slot; column--) {
+        slots[sources[column]] = column;
+      }
+    }
+    sources[slot] = index;
+    slots[index] = slot;
+    return slot;
+  }
+
+  /**
+   * Remove the {@code y} value of the matrix at the given {@code index},
+   * if it has one.
+   *
+   * @param index
+   *          the matrix index
+   */
+  private final void __removeYCoordinate(final int index) {
+    final int[] sources, slots;
+    final int slot, n;
+    int column;
+
+    slots = this.m_slots;
+    slot = slots[index];
+    if (slot < 0) {
+      return;
+    }
+    sources = this.m_sources;
+    n = (this.m_y.m_currentN - 1);
+    this.m_y._remove(slot);
+    System.arraycopy(sources, (slot + 1), sources, slot, (n - slot));
+    for (column = slot; column < n; column++) {
+      slots[sources[column]] = column;
+    }
+    slots[index] = -1;
+    this.m_changed[this.m_changedCount++] = index;
   }
 
   /**
@@ -294,15 +664,14 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
    */
   final void _setYCoordinateFromMatrix(final int index,
       final int position) {
-    final IMatrix sourceMatrix;
+    final MatrixColumnReader column;
     double value;
 
-    sourceMatrix = this.m_matrices[index];
+    column = this.m_yColumns[index];
     if (this.m_yIsInteger) {
-      this.__setYCoordinateLong(index, //
-          sourceMatrix.getLong(position, this.m_yDimension));
+      this.__setYCoordinateLong(index, column.getLong(position));
     } else {
-      value = sourceMatrix.getDouble(position, this.m_yDimension);
+      value = column.getDouble(position);
       if (Double.isNaN(value)) {
         if (this.m_useYNaNReplacement) {
           value = this.m_yNaNReplacement;
@@ -312,7 +681,7 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
                 "Encountered NaN in y dimension during matrix iteration in matrix " //$NON-NLS-1$
                     + index + " in row " + position + //$NON-NLS-1$
                     " for x value " //$NON-NLS-1$
-                    + sourceMatrix.getDouble(position, this.m_xDimension)
+                    + this.m_xColumns[index].getDouble(position)
                     + " and replaced it with " + value + '.');//$NON-NLS-1$
           }
         } else {
@@ -320,7 +689,7 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
               "Encountered unexpected NaN in y dimension during matrix iteration in matrix " //$NON-NLS-1$
                   + index + " in row " + position + //$NON-NLS-1$
                   " for x value " //$NON-NLS-1$
-                  + sourceMatrix.getDouble(position, this.m_xDimension)
+                  + this.m_xColumns[index].getDouble(position)
                   + ". Maybe set a replacement for NaNs?");//$NON-NLS-1$
         }
       }
@@ -348,30 +717,63 @@ public final class MatrixIteration2DState extends MatrixIteration2DSpec {
   }
 
   /**
-   * set the {@code x} coordinate as {@code double} value.
+   * set the {@code x} coordinate as {@code double} value and update the
+   * {@code y} coordinates of all matrices.
    *
    * @param value
    *          the coordinate value
    * @return {@code true} if everything went OK and we should continue
    *         visiting elements
    */
-  boolean _setXCoordinateDouble(final double value) {
-    boolean has;
-    int index;
-
-    has = false;
-    for (index = 0; index < this.m_matrices.length; ++index) {
-      if (this.m_xDirection._setXCoordinateForMatrixDouble(index, value,
-          this)) {
-        has = true;
+  final boolean _setXCoordinateDouble(final double value) {
+    return this._setXCoordinateDouble(value, null,
+        this.m_matrices.length);
+  }
+
+  /**
+   * Set the {@code x} coordinate as {@code double} value and update the
+   * {@code y} coordinates of the given matrices. The {@code y}
+   * coordinates of all other matrices are kept as they were in the
+   * previous step, so the given matrices must include all matrices whose
+   * {@code y} coordinate may have changed.
+   *
+   * @param value
+   *          the coordinate value
+   * @param matrices
+   *          the indexes of the matrices to update, or {@code null} to
+   *          update the matrices {@code 0} to {@code count-1}
+   * @param count
+   *          the number of matrices to update
+   * @return {@code true} if everything went OK and we should continue
+   *         visiting elements
+   */
+  final boolean _setXCoordinateDouble(final double value,
+      final int[] matrices, final int count) {
+    int i, index;
+
+    if ((this.m_xLimit != null) && (!(this.m_xDirection
+        ._strictlyBeforeDouble(value, this.m_xLimit.doubleValue())))) {
+      // we have reached the end of our partition
+      return false;
+    }
+
+    this.m_changedCount = 0;
+    for (i = 0; i < count; i++) {
+      index = ((matrices == null) ? i : matrices[i]);
+      if (!(this.m_xDirection._setXCoordinateForMatrixDouble(index, value,
+          this))) {
+        this.__removeYCoordinate(index);
       }
     }
 
-    if (has) {
+    if (this.m_y.m_currentN > 0) {
       this.m_x._setDoubleValue(value);
-      return this.m_visitor.visit(this);
+      if (this.m_visitor.visit(this)) {
+        return true;
+      }
     }
 
+    this.m_stopped = true;
     return false;
   }
 }
@@ -0,0 +1,52 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+/**
+ * A base class for visitors whose work can be divided along the {@code x}
+ * axis. If a {@link CallableMatrixIteration2D} is configured to use
+ * {@linkplain CallableMatrixIteration2DBuilder#setPartitions(int) more
+ * than one partition}, the {@code x} axis is split into disjoint ranges.
+ * Each range is then iterated over in parallel by its own
+ * {@linkplain #createPartitionVisitor() partition visitor}. Finally, the
+ * results of the partition visitors are
+ * {@linkplain #mergePartition(Object) merged} in iteration order into
+ * this visitor, which then {@linkplain #build() builds} the final result.
+ * This must yield exactly the same result as visiting all {@code x}
+ * coordinates with this visitor sequentially.
+ *
+ * @param <R>
+ *          the result type
+ */
+public abstract class MergeableMatrixIteration2DVisitor<R>
+    extends MatrixIteration2DVisitor<R> {
+
+  /** create */
+  protected MergeableMatrixIteration2DVisitor() {
+    super();
+  }
+
+  /**
+   * Create a new visitor which does the same thing as this visitor, but
+   * has its own, independent state. The partition visitor is
+   * {@linkplain #initialize(MatrixIteration2DSpec) initialized}, visits
+   * all {@code x} coordinates of its partition, and then
+   * {@linkplain #build() builds} its partial result. It may be used in a
+   * different thread than this visitor. This method is called after this
+   * visitor has been {@linkplain #initialize(MatrixIteration2DSpec)
+   * initialized}.
+   *
+   * @return the new partition visitor, or {@code null} if the work of this
+   *         visitor cannot be divided, in which case the iteration is
+   *         performed sequentially
+   */
+  protected abstract MergeableMatrixIteration2DVisitor<R> createPartitionVisitor();
+
+  /**
+   * Merge the result of a partition visitor into this visitor. This
+   * method is called once for each partition, in iteration order, before
+   * {@link #build()} is invoked on this visitor.
+   *
+   * @param partitionResult
+   *          the result built by the partition visitor
+   */
+  protected abstract void mergePartition(final R partitionResult);
+}
@@ -0,0 +1,107 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+/** A heap of matrices with {@code double} {@code x} coordinates. */
+final class _DoubleXQueue extends _XQueue {
+
+  /** the next {@code x} coordinates, indexed by matrix index */
+  private final double[] m_keys;
+
+  /**
+   * create the queue
+   *
+   * @param impl
+   *          the iteration state
+   */
+  _DoubleXQueue(final MatrixIteration2DState impl) {
+    super(impl);
+    this.m_keys = new double[impl.m_matrices.length];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final boolean _before(final int a, final int b) {
+    return this.m_impl.m_xDirection._strictlyBeforeDouble(
+        this.m_keys[a], this.m_keys[b]);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _loadFirst(final int index, final int from) {
+    final MatrixIteration2DState impl;
+    final double current;
+    int position;
+
+    impl = this.m_impl;
+    position = from;
+    if (impl.m_firstX != null) {
+      position = impl.m_xDirection._findXDouble(index, position,
+          impl.m_firstX.doubleValue(), true, impl);
+      if (position >= impl.m_end[index]) {
+        return position;
+      }
+    }
+    current = impl.m_xColumns[index].getDouble(position);
+    if (Double.isNaN(current)) {
+      throw new IllegalStateException(//
+          "Encountered unexpected NaN on x axis during matrix iteration when trying to find first x value in matrix "//$NON-NLS-1$
+              + index + " in row " + position + //$NON-NLS-1$
+              ". Maybe set skipping leading NaNs to true?");//$NON-NLS-1$
+    }
+    this.m_keys[index] = current;
+    return position;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _iterate() {
+    final MatrixIteration2DState impl;
+    final EIterationDirection direction;
+    final double[] keys;
+    final int[] heap, positions;
+    double x;
+    int index, position, changed;
+    boolean first;
+
+    impl = this.m_impl;
+    direction = impl.m_xDirection;
+    keys = this.m_keys;
+    heap = this.m_heap;
+    positions = this.m_positions;
+
+    this._fill();
+
+    first = true;
+    while (this.m_size > 0) {
+      x = keys[heap[0]];
+
+      // advance all matrices which have a row at the current x coordinate
+      while ((this.m_size > 0)
+          && (!(direction._strictlyBeforeDouble(x, //
+              keys[index = heap[0]])))) {
+        this._advanced(index);
+        position = direction._findXDouble(index, (positions[index] + 1),
+            x, false, impl);
+        if (position < impl.m_end[index]) {
+          keys[index] = impl.m_xColumns[index].getDouble(position);
+          positions[index] = position;
+          this._siftDown(0);
+        } else {
+          this._removeTop();
+        }
+      }
+
+      // in the first step, all y coordinates must be set
+      changed = this._collectChanged();
+      if (first) {
+        first = false;
+        if (!(impl._setXCoordinateDouble(x))) {
+          return;
+        }
+      } else {
+        if (!(impl._setXCoordinateDouble(x, this.m_changed, changed))) {
+          return;
+        }
+      }
+    }
+  }
+}
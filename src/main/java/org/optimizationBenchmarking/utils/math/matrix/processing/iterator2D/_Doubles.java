@@ -8,8 +8,8 @@ final class _Doubles extends _Matrix {
   /** the values */
   private final double[] m_values;
 
-  /** is this an integer matrix? */
-  private boolean m_isInteger;
+  /** the number of values which are not integers */
+  private int m_fractions;
 
   /**
    * create the double matrix
@@ -43,24 +43,58 @@ final class _Doubles extends _Matrix {
   /** {@inheritDoc} */
   @Override
   public final boolean isIntegerMatrix() {
-    return this.m_isInteger;
+    return (this.m_fractions <= 0);
   }
 
   /** {@inheritDoc} */
   @Override
   final void _reset() {
     super._reset();
-    this.m_isInteger = true;
+    this.m_fractions = 0;
   }
 
   /** {@inheritDoc} */
   @Override
-  final int _addDouble(final double value) {
-    final int index;
-    this.m_isInteger = (this.m_isInteger && NumericalTypes.isLong(value));
-    index = this.m_currentN;
-    this.m_values[index] = value;
-    this.m_currentN = (index + 1);
-    return index;
+  final boolean _setDouble(final int column, final double value) {
+    if (Double.compare(this.m_values[column], value) == 0) {
+      return false;
+    }
+    if (!(NumericalTypes.isLong(this.m_values[column]))) {
+      this.m_fractions--;
+    }
+    if (!(NumericalTypes.isLong(value))) {
+      this.m_fractions++;
+    }
+    this.m_values[column] = value;
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _insertDouble(final int column, final double value) {
+    final int n;
+
+    if (!(NumericalTypes.isLong(value))) {
+      this.m_fractions++;
+    }
+    n = this.m_currentN;
+    System.arraycopy(this.m_values, column, this.m_values, (column + 1),
+        (n - column));
+    this.m_values[column] = value;
+    this.m_currentN = (n + 1);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _remove(final int column) {
+    final int n;
+
+    if (!(NumericalTypes.isLong(this.m_values[column]))) {
+      this.m_fractions--;
+    }
+    n = (this.m_currentN - 1);
+    System.arraycopy(this.m_values, (column + 1), this.m_values, column,
+        (n - column));
+    this.m_currentN = n;
   }
 }
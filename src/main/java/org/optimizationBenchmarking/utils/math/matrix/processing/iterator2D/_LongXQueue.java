@@ -0,0 +1,98 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+/** A heap of matrices with {@code long} {@code x} coordinates. */
+final class _LongXQueue extends _XQueue {
+
+  /** the next {@code x} coordinates, indexed by matrix index */
+  private final long[] m_keys;
+
+  /**
+   * create the queue
+   *
+   * @param impl
+   *          the iteration state
+   */
+  _LongXQueue(final MatrixIteration2DState impl) {
+    super(impl);
+    this.m_keys = new long[impl.m_matrices.length];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final boolean _before(final int a, final int b) {
+    return this.m_impl.m_xDirection._strictlyBeforeLong(this.m_keys[a],
+        this.m_keys[b]);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _loadFirst(final int index, final int from) {
+    final MatrixIteration2DState impl;
+    int position;
+
+    impl = this.m_impl;
+    position = from;
+    if (impl.m_firstX != null) {
+      position = impl.m_xDirection._findXLong(index, position,
+          impl.m_firstX.longValue(), true, impl);
+    }
+    if (position < impl.m_end[index]) {
+      this.m_keys[index] = impl.m_xColumns[index].getLong(position);
+    }
+    return position;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _iterate() {
+    final MatrixIteration2DState impl;
+    final EIterationDirection direction;
+    final long[] keys;
+    final int[] heap, positions;
+    long x;
+    int index, position, changed;
+    boolean first;
+
+    impl = this.m_impl;
+    direction = impl.m_xDirection;
+    keys = this.m_keys;
+    heap = this.m_heap;
+    positions = this.m_positions;
+
+    this._fill();
+
+    first = true;
+    while (this.m_size > 0) {
+      x = keys[heap[0]];
+
+      // advance all matrices which have a row at the current x coordinate
+      while ((this.m_size > 0)
+          && (!(direction._strictlyBeforeLong(x, //
+              keys[index = heap[0]])))) {
+        this._advanced(index);
+        position = direction._findXLong(index, (positions[index] + 1),
+            x, false, impl);
+        if (position < impl.m_end[index]) {
+          keys[index] = impl.m_xColumns[index].getLong(position);
+          positions[index] = position;
+          this._siftDown(0);
+        } else {
+          this._removeTop();
+        }
+      }
+
+      // in the first step, all y coordinates must be set
+      changed = this._collectChanged();
+      if (first) {
+        first = false;
+        if (!(impl._setXCoordinateLong(x))) {
+          return;
+        }
+      } else {
+        if (!(impl._setXCoordinateLong(x, this.m_changed, changed))) {
+          return;
+        }
+      }
+    }
+  }
+}
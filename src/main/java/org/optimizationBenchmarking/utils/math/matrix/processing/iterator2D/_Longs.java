@@ -43,11 +43,34 @@ final class _Longs extends _Matrix {
 
   /** {@inheritDoc} */
   @Override
-  final int _addLong(final long value) {
-    final int index;
-    index = this.m_currentN;
-    this.m_values[index] = value;
-    this.m_currentN = (index + 1);
-    return index;
+  final boolean _setLong(final int column, final long value) {
+    if (this.m_values[column] == value) {
+      return false;
+    }
+    this.m_values[column] = value;
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _insertLong(final int column, final long value) {
+    final int n;
+
+    n = this.m_currentN;
+    System.arraycopy(this.m_values, column, this.m_values, (column + 1),
+        (n - column));
+    this.m_values[column] = value;
+    this.m_currentN = (n + 1);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void _remove(final int column) {
+    final int n;
+
+    n = (this.m_currentN - 1);
+    System.arraycopy(this.m_values, (column + 1), this.m_values, column,
+        (n - column));
+    this.m_currentN = n;
   }
 }
@@ -34,24 +34,65 @@ abstract class _Matrix extends AbstractMatrix {
   }
 
   /**
-   * add a {@code long} element to the matrix
+   * set the {@code long} element at the given column
    *
+   * @param column
+   *          the column
    * @param value
-   *          the {@code long} to add
-   * @return the source index under which the matrix should be stored
+   *          the {@code long} to store
+   * @return {@code true} if the element has changed, {@code false} if it
+   *         already had this value
    */
-  int _addLong(final long value) {
-    return this._addDouble(value);
+  boolean _setLong(final int column, final long value) {
+    return this._setDouble(column, value);
   }
 
   /**
-   * add a {@code double} element to the matrix
+   * set the {@code double} element at the given column
    *
+   * @param column
+   *          the column
    * @param value
-   *          the {@code double} to add
-   * @return the source index under which the matrix should be stored
+   *          the {@code double} to store
+   * @return {@code true} if the element has changed, {@code false} if it
+   *         already had this value
    */
-  int _addDouble(final double value) {
+  boolean _setDouble(final int column, final double value) {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * insert a {@code long} element at the given column, moving all
+   * elements from that column on by one column
+   *
+   * @param column
+   *          the column
+   * @param value
+   *          the {@code long} to insert
+   */
+  void _insertLong(final int column, final long value) {
+    this._insertDouble(column, value);
+  }
+
+  /**
+   * insert a {@code double} element at the given column, moving all
+   * elements from that column on by one column
+   *
+   * @param column
+   *          the column
+   * @param value
+   *          the {@code double} to insert
+   */
+  void _insertDouble(final int column, final double value) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * remove the element at the given column, moving all elements after it
+   * back by one column
+   *
+   * @param column
+   *          the column
+   */
+  abstract void _remove(final int column);
 }
@@ -1,7 +1,11 @@
 package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
 
+import java.util.concurrent.Future;
+
 import org.optimizationBenchmarking.utils.math.NumericalTypes;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixColumnReader;
+import org.optimizationBenchmarking.utils.parallel.Execute;
 import org.optimizationBenchmarking.utils.tools.spec.IRunnableToolJob;
 
 /** The matrix iteration 2d. */
@@ -32,13 +36,93 @@ final class _MatrixIteration2D extends MatrixIteration2DSpec
     MatrixIteration2DSpec._checkEnd(this.m_iterationMode, //
         this.m_endMode, //
         this.m_endReplacement);
+    MatrixIteration2DSpec._checkIterationEngine(this.m_iterationEngine);
+    MatrixIteration2DSpec._checkPartitions(this.m_partitions);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void run() {
+    this.__createState()._run();
+  }
+
+  /**
+   * Run the iteration by dividing the {@code x} axis into
+   * {@link #m_partitions} partitions which are processed in parallel. The
+   * results of the partitions are then merged in order into the result of
+   * the given visitor.
+   *
+   * @param visitor
+   *          the visitor
+   * @param <R>
+   *          the result type
+   */
+  @SuppressWarnings("unchecked")
+  final <R> void _runPartitioned(
+      final MergeableMatrixIteration2DVisitor<R> visitor) {
+    final MatrixIteration2DState first;
+    final Number[] splits;
+    final _MatrixIteration2DPartition<R>[] partitions;
+    final Future<R>[] futures;
+    final R[] results;
+    MergeableMatrixIteration2DVisitor<R> partitionVisitor;
+    MatrixIteration2DState state;
+    int index;
+
+    first = this.__createState();
+    first._setupStartAndEnd();
+    splits = first._chooseSplits(this.m_partitions);
+
+    partitions = new _MatrixIteration2DPartition[splits.length + 1];
+    for (index = 0; index < partitions.length; index++) {
+      partitionVisitor = ((splits.length > 0)
+          ? visitor.createPartitionVisitor() : null);
+      if (partitionVisitor == null) {
+        // partitioning is not possible, so we fall back to a sequential
+        // iteration
+        first.m_visitor = visitor;
+        first.m_xLimit = null;
+        first._iterate();
+        return;
+      }
+
+      state = ((index <= 0) ? first : new MatrixIteration2DState(first));
+      state.m_visitor = partitionVisitor;
+      if (index > 0) {
+        state.m_firstX = splits[index - 1];
+      }
+      if (index < splits.length) {
+        state.m_xLimit = splits[index];
+      }
+      partitions[index] = new _MatrixIteration2DPartition<>(state,
+          partitionVisitor);
+    }
+
+    futures = Execute.parallel(partitions);
+    results = ((R[]) (new Object[partitions.length]));
+    Execute.join(futures, results, 0, false);
+
+    for (index = 0; index < partitions.length; index++) {
+      visitor.mergePartition(results[index]);
+      if (partitions[index].m_stopped) {
+        // the sequential iteration would have stopped here, too
+        return;
+      }
+    }
+  }
+
+  /**
+   * Create the iteration state. The cells of the matrices are read via
+   * {@link MatrixColumnReader}s, which access array-backed matrices
+   * directly.
+   *
+   * @return the iteration state
+   */
+  private final MatrixIteration2DState __createState() {
+    final MatrixColumnReader[] xColumns, yColumns;
+    IMatrix matrix;
     boolean isXInteger, isYInteger;
-    int m;
+    int index;
 
     isXInteger = isYInteger = true;
 
@@ -51,25 +135,30 @@ final class _MatrixIteration2D extends MatrixIteration2DSpec
           & NumericalTypes.IS_LONG) != 0);
     }
 
-    for (final IMatrix matrix : this.m_matrices) {
-      m = (matrix.m() - 1);
-      if (m < 0) {
+    xColumns = new MatrixColumnReader[this.m_matrices.length];
+    yColumns = new MatrixColumnReader[xColumns.length];
+    for (index = xColumns.length; (--index) >= 0;) {
+      matrix = this.m_matrices[index];
+      xColumns[index] = MatrixColumnReader.forColumn(matrix,
+          this.m_xDimension);
+      yColumns[index] = MatrixColumnReader.forColumn(matrix,
+          this.m_yDimension);
+      if (matrix.m() <= 0) {
         continue;
       }
 
       // validate direction
       if (isXInteger) {
-        isXInteger = matrix.selectColumns(this.m_xDimension)
-            .isIntegerMatrix();
+        isXInteger = xColumns[index].isInteger();
       }
 
       // update replacements
       if (isYInteger) {
-        isYInteger = matrix.selectColumns(this.m_yDimension)
-            .isIntegerMatrix();
+        isYInteger = yColumns[index].isInteger();
       }
     }
 
-    new MatrixIteration2DState(this, isXInteger, isYInteger)._run();
+    return new MatrixIteration2DState(this, xColumns, yColumns,
+        isXInteger, isYInteger);
   }
 }
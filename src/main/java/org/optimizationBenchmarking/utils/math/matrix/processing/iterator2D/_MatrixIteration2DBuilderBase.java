@@ -88,6 +88,23 @@ abstract class _MatrixIteration2DBuilderBase<X extends _MatrixIteration2DBuilder
     return ((X) this);
   }
 
+  /**
+   * Set the iteration engine. The
+   * {@link EIterationEngine#PRIORITY_QUEUE priority queue} engine is
+   * faster if many matrices are iterated over at once.
+   *
+   * @param iterationEngine
+   *          the iteration engine
+   * @return this builder
+   */
+  @SuppressWarnings("unchecked")
+  public final X setIterationEngine(
+      final EIterationEngine iterationEngine) {
+    MatrixIteration2DSpec._checkIterationEngine(iterationEngine);
+    this.m_iterationEngine = iterationEngine;
+    return ((X) this);
+  }
+
   /**
    * Set the start mode.
    *
@@ -0,0 +1,54 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A partition of the {@code x} axis of a matrix iteration, which is
+ * iterated over with its own visitor.
+ *
+ * @param <R>
+ *          the result type
+ */
+final class _MatrixIteration2DPartition<R> implements Callable<R> {
+
+  /** the iteration state */
+  private MatrixIteration2DState m_state;
+
+  /** the visitor */
+  private MergeableMatrixIteration2DVisitor<R> m_visitor;
+
+  /**
+   * has the iteration been stopped before the end of the partition was
+   * reached?
+   */
+  boolean m_stopped;
+
+  /**
+   * create the partition
+   *
+   * @param state
+   *          the iteration state, with start and end indices set up
+   * @param visitor
+   *          the visitor
+   */
+  _MatrixIteration2DPartition(final MatrixIteration2DState state,
+      final MergeableMatrixIteration2DVisitor<R> visitor) {
+    super();
+    this.m_state = state;
+    this.m_visitor = visitor;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final R call() {
+    final MergeableMatrixIteration2DVisitor<R> visitor;
+
+    visitor = this.m_visitor;
+    this.m_visitor = null;
+    visitor.initialize(this.m_state);
+    this.m_state._iterate();
+    this.m_stopped = this.m_state.m_stopped;
+    this.m_state = null;
+    return visitor.build();
+  }
+}
@@ -0,0 +1,208 @@
+package org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+/**
+ * A primitive, array-based heap holding the indexes of the matrices which
+ * still have {@code x} coordinates left. The matrices are ordered by
+ * their next {@code x} coordinate, i.e., the smallest {@code x}
+ * coordinate which comes strictly after the current one, according to
+ * the iteration direction.
+ */
+abstract class _XQueue {
+
+  /** the iteration state */
+  final MatrixIteration2DState m_impl;
+  /** the heap of matrix indexes */
+  final int[] m_heap;
+  /**
+   * the row holding the next {@code x} coordinate, indexed by matrix
+   * index
+   */
+  final int[] m_positions;
+  /** the number of matrices in the heap */
+  int m_size;
+  /** the matrices which have a row at the current {@code x} coordinate */
+  private int[] m_current;
+  /** the number of matrices in {@link #m_current} */
+  private int m_currentCount;
+  /** the matrices which had a row at the previous {@code x} coordinate */
+  private int[] m_previous;
+  /** the number of matrices in {@link #m_previous} */
+  private int m_previousCount;
+  /** the matrices whose {@code y} coordinate may have changed */
+  final int[] m_changed;
+  /**
+   * the step in which each matrix was last added to {@link #m_changed},
+   * indexed by matrix index
+   */
+  private final int[] m_marks;
+  /** the current step */
+  private int m_step;
+
+  /**
+   * create the queue
+   *
+   * @param impl
+   *          the iteration state
+   */
+  _XQueue(final MatrixIteration2DState impl) {
+    super();
+    final int length;
+
+    this.m_impl = impl;
+    length = impl.m_matrices.length;
+    this.m_heap = new int[length];
+    this.m_positions = new int[length];
+    this.m_current = new int[length];
+    this.m_previous = new int[length];
+    this.m_changed = new int[length];
+    this.m_marks = new int[length];
+  }
+
+  /**
+   * Does the next {@code x} coordinate of matrix {@code a} come strictly
+   * before the one of matrix {@code b}?
+   *
+   * @param a
+   *          the index of the first matrix
+   * @param b
+   *          the index of the second matrix
+   * @return {@code true} if the next {@code x} coordinate of matrix
+   *         {@code a} comes strictly before the one of matrix {@code b}
+   */
+  abstract boolean _before(final int a, final int b);
+
+  /**
+   * Find the row holding the first {@code x} coordinate of the given
+   * matrix to be visited and load it as first key of that matrix. If the
+   * iteration begins at a {@linkplain MatrixIteration2DState#m_firstX
+   * given} {@code x} coordinate, this is the first row whose {@code x}
+   * coordinate does not come before it.
+   *
+   * @param index
+   *          the matrix index
+   * @param from
+   *          the first row to consider
+   * @return the row, or the end index of the matrix if it has no
+   *         {@code x} coordinate left
+   */
+  abstract int _loadFirst(final int index, final int from);
+
+  /** Visit all {@code x} coordinates in order. */
+  abstract void _iterate();
+
+  /** fill the heap with all matrices which have any rows left */
+  final void _fill() {
+    final MatrixIteration2DState impl;
+    int index, position;
+
+    impl = this.m_impl;
+    for (index = impl.m_matrices.length; (--index) >= 0;) {
+      position = impl.m_indexes[index];
+      if (position < impl.m_end[index]) {
+        position = this._loadFirst(index, position);
+      }
+      if (position < impl.m_end[index]) {
+        this.m_positions[index] = position;
+        this.m_heap[this.m_size++] = index;
+      }
+    }
+
+    for (index = ((this.m_size >>> 1) - 1); index >= 0; index--) {
+      this._siftDown(index);
+    }
+  }
+
+  /**
+   * Remember that the given matrix has a row at the current {@code x}
+   * coordinate. This must be called for each matrix advanced in a step.
+   *
+   * @param index
+   *          the matrix index
+   */
+  final void _advanced(final int index) {
+    this.m_current[this.m_currentCount++] = index;
+  }
+
+  /**
+   * Collect the matrices whose {@code y} coordinate may have changed in
+   * the current step into {@link #m_changed} and begin a new step. These
+   * are the matrices {@linkplain #_advanced(int) advanced} in this or the
+   * previous step: A matrix has the same {@code y} coordinate for all
+   * {@code x} coordinates between two of its rows, so its {@code y}
+   * coordinate can only change when we arrive at one of its rows or leave
+   * it.
+   *
+   * @return the number of matrices in {@link #m_changed}
+   */
+  final int _collectChanged() {
+    final int[] changed, marks, swap;
+    final int step;
+    int count, i, index;
+
+    changed = this.m_changed;
+    marks = this.m_marks;
+    step = (++this.m_step);
+    count = 0;
+    for (i = this.m_previousCount; (--i) >= 0;) {
+      index = this.m_previous[i];
+      marks[index] = step;
+      changed[count++] = index;
+    }
+    for (i = this.m_currentCount; (--i) >= 0;) {
+      index = this.m_current[i];
+      if (marks[index] != step) {
+        marks[index] = step;
+        changed[count++] = index;
+      }
+    }
+
+    swap = this.m_previous;
+    this.m_previous = this.m_current;
+    this.m_current = swap;
+    this.m_previousCount = this.m_currentCount;
+    this.m_currentCount = 0;
+    return count;
+  }
+
+  /**
+   * Remove the matrix at the top of the heap, as it has no more
+   * {@code x} coordinates to offer.
+   */
+  final void _removeTop() {
+    if ((--this.m_size) > 0) {
+      this.m_heap[0] = this.m_heap[this.m_size];
+      this._siftDown(0);
+    }
+  }
+
+  /**
+   * Move the element at the given heap slot down until the heap property
+   * is restored.
+   *
+   * @param slot
+   *          the heap slot
+   */
+  final void _siftDown(final int slot) {
+    final int[] heap;
+    final int size, element;
+    int current, child;
+
+    heap = this.m_heap;
+    size = this.m_size;
+    element = heap[slot];
+    current = slot;
+
+    while ((child = ((current << 1) + 1)) < size) {
+      if (((child + 1) < size) && this._before(heap[child + 1], heap[child])) {
+        child++;
+      }
+      if (!(this._before(heap[child], element))) {
+        break;
+      }
+      heap[current] = heap[child];
+      current = child;
+    }
+
+    heap[current] = element;
+  }
+}
@@ -0,0 +1,346 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import org.optimizationBenchmarking.utils.math.BasicNumberWrapper;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+
+/**
+ * The base class for the backing stores of the
+ * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate
+ * quantile} and
+ * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.InterQuantileRangeAggregate
+ * inter-quantile range} aggregates. A store provides its values in sorted
+ * order, accessible by their rank. The {@link QuantileDataStore} keeps the
+ * values in an array and selects the needed ranks lazily, whereas the
+ * {@link IncrementalQuantileDataStore} keeps them in a balanced search
+ * tree, which is faster if values are often removed or if quantiles are
+ * queried between appending values. Both stores are exact and implement
+ * {@link IIncrementalAggregate}. The {@link QuantileSketch} only keeps a
+ * bounded number of values and provides approximate quantiles, but values
+ * cannot be removed from it.
+ */
+public abstract class AbstractQuantileDataStore
+    implements IBulkAggregate {
+
+  /** the data store is empty */
+  static final int IS_EMPTY = 0;
+  /** the data store has some {@code long[]} data, but is not sorted */
+  static final int HAS_DATA_LONG = (AbstractQuantileDataStore.IS_EMPTY
+      + 1);
+  /** the data store has some {@code double[]} data, but is not sorted */
+  static final int HAS_DATA_DOUBLE = (AbstractQuantileDataStore.HAS_DATA_LONG
+      + 1);
+  /** the data store contains {@code long[]} data and has been sorted */
+  static final int IS_SORTED_LONG = (AbstractQuantileDataStore.HAS_DATA_DOUBLE
+      + 1);
+  /** the data store contains {@code double[]} data and has been sorted */
+  static final int IS_SORTED_DOUBLE = (AbstractQuantileDataStore.IS_SORTED_LONG
+      + 1);
+  /** the data store contains at least one {@link Double#NaN} */
+  static final int IS_NAN = (AbstractQuantileDataStore.IS_SORTED_DOUBLE
+      + 1);
+
+  /** the timestamp, which changes whenever the data changes */
+  long m_timestamp;
+
+  /** create the quantile data store */
+  AbstractQuantileDataStore() {
+    super();
+    this.m_timestamp = 1L;
+  }
+
+  /**
+   * Prepare the data for reading by the quantile aggregates.
+   *
+   * @return {@link #IS_EMPTY} if the store is empty, {@link #IS_NAN} if it
+   *         contains a {@link Double#NaN}, {@link #IS_SORTED_LONG} if the
+   *         data can be accessed via {@link #_getLong(int)}, and
+   *         {@link #IS_SORTED_DOUBLE} if the data must be accessed via
+   *         {@link #_getDouble(int)}
+   */
+  abstract int _prepare();
+
+  /**
+   * Get the number of values in the store, excluding {@link Double#NaN}s
+   *
+   * @return the number of values in the store
+   */
+  abstract int _size();
+
+  /**
+   * Get the value at a given rank, if the store has been
+   * {@linkplain #_prepare() prepared} for {@code long} access
+   *
+   * @param index
+   *          the zero-based rank of the value
+   * @return the value
+   */
+  abstract long _getLong(final int index);
+
+  /**
+   * Get the value at a given rank, if the store has been
+   * {@linkplain #_prepare() prepared} for {@code double} access
+   *
+   * @param index
+   *          the zero-based rank of the value
+   * @return the value
+   */
+  abstract double _getDouble(final int index);
+
+  /**
+   * Create a new, empty store of the same type
+   *
+   * @return the new store
+   */
+  abstract AbstractQuantileDataStore _createEmptyCopy();
+
+  /**
+   * Get ready to access the values at the given ranks. Stores which need
+   * to do work to find a value of a given rank can do this work for all
+   * ranks at once here. The default implementation does nothing.
+   *
+   * @param ranks
+   *          the zero-based ranks, which may be re-ordered by this method
+   * @param count
+   *          the number of ranks
+   */
+  void _select(final int[] ranks, final int count) {
+    //
+  }
+
+  /**
+   * Get the store ready for computing the given quantiles. Calling this
+   * method before reading several
+   * {@linkplain #getQuantile(double) quantiles} is never necessary, but
+   * may allow the store to find all needed values in a single pass.
+   *
+   * @param p
+   *          the quantiles
+   */
+  public final void prepareQuantiles(final double... p) {
+    final int[] ranks;
+    final int size;
+    int count, intpos;
+    double pos;
+
+    if (this._prepare() == AbstractQuantileDataStore.IS_NAN) {
+      return;
+    }
+    size = this._size();
+    if (size <= 1) {
+      return;
+    }
+
+    ranks = new int[p.length << 1];
+    count = 0;
+    for (final double quantile : p) {
+      if (quantile <= 0d) {
+        ranks[count++] = 0;
+        continue;
+      }
+      if (quantile >= 1d) {
+        ranks[count++] = (size - 1);
+        continue;
+      }
+      pos = (quantile * (size + 1));
+      if (pos < 1d) {
+        ranks[count++] = 0;
+        continue;
+      }
+      if (pos >= size) {
+        ranks[count++] = (size - 1);
+        continue;
+      }
+      intpos = ((int) (Math.floor(pos)));
+      ranks[count++] = (intpos - 1);
+      ranks[count++] = intpos;
+    }
+
+    this._select(ranks, count);
+  }
+
+  /**
+   * Compute the current values of several quantiles at once.
+   *
+   * @param p
+   *          the quantiles
+   * @return the values of the quantiles, in the same order as {@code p}
+   */
+  public final Number[] computeQuantiles(final double... p) {
+    final Number[] result;
+    int index;
+
+    this.prepareQuantiles(p);
+    result = new Number[p.length];
+    for (index = 0; index < p.length; index++) {
+      result[index] = new QuantileAggregate(p[index], this).toNumber();
+    }
+    return result;
+  }
+
+  /** Reset the quantile data store */
+  public abstract void reset();
+
+  /**
+   * Remove a {@code long} value which has previously been
+   * {@linkplain #append(long) appended}.
+   *
+   * @param value
+   *          the value to remove
+   * @throws UnsupportedOperationException
+   *           if this store does not support removing values
+   */
+  public abstract void remove(final long value);
+
+  /**
+   * Remove a {@code double} value which has previously been
+   * {@linkplain #append(double) appended}.
+   *
+   * @param value
+   *          the value to remove
+   * @throws UnsupportedOperationException
+   *           if this store does not support removing values
+   */
+  public abstract void remove(final double value);
+
+  /**
+   * Visit a given {@code int}. This method forwards to
+   * {@link #append(long)}.
+   *
+   * @param value
+   *          the value to visit
+   */
+  @Override
+  public final void append(final int value) {
+    this.append((long) value);
+  }
+
+  /**
+   * Visit a given {@code short}. This method forwards to
+   * {@link #append(long)}.
+   *
+   * @param value
+   *          the value to visit
+   */
+  @Override
+  public final void append(final short value) {
+    this.append((long) value);
+  }
+
+  /**
+   * Visit a given {@code byte}. This method forwards to
+   * {@link #append(long)}.
+   *
+   * @param value
+   *          the value to visit
+   */
+  @Override
+  public final void append(final byte value) {
+    this.append((long) value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final float value) {
+    this.append((double) value);
+  }
+
+  /**
+   * Append the {@code long} values in the slice {@code start...end-1} of
+   * the given array. By default, this method appends them one by one.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  @Override
+  public void append(final long[] data, final int start, final int end) {
+    int index;
+
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
+  /**
+   * Append the {@code double} values in the slice {@code start...end-1}
+   * of the given array. By default, this method appends them one by one.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  @Override
+  public void append(final double[] data, final int start,
+      final int end) {
+    int index;
+
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
+  /**
+   * Append a number to this aggregate
+   *
+   * @param v
+   *          the number
+   */
+  public final void append(final Number v) {
+    if (v == null) {
+      throw new IllegalArgumentException(//
+          "Cannot add null number to quantile store."); //$NON-NLS-1$
+    }
+
+    switch (NumericalTypes.getMinType(v)) {
+      case NumericalTypes.IS_BYTE:
+      case NumericalTypes.IS_SHORT:
+      case NumericalTypes.IS_INT:
+      case NumericalTypes.IS_LONG: {
+        this.append(v.longValue());
+        return;
+      }
+      default: {
+        this.append(v.doubleValue());
+      }
+    }
+  }
+
+  /**
+   * Get a number object representing a specified quantile. The value of
+   * this object will change if the contents of this store change, e.g., if
+   * new numbers are appended or the store is reset.
+   *
+   * @param p
+   *          the quantile
+   * @return a number representing the quantile based on the current state
+   *         of this data store
+   */
+  public final BasicNumberWrapper getQuantile(final double p) {
+    return new BasicNumberWrapper(new QuantileAggregate(p, this));
+  }
+
+  /**
+   * Get a number object representing a range between the specified
+   * quantiles. The value of this object will change if the contents of
+   * this store change, e.g., if new numbers are appended or the store is
+   * reset.
+   *
+   * @param pLow
+   *          the lower quantile
+   * @param pUp
+   *          the upper quantile
+   * @return a number representing the inter-quantile range based on the
+   *         current state of this data store
+   */
+  public final BasicNumberWrapper getInterQuantileRange(final double pLow,
+      final double pUp) {
+    return new BasicNumberWrapper(
+        new InterQuantileRangeAggregate(pLow, pUp, this));
+  }
+}
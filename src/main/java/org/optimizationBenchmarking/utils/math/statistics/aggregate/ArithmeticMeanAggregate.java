@@ -8,7 +8,8 @@ import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
 /**
  * An aggregate for the arithmetic mean.
  */
-public final class ArithmeticMeanAggregate extends MeanBasedAggregate {
+public final class ArithmeticMeanAggregate extends MeanBasedAggregate
+    implements IMergeableAggregate<ArithmeticMeanAggregate> {
 
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
@@ -61,6 +62,32 @@ public final class ArithmeticMeanAggregate extends MeanBasedAggregate {
     this.m_state = BasicNumber.STATE_EMPTY;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    if (start < end) {
+      this.m_minimum.append(data, start, end);
+      this.m_maximum.append(data, start, end);
+      this.m_sum.append(data, start, end);
+      this.m_count += (end - start);
+      this.m_state = BasicNumber.STATE_EMPTY;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    if (start < end) {
+      this.m_minimum.append(data, start, end);
+      this.m_maximum.append(data, start, end);
+      this.m_sum.append(data, start, end);
+      this.m_count += (end - start);
+      this.m_state = BasicNumber.STATE_EMPTY;
+    }
+  }
+
   /**
    * set a long value
    *
@@ -449,4 +476,26 @@ public final class ArithmeticMeanAggregate extends MeanBasedAggregate {
       return ArithmeticMeanAggregate.this.m_count;
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final ArithmeticMeanAggregate other) {
+    final long count;
+
+    count = other.m_count;
+    if (count <= 0L) {
+      return;
+    }
+    this.m_minimum.merge(other.m_minimum);
+    this.m_maximum.merge(other.m_maximum);
+    this.m_sum.merge(other.m_sum);
+    this.m_count += count;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final ArithmeticMeanAggregate createEmptyCopy() {
+    return new ArithmeticMeanAggregate();
+  }
 }
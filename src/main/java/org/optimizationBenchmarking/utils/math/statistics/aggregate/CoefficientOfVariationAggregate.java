@@ -8,7 +8,8 @@ import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
  * The coefficient of variation is the fraction of standard deviation
  * divided by arithmetic mean
  */
-public class CoefficientOfVariationAggregate extends MeanBasedAggregate {
+public class CoefficientOfVariationAggregate extends MeanBasedAggregate
+    implements IMergeableAggregate<CoefficientOfVariationAggregate> {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
@@ -193,4 +194,20 @@ public class CoefficientOfVariationAggregate extends MeanBasedAggregate {
   public final BasicNumberWrapper getStandardDeviation() {
     return new BasicNumberWrapper(this.m_stddev);
   }
-}
\ No newline at end of file
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final CoefficientOfVariationAggregate other) {
+    this.m_stddev.merge(other.m_stddev);
+    this._setEmpty();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ScalarAggregate createEmptyCopy() {
+    if (this.getClass() == CoefficientOfVariationAggregate.class) {
+      return new CoefficientOfVariationAggregate();
+    }
+    return null;
+  }
+}
@@ -91,4 +91,10 @@ public final class FiniteMaximumAggregate extends _StatefulNumber {
       }
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final FiniteMaximumAggregate createEmptyCopy() {
+    return new FiniteMaximumAggregate();
+  }
 }
@@ -90,4 +90,10 @@ public final class FiniteMinimumAggregate extends _StatefulNumber {
       }
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final FiniteMinimumAggregate createEmptyCopy() {
+    return new FiniteMinimumAggregate();
+  }
 }
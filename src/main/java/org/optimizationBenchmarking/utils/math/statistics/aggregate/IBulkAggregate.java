@@ -0,0 +1,42 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * An aggregate which can consume whole slices of primitive arrays at
+ * once. Appending values one by one costs a virtual call and, often, a
+ * check of the internal state of the aggregate for each value. An
+ * implementation of this interface can instead process the slice in a
+ * tight loop, e.g., by copying it into its internal storage with
+ * {@link System#arraycopy(Object, int, Object, int, int)}. The result is
+ * the same as if the values had been appended one by one, in the order in
+ * which they appear in the slice.
+ */
+public interface IBulkAggregate extends IAggregate {
+
+  /**
+   * Append the {@code long} values in the slice {@code start...end-1} of
+   * the given array.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  public abstract void append(final long[] data, final int start,
+      final int end);
+
+  /**
+   * Append the {@code double} values in the slice {@code start...end-1}
+   * of the given array.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  public abstract void append(final double[] data, final int start,
+      final int end);
+}
@@ -0,0 +1,31 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * An aggregate which does not only allow appending values, but also
+ * removing them again. Such aggregates can be updated with small deltas
+ * if only a few of the values in a large collection change, instead of
+ * being {@linkplain ScalarAggregate#reset() reset} and re-computed from
+ * scratch. Only values which have previously been appended and not yet
+ * been removed may be removed, otherwise the result of the aggregate is
+ * undefined.
+ */
+public interface IIncrementalAggregate extends IAggregate {
+
+  /**
+   * Remove a {@code long} value which has previously been
+   * {@linkplain #append(long) appended}.
+   *
+   * @param value
+   *          the value to remove
+   */
+  public abstract void remove(final long value);
+
+  /**
+   * Remove a {@code double} value which has previously been
+   * {@linkplain #append(double) appended}.
+   *
+   * @param value
+   *          the value to remove
+   */
+  public abstract void remove(final double value);
+}
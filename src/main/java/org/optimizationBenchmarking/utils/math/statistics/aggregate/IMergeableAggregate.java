@@ -0,0 +1,25 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * An aggregate which can absorb the state of another aggregate of the
+ * same type. This allows different parts of a large data set to be
+ * aggregated independently, e.g., by different threads, and the partial
+ * results to be combined afterwards. After {@link #merge(Object)}, this
+ * aggregate represents the values appended to it and the values appended
+ * to the other aggregate, as if all of them had been appended to this
+ * aggregate alone.
+ *
+ * @param <T>
+ *          the type of aggregate which can be merged into this one
+ */
+public interface IMergeableAggregate<T> extends IAggregate {
+
+  /**
+   * Merge the state of another aggregate into this one. The other
+   * aggregate is not changed.
+   *
+   * @param other
+   *          the other aggregate
+   */
+  public abstract void merge(final T other);
+}
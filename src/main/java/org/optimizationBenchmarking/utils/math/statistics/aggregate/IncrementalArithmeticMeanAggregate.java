@@ -0,0 +1,233 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
+
+/**
+ * An aggregate for the arithmetic mean of a set of numbers which may
+ * change over time: Values can be {@linkplain #append(long) appended} and
+ * {@linkplain #remove(long) removed} in {@code O(1)} steps. The
+ * {@code long} values are summed up exactly in 128 bit integer
+ * arithmetic, so the mean of {@code long}s is exact as long as their sum
+ * fits into a {@code long}. The other values are summed up in
+ * double-double arithmetic, which does not lose precision if large values
+ * are removed again.
+ */
+public final class IncrementalArithmeticMeanAggregate
+    extends _StatefulNumber implements IIncrementalAggregate {
+
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the number of values */
+  private long m_count;
+  /** the number of {@code NaN}s */
+  private long m_nanCount;
+  /** the number of positive infinities */
+  private long m_positiveInfinityCount;
+  /** the number of negative infinities */
+  private long m_negativeInfinityCount;
+  /** the number of finite values which are not integers */
+  private long m_doubleCount;
+  /** the exact sum of the {@code long} values */
+  private final _ExactLongSums m_longSum;
+  /** the sum of the finite values which are not integers */
+  private final _DoubleDouble m_doubleSum;
+  /** the temporary number for computing the result */
+  private final _DoubleDouble m_temp;
+
+  /** create */
+  public IncrementalArithmeticMeanAggregate() {
+    super();
+    this.m_longSum = new _ExactLongSums(false);
+    this.m_doubleSum = new _DoubleDouble();
+    this.m_temp = new _DoubleDouble();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void reset() {
+    super.reset();
+    this.m_count = 0L;
+    this.m_nanCount = 0L;
+    this.m_positiveInfinityCount = 0L;
+    this.m_negativeInfinityCount = 0L;
+    this.m_doubleCount = 0L;
+    this.m_longSum._clear();
+    this.m_doubleSum._clear();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long value) {
+    this.m_longSum._append(value);
+    this.m_count++;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.append((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount++;
+    } else {
+      if (value >= Double.POSITIVE_INFINITY) {
+        this.m_positiveInfinityCount++;
+      } else {
+        if (value <= Double.NEGATIVE_INFINITY) {
+          this.m_negativeInfinityCount++;
+        } else {
+          this.m_doubleCount++;
+          this.m_doubleSum._add(value);
+        }
+      }
+    }
+    this.m_count++;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final long value) {
+    this.m_longSum._remove(value);
+    this.m_count--;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.remove((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount--;
+    } else {
+      if (value >= Double.POSITIVE_INFINITY) {
+        this.m_positiveInfinityCount--;
+      } else {
+        if (value <= Double.NEGATIVE_INFINITY) {
+          this.m_negativeInfinityCount--;
+        } else {
+          if ((--this.m_doubleCount) <= 0L) {
+            // get rid of any accumulated rounding error
+            this.m_doubleSum._clear();
+          } else {
+            this.m_doubleSum._add(-value);
+          }
+        }
+      }
+    }
+    this.m_count--;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** compute the arithmetic mean */
+  private final void __compute() {
+    final _DoubleDouble temp;
+    final long count, sum, result;
+
+    count = this.m_count;
+    if (count <= 0L) {
+      return;
+    }
+
+    if ((this.m_nanCount > 0L) || ((this.m_positiveInfinityCount > 0L)
+        && (this.m_negativeInfinityCount > 0L))) {
+      this._setNaN();
+      return;
+    }
+    if (this.m_positiveInfinityCount > 0L) {
+      this._setPositiveInfinity();
+      return;
+    }
+    if (this.m_negativeInfinityCount > 0L) {
+      this._setNegativeInfinity();
+      return;
+    }
+
+    if ((this.m_doubleCount <= 0L) && this.m_longSum._isSumLong()) {
+      sum = this.m_longSum._getSumLong();
+      result = (sum / count);
+      if ((result * count) == sum) {
+        this._setLong(result);
+      } else {
+        this._setDoubleFully(Div.INSTANCE.computeAsDouble(sum, count));
+      }
+      return;
+    }
+
+    temp = this.m_temp;
+    temp._clear();
+    this.m_longSum._addSumTo(temp);
+    temp._add(this.m_doubleSum);
+    temp._divide(count);
+    this._setDoubleFully(temp._doubleValue());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isInteger() {
+    return (this.getState() == BasicNumber.STATE_INTEGER);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isReal() {
+    final int state;
+    state = this.getState();
+    return ((state >= BasicNumber.STATE_INTEGER)
+        && (state <= BasicNumber.STATE_DOUBLE));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int getState() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return this.m_state;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long longValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.longValue();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double doubleValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.doubleValue();
+  }
+
+  /**
+   * Get the number of values which have been appended and not removed
+   * again
+   *
+   * @return the number of values
+   */
+  public final long getCountValue() {
+    return this.m_count;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IncrementalArithmeticMeanAggregate createEmptyCopy() {
+    return new IncrementalArithmeticMeanAggregate();
+  }
+}
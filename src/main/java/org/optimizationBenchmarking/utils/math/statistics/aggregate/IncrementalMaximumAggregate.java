@@ -0,0 +1,37 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * This class computes the maximum of a set of numbers which may change over
+ * time: Values can be {@linkplain #append(long) appended} and
+ * {@linkplain #remove(long) removed} in {@code O(log n)} steps.
+ */
+public final class IncrementalMaximumAggregate
+    extends _IncrementalExtremumAggregate {
+
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** instantiate */
+  public IncrementalMaximumAggregate() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final long _orient(final long value) {
+    // ~value == (-value - 1) reverses the order and cannot overflow
+    return (~value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final double _orient(final double value) {
+    return (-value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IncrementalMaximumAggregate createEmptyCopy() {
+    return new IncrementalMaximumAggregate();
+  }
+}
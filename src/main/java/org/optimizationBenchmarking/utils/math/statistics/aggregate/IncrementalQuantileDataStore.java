@@ -0,0 +1,476 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Arrays;
+
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+
+/**
+ * A quantile data store which keeps its values in an order-statistic
+ * tree, so that values can be appended and removed in {@code O(log n)}
+ * steps and the value at any rank can be found in {@code O(log n)} steps.
+ * Quantiles can hence be queried after each change without ever sorting
+ * the data, which makes this store suitable for sliding windows and
+ * per-step quantiles over changing populations, e.g., in a
+ * {@link Matrix2DAggregate}.
+ * <p>
+ * The tree is a <a href="https://en.wikipedia.org/wiki/Treap">treap</a>
+ * held in primitive arrays, where each node stores a distinct value, the
+ * number of times it occurs, and the total number of values in its
+ * sub-tree. {@code long} values and {@code double} values are compared
+ * exactly with each other, so the store yields exactly the same quantiles
+ * as a {@link QuantileDataStore} filled with the values currently
+ * contained.
+ * </p>
+ */
+public final class IncrementalQuantileDataStore
+    extends AbstractQuantileDataStore implements IIncrementalAggregate {
+
+  /** the index of the null node */
+  private static final int NULL = 0;
+
+  /** the values of the nodes: either {@code long}s or {@code double} bits */
+  private long[] m_values;
+  /** are the values of the nodes {@code double} bits? */
+  private boolean[] m_isDouble;
+  /** the left children of the nodes */
+  private int[] m_left;
+  /** the right children of the nodes */
+  private int[] m_right;
+  /** the heap priorities of the nodes */
+  private int[] m_priorities;
+  /** the number of occurrences of the values of the nodes */
+  private int[] m_counts;
+  /** the number of values in the sub-trees rooted at the nodes */
+  private int[] m_weights;
+
+  /** the root node */
+  private int m_root;
+  /** the number of node slots used so far */
+  private int m_used;
+  /** the first node of the list of free nodes */
+  private int m_free;
+  /** the state of the random number generator for priorities */
+  private int m_random;
+
+  /** the number of {@link Double#NaN}s */
+  private long m_nanCount;
+  /** the number of values which are not {@code long}s */
+  private int m_doubleCount;
+
+  /** create the incremental quantile data store */
+  public IncrementalQuantileDataStore() {
+    super();
+    this.m_values = new long[16];
+    this.m_isDouble = new boolean[16];
+    this.m_left = new int[16];
+    this.m_right = new int[16];
+    this.m_priorities = new int[16];
+    this.m_counts = new int[16];
+    this.m_weights = new int[16];
+    this.m_random = 0x2545F491;
+  }
+
+  /**
+   * Compare a {@code long} with a {@code double} which is not a
+   * {@code long} and not {@link Double#NaN}.
+   *
+   * @param a
+   *          the {@code long}
+   * @param b
+   *          the {@code double}
+   * @return {@code -1} if {@code a<b}, {@code 1} if {@code a>b}
+   */
+  private static final int __compareLongDouble(final long a,
+      final double b) {
+    if (b >= 9.223372036854775807E18d) {
+      return (-1);
+    }
+    if (b < (-9.223372036854775808E18d)) {
+      return 1;
+    }
+    // b is not an integer and within the long range, so its floor is a
+    // long which can be compared exactly
+    return ((a <= ((long) (Math.floor(b)))) ? (-1) : 1);
+  }
+
+  /**
+   * Compare a value with the value of a node
+   *
+   * @param value
+   *          the value, either a {@code long} or {@code double} bits
+   * @param isDouble
+   *          is {@code value} a {@code double}?
+   * @param node
+   *          the node
+   * @return the comparison result
+   */
+  private final int __compare(final long value, final boolean isDouble,
+      final int node) {
+    final long other;
+
+    other = this.m_values[node];
+    if (isDouble) {
+      if (this.m_isDouble[node]) {
+        return Double.compare(Double.longBitsToDouble(value),
+            Double.longBitsToDouble(other));
+      }
+      return (-(IncrementalQuantileDataStore.__compareLongDouble(other,
+          Double.longBitsToDouble(value))));
+    }
+    if (this.m_isDouble[node]) {
+      return IncrementalQuantileDataStore.__compareLongDouble(value,
+          Double.longBitsToDouble(other));
+    }
+    return ((value < other) ? (-1) : ((value > other) ? 1 : 0));
+  }
+
+  /**
+   * Allocate a new node
+   *
+   * @param value
+   *          the value, either a {@code long} or {@code double} bits
+   * @param isDouble
+   *          is {@code value} a {@code double}?
+   * @return the node
+   */
+  private final int __newNode(final long value, final boolean isDouble) {
+    final int length;
+    int node, random;
+
+    node = this.m_free;
+    if (node != IncrementalQuantileDataStore.NULL) {
+      this.m_free = this.m_left[node];
+    } else {
+      node = (++this.m_used);
+      if (node >= this.m_values.length) {
+        length = (node << 1);
+        this.m_values = Arrays.copyOf(this.m_values, length);
+        this.m_isDouble = Arrays.copyOf(this.m_isDouble, length);
+        this.m_left = Arrays.copyOf(this.m_left, length);
+        this.m_right = Arrays.copyOf(this.m_right, length);
+        this.m_priorities = Arrays.copyOf(this.m_priorities, length);
+        this.m_counts = Arrays.copyOf(this.m_counts, length);
+        this.m_weights = Arrays.copyOf(this.m_weights, length);
+      }
+    }
+
+    // xorshift random numbers for the priorities
+    random = this.m_random;
+    random ^= (random << 13);
+    random ^= (random >>> 17);
+    random ^= (random << 5);
+    this.m_random = random;
+
+    this.m_values[node] = value;
+    this.m_isDouble[node] = isDouble;
+    this.m_left[node] = IncrementalQuantileDataStore.NULL;
+    this.m_right[node] = IncrementalQuantileDataStore.NULL;
+    this.m_priorities[node] = random;
+    this.m_counts[node] = 1;
+    this.m_weights[node] = 1;
+    return node;
+  }
+
+  /**
+   * Re-compute the weight of a node from its children
+   *
+   * @param node
+   *          the node
+   */
+  private final void __update(final int node) {
+    this.m_weights[node] = (this.m_counts[node]
+        + this.m_weights[this.m_left[node]]
+        + this.m_weights[this.m_right[node]]);
+  }
+
+  /**
+   * Rotate a node to the right, i.e., make its left child its parent
+   *
+   * @param node
+   *          the node
+   * @return the new root of the sub-tree
+   */
+  private final int __rotateRight(final int node) {
+    final int left;
+
+    left = this.m_left[node];
+    this.m_left[node] = this.m_right[left];
+    this.m_right[left] = node;
+    this.__update(node);
+    this.__update(left);
+    return left;
+  }
+
+  /**
+   * Rotate a node to the left, i.e., make its right child its parent
+   *
+   * @param node
+   *          the node
+   * @return the new root of the sub-tree
+   */
+  private final int __rotateLeft(final int node) {
+    final int right;
+
+    right = this.m_right[node];
+    this.m_right[node] = this.m_left[right];
+    this.m_left[right] = node;
+    this.__update(node);
+    this.__update(right);
+    return right;
+  }
+
+  /**
+   * Insert a value into a sub-tree
+   *
+   * @param node
+   *          the root of the sub-tree
+   * @param value
+   *          the value, either a {@code long} or {@code double} bits
+   * @param isDouble
+   *          is {@code value} a {@code double}?
+   * @return the new root of the sub-tree
+   */
+  private final int __insert(final int node, final long value,
+      final boolean isDouble) {
+    final int comparison;
+    final int child;
+
+    if (node == IncrementalQuantileDataStore.NULL) {
+      return this.__newNode(value, isDouble);
+    }
+
+    comparison = this.__compare(value, isDouble, node);
+    if (comparison == 0) {
+      this.m_counts[node]++;
+    } else {
+      // the arrays may be re-allocated during the insertion, so we must
+      // store the child only after the recursion has returned
+      if (comparison < 0) {
+        child = this.__insert(this.m_left[node], value, isDouble);
+        this.m_left[node] = child;
+        if (this.m_priorities[child] > this.m_priorities[node]) {
+          return this.__rotateRight(node);
+        }
+      } else {
+        child = this.__insert(this.m_right[node], value, isDouble);
+        this.m_right[node] = child;
+        if (this.m_priorities[child] > this.m_priorities[node]) {
+          return this.__rotateLeft(node);
+        }
+      }
+    }
+    this.m_weights[node]++;
+    return node;
+  }
+
+  /**
+   * Merge two sub-trees, where all values in the first one are less than
+   * those in the second one
+   *
+   * @param a
+   *          the first sub-tree
+   * @param b
+   *          the second sub-tree
+   * @return the root of the merged tree
+   */
+  private final int __merge(final int a, final int b) {
+    if (a == IncrementalQuantileDataStore.NULL) {
+      return b;
+    }
+    if (b == IncrementalQuantileDataStore.NULL) {
+      return a;
+    }
+    if (this.m_priorities[a] > this.m_priorities[b]) {
+      this.m_right[a] = this.__merge(this.m_right[a], b);
+      this.__update(a);
+      return a;
+    }
+    this.m_left[b] = this.__merge(a, this.m_left[b]);
+    this.__update(b);
+    return b;
+  }
+
+  /**
+   * Remove a value from a sub-tree
+   *
+   * @param node
+   *          the root of the sub-tree
+   * @param value
+   *          the value, either a {@code long} or {@code double} bits
+   * @param isDouble
+   *          is {@code value} a {@code double}?
+   * @return the new root of the sub-tree
+   */
+  private final int __delete(final int node, final long value,
+      final boolean isDouble) {
+    final int comparison;
+    final int result;
+
+    if (node == IncrementalQuantileDataStore.NULL) {
+      throw new IllegalArgumentException("Value " + //$NON-NLS-1$
+          (isDouble ? Double.toString(Double.longBitsToDouble(value))
+              : Long.toString(value))
+          + " cannot be removed, since it is not in the quantile data store."); //$NON-NLS-1$
+    }
+
+    comparison = this.__compare(value, isDouble, node);
+    if (comparison < 0) {
+      this.m_left[node] = this.__delete(this.m_left[node], value,
+          isDouble);
+    } else {
+      if (comparison > 0) {
+        this.m_right[node] = this.__delete(this.m_right[node], value,
+            isDouble);
+      } else {
+        if (this.m_counts[node] <= 1) {
+          result = this.__merge(this.m_left[node], this.m_right[node]);
+          this.m_left[node] = this.m_free;
+          this.m_free = node;
+          return result;
+        }
+        this.m_counts[node]--;
+      }
+    }
+    this.m_weights[node]--;
+    return node;
+  }
+
+  /**
+   * Find the node holding the value at a given rank
+   *
+   * @param index
+   *          the zero-based rank
+   * @return the node
+   */
+  private final int __select(final int index) {
+    final int[] left, right, counts, weights;
+    int node, rank, leftWeight;
+
+    left = this.m_left;
+    right = this.m_right;
+    counts = this.m_counts;
+    weights = this.m_weights;
+    node = this.m_root;
+    rank = index;
+    for (;;) {
+      leftWeight = weights[left[node]];
+      if (rank < leftWeight) {
+        node = left[node];
+      } else {
+        rank -= leftWeight;
+        if (rank < counts[node]) {
+          return node;
+        }
+        rank -= counts[node];
+        node = right[node];
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long value) {
+    this.m_root = this.__insert(this.m_root, value, false);
+    ++this.m_timestamp;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.append((long) value);
+      return;
+    }
+    if (value != value) {
+      this.m_nanCount++;
+    } else {
+      this.m_root = this.__insert(this.m_root,
+          Double.doubleToLongBits(value), true);
+      this.m_doubleCount++;
+    }
+    ++this.m_timestamp;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final long value) {
+    this.m_root = this.__delete(this.m_root, value, false);
+    ++this.m_timestamp;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.remove((long) value);
+      return;
+    }
+    if (value != value) {
+      if (this.m_nanCount <= 0L) {
+        throw new IllegalArgumentException(//
+            "Cannot remove NaN, since it is not in the quantile data store."); //$NON-NLS-1$
+      }
+      this.m_nanCount--;
+    } else {
+      this.m_root = this.__delete(this.m_root,
+          Double.doubleToLongBits(value), true);
+      this.m_doubleCount--;
+    }
+    ++this.m_timestamp;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void reset() {
+    ++this.m_timestamp;
+    this.m_root = IncrementalQuantileDataStore.NULL;
+    this.m_used = 0;
+    this.m_free = IncrementalQuantileDataStore.NULL;
+    this.m_nanCount = 0L;
+    this.m_doubleCount = 0;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _prepare() {
+    if (this.m_nanCount > 0L) {
+      return AbstractQuantileDataStore.IS_NAN;
+    }
+    if (this.m_root == IncrementalQuantileDataStore.NULL) {
+      return AbstractQuantileDataStore.IS_EMPTY;
+    }
+    return ((this.m_doubleCount > 0)
+        ? AbstractQuantileDataStore.IS_SORTED_DOUBLE
+        : AbstractQuantileDataStore.IS_SORTED_LONG);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _size() {
+    return this.m_weights[this.m_root];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final long _getLong(final int index) {
+    return this.m_values[this.__select(index)];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final double _getDouble(final int index) {
+    final int node;
+
+    node = this.__select(index);
+    if (this.m_isDouble[node]) {
+      return Double.longBitsToDouble(this.m_values[node]);
+    }
+    return this.m_values[node];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final IncrementalQuantileDataStore _createEmptyCopy() {
+    return new IncrementalQuantileDataStore();
+  }
+}
@@ -0,0 +1,248 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+
+/**
+ * An aggregate for the sample variance of a set of numbers which may
+ * change over time: Values can be {@linkplain #append(long) appended} and
+ * {@linkplain #remove(long) removed} in {@code O(1)} steps. The variance
+ * is computed from the sum of the values and the sum of their squares. For
+ * {@code long} values, these sums are computed exactly in 128 and 192 bit
+ * integer arithmetic, respectively. For all other values, they are
+ * computed in double-double arithmetic, which does not lose precision if
+ * large values are removed again. The variance itself is then computed in
+ * double-double arithmetic as well, which avoids the cancellation problems
+ * of the naive algorithm from
+ * http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance as
+ * long as the mean is not more than about {@code 10^15} times larger than
+ * the standard deviation. Values so large that the sums of their squares
+ * might overflow are not added to the sums, but lead to a
+ * {@linkplain org.optimizationBenchmarking.utils.math.BasicNumber#STATE_POSITIVE_OVERFLOW
+ * positive overflow} as long as they are present.
+ */
+public final class IncrementalVarianceAggregate extends _StatefulNumber
+    implements IIncrementalAggregate {
+
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the largest absolute value which is added to the sums */
+  private static final double MAX_VALUE = 0x1p480d;
+
+  /** the number of values */
+  private long m_count;
+  /** the number of {@code NaN}s */
+  private long m_nanCount;
+  /** the number of infinities */
+  private long m_infinityCount;
+  /** the number of values too large to be added to the sums */
+  private long m_overflowCount;
+  /** the number of finite values which are not integers */
+  private long m_doubleCount;
+  /** the exact sums of the {@code long} values and their squares */
+  private final _ExactLongSums m_longSums;
+  /** the sum of the finite values which are not integers */
+  private final _DoubleDouble m_doubleSum;
+  /** the sum of the squares of the finite values which are not integers */
+  private final _DoubleDouble m_doubleSquares;
+  /** the temporary number for the sum */
+  private final _DoubleDouble m_tempSum;
+  /** the temporary number for the sum of squares */
+  private final _DoubleDouble m_tempSquares;
+
+  /** create */
+  public IncrementalVarianceAggregate() {
+    super();
+    this.m_longSums = new _ExactLongSums(true);
+    this.m_doubleSum = new _DoubleDouble();
+    this.m_doubleSquares = new _DoubleDouble();
+    this.m_tempSum = new _DoubleDouble();
+    this.m_tempSquares = new _DoubleDouble();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void reset() {
+    super.reset();
+    this.m_count = 0L;
+    this.m_nanCount = 0L;
+    this.m_infinityCount = 0L;
+    this.m_overflowCount = 0L;
+    this.m_doubleCount = 0L;
+    this.m_longSums._clear();
+    this.m_doubleSum._clear();
+    this.m_doubleSquares._clear();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long value) {
+    this.m_longSums._append(value);
+    this.m_count++;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.append((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount++;
+    } else {
+      if ((value >= Double.POSITIVE_INFINITY)
+          || (value <= Double.NEGATIVE_INFINITY)) {
+        this.m_infinityCount++;
+      } else {
+        if ((value > IncrementalVarianceAggregate.MAX_VALUE)
+            || (value < (-IncrementalVarianceAggregate.MAX_VALUE))) {
+          this.m_overflowCount++;
+        } else {
+          this.m_doubleCount++;
+          this.m_doubleSum._add(value);
+          this.m_doubleSquares._addProduct(value, value);
+        }
+      }
+    }
+    this.m_count++;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final long value) {
+    this.m_longSums._remove(value);
+    this.m_count--;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final double value) {
+    if (NumericalTypes.isLong(value)) {
+      this.remove((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount--;
+    } else {
+      if ((value >= Double.POSITIVE_INFINITY)
+          || (value <= Double.NEGATIVE_INFINITY)) {
+        this.m_infinityCount--;
+      } else {
+        if ((value > IncrementalVarianceAggregate.MAX_VALUE)
+            || (value < (-IncrementalVarianceAggregate.MAX_VALUE))) {
+          this.m_overflowCount--;
+        } else {
+          if ((--this.m_doubleCount) <= 0L) {
+            // get rid of any accumulated rounding error
+            this.m_doubleSum._clear();
+            this.m_doubleSquares._clear();
+          } else {
+            this.m_doubleSum._add(-value);
+            this.m_doubleSquares._addProduct(-value, value);
+          }
+        }
+      }
+    }
+    this.m_count--;
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** compute the variance */
+  private final void __compute() {
+    final _DoubleDouble sum, squares;
+    final long count;
+
+    count = this.m_count;
+    if (count <= 0L) {
+      return;
+    }
+    if (this.m_nanCount > 0L) {
+      this._setNaN();
+      return;
+    }
+    if (this.m_infinityCount > 0L) {
+      this._setPositiveInfinity();
+      return;
+    }
+    if (count <= 1L) {
+      this._setLong(0L);
+      return;
+    }
+    if (this.m_overflowCount > 0L) {
+      this._setPositiveOverflow();
+      return;
+    }
+
+    sum = this.m_tempSum;
+    sum._clear();
+    this.m_longSums._addSumTo(sum);
+    sum._add(this.m_doubleSum);
+
+    squares = this.m_tempSquares;
+    squares._clear();
+    this.m_longSums._addSquaresTo(squares);
+    squares._add(this.m_doubleSquares);
+
+    // var = (count*squares - sum^2) / (count*(count-1))
+    squares._multiply(count);
+    sum._multiply(sum);
+    squares._subtract(sum);
+    squares._divide(((double) count) * (count - 1L));
+    this._setDoubleFully(Math.max(0d, squares._doubleValue()));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isInteger() {
+    return (this.getState() == BasicNumber.STATE_INTEGER);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isReal() {
+    final int state;
+    state = this.getState();
+    return ((state >= BasicNumber.STATE_INTEGER)
+        && (state <= BasicNumber.STATE_DOUBLE));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int getState() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return this.m_state;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long longValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.longValue();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double doubleValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.doubleValue();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final IncrementalVarianceAggregate createEmptyCopy() {
+    return new IncrementalVarianceAggregate();
+  }
+}
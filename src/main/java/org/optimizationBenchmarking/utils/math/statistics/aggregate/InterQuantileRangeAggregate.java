@@ -30,7 +30,7 @@ public final class InterQuantileRangeAggregate
    *          the quantile data store
    */
   public InterQuantileRangeAggregate(final double pLow, final double pUp,
-      final QuantileDataStore store) {
+      final AbstractQuantileDataStore store) {
     super(store);
 
     if ((pLow >= 0d) && (pLow < pUp) && (pUp <= 1d)) {
@@ -75,7 +75,8 @@ public final class InterQuantileRangeAggregate
 
   /** {@inheritDoc} */
   @Override
-  final void _computeLong(final long[] data, final int count) {
+  final void _computeLong(final AbstractQuantileDataStore data,
+      final int count) {
     long lowLong, upLong, upper, lower;
     boolean lowIsLong, upIsLong;
     double lowDouble, upDouble, res, low, pos, v, quantile;
@@ -98,33 +99,33 @@ public final class InterQuantileRangeAggregate
     // First, let's compute the lower quantile
     findLow: {
       if (quantile <= 0d) {
-        lowLong = data[0];
+        lowLong = data._getLong(0);
         lowIsLong = true;
         break findLow;
       }
 
       if (quantile >= 1d) {
-        lowLong = data[count - 1];
+        lowLong = data._getLong(count - 1);
         lowIsLong = true;
         break findLow;
       }
 
       pos = (quantile * (count + 1));
       if (pos < 1d) {
-        lowLong = data[0];
+        lowLong = data._getLong(0);
         lowIsLong = true;
         break findLow;
       }
 
       if (pos >= count) {
-        lowLong = data[count - 1];
+        lowLong = data._getLong(count - 1);
         lowIsLong = true;
         break findLow;
       }
 
       low = Math.floor(pos);
       intpos = ((int) low);
-      lower = data[intpos - 1];
+      lower = data._getLong(intpos - 1);
 
       v = (pos - low);
       if (v <= 0d) {
@@ -133,7 +134,7 @@ public final class InterQuantileRangeAggregate
         break findLow;
       }
 
-      upper = data[intpos];
+      upper = data._getLong(intpos);
       if (upper <= lower) {
         lowLong = lower;
         lowIsLong = true;
@@ -164,33 +165,33 @@ public final class InterQuantileRangeAggregate
 
     findUp: {
       if (quantile <= 0d) {
-        upLong = data[0];
+        upLong = data._getLong(0);
         upIsLong = true;
         break findUp;
       }
 
       if (quantile >= 1d) {
-        upLong = data[count - 1];
+        upLong = data._getLong(count - 1);
         upIsLong = true;
         break findUp;
       }
 
       pos = (quantile * (count + 1));
       if (pos < 1d) {
-        upLong = data[0];
+        upLong = data._getLong(0);
         upIsLong = true;
         break findUp;
       }
 
       if (pos >= count) {
-        upLong = data[count - 1];
+        upLong = data._getLong(count - 1);
         upIsLong = true;
         break findUp;
       }
 
       low = Math.floor(pos);
       intpos = ((int) low);
-      lower = data[intpos - 1];
+      lower = data._getLong(intpos - 1);
 
       v = (pos - low);
       if (v <= 0d) {
@@ -199,7 +200,7 @@ public final class InterQuantileRangeAggregate
         break findUp;
       }
 
-      upper = data[intpos];
+      upper = data._getLong(intpos);
       if (upper <= lower) {
         upLong = lower;
         upIsLong = true;
@@ -244,7 +245,8 @@ public final class InterQuantileRangeAggregate
 
   /** {@inheritDoc} */
   @Override
-  final void _computeDouble(final double[] data, final int count) {
+  final void _computeDouble(final AbstractQuantileDataStore data,
+      final int count) {
     int intpos;
     double low, pos, v, upper, lower, quantile, lowRes, upRes;
 
@@ -253,7 +255,7 @@ public final class InterQuantileRangeAggregate
     }
 
     if (count <= 1) {
-      this._setDoubleFully(data[0]);
+      this._setDoubleFully(data._getDouble(0));
       return;
     }
 
@@ -262,29 +264,29 @@ public final class InterQuantileRangeAggregate
     // compute lower quantile
     findLow: {
       if (quantile <= 0d) {
-        lowRes = data[0];
+        lowRes = data._getDouble(0);
         break findLow;
       }
 
       if (quantile >= 1d) {
-        lowRes = data[count - 1];
+        lowRes = data._getDouble(count - 1);
         break findLow;
       }
 
       pos = (quantile * (count + 1));
       if (pos < 1d) {
-        lowRes = data[0];
+        lowRes = data._getDouble(0);
         break findLow;
       }
 
       if (pos >= count) {
-        lowRes = data[count - 1];
+        lowRes = data._getDouble(count - 1);
         break findLow;
       }
 
       low = Math.floor(pos);
       intpos = ((int) low);
-      lower = data[intpos - 1];
+      lower = data._getDouble(intpos - 1);
 
       v = (pos - low);
       if (v <= 0d) {
@@ -292,7 +294,7 @@ public final class InterQuantileRangeAggregate
         break findLow;
       }
 
-      upper = data[intpos];
+      upper = data._getDouble(intpos);
       if (upper <= lower) {
         lowRes = lower;
         break findLow;
@@ -314,29 +316,29 @@ public final class InterQuantileRangeAggregate
     // compute upper quantile
     findUp: {
       if (quantile <= 0d) {
-        upRes = data[0];
+        upRes = data._getDouble(0);
         break findUp;
       }
 
       if (quantile >= 1d) {
-        upRes = data[count - 1];
+        upRes = data._getDouble(count - 1);
         break findUp;
       }
 
       pos = (quantile * (count + 1));
       if (pos < 1d) {
-        upRes = data[0];
+        upRes = data._getDouble(0);
         break findUp;
       }
 
       if (pos >= count) {
-        upRes = data[count - 1];
+        upRes = data._getDouble(count - 1);
         break findUp;
       }
 
       low = Math.floor(pos);
       intpos = ((int) low);
-      lower = data[intpos - 1];
+      lower = data._getDouble(intpos - 1);
 
       v = (pos - low);
       if (v <= 0d) {
@@ -344,7 +346,7 @@ public final class InterQuantileRangeAggregate
         break findUp;
       }
 
-      upper = data[intpos];
+      upper = data._getDouble(intpos);
       if (upper <= lower) {
         upRes = lower;
         break findUp;
@@ -369,4 +371,11 @@ public final class InterQuantileRangeAggregate
     }
     this._setDoubleFully(upRes - lowRes);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final InterQuantileRangeAggregate createEmptyCopy() {
+    return new InterQuantileRangeAggregate(this.m_pLow, this.m_pUp,
+        this._getStore()._createEmptyCopy());
+  }
 }
@@ -7,7 +7,7 @@ import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
 import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixFunctionBuilder;
 import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DSpec;
 import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState;
-import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DVisitor;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MergeableMatrixIteration2DVisitor;
 
 /**
  * A visitor which performs a two-dimensional matrix aggregate to build a
@@ -16,10 +16,22 @@ import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.Matr
  * x} coordinates, all the
  * {@link org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState#getY()
  * y} coordinates are aggregated with a given {@link ScalarAggregate
- * statistical aggregate}.
+ * statistical aggregate}. If the aggregate can be
+ * {@linkplain ScalarAggregate#createEmptyCopy() copied}, the iteration
+ * can be divided into several partitions along the {@code x} axis which
+ * are processed in parallel.
+ * <p>
+ * If the aggregate is an {@link IIncrementalAggregate}, it is not
+ * re-computed from scratch for each {@code x} coordinate. Instead, only
+ * the {@code y} values of the matrices which have
+ * {@linkplain MatrixIteration2DState#getChangedSourceMatrixCount()
+ * changed} since the previous {@code x} coordinate are removed from and
+ * appended to it, so a step costs time proportional to the number of
+ * changes and not to the number of matrices.
+ * </p>
  */
 public final class Matrix2DAggregate
-    extends MatrixIteration2DVisitor<AbstractMatrix> {
+    extends MergeableMatrixIteration2DVisitor<AbstractMatrix> {
 
   /** the unary transformation function */
   private UnaryFunction m_transform;
@@ -30,6 +42,26 @@ public final class Matrix2DAggregate
   /** the current transformed y state */
   private ModifiableBasicNumber m_currentYTransformed;
 
+  /**
+   * the incremental aggregate, or {@code null} if the aggregate is not
+   * incremental
+   */
+  private IIncrementalAggregate m_incremental;
+  /**
+   * the {@code y} values currently in the incremental aggregate, indexed
+   * by source matrix
+   */
+  private long[] m_longs;
+  /**
+   * the {@code y} values currently in the incremental aggregate, indexed
+   * by source matrix
+   */
+  private double[] m_doubles;
+  /** whether the value of a source matrix was added as {@code long} */
+  private boolean[] m_isLong;
+  /** whether the value of a source matrix is in the aggregate */
+  private boolean[] m_present;
+
   /**
    * create
    *
@@ -53,20 +85,137 @@ public final class Matrix2DAggregate
   /** {@inheritDoc} */
   @Override
   public final boolean visit(final MatrixIteration2DState object) {
-    this.m_aggregate.reset();
-    object.getY().aggregateRow(0, this.m_aggregate);
+    if (this.m_incremental != null) {
+      this.__update(object);
+    } else {
+      this.m_aggregate.reset();
+      object.getY().aggregateRow(0, this.m_aggregate);
+    }
     this.m_currentYTransformed.assignTransformed(this.m_aggregate,
         this.m_transform);
     this.m_builder.addPoint(object.getX(), this.m_currentYTransformed);
     return true;
   }
 
+  /**
+   * Update the incremental aggregate: For each source matrix whose
+   * {@code y} value has changed in this step, remove its old value, if
+   * any, and append its new value, if any. Whether the {@code y} values
+   * are integers may change from step to step, so we remember for each
+   * value whether it was appended as {@code long} or {@code double}.
+   *
+   * @param object
+   *          the iteration state
+   */
+  private final void __update(final MatrixIteration2DState object) {
+    final IIncrementalAggregate aggregate;
+    final AbstractMatrix y;
+    final boolean[] present;
+    final boolean isInteger;
+    final int changed;
+    int index, source, column;
+    long newLong;
+    double newDouble;
+
+    aggregate = this.m_incremental;
+    present = this.m_present;
+    y = object.getY();
+    changed = object.getChangedSourceMatrixCount();
+    isInteger = y.isIntegerMatrix();
+
+    for (index = 0; index < changed; index++) {
+      source = object.getChangedSourceMatrixIndex(index);
+      if (present[source]) {
+        this.__remove(source);
+      }
+
+      column = object.getYIndexOfSourceMatrix(source);
+      if (column < 0) {
+        present[source] = false;
+        continue;
+      }
+      present[source] = true;
+      if (isInteger) {
+        newLong = y.getLong(0, column);
+        aggregate.append(newLong);
+        this.m_longs[source] = newLong;
+      } else {
+        newDouble = y.getDouble(0, column);
+        aggregate.append(newDouble);
+        this.m_doubles[source] = newDouble;
+      }
+      this.m_isLong[source] = isInteger;
+    }
+  }
+
+  /**
+   * Remove the value of a given source matrix from the incremental
+   * aggregate
+   *
+   * @param source
+   *          the index of the source matrix
+   */
+  private final void __remove(final int source) {
+    if (this.m_isLong[source]) {
+      this.m_incremental.remove(this.m_longs[source]);
+    } else {
+      this.m_incremental.remove(this.m_doubles[source]);
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   protected final void initialize(final MatrixIteration2DSpec spec) {
+    final int count;
+
     super.initialize(spec);
     this.m_builder = new MatrixFunctionBuilder(true);
     this.m_currentYTransformed = new ModifiableBasicNumber();
+
+    if ((this.m_aggregate instanceof IIncrementalAggregate)
+        && ((!(this.m_aggregate instanceof _QuantileBasedAggregate))
+            || ((_QuantileBasedAggregate) (this.m_aggregate))
+                ._canRemove())) {
+      this.m_aggregate.reset();
+      this.m_incremental = ((IIncrementalAggregate) (this.m_aggregate));
+      count = spec.getMatrices().size();
+      this.m_longs = new long[count];
+      this.m_doubles = new double[count];
+      this.m_isLong = new boolean[count];
+      this.m_present = new boolean[count];
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final Matrix2DAggregate createPartitionVisitor() {
+    final ScalarAggregate aggregate;
+
+    aggregate = this.m_aggregate.createEmptyCopy();
+    if (aggregate == null) {
+      return null;
+    }
+    return new Matrix2DAggregate(aggregate, this.m_transform);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final void mergePartition(final AbstractMatrix partitionResult) {
+    final int m;
+    int row;
+
+    m = partitionResult.m();
+    if (partitionResult.isIntegerMatrix()) {
+      for (row = 0; row < m; row++) {
+        this.m_builder.addPoint(partitionResult.getLong(row, 0),
+            partitionResult.getLong(row, 1));
+      }
+    } else {
+      for (row = 0; row < m; row++) {
+        this.m_builder.addPoint(partitionResult.getDouble(row, 0),
+            partitionResult.getDouble(row, 1));
+      }
+    }
   }
 
   /** {@inheritDoc} */
@@ -75,6 +224,11 @@ public final class Matrix2DAggregate
     final AbstractMatrix res;
 
     this.m_aggregate = null;
+    this.m_incremental = null;
+    this.m_longs = null;
+    this.m_doubles = null;
+    this.m_isLong = null;
+    this.m_present = null;
     this.m_currentYTransformed = null;
     this.m_transform = null;
     res = this.m_builder.build();
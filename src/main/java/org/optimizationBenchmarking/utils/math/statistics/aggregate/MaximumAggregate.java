@@ -6,7 +6,8 @@ import org.optimizationBenchmarking.utils.math.NumericalTypes;
 /**
  * This class computes the maximum of a set of numbers.
  */
-public final class MaximumAggregate extends _StatefulNumber {
+public final class MaximumAggregate extends _StatefulNumber
+    implements IMergeableAggregate<MaximumAggregate> {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
@@ -99,4 +100,39 @@ public final class MaximumAggregate extends _StatefulNumber {
       }
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    long maximum, value;
+    int index;
+
+    index = start;
+    for (; (index < end)
+        && (this.m_state != BasicNumber.STATE_INTEGER); index++) {
+      this.append(data[index]);
+    }
+    if (index < end) {
+      maximum = this.m_long;
+      for (; index < end; index++) {
+        if ((value = data[index]) > maximum) {
+          maximum = value;
+        }
+      }
+      this.m_long = maximum;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final MaximumAggregate other) {
+    this._appendValueOf(other);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final MaximumAggregate createEmptyCopy() {
+    return new MaximumAggregate();
+  }
 }
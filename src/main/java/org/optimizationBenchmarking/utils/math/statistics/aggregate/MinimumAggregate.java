@@ -6,7 +6,8 @@ import org.optimizationBenchmarking.utils.math.NumericalTypes;
 /**
  * This class computes the minimum of a set of numbers.
  */
-public final class MinimumAggregate extends _StatefulNumber {
+public final class MinimumAggregate extends _StatefulNumber
+    implements IMergeableAggregate<MinimumAggregate> {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
@@ -98,4 +99,39 @@ public final class MinimumAggregate extends _StatefulNumber {
       }
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    long minimum, value;
+    int index;
+
+    index = start;
+    for (; (index < end)
+        && (this.m_state != BasicNumber.STATE_INTEGER); index++) {
+      this.append(data[index]);
+    }
+    if (index < end) {
+      minimum = this.m_long;
+      for (; index < end; index++) {
+        if ((value = data[index]) < minimum) {
+          minimum = value;
+        }
+      }
+      this.m_long = minimum;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final MinimumAggregate other) {
+    this._appendValueOf(other);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final MinimumAggregate createEmptyCopy() {
+    return new MinimumAggregate();
+  }
 }
@@ -0,0 +1,215 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixColumnReader;
+import org.optimizationBenchmarking.utils.parallel.Execute;
+import org.optimizationBenchmarking.utils.tools.spec.ICallableToolJob;
+
+/**
+ * A job which aggregates one column of a large matrix in parallel. The
+ * rows of the matrix are divided into consecutive chunks. Each chunk is
+ * aggregated into its own {@linkplain ScalarAggregate#createEmptyCopy()
+ * empty copy} of the aggregate and the partial results are then
+ * {@linkplain IMergeableAggregate#merge(Object) merged} into the
+ * aggregate, in the order of the chunks. The chunks are executed via
+ * {@link Execute}. Columns which are too short to be worth splitting are
+ * aggregated sequentially.
+ *
+ * @param <T>
+ *          the type of the aggregate
+ */
+public final class ParallelColumnAggregationJob<T extends ScalarAggregate & IMergeableAggregate<T>>
+    implements ICallableToolJob<T> {
+
+  /** the minimum number of rows per chunk */
+  private static final int MIN_CHUNK_ROWS = 8192;
+
+  /** the matrix */
+  private IMatrix m_matrix;
+  /** the column */
+  private final int m_column;
+  /** the aggregate */
+  private T m_aggregate;
+  /** the maximum number of chunks */
+  private final int m_chunks;
+
+  /**
+   * Create the column aggregation job, using at most one chunk per
+   * available processor.
+   *
+   * @param matrix
+   *          the matrix
+   * @param column
+   *          the column to aggregate
+   * @param aggregate
+   *          the aggregate to which the values of the column are added
+   */
+  public ParallelColumnAggregationJob(final IMatrix matrix,
+      final int column, final T aggregate) {
+    this(matrix, column, aggregate,
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create the column aggregation job
+   *
+   * @param matrix
+   *          the matrix
+   * @param column
+   *          the column to aggregate
+   * @param aggregate
+   *          the aggregate to which the values of the column are added
+   * @param chunks
+   *          the maximum number of chunks to aggregate in parallel
+   */
+  public ParallelColumnAggregationJob(final IMatrix matrix,
+      final int column, final T aggregate, final int chunks) {
+    super();
+    if (matrix == null) {
+      throw new IllegalArgumentException(//
+          "Matrix to aggregate cannot be null."); //$NON-NLS-1$
+    }
+    if ((column < 0) || (column >= matrix.n())) {
+      throw new IllegalArgumentException(//
+          "Column index must be in 0.." + (matrix.n() - 1) + //$NON-NLS-1$
+              ", but is " + column); //$NON-NLS-1$
+    }
+    if (aggregate == null) {
+      throw new IllegalArgumentException(//
+          "Aggregate cannot be null."); //$NON-NLS-1$
+    }
+    if (chunks <= 0) {
+      throw new IllegalArgumentException(//
+          "Number of chunks must be positive, but is " //$NON-NLS-1$
+              + chunks);
+    }
+    this.m_matrix = matrix;
+    this.m_column = column;
+    this.m_aggregate = aggregate;
+    this.m_chunks = chunks;
+  }
+
+  /**
+   * Aggregate the column and return the aggregate
+   *
+   * @return the aggregate
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public final T call() {
+    final IMatrix matrix;
+    final T aggregate;
+    final MatrixColumnReader reader;
+    final int m, chunks;
+    final __Chunk<T>[] jobs;
+    final Future<T>[] futures;
+    final T[] results;
+    T copy;
+    int index, start, end;
+
+    matrix = this.m_matrix;
+    this.m_matrix = null;
+    aggregate = this.m_aggregate;
+    this.m_aggregate = null;
+    if ((matrix == null) || (aggregate == null)) {
+      throw new IllegalStateException(//
+          "Column aggregation job can only be executed once."); //$NON-NLS-1$
+    }
+
+    m = matrix.m();
+    chunks = Math.min(this.m_chunks,
+        (m / ParallelColumnAggregationJob.MIN_CHUNK_ROWS));
+    if (chunks <= 1) {
+      matrix.aggregateColumn(this.m_column, aggregate);
+      return aggregate;
+    }
+
+    reader = MatrixColumnReader.forColumn(matrix, this.m_column);
+    jobs = new __Chunk[chunks];
+    end = 0;
+    for (index = 0; index < chunks; index++) {
+      copy = ((T) (aggregate.createEmptyCopy()));
+      if (copy == null) {
+        // the aggregate cannot be copied, so we go sequential
+        matrix.aggregateColumn(this.m_column, aggregate);
+        return aggregate;
+      }
+      start = end;
+      end = ((int) ((((long) m) * (index + 1)) / chunks));
+      jobs[index] = new __Chunk<>(reader, start, end, copy);
+    }
+
+    futures = Execute.parallel(jobs);
+    results = ((T[]) (new ScalarAggregate[chunks]));
+    Execute.join(futures, results, 0, false);
+
+    for (final T result : results) {
+      aggregate.merge(result);
+    }
+    return aggregate;
+  }
+
+  /**
+   * The job aggregating a chunk of the column
+   *
+   * @param <T>
+   *          the type of the aggregate
+   */
+  private static final class __Chunk<T extends ScalarAggregate>
+      implements Callable<T> {
+
+    /** the column reader */
+    private final MatrixColumnReader m_reader;
+    /** the inclusive start row */
+    private final int m_start;
+    /** the exclusive end row */
+    private final int m_end;
+    /** the aggregate */
+    private final T m_aggregate;
+
+    /**
+     * create the chunk
+     *
+     * @param reader
+     *          the column reader
+     * @param start
+     *          the inclusive start row
+     * @param end
+     *          the exclusive end row
+     * @param aggregate
+     *          the aggregate
+     */
+    __Chunk(final MatrixColumnReader reader, final int start,
+        final int end, final T aggregate) {
+      super();
+      this.m_reader = reader;
+      this.m_start = start;
+      this.m_end = end;
+      this.m_aggregate = aggregate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final T call() {
+      final MatrixColumnReader reader;
+      final T aggregate;
+      int row;
+
+      reader = this.m_reader;
+      aggregate = this.m_aggregate;
+      if (reader.isInteger()) {
+        for (row = this.m_start; row < this.m_end; row++) {
+          aggregate.append(reader.getLong(row));
+        }
+      } else {
+        for (row = this.m_start; row < this.m_end; row++) {
+          aggregate.append(reader.getDouble(row));
+        }
+      }
+      return aggregate;
+    }
+  }
+}
@@ -21,7 +21,8 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
    * @param store
    *          the quantile data store
    */
-  public QuantileAggregate(final double p, final QuantileDataStore store) {
+  public QuantileAggregate(final double p,
+      final AbstractQuantileDataStore store) {
     super(store);
 
     if ((p >= 0d) && (p <= 1d)) {
@@ -53,7 +54,8 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
 
   /** {@inheritDoc} */
   @Override
-  final void _computeLong(final long[] data, final int count) {
+  final void _computeLong(final AbstractQuantileDataStore data,
+      final int count) {
     final int intpos;
     final double low, pos, v;
     final long upper, lower;
@@ -64,36 +66,36 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
     }
 
     if (count <= 1) {
-      this._setLong(data[0]);
+      this._setLong(data._getLong(0));
       return;
     }
 
     quantile = this.m_p;
 
     if (quantile <= 0d) {
-      this._setLong(data[0]);
+      this._setLong(data._getLong(0));
       return;
     }
 
     if (quantile >= 1d) {
-      this._setLong(data[count - 1]);
+      this._setLong(data._getLong(count - 1));
       return;
     }
 
     pos = (quantile * (count + 1));
     if (pos < 1d) {
-      this._setLong(data[0]);
+      this._setLong(data._getLong(0));
       return;
     }
 
     if (pos >= count) {
-      this._setLong(data[count - 1]);
+      this._setLong(data._getLong(count - 1));
       return;
     }
 
     low = Math.floor(pos);
     intpos = ((int) low);
-    lower = data[intpos - 1];
+    lower = data._getLong(intpos - 1);
 
     v = (pos - low);
     if (v <= 0d) {
@@ -101,7 +103,7 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
       return;
     }
 
-    upper = data[intpos];
+    upper = data._getLong(intpos);
     if (upper <= lower) {
       this._setLong(lower);
       return;
@@ -120,7 +122,8 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
 
   /** {@inheritDoc} */
   @Override
-  final void _computeDouble(final double[] data, final int count) {
+  final void _computeDouble(final AbstractQuantileDataStore data,
+      final int count) {
     final int intpos;
     final double low, pos, v, upper, lower, quantile;
 
@@ -129,36 +132,36 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
     }
 
     if (count <= 1) {
-      this._setDoubleFully(data[0]);
+      this._setDoubleFully(data._getDouble(0));
       return;
     }
 
     quantile = this.m_p;
 
     if (quantile <= 0d) {
-      this._setDoubleFully(data[0]);
+      this._setDoubleFully(data._getDouble(0));
       return;
     }
 
     if (quantile >= 1d) {
-      this._setDoubleFully(data[count - 1]);
+      this._setDoubleFully(data._getDouble(count - 1));
       return;
     }
 
     pos = (quantile * (count + 1));
     if (pos < 1d) {
-      this._setDoubleFully(data[0]);
+      this._setDoubleFully(data._getDouble(0));
       return;
     }
 
     if (pos >= count) {
-      this._setDoubleFully(data[count - 1]);
+      this._setDoubleFully(data._getDouble(count - 1));
       return;
     }
 
     low = Math.floor(pos);
     intpos = ((int) low);
-    lower = data[intpos - 1];
+    lower = data._getDouble(intpos - 1);
 
     v = (pos - low);
     if (v <= 0d) {
@@ -166,7 +169,7 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
       return;
     }
 
-    upper = data[intpos];
+    upper = data._getDouble(intpos);
     if (upper <= lower) {
       this._setDoubleFully(lower);
       return;
@@ -190,4 +193,10 @@ public final class QuantileAggregate extends _QuantileBasedAggregate {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final QuantileAggregate createEmptyCopy() {
+    return new QuantileAggregate(this.m_p,
+        this._getStore()._createEmptyCopy());
+  }
 }
@@ -1,6 +1,7 @@
 package org.optimizationBenchmarking.utils.math.statistics.aggregate;
 
-import org.optimizationBenchmarking.utils.math.BasicNumberWrapper;
+import java.util.Arrays;
+
 import org.optimizationBenchmarking.utils.math.NumericalTypes;
 
 /**
@@ -14,23 +15,22 @@ import org.optimizationBenchmarking.utils.math.NumericalTypes;
  * {@link #getInterQuantileRange(double, double)} methods to obtain
  * {@linkplain org.optimizationBenchmarking.utils.math.BasicNumber number
  * objects} which are updated along with this data store.
+ * <p>
+ * The data is kept in an unsorted array. If a quantile is queried, only
+ * the order statistics it needs are placed at their sorted positions via
+ * introselect, which takes {@code O(n)} expected time instead of the
+ * {@code O(n log n)} of sorting. Positions selected this way partition the
+ * array, so that later queries only need to search between them, and
+ * {@link #prepareQuantiles(double...)} selects the order statistics of a
+ * whole batch of quantiles in one pass. Only if many different order
+ * statistics are requested, the array is sorted completely. Removing a
+ * value takes linear time. If values are frequently removed or quantiles
+ * are queried after each change, the {@link IncrementalQuantileDataStore}
+ * is the better choice.
+ * </p>
  */
-public final class QuantileDataStore implements IAggregate {
-
-  /** the data store is empty */
-  static final int IS_EMPTY = 0;
-  /** the data store has some {@code long[]} data, but is not sorted */
-  static final int HAS_DATA_LONG = (QuantileDataStore.IS_EMPTY + 1);
-  /** the data store has some {@code double[]} data, but is not sorted */
-  static final int HAS_DATA_DOUBLE = (QuantileDataStore.HAS_DATA_LONG + 1);
-  /** the data store contains {@code long[]} data and has been sorted */
-  static final int IS_SORTED_LONG = (QuantileDataStore.HAS_DATA_DOUBLE
-      + 1);
-  /** the data store contains {@code double[]} data and has been sorted */
-  static final int IS_SORTED_DOUBLE = (QuantileDataStore.IS_SORTED_LONG
-      + 1);
-  /** the data store contains at least one {@link Double#NaN} */
-  static final int IS_NAN = (QuantileDataStore.IS_SORTED_DOUBLE + 1);
+public final class QuantileDataStore extends AbstractQuantileDataStore
+    implements IIncrementalAggregate {
 
   /** the {@code double} data */
   double[] m_doubleData;
@@ -44,14 +44,26 @@ public final class QuantileDataStore implements IAggregate {
   /** the internal state */
   int m_state;
 
-  /** the timestamp */
-  long m_timestamp;
+  /** the number of {@link Double#NaN}s */
+  private long m_nanCount;
+
+  /**
+   * the sorted indices of the values which are at their sorted positions
+   * in the unsorted data, i.e., which are not smaller than any value
+   * before and not larger than any value after them
+   */
+  private int[] m_selected;
+
+  /** the number of selected indices */
+  private int m_selectedCount;
+
+  /** the maximum number of selected indices before we sort everything */
+  private static final int MAX_SELECTED = 32;
 
   /** Create the quantile data store */
   public QuantileDataStore() {
     super();
     this.m_state = QuantileDataStore.IS_EMPTY;
-    this.m_timestamp = 1L;
   }
 
   /**
@@ -98,7 +110,7 @@ public final class QuantileDataStore implements IAggregate {
 
     this.m_state = (sorted ? QuantileDataStore.IS_SORTED_DOUBLE
         : QuantileDataStore.HAS_DATA_DOUBLE);
-    this.m_state = size;
+    this.m_size = size;
     this.m_doubleData = data;
   }
 
@@ -142,7 +154,7 @@ public final class QuantileDataStore implements IAggregate {
 
     this.m_state = (sorted ? QuantileDataStore.IS_SORTED_LONG
         : QuantileDataStore.HAS_DATA_LONG);
-    this.m_state = size;
+    this.m_size = size;
     this.m_longData = data;
   }
 
@@ -198,6 +210,54 @@ public final class QuantileDataStore implements IAggregate {
     this.m_size = (size + 1);
   }
 
+  /**
+   * Make sure that the internal list of {@code long}s can hold the given
+   * number of values
+   *
+   * @param required
+   *          the required capacity
+   * @return the list
+   */
+  private final long[] __reserveLongs(final int required) {
+    long[] data;
+
+    data = this.m_longData;
+    if (data == null) {
+      this.m_longData = data = new long[Math.max(128, required)];
+    } else {
+      if (data.length < required) {
+        data = new long[Math.max(required, (data.length << 1))];
+        System.arraycopy(this.m_longData, 0, data, 0, this.m_size);
+        this.m_longData = data;
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Make sure that the internal list of {@code double}s can hold the
+   * given number of values
+   *
+   * @param required
+   *          the required capacity
+   * @return the list
+   */
+  private final double[] __reserveDoubles(final int required) {
+    double[] data;
+
+    data = this.m_doubleData;
+    if (data == null) {
+      this.m_doubleData = data = new double[Math.max(128, required)];
+    } else {
+      if (data.length < required) {
+        data = new double[Math.max(required, (data.length << 1))];
+        System.arraycopy(this.m_doubleData, 0, data, 0, this.m_size);
+        this.m_doubleData = data;
+      }
+    }
+    return data;
+  }
+
   /**
    * Append a {@code long} to the internal list of {@code long}s.
    *
@@ -229,6 +289,7 @@ public final class QuantileDataStore implements IAggregate {
   public final void append(final long value) {
 
     ++this.m_timestamp;
+    this.m_selectedCount = 0;
 
     switch (this.m_state) {
       case IS_EMPTY:
@@ -253,9 +314,10 @@ public final class QuantileDataStore implements IAggregate {
   public final void append(final double value) {
 
     ++this.m_timestamp;
+    this.m_selectedCount = 0;
 
     if (value != value) {
-      this.m_state = QuantileDataStore.IS_NAN;
+      this.m_nanCount++;
       return;
     }
 
@@ -280,111 +342,562 @@ public final class QuantileDataStore implements IAggregate {
     }
   }
 
-  /** Reset the quantile data store */
-  public final void reset() {
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    final double[] doubles;
+    int index, size;
+
+    if (start >= end) {
+      return;
+    }
     ++this.m_timestamp;
-    this.m_size = 0;
-    this.m_state = QuantileDataStore.IS_EMPTY;
+    this.m_selectedCount = 0;
+    size = this.m_size;
+
+    switch (this.m_state) {
+      case HAS_DATA_DOUBLE:
+      case IS_SORTED_DOUBLE: {
+        doubles = this.__reserveDoubles(size + (end - start));
+        for (index = start; index < end; index++) {
+          doubles[size++] = data[index];
+        }
+        this.m_size = size;
+        this.m_state = QuantileDataStore.HAS_DATA_DOUBLE;
+        return;
+      }
+      default: {
+        System.arraycopy(data, start,
+            this.__reserveLongs(size + (end - start)), size,
+            (end - start));
+        this.m_size = (size + (end - start));
+        this.m_state = QuantileDataStore.HAS_DATA_LONG;
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    final long[] longs;
+    final double[] doubles;
+    double value;
+    int index, size;
+    long nans;
+
+    if (start >= end) {
+      return;
+    }
+    ++this.m_timestamp;
+    this.m_selectedCount = 0;
+    size = this.m_size;
+    nans = 0L;
+    index = start;
+
+    if ((this.m_state != QuantileDataStore.HAS_DATA_DOUBLE)
+        && (this.m_state != QuantileDataStore.IS_SORTED_DOUBLE)) {
+      // store the values as long as they are integers
+      longs = this.__reserveLongs(size + (end - start));
+      for (; index < end; index++) {
+        value = data[index];
+        if (value != value) {
+          nans++;
+        } else {
+          if (NumericalTypes.isLong(value)) {
+            longs[size++] = ((long) value);
+          } else {
+            break;
+          }
+        }
+      }
+      if (size > this.m_size) {
+        this.m_state = QuantileDataStore.HAS_DATA_LONG;
+      }
+      this.m_size = size;
+      if (index >= end) {
+        this.m_nanCount += nans;
+        return;
+      }
+
+      // the first non-integer value: switch to double storage
+      this.__appendDoubleToLongs(data[index++]);
+      this.m_state = QuantileDataStore.HAS_DATA_DOUBLE;
+      size = this.m_size;
+    }
+
+    doubles = this.__reserveDoubles(size + (end - index));
+    for (; index < end; index++) {
+      value = data[index];
+      if (value != value) {
+        nans++;
+      } else {
+        doubles[size++] = value;
+      }
+    }
+    if (size > this.m_size) {
+      this.m_state = QuantileDataStore.HAS_DATA_DOUBLE;
+    }
+    this.m_size = size;
+    this.m_nanCount += nans;
   }
 
   /**
-   * Visit a given {@code int}. This method forwards to
-   * {@link #append(long)}.
+   * Find the index of a {@code long} in the {@code long} data
    *
    * @param value
-   *          the value to visit
+   *          the value
+   * @return the index, or a negative number if the value is not contained
    */
-  @Override
-  public final void append(final int value) {
-    this.append((long) value);
+  private final int __indexOfLong(final long value) {
+    final long[] data;
+    int index;
+
+    data = this.m_longData;
+    if (this.m_state == QuantileDataStore.IS_SORTED_LONG) {
+      return Arrays.binarySearch(data, 0, this.m_size, value);
+    }
+    for (index = this.m_size; (--index) >= 0;) {
+      if (data[index] == value) {
+        return index;
+      }
+    }
+    return (-1);
   }
 
   /**
-   * Visit a given {@code short}. This method forwards to
-   * {@link #append(long)}.
+   * Find the index of a {@code double} in the {@code double} data
    *
    * @param value
-   *          the value to visit
+   *          the value
+   * @return the index, or a negative number if the value is not contained
+   */
+  private final int __indexOfDouble(final double value) {
+    final double[] data;
+    int index, low, high, middle;
+
+    data = this.m_doubleData;
+    if (this.m_state == QuantileDataStore.IS_SORTED_DOUBLE) {
+      // we cannot use Arrays.binarySearch, since it distinguishes -0d and
+      // 0d, which are the same value for us
+      low = 0;
+      high = this.m_size;
+      while (low < high) {
+        middle = ((low + high) >>> 1);
+        if (data[middle] < value) {
+          low = (middle + 1);
+        } else {
+          high = middle;
+        }
+      }
+      return (((low < this.m_size) && (data[low] == value)) ? low : (-1));
+    }
+    for (index = this.m_size; (--index) >= 0;) {
+      if (data[index] == value) {
+        return index;
+      }
+    }
+    return (-1);
+  }
+
+  /**
+   * Delete the element at a given index from the data
+   *
+   * @param index
+   *          the index
+   * @param value
+   *          the value to be removed, for the error message
+   */
+  private final void __removeAt(final int index, final Number value) {
+    final int size;
+
+    if (index < 0) {
+      throw new IllegalArgumentException("Value " + value + //$NON-NLS-1$
+          " cannot be removed, since it is not in the quantile data store."); //$NON-NLS-1$
+    }
+
+    ++this.m_timestamp;
+    this.m_selectedCount = 0;
+    this.m_size = size = (this.m_size - 1);
+    if (size <= 0) {
+      this.m_state = QuantileDataStore.IS_EMPTY;
+      return;
+    }
+
+    switch (this.m_state) {
+      case HAS_DATA_LONG: {
+        this.m_longData[index] = this.m_longData[size];
+        return;
+      }
+      case HAS_DATA_DOUBLE: {
+        this.m_doubleData[index] = this.m_doubleData[size];
+        return;
+      }
+      case IS_SORTED_LONG: {
+        System.arraycopy(this.m_longData, (index + 1), this.m_longData,
+            index, (size - index));
+        return;
+      }
+      default: {
+        System.arraycopy(this.m_doubleData, (index + 1),
+            this.m_doubleData, index, (size - index));
+      }
+    }
+  }
+
+  /**
+   * Remove a {@code long} value from this store. This takes time linear
+   * in the number of values.
+   *
+   * @param value
+   *          the value to remove
    */
   @Override
-  public final void append(final short value) {
-    this.append((long) value);
+  @SuppressWarnings("incomplete-switch")
+  public final void remove(final long value) {
+    int index;
+
+    index = (-1);
+    switch (this.m_state) {
+      case HAS_DATA_LONG:
+      case IS_SORTED_LONG: {
+        index = this.__indexOfLong(value);
+        break;
+      }
+      case HAS_DATA_DOUBLE:
+      case IS_SORTED_DOUBLE: {
+        index = this.__indexOfDouble(value);
+        break;
+      }
+    }
+    this.__removeAt(index, Long.valueOf(value));
   }
 
   /**
-   * Visit a given {@code byte}. This method forwards to
-   * {@link #append(long)}.
+   * Remove a {@code double} value from this store. This takes time linear
+   * in the number of values.
    *
    * @param value
-   *          the value to visit
+   *          the value to remove
    */
   @Override
-  public final void append(final byte value) {
-    this.append((long) value);
+  @SuppressWarnings("incomplete-switch")
+  public final void remove(final double value) {
+    int index;
+
+    if (value != value) {
+      if (this.m_nanCount <= 0L) {
+        throw new IllegalArgumentException(//
+            "Cannot remove NaN, since it is not in the quantile data store."); //$NON-NLS-1$
+      }
+      ++this.m_timestamp;
+      this.m_nanCount--;
+      return;
+    }
+
+    index = (-1);
+    switch (this.m_state) {
+      case HAS_DATA_LONG:
+      case IS_SORTED_LONG: {
+        if (NumericalTypes.isLong(value)) {
+          index = this.__indexOfLong((long) value);
+        }
+        break;
+      }
+      case HAS_DATA_DOUBLE:
+      case IS_SORTED_DOUBLE: {
+        index = this.__indexOfDouble(value);
+        break;
+      }
+    }
+    this.__removeAt(index, Double.valueOf(value));
+  }
+
+  /** Reset the quantile data store */
+  @Override
+  public final void reset() {
+    ++this.m_timestamp;
+    this.m_selectedCount = 0;
+    this.m_size = 0;
+    this.m_nanCount = 0L;
+    this.m_state = QuantileDataStore.IS_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _prepare() {
+    if (this.m_nanCount > 0L) {
+      return QuantileDataStore.IS_NAN;
+    }
+    switch (this.m_state) {
+      case HAS_DATA_LONG: {
+        return QuantileDataStore.IS_SORTED_LONG;
+      }
+      case HAS_DATA_DOUBLE: {
+        return QuantileDataStore.IS_SORTED_DOUBLE;
+      }
+      default: {
+        return this.m_state;
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _size() {
+    return this.m_size;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final long _getLong(final int index) {
+    if (this.m_state == QuantileDataStore.HAS_DATA_LONG) {
+      this.__select(index);
+    }
+    return this.m_longData[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final double _getDouble(final int index) {
+    if (this.m_state == QuantileDataStore.HAS_DATA_DOUBLE) {
+      this.__select(index);
+    }
+    return this.m_doubleData[index];
   }
 
   /** {@inheritDoc} */
   @Override
-  public final void append(final float value) {
-    this.append((double) value);
+  final void _select(final int[] ranks, final int count) {
+    if ((this.m_state == QuantileDataStore.HAS_DATA_LONG)
+        || (this.m_state == QuantileDataStore.HAS_DATA_DOUBLE)) {
+      Arrays.sort(ranks, 0, count);
+      this.__multiSelect(ranks, 0, count);
+    }
   }
 
   /**
-   * Append a number to this aggregate
+   * Select several ranks by first selecting the middle one and then
+   * recursing into the two halves, so that each part of the data is only
+   * partitioned for the ranks it contains.
    *
-   * @param v
-   *          the number
+   * @param ranks
+   *          the sorted ranks
+   * @param start
+   *          the inclusive start index
+   * @param end
+   *          the exclusive end index
    */
-  public final void append(final Number v) {
-    if (v == null) {
-      throw new IllegalArgumentException(//
-          "Cannot add null number to quantile store."); //$NON-NLS-1$
+  private final void __multiSelect(final int[] ranks, final int start,
+      final int end) {
+    final int middle;
+
+    if (start < end) {
+      middle = ((start + end) >>> 1);
+      this.__select(ranks[middle]);
+      this.__multiSelect(ranks, start, middle);
+      this.__multiSelect(ranks, (middle + 1), end);
     }
+  }
 
-    switch (NumericalTypes.getMinType(v)) {
-      case NumericalTypes.IS_BYTE:
-      case NumericalTypes.IS_SHORT:
-      case NumericalTypes.IS_INT:
-      case NumericalTypes.IS_LONG: {
-        this.append(v.longValue());
-        return;
-      }
-      default: {
-        this.append(v.doubleValue());
+  /**
+   * Make sure that the value at the given rank is at its sorted position.
+   * If too many ranks have been selected, we sort the whole data instead.
+   *
+   * @param index
+   *          the rank
+   */
+  private final void __select(final int index) {
+    int[] selected;
+    int insert, low, high;
+
+    if ((this.m_state != QuantileDataStore.HAS_DATA_LONG)
+        && (this.m_state != QuantileDataStore.HAS_DATA_DOUBLE)) {
+      return;
+    }
+
+    selected = this.m_selected;
+    insert = ((selected != null)
+        ? Arrays.binarySearch(selected, 0, this.m_selectedCount, index)
+        : (-1));
+    if (insert >= 0) {
+      return;
+    }
+
+    if (this.m_selectedCount >= QuantileDataStore.MAX_SELECTED) {
+      this.m_selectedCount = 0;
+      if (this.m_state == QuantileDataStore.HAS_DATA_LONG) {
+        Arrays.sort(this.m_longData, 0, this.m_size);
+        this.m_state = QuantileDataStore.IS_SORTED_LONG;
+      } else {
+        Arrays.sort(this.m_doubleData, 0, this.m_size);
+        this.m_state = QuantileDataStore.IS_SORTED_DOUBLE;
       }
+      return;
     }
+
+    // the value must be between the neighboring selected positions
+    insert = (-(insert + 1));
+    low = ((insert > 0) ? (selected[insert - 1] + 1) : 0);
+    high = ((insert < this.m_selectedCount) ? (selected[insert] - 1)
+        : (this.m_size - 1));
+
+    if (this.m_state == QuantileDataStore.HAS_DATA_LONG) {
+      QuantileDataStore.__selectLong(this.m_longData, low, high, index);
+    } else {
+      QuantileDataStore.__selectDouble(this.m_doubleData, low, high,
+          index);
+    }
+
+    if (selected == null) {
+      this.m_selected = selected = new int[QuantileDataStore.MAX_SELECTED];
+    }
+    System.arraycopy(selected, insert, selected, (insert + 1),
+        (this.m_selectedCount - insert));
+    selected[insert] = index;
+    this.m_selectedCount++;
   }
 
   /**
-   * Get a number object representing a specified quantile. The value of
-   * this object will change if the contents of this store change, e.g., if
-   * new numbers are appended or the store is reset.
+   * Place the {@code k}-th smallest element of a range of {@code long}s at
+   * index {@code k}, such that no element before it is larger and no
+   * element after it is smaller. This is an introselect: a quickselect
+   * with median-of-three pivots which falls back to sorting if it does not
+   * make enough progress.
    *
-   * @param p
-   *          the quantile
-   * @return a number representing the quantile based on the current state
-   *         of this data store
+   * @param data
+   *          the data
+   * @param start
+   *          the inclusive start index of the range
+   * @param end
+   *          the inclusive end index of the range
+   * @param k
+   *          the rank
    */
-  public final BasicNumberWrapper getQuantile(final double p) {
-    return new BasicNumberWrapper(new QuantileAggregate(p, this));
+  private static final void __selectLong(final long[] data,
+      final int start, final int end, final int k) {
+    int low, high, i, j, budget;
+    long pivot, a, b, c, temp;
+
+    low = start;
+    high = end;
+    budget = (2 * (32 - Integer.numberOfLeadingZeros(high - low + 1)));
+    while (low < high) {
+      if (((high - low) < 16) || ((--budget) < 0)) {
+        Arrays.sort(data, low, (high + 1));
+        return;
+      }
+
+      a = data[low];
+      b = data[(low + high) >>> 1];
+      c = data[high];
+      pivot = ((a < b) ? ((b < c) ? b : ((a < c) ? c : a))
+          : ((a < c) ? a : ((b < c) ? c : b)));
+
+      i = low;
+      j = high;
+      while (i <= j) {
+        while (data[i] < pivot) {
+          i++;
+        }
+        while (data[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          temp = data[i];
+          data[i] = data[j];
+          data[j] = temp;
+          i++;
+          j--;
+        }
+      }
+
+      // now all elements in low..j are <= pivot, all in i..high are >=
+      // pivot, and all in between are equal to the pivot
+      if (k <= j) {
+        high = j;
+      } else {
+        if (k >= i) {
+          low = i;
+        } else {
+          return;
+        }
+      }
+    }
   }
 
   /**
-   * Get a number object representing a range between the specified
-   * quantiles. The value of this object will change if the contents of
-   * this store change, e.g., if new numbers are appended or the store is
-   * reset.
+   * Place the {@code k}-th smallest element of a range of {@code double}s
+   * at index {@code k}, such that no element before it is larger and no
+   * element after it is smaller. This is an introselect: a quickselect
+   * with median-of-three pivots which falls back to sorting if it does not
+   * make enough progress.
    *
-   * @param pLow
-   *          the lower quantile
-   * @param pUp
-   *          the upper quantile
-   * @return a number representing the inter-quantile range based on the
-   *         current state of this data store
+   * @param data
+   *          the data
+   * @param start
+   *          the inclusive start index of the range
+   * @param end
+   *          the inclusive end index of the range
+   * @param k
+   *          the rank
    */
-  public final BasicNumberWrapper getInterQuantileRange(final double pLow,
-      final double pUp) {
-    return new BasicNumberWrapper(
-        new InterQuantileRangeAggregate(pLow, pUp, this));
+  private static final void __selectDouble(final double[] data,
+      final int start, final int end, final int k) {
+    int low, high, i, j, budget;
+    double pivot, a, b, c, temp;
+
+    low = start;
+    high = end;
+    budget = (2 * (32 - Integer.numberOfLeadingZeros(high - low + 1)));
+    while (low < high) {
+      if (((high - low) < 16) || ((--budget) < 0)) {
+        Arrays.sort(data, low, (high + 1));
+        return;
+      }
+
+      a = data[low];
+      b = data[(low + high) >>> 1];
+      c = data[high];
+      pivot = ((a < b) ? ((b < c) ? b : ((a < c) ? c : a))
+          : ((a < c) ? a : ((b < c) ? c : b)));
+
+      i = low;
+      j = high;
+      while (i <= j) {
+        while (data[i] < pivot) {
+          i++;
+        }
+        while (data[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          temp = data[i];
+          data[i] = data[j];
+          data[j] = temp;
+          i++;
+          j--;
+        }
+      }
+
+      // now all elements in low..j are <= pivot, all in i..high are >=
+      // pivot, and all in between are equal to the pivot
+      if (k <= j) {
+        high = j;
+      } else {
+        if (k >= i) {
+          low = i;
+        } else {
+          return;
+        }
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final QuantileDataStore _createEmptyCopy() {
+    return new QuantileDataStore();
   }
 }
@@ -0,0 +1,485 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * A quantile data store which needs only a bounded amount of memory,
+ * regardless of how many values are appended, and provides approximate
+ * quantiles. It can back the
+ * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate
+ * quantile} and
+ * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.InterQuantileRangeAggregate
+ * inter-quantile range} aggregates if the data is too large to be kept in
+ * memory, e.g., for evaluation results with hundreds of millions of
+ * samples.
+ * <p>
+ * The sketch follows the KLL algorithm by Karnin, Lang, and Liberty
+ * (&quot;Optimal Quantile Approximation in Streams&quot;, FOCS 2016): The
+ * values are kept in a hierarchy of compactors. A value in the compactor
+ * at level {@code h} represents {@code 2^h} original values. If a
+ * compactor becomes full, it is sorted and every other value is promoted
+ * to the next level, starting randomly at the first or second value. The
+ * capacity of the compactors decreases geometrically towards the lower
+ * levels, so only about {@code 3k} values are kept in total. The rank of
+ * any value is then estimated with a normalized error of about
+ * {@link #getRankError(int)} with high probability.
+ * </p>
+ * <p>
+ * Sketches built independently, e.g., on different threads or from
+ * different files, can be {@linkplain #merge(QuantileSketch) merged}
+ * cheaply, and the result has the same error guarantees as a sketch built
+ * from all the values directly. Values are stored as {@code double}s, and
+ * they cannot be {@linkplain #remove(double) removed} from a sketch.
+ * </p>
+ */
+public final class QuantileSketch extends AbstractQuantileDataStore {
+
+  /** the default value of the accuracy parameter {@code k} */
+  public static final int DEFAULT_K = 200;
+
+  /** the minimum value of the accuracy parameter {@code k} */
+  public static final int MIN_K = 8;
+
+  /** the maximum value of the accuracy parameter {@code k} */
+  public static final int MAX_K = 65535;
+
+  /** the factor by which the capacity decreases per level */
+  private static final double CAPACITY_DECAY = (2d / 3d);
+
+  /** the accuracy parameter */
+  private final int m_k;
+
+  /** the compactors: level {@code h} holds values of weight {@code 2^h} */
+  private double[][] m_levels;
+  /** the number of values in each compactor */
+  private int[] m_levelSizes;
+  /** the number of compactors in use */
+  private int m_levelCount;
+  /** the number of values currently retained in all compactors */
+  private int m_retained;
+  /** the number of retained values which triggers a compaction */
+  private int m_maxRetained;
+
+  /** the number of values appended, excluding {@link Double#NaN}s */
+  private long m_count;
+  /** the number of {@link Double#NaN}s */
+  private long m_nanCount;
+  /** the state of the random number generator */
+  private int m_random;
+
+  /** the sorted retained values, built when quantiles are queried */
+  private double[] m_sorted;
+  /** the cumulative weights of the sorted values */
+  private long[] m_cumulativeWeights;
+  /** the time stamp at which the sorted values were built */
+  private long m_sortedTimestamp;
+
+  /** create a quantile sketch with the default accuracy */
+  public QuantileSketch() {
+    this(QuantileSketch.DEFAULT_K);
+  }
+
+  /**
+   * create a quantile sketch
+   *
+   * @param k
+   *          the accuracy parameter: the larger, the more precise and the
+   *          more memory is needed; must be in
+   *          {@value #MIN_K}...{@value #MAX_K}
+   */
+  public QuantileSketch(final int k) {
+    super();
+
+    if ((k < QuantileSketch.MIN_K) || (k > QuantileSketch.MAX_K)) {
+      throw new IllegalArgumentException(//
+          "The accuracy parameter k must be in " + QuantileSketch.MIN_K //$NON-NLS-1$
+              + "..." + QuantileSketch.MAX_K + ", but is " + k); //$NON-NLS-1$//$NON-NLS-2$
+    }
+
+    this.m_k = k;
+    this.m_levels = new double[8][];
+    this.m_levelSizes = new int[8];
+    this.m_random = 0x2545F491;
+    this.m_sortedTimestamp = (this.m_timestamp - 1L);
+    this.__grow();
+  }
+
+  /**
+   * Create a quantile sketch whose estimated ranks are, with high
+   * probability, at most the given fraction of the number of values off.
+   *
+   * @param rankError
+   *          the normalized rank error, e.g., {@code 0.01} for 1%
+   * @return the sketch
+   */
+  public static final QuantileSketch createForRankError(
+      final double rankError) {
+    final double k;
+
+    if ((rankError > 0d) && (rankError < 1d)) {
+      k = Math.ceil(Math.pow((2.296d / rankError), (1d / 0.9723d)));
+      return new QuantileSketch((int) (Math.max(QuantileSketch.MIN_K,
+          Math.min(QuantileSketch.MAX_K, k))));
+    }
+    throw new IllegalArgumentException(//
+        "The rank error must be in (0,1), but is " + rankError); //$NON-NLS-1$
+  }
+
+  /**
+   * Get the normalized rank error of a sketch with a given accuracy
+   * parameter, i.e., the fraction of the number of values by which the
+   * estimated rank of a value may be off with high probability. This is
+   * the empirical bound also used by the reference implementations of the
+   * KLL sketch.
+   *
+   * @param k
+   *          the accuracy parameter
+   * @return the normalized rank error
+   */
+  public static final double getRankError(final int k) {
+    return (2.296d / Math.pow(k, 0.9723d));
+  }
+
+  /**
+   * Get the normalized rank error of this sketch
+   *
+   * @return the normalized rank error of this sketch
+   * @see #getRankError(int)
+   */
+  public final double getRankError() {
+    return QuantileSketch.getRankError(this.m_k);
+  }
+
+  /**
+   * Get the accuracy parameter {@code k} of this sketch
+   *
+   * @return the accuracy parameter {@code k} of this sketch
+   */
+  public final int getK() {
+    return this.m_k;
+  }
+
+  /**
+   * Get the number of values appended to this sketch, excluding
+   * {@link Double#NaN}s
+   *
+   * @return the number of values appended to this sketch
+   */
+  public final long getCount() {
+    return this.m_count;
+  }
+
+  /**
+   * Get the capacity of a compactor
+   *
+   * @param level
+   *          the level of the compactor
+   * @return its capacity
+   */
+  private final int __capacity(final int level) {
+    return Math.max(2, ((int) (Math.ceil(this.m_k * Math.pow(
+        QuantileSketch.CAPACITY_DECAY, (this.m_levelCount - level - 1))))));
+  }
+
+  /** add a new compactor level on top */
+  private final void __grow() {
+    final int level;
+    int index, maxRetained;
+
+    level = this.m_levelCount;
+    if (level >= this.m_levels.length) {
+      this.m_levels = Arrays.copyOf(this.m_levels, (level << 1));
+      this.m_levelSizes = Arrays.copyOf(this.m_levelSizes, (level << 1));
+    }
+    if (this.m_levels[level] == null) {
+      this.m_levels[level] = new double[16];
+    }
+    this.m_levelSizes[level] = 0;
+    this.m_levelCount = (level + 1);
+
+    maxRetained = 0;
+    for (index = this.m_levelCount; (--index) >= 0;) {
+      maxRetained += this.__capacity(index);
+    }
+    this.m_maxRetained = maxRetained;
+  }
+
+  /**
+   * Add a value to a compactor
+   *
+   * @param level
+   *          the level of the compactor
+   * @param value
+   *          the value
+   */
+  private final void __add(final int level, final double value) {
+    double[] data;
+    final int size;
+
+    data = this.m_levels[level];
+    size = this.m_levelSizes[level];
+    if (size >= data.length) {
+      this.m_levels[level] = data = Arrays.copyOf(data, (size << 1));
+    }
+    data[size] = value;
+    this.m_levelSizes[level] = (size + 1);
+  }
+
+  /**
+   * Compact a compactor: sort it and promote every other value to the
+   * next level
+   *
+   * @param level
+   *          the level of the compactor, which must not be the top level
+   */
+  private final void __compact(final int level) {
+    final double[] data;
+    final int size, keep;
+    int index, random;
+
+    data = this.m_levels[level];
+    size = this.m_levelSizes[level];
+    Arrays.sort(data, 0, size);
+
+    random = this.m_random;
+    random ^= (random << 13);
+    random ^= (random >>> 17);
+    random ^= (random << 5);
+    this.m_random = random;
+
+    // if the number of values is odd, the largest one stays
+    keep = (size & 1);
+    for (index = (random & 1); index < (size - keep); index += 2) {
+      this.__add((level + 1), data[index]);
+    }
+    if (keep != 0) {
+      data[0] = data[size - 1];
+    }
+    this.m_levelSizes[level] = keep;
+    this.m_retained -= ((size - keep) >>> 1);
+  }
+
+  /** compact the compactors until the sketch is no longer full */
+  private final void __compress() {
+    int level;
+
+    while (this.m_retained >= this.m_maxRetained) {
+      for (level = 0; level < this.m_levelCount; level++) {
+        if (this.m_levelSizes[level] >= this.__capacity(level)) {
+          if ((level + 1) >= this.m_levelCount) {
+            this.__grow();
+          }
+          this.__compact(level);
+          break;
+        }
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long value) {
+    this.append((double) value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double value) {
+    ++this.m_timestamp;
+    if (value != value) {
+      this.m_nanCount++;
+      return;
+    }
+    this.__add(0, value);
+    this.m_count++;
+    if ((++this.m_retained) >= this.m_maxRetained) {
+      this.__compress();
+    }
+  }
+
+  /**
+   * Merge another sketch into this one. Afterwards, this sketch represents
+   * the values of both sketches. The other sketch is not changed. The
+   * error of this sketch is at most the larger one of the errors of both
+   * sketches.
+   *
+   * @param other
+   *          the other sketch
+   */
+  public final void merge(final QuantileSketch other) {
+    final int otherLevels;
+    int level, index, size;
+    double[] data;
+
+    if (other == null) {
+      throw new IllegalArgumentException(//
+          "Cannot merge with null quantile sketch."); //$NON-NLS-1$
+    }
+
+    ++this.m_timestamp;
+    otherLevels = other.m_levelCount;
+    while (this.m_levelCount < otherLevels) {
+      this.__grow();
+    }
+
+    for (level = otherLevels; (--level) >= 0;) {
+      data = other.m_levels[level];
+      size = other.m_levelSizes[level];
+      for (index = 0; index < size; index++) {
+        this.__add(level, data[index]);
+      }
+      this.m_retained += size;
+    }
+
+    this.m_count += other.m_count;
+    this.m_nanCount += other.m_nanCount;
+    this.__compress();
+  }
+
+  /**
+   * Values cannot be removed from a quantile sketch.
+   *
+   * @param value
+   *          ignored
+   * @throws UnsupportedOperationException
+   *           always
+   */
+  @Override
+  public final void remove(final long value) {
+    throw new UnsupportedOperationException(//
+        "Values cannot be removed from a quantile sketch."); //$NON-NLS-1$
+  }
+
+  /**
+   * Values cannot be removed from a quantile sketch.
+   *
+   * @param value
+   *          ignored
+   * @throws UnsupportedOperationException
+   *           always
+   */
+  @Override
+  public final void remove(final double value) {
+    this.remove(0L);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void reset() {
+    ++this.m_timestamp;
+    this.m_levelCount = 0;
+    this.m_retained = 0;
+    this.m_count = 0L;
+    this.m_nanCount = 0L;
+    this.__grow();
+  }
+
+  /** build the sorted array of retained values and their weights */
+  private final void __sort() {
+    final int levelCount, retained;
+    final int[] positions;
+    double[] sorted;
+    long[] cumulative;
+    double value, best;
+    long weight;
+    int index, level, bestLevel;
+
+    levelCount = this.m_levelCount;
+    retained = this.m_retained;
+    sorted = this.m_sorted;
+    cumulative = this.m_cumulativeWeights;
+    if ((sorted == null) || (sorted.length < retained)) {
+      this.m_sorted = sorted = new double[retained];
+      this.m_cumulativeWeights = cumulative = new long[retained];
+    }
+
+    for (level = levelCount; (--level) >= 0;) {
+      Arrays.sort(this.m_levels[level], 0, this.m_levelSizes[level]);
+    }
+
+    // merge the sorted compactors
+    positions = new int[levelCount];
+    weight = 0L;
+    for (index = 0; index < retained; index++) {
+      best = Double.POSITIVE_INFINITY;
+      bestLevel = (-1);
+      for (level = levelCount; (--level) >= 0;) {
+        if (positions[level] < this.m_levelSizes[level]) {
+          value = this.m_levels[level][positions[level]];
+          if ((bestLevel < 0) || (value < best)) {
+            best = value;
+            bestLevel = level;
+          }
+        }
+      }
+      positions[bestLevel]++;
+      weight += (1L << bestLevel);
+      sorted[index] = best;
+      cumulative[index] = weight;
+    }
+
+    this.m_sortedTimestamp = this.m_timestamp;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _prepare() {
+    if (this.m_nanCount > 0L) {
+      return AbstractQuantileDataStore.IS_NAN;
+    }
+    if (this.m_count <= 0L) {
+      return AbstractQuantileDataStore.IS_EMPTY;
+    }
+    if (this.m_sortedTimestamp != this.m_timestamp) {
+      this.__sort();
+    }
+    return AbstractQuantileDataStore.IS_SORTED_DOUBLE;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _size() {
+    return ((int) (Math.min(Integer.MAX_VALUE, this.m_count)));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final long _getLong(final int index) {
+    return ((long) (this._getDouble(index)));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final double _getDouble(final int index) {
+    final long[] cumulative;
+    long rank;
+    int low, high, middle;
+
+    rank = index;
+    if (this.m_count > Integer.MAX_VALUE) {
+      // the size is capped, so we need to scale the rank
+      rank = ((long) ((((double) index) / Integer.MAX_VALUE)
+          * this.m_count));
+    }
+
+    // find the first value whose cumulative weight exceeds the rank
+    cumulative = this.m_cumulativeWeights;
+    low = 0;
+    high = (this.m_retained - 1);
+    while (low < high) {
+      middle = ((low + high) >>> 1);
+      if (cumulative[middle] > rank) {
+        high = middle;
+      } else {
+        low = (middle + 1);
+      }
+    }
+    return this.m_sorted[low];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final QuantileSketch _createEmptyCopy() {
+    return new QuantileSketch(this.m_k);
+  }
+}
@@ -14,7 +14,8 @@ import org.optimizationBenchmarking.utils.math.BasicNumber;
  * <li>
  * </ul>
  */
-public final class QuickStableSum extends ScalarAggregate {
+public final class QuickStableSum extends ScalarAggregate
+    implements IMergeableAggregate<QuickStableSum> {
 
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
@@ -109,4 +110,68 @@ public final class QuickStableSum extends ScalarAggregate {
   public final double doubleValue() {
     return this.m_sum;
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    double sum, compensation, doubleValue, y, t;
+    long value;
+    int index;
+
+    sum = this.m_sum;
+    compensation = this.m_compensation;
+    for (index = start; index < end; index++) {
+      value = data[index];
+      doubleValue = value;
+      y = doubleValue - compensation;
+      t = sum + y;
+      compensation = (t - sum) - y;
+      sum = t;
+
+      doubleValue = (value - ((long) doubleValue));
+      y = doubleValue - compensation;
+      t = sum + y;
+      compensation = (t - sum) - y;
+      sum = t;
+    }
+    this.m_sum = sum;
+    this.m_compensation = compensation;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    double sum, compensation, y, t;
+    int index;
+
+    sum = this.m_sum;
+    compensation = this.m_compensation;
+    for (index = start; index < end; index++) {
+      y = data[index] - compensation;
+      t = sum + y;
+      compensation = (t - sum) - y;
+      sum = t;
+    }
+    this.m_sum = sum;
+    this.m_compensation = compensation;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final QuickStableSum other) {
+    final double sum, compensation;
+
+    sum = other.m_sum;
+    compensation = other.m_compensation;
+    this.append(sum);
+    this.append(-compensation);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final QuickStableSum createEmptyCopy() {
+    return new QuickStableSum();
+  }
 }
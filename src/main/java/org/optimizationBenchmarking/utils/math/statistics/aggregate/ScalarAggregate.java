@@ -8,7 +8,7 @@ import org.optimizationBenchmarking.utils.text.TextUtils;
  * An aggregate with a single, scale result.
  */
 public abstract class ScalarAggregate extends BasicNumber
-    implements IAggregate {
+    implements IBulkAggregate {
 
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
@@ -75,6 +75,19 @@ public abstract class ScalarAggregate extends BasicNumber
    */
   public abstract void reset();
 
+  /**
+   * Create a new, {@linkplain #reset() empty} aggregate of the same type
+   * and with the same parameters as this one. This allows a computation
+   * using this aggregate to be divided among several threads, each using
+   * its own copy.
+   *
+   * @return the new aggregate, or {@code null} if this aggregate cannot
+   *         be copied
+   */
+  public ScalarAggregate createEmptyCopy() {
+    return null;
+  }
+
   /** {@inheritDoc} */
   @Override
   public abstract void append(double value);
@@ -85,6 +98,51 @@ public abstract class ScalarAggregate extends BasicNumber
     this.append((double) value);
   }
 
+  /**
+   * Append the {@code long} values in the slice {@code start...end-1} of
+   * the given array. By default, this method appends them one by one via
+   * {@link #append(long)}, but it may be overridden to process the slice
+   * faster.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  @Override
+  public void append(final long[] data, final int start, final int end) {
+    int index;
+
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
+  /**
+   * Append the {@code double} values in the slice {@code start...end-1}
+   * of the given array. By default, this method appends them one by one
+   * via {@link #append(double)}, but it may be overridden to process the
+   * slice faster.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  @Override
+  public void append(final double[] data, final int start,
+      final int end) {
+    int index;
+
+    for (index = start; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
   /**
    * Append a number to this aggregate
    *
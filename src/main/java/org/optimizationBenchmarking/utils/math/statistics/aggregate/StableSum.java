@@ -53,7 +53,8 @@ import org.optimizationBenchmarking.utils.math.functions.arithmetic.SaturatingAd
  * </li>
  * </ol>
  */
-public final class StableSum extends _StatefulNumber {
+public final class StableSum extends _StatefulNumber
+    implements IMergeableAggregate<StableSum> {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
@@ -253,6 +254,47 @@ public final class StableSum extends _StatefulNumber {
     }
   }
 
+  /**
+   * Append a slice of {@code long}s. As long as the sum can be computed
+   * exactly with {@code long} arithmetic, the values are added in a tight
+   * loop. Otherwise, they are appended one by one.
+   *
+   * @param data
+   *          the array
+   * @param start
+   *          the index of the first value to append
+   * @param end
+   *          the exclusive end index
+   */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    long sum, value;
+    int index;
+
+    index = start;
+    if ((index < end) && (this.m_state == BasicNumber.STATE_EMPTY)) {
+      this.m_long = data[index++];
+      this.m_state = BasicNumber.STATE_INTEGER;
+    }
+
+    if (this.m_state == BasicNumber.STATE_INTEGER) {
+      sum = this.m_long;
+      for (; index < end; index++) {
+        value = data[index];
+        if (SaturatingAdd.getOverflowType(sum, value) != 0) {
+          break;
+        }
+        sum += value;
+      }
+      this.m_long = sum;
+    }
+
+    for (; index < end; index++) {
+      this.append(data[index]);
+    }
+  }
+
   /**
    * Visit a given {@code double}, i.e., add it to the stable sum.
    *
@@ -352,4 +394,83 @@ public final class StableSum extends _StatefulNumber {
     // or underflow, or overflow.
     this.__plainDoubleAdd(value);
   }
+
+  /**
+   * Merge another stable sum into this one. The other sum's value and
+   * compensation are added to this sum. If the other sum has overflown,
+   * its overflows are added one by one, so that this sum goes through the
+   * same transitions as if it had summed up all values itself.
+   *
+   * @param other
+   *          the other sum
+   */
+  @Override
+  public final void merge(final StableSum other) {
+    final int state;
+    final long overflows;
+    final double value, compensation;
+    long count;
+
+    state = other.m_state;
+    overflows = other.m_long;
+    value = other.m_double;
+    compensation = other.m_compensation;
+
+    switch (state) {
+      case STATE_INTEGER: {
+        this.append(overflows);
+        return;
+      }
+
+      case STATE_DOUBLE: {
+        this.append(value);
+        if (compensation != 0d) {
+          this.append(-compensation);
+        }
+        return;
+      }
+
+      case STATE_POSITIVE_OVERFLOW:
+      case STATE_NEGATIVE_OVERFLOW: {
+        if (this.m_state == state) {
+          this.m_long += overflows;
+        } else {
+          for (count = overflows; (--count) >= 0L;) {
+            this.append((state == BasicNumber.STATE_POSITIVE_OVERFLOW)
+                ? StableSum.OVERFLOW : StableSum.UNDERFLOW);
+          }
+        }
+        this.append(value);
+        if (compensation != 0d) {
+          this.append(-compensation);
+        }
+        return;
+      }
+
+      case STATE_POSITIVE_INFINITY: {
+        this.append(Double.POSITIVE_INFINITY);
+        return;
+      }
+
+      case STATE_NEGATIVE_INFINITY: {
+        this.append(Double.NEGATIVE_INFINITY);
+        return;
+      }
+
+      case STATE_NAN: {
+        this.m_state = BasicNumber.STATE_NAN;
+        return;
+      }
+
+      default: {
+        // STATE_EMPTY: nothing to do
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final StableSum createEmptyCopy() {
+    return new StableSum();
+  }
 }
@@ -7,7 +7,8 @@ import org.optimizationBenchmarking.utils.math.functions.power.Sqrt;
 /**
  * An aggregate for computing the standard deviation.
  */
-public final class StandardDeviationAggregate extends MeanBasedAggregate {
+public final class StandardDeviationAggregate extends MeanBasedAggregate
+    implements IMergeableAggregate<StandardDeviationAggregate> {
 
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
@@ -144,4 +145,16 @@ public final class StandardDeviationAggregate extends MeanBasedAggregate {
   public final BasicNumberWrapper getVariance() {
     return new BasicNumberWrapper(this.m_variance);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void merge(final StandardDeviationAggregate other) {
+    this.m_variance.merge(other.m_variance);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final StandardDeviationAggregate createEmptyCopy() {
+    return new StandardDeviationAggregate();
+  }
 }
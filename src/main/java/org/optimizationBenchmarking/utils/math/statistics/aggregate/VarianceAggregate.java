@@ -12,7 +12,8 @@ import org.optimizationBenchmarking.utils.math.functions.arithmetic.SaturatingSu
  * extensions to use our stable sums and mean aggregate for maximum
  * precision.
  */
-public final class VarianceAggregate extends MeanBasedAggregate {
+public final class VarianceAggregate extends MeanBasedAggregate
+    implements IMergeableAggregate<VarianceAggregate> {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
@@ -331,6 +332,188 @@ public final class VarianceAggregate extends MeanBasedAggregate {
     this.m_state = BasicNumber.STATE_EMPTY;
   }
 
+  /**
+   * Merge another variance aggregate into this one, using the pairwise
+   * update of Chan, Golub, and LeVeque: The second moments of both
+   * aggregates are added together with the correction term
+   * {@code delta*delta*n1*n2/(n1+n2)}, where {@code delta} is the
+   * difference of the arithmetic means and {@code n1} and {@code n2} are
+   * the numbers of values in the two aggregates. If possible, the
+   * correction is computed with exact {@code long} arithmetic.
+   *
+   * @param other
+   *          the other aggregate
+   */
+  @Override
+  public final void merge(final VarianceAggregate other) {
+    final long count, otherCount, total;
+    final int state, otherState;
+    boolean integerCorrection;
+    long lDelta, lCorrection, lTemp;
+    double dDelta, dCorrection;
+
+    otherCount = other.m_mean.m_count;
+    if (otherCount <= 0L) {
+      return;
+    }
+
+    state = this.m_state;
+    if ((state == BasicNumber.STATE_POSITIVE_OVERFLOW)
+        || (state == BasicNumber.STATE_POSITIVE_INFINITY)
+        || (state == BasicNumber.STATE_NAN)) {
+      return;
+    }
+
+    otherState = other.m_state;
+    switch (otherState) {
+      case STATE_POSITIVE_OVERFLOW: {
+        this._setPositiveOverflow();
+        return;
+      }
+      case STATE_POSITIVE_INFINITY: {
+        this._setPositiveInfinity();
+        return;
+      }
+      case STATE_NAN: {
+        this.m_M2._setNaN();
+        this._setNaN();
+        return;
+      }
+      default: {
+        // the other aggregate is valid
+      }
+    }
+
+    count = this.m_mean.m_count;
+    integerCorrection = true;
+    lCorrection = 0L;
+    dCorrection = 0d;
+
+    if (count > 0L) {
+      // compute the delta = (other mean - this mean)
+      lDelta = 0L;
+      dDelta = Double.NaN;
+      switch (VarianceAggregate.__checkMeanState(this.m_mean.getState(),
+          other.m_mean.getState())) {
+
+        case STATE_INTEGER: {
+          if (SaturatingSub.getOverflowType(other.m_mean.m_long,
+              this.m_mean.m_long) == 0) {
+            lDelta = (other.m_mean.m_long - this.m_mean.m_long);
+          } else {
+            integerCorrection = false;
+            dDelta = (((double) (other.m_mean.m_long))
+                - ((double) (this.m_mean.m_long)));
+          }
+          break;
+        }
+
+        case STATE_DOUBLE: {
+          integerCorrection = false;
+          dDelta = (other.m_mean.doubleValue()
+              - this.m_mean.doubleValue());
+          break;
+        }
+
+        case STATE_POSITIVE_INFINITY: {
+          this._setPositiveOverflow();
+          return;
+        }
+        case STATE_POSITIVE_OVERFLOW: {
+          this._setPositiveInfinity();
+          return;
+        }
+
+        default: {
+          this.m_M2._setNaN();
+          this._setNaN();
+          return;
+        }
+      }
+
+      total = (count + otherCount);
+      compute: {
+        if (integerCorrection) {
+          if (lDelta == 0L) {
+            break compute;
+          }
+          // try to compute delta*delta*count*otherCount/total exactly
+          lCorrection = (lDelta * lDelta);
+          if ((lCorrection / lDelta) == lDelta) {
+            lTemp = (lCorrection * count);
+            if ((lTemp / count) == lCorrection) {
+              lCorrection = (lTemp * otherCount);
+              if (((lCorrection / otherCount) == lTemp)
+                  && ((lCorrection % total) == 0L)) {
+                lCorrection /= total;
+                break compute;
+              }
+            }
+          }
+          integerCorrection = false;
+          dDelta = lDelta;
+        }
+        dCorrection = ((dDelta * dDelta)
+            * ((((double) count) * ((double) otherCount)) / total));
+      }
+    }
+
+    this.m_M2.merge(other.m_M2);
+    if (integerCorrection) {
+      if (lCorrection != 0L) {
+        this.m_M2.append(lCorrection);
+      }
+    } else {
+      this.m_M2.append(dCorrection);
+    }
+    this.m_mean.merge(other.m_mean);
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /**
+   * Combine the states of two arithmetic means for computing their
+   * difference in {@link #merge(VarianceAggregate)}.
+   *
+   * @param state
+   *          the state of the first mean
+   * @param otherState
+   *          the state of the second mean
+   * @return {@link BasicNumber#STATE_INTEGER} if both means are integers,
+   *         {@link BasicNumber#STATE_DOUBLE} if both are finite, the
+   *         infinite or overflow state if one of them is infinite or has
+   *         overflown, and {@link BasicNumber#STATE_NAN} otherwise
+   */
+  private static final int __checkMeanState(final int state,
+      final int otherState) {
+    if ((state == BasicNumber.STATE_NAN)
+        || (otherState == BasicNumber.STATE_NAN)) {
+      return BasicNumber.STATE_NAN;
+    }
+    if ((state == BasicNumber.STATE_POSITIVE_INFINITY)
+        || (state == BasicNumber.STATE_NEGATIVE_INFINITY)
+        || (otherState == BasicNumber.STATE_POSITIVE_INFINITY)
+        || (otherState == BasicNumber.STATE_NEGATIVE_INFINITY)) {
+      return BasicNumber.STATE_POSITIVE_INFINITY;
+    }
+    if ((state == BasicNumber.STATE_POSITIVE_OVERFLOW)
+        || (state == BasicNumber.STATE_NEGATIVE_OVERFLOW)
+        || (otherState == BasicNumber.STATE_POSITIVE_OVERFLOW)
+        || (otherState == BasicNumber.STATE_NEGATIVE_OVERFLOW)) {
+      return BasicNumber.STATE_POSITIVE_OVERFLOW;
+    }
+    if ((state == BasicNumber.STATE_INTEGER)
+        && (otherState == BasicNumber.STATE_INTEGER)) {
+      return BasicNumber.STATE_INTEGER;
+    }
+    if (((state == BasicNumber.STATE_INTEGER)
+        || (state == BasicNumber.STATE_DOUBLE))
+        && ((otherState == BasicNumber.STATE_INTEGER)
+            || (otherState == BasicNumber.STATE_DOUBLE))) {
+      return BasicNumber.STATE_DOUBLE;
+    }
+    return BasicNumber.STATE_NAN;
+  }
+
   /** compute the value */
   private final void __compute() {
     long count;
@@ -459,4 +642,10 @@ public final class VarianceAggregate extends MeanBasedAggregate {
   public final BasicNumberWrapper getSecondMoment() {
     return new BasicNumberWrapper(this.m_M2);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public final VarianceAggregate createEmptyCopy() {
+    return new VarianceAggregate();
+  }
 }
@@ -0,0 +1,214 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * A mutable number in double-double arithmetic, i.e., the unevaluated sum
+ * of two {@code double}s, which has about twice the precision of a
+ * {@code double}. Values can be added to and subtracted from it without
+ * losing the small values even if large values are added and removed
+ * again.
+ */
+final class _DoubleDouble {
+
+  /** the constant for splitting a {@code double} into two halves */
+  private static final double SPLIT = 134217729d;
+
+  /** {@code 2^32} */
+  private static final double TWO_32 = 4294967296d;
+
+  /** the high part */
+  private double m_high;
+  /** the low part */
+  private double m_low;
+
+  /** create */
+  _DoubleDouble() {
+    super();
+  }
+
+  /** set this number to zero */
+  final void _clear() {
+    this.m_high = 0d;
+    this.m_low = 0d;
+  }
+
+  /**
+   * Get the value of this number as {@code double}
+   *
+   * @return the value
+   */
+  final double _doubleValue() {
+    return (this.m_high + this.m_low);
+  }
+
+  /**
+   * Set the value of this number to the exact sum of a high and a low
+   * part.
+   *
+   * @param high
+   *          the high part
+   * @param low
+   *          the low part
+   */
+  private final void __normalize(final double high, final double low) {
+    final double sum;
+
+    sum = (high + low);
+    this.m_low = (low - (sum - high));
+    this.m_high = sum;
+  }
+
+  /**
+   * Add a {@code double} to this number
+   *
+   * @param value
+   *          the value
+   */
+  final void _add(final double value) {
+    final double high, sum, virtual;
+
+    high = this.m_high;
+    sum = (high + value);
+    virtual = (sum - high);
+    this.__normalize(sum, (((high - (sum - virtual)) + (value - virtual))
+        + this.m_low));
+  }
+
+  /**
+   * Add another double-double number to this number
+   *
+   * @param other
+   *          the other number
+   */
+  final void _add(final _DoubleDouble other) {
+    this._add(other.m_high);
+    this._add(other.m_low);
+  }
+
+  /**
+   * Subtract another double-double number from this number
+   *
+   * @param other
+   *          the other number
+   */
+  final void _subtract(final _DoubleDouble other) {
+    this._add(-other.m_high);
+    this._add(-other.m_low);
+  }
+
+  /**
+   * Add the exact product of two {@code double}s to this number
+   *
+   * @param a
+   *          the first factor
+   * @param b
+   *          the second factor
+   */
+  final void _addProduct(final double a, final double b) {
+    final double product;
+
+    product = (a * b);
+    this._add(product);
+    this._add(_DoubleDouble.__productError(a, b, product));
+  }
+
+  /**
+   * Add an unsigned 64 bit word, scaled by a power of two, to this number
+   *
+   * @param word
+   *          the unsigned word
+   * @param scale
+   *          the power of two to multiply the word with
+   */
+  final void _addUnsigned(final long word, final double scale) {
+    this._add((word >>> 32L) * (_DoubleDouble.TWO_32 * scale));
+    this._add((word & 0xFFFFFFFFL) * scale);
+  }
+
+  /**
+   * Add a signed 64 bit word, scaled by a power of two, to this number
+   *
+   * @param word
+   *          the signed word
+   * @param scale
+   *          the power of two to multiply the word with
+   */
+  final void _addSigned(final long word, final double scale) {
+    this._add((word >> 32L) * (_DoubleDouble.TWO_32 * scale));
+    this._add((word & 0xFFFFFFFFL) * scale);
+  }
+
+  /**
+   * Multiply this number with a {@code double}
+   *
+   * @param value
+   *          the value
+   */
+  final void _multiply(final double value) {
+    final double high, product;
+
+    high = this.m_high;
+    product = (high * value);
+    this.__normalize(product, (_DoubleDouble.__productError(high, value,
+        product) + (this.m_low * value)));
+  }
+
+  /**
+   * Multiply this number with another double-double number
+   *
+   * @param other
+   *          the other number
+   */
+  final void _multiply(final _DoubleDouble other) {
+    final double high, otherHigh, product;
+
+    high = this.m_high;
+    otherHigh = other.m_high;
+    product = (high * otherHigh);
+    this.__normalize(product,
+        (_DoubleDouble.__productError(high, otherHigh, product)
+            + ((high * other.m_low) + (this.m_low * otherHigh))));
+  }
+
+  /**
+   * Divide this number by a {@code double}
+   *
+   * @param value
+   *          the value
+   */
+  final void _divide(final double value) {
+    final double high, quotient, product, error;
+
+    high = this.m_high;
+    quotient = (high / value);
+    product = (quotient * value);
+    error = _DoubleDouble.__productError(quotient, value, product);
+    this.__normalize(quotient,
+        ((((high - product) - error) + this.m_low) / value));
+  }
+
+  /**
+   * Compute the rounding error of a product with Dekker's algorithm
+   *
+   * @param a
+   *          the first factor
+   * @param b
+   *          the second factor
+   * @param product
+   *          the rounded product {@code a*b}
+   * @return the error, i.e., {@code a*b-product}
+   */
+  private static final double __productError(final double a,
+      final double b, final double product) {
+    double temp;
+    final double aHigh, aLow, bHigh, bLow;
+
+    temp = (_DoubleDouble.SPLIT * a);
+    aHigh = (temp - (temp - a));
+    aLow = (a - aHigh);
+    temp = (_DoubleDouble.SPLIT * b);
+    bHigh = (temp - (temp - b));
+    bLow = (b - bHigh);
+    return ((((aHigh * bHigh) - product) + (aHigh * bLow) + (aLow * bHigh))
+        + (aLow * bLow));
+  }
+}
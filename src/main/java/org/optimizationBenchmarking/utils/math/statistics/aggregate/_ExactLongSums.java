@@ -0,0 +1,184 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+/**
+ * The exact sum of a set of {@code long} values and, optionally, of their
+ * squares. The sum is kept as 128 bit integer and the sum of squares as
+ * 192 bit integer, in two's complement spread over several {@code long}
+ * words. This way, values can be appended and removed again in any order
+ * without ever introducing any rounding error or overflow.
+ */
+final class _ExactLongSums {
+
+  /** {@code 2^64} */
+  private static final double TWO_64 = 18446744073709551616d;
+
+  /** should we compute the sum of squares? */
+  private final boolean m_squares;
+
+  /** the low word of the sum */
+  private long m_sum0;
+  /** the high word of the sum */
+  private long m_sum1;
+
+  /** the low word of the sum of squares */
+  private long m_squares0;
+  /** the middle word of the sum of squares */
+  private long m_squares1;
+  /** the high word of the sum of squares */
+  private long m_squares2;
+
+  /**
+   * create
+   *
+   * @param squares
+   *          should we compute the sum of squares?
+   */
+  _ExactLongSums(final boolean squares) {
+    super();
+    this.m_squares = squares;
+  }
+
+  /** set all sums to zero */
+  final void _clear() {
+    this.m_sum0 = 0L;
+    this.m_sum1 = 0L;
+    this.m_squares0 = 0L;
+    this.m_squares1 = 0L;
+    this.m_squares2 = 0L;
+  }
+
+  /**
+   * Is {@code a<b} if both values are interpreted as unsigned?
+   *
+   * @param a
+   *          the first value
+   * @param b
+   *          the second value
+   * @return {@code 1} if {@code a<b} in unsigned arithmetic, {@code 0}
+   *         otherwise
+   */
+  private static final long __lessUnsigned(final long a, final long b) {
+    return (((a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE)) ? 1L : 0L);
+  }
+
+  /**
+   * Add a value to the sums
+   *
+   * @param value
+   *          the value
+   */
+  final void _append(final long value) {
+    final long sum0, sum;
+
+    sum0 = this.m_sum0;
+    this.m_sum0 = sum = (sum0 + value);
+    this.m_sum1 += ((value >> 63L)
+        + _ExactLongSums.__lessUnsigned(sum, sum0));
+    if (this.m_squares) {
+      this.__squares(value, false);
+    }
+  }
+
+  /**
+   * Remove a value from the sums
+   *
+   * @param value
+   *          the value
+   */
+  final void _remove(final long value) {
+    final long sum0;
+
+    sum0 = this.m_sum0;
+    this.m_sum0 = (sum0 - value);
+    this.m_sum1 -= ((value >> 63L)
+        + _ExactLongSums.__lessUnsigned(sum0, value));
+    if (this.m_squares) {
+      this.__squares(value, true);
+    }
+  }
+
+  /**
+   * Add the square of a value to or remove it from the sum of squares
+   *
+   * @param value
+   *          the value
+   * @param remove
+   *          {@code true} to remove the square, {@code false} to add it
+   */
+  private final void __squares(final long value, final boolean remove) {
+    final long squares0, squares1, absolute, high32, low32, mid;
+    long low, high, temp, carry;
+
+    // compute the 128 bit square of |value| from its 32 bit halves, where
+    // |Long.MIN_VALUE| is fine as unsigned value
+    absolute = ((value < 0L) ? (-value) : value);
+    high32 = (absolute >>> 32L);
+    low32 = (absolute & 0xFFFFFFFFL);
+    mid = (high32 * low32);
+    temp = (low32 * low32);
+    low = (temp + (mid << 33L));
+    high = ((high32 * high32) + (mid >>> 31L)
+        + _ExactLongSums.__lessUnsigned(low, temp));
+
+    squares0 = this.m_squares0;
+    squares1 = this.m_squares1;
+    if (remove) {
+      this.m_squares0 = (squares0 - low);
+      carry = _ExactLongSums.__lessUnsigned(squares0, low);
+      temp = (squares1 - high);
+      this.m_squares1 = (temp - carry);
+      this.m_squares2 -= (_ExactLongSums.__lessUnsigned(squares1, high)
+          + _ExactLongSums.__lessUnsigned(temp, carry));
+    } else {
+      this.m_squares0 = low = (squares0 + low);
+      carry = _ExactLongSums.__lessUnsigned(low, squares0);
+      temp = (squares1 + high);
+      this.m_squares1 = high = (temp + carry);
+      this.m_squares2 += (_ExactLongSums.__lessUnsigned(temp, squares1)
+          + _ExactLongSums.__lessUnsigned(high, temp));
+    }
+  }
+
+  /**
+   * Does the sum fit into a {@code long}?
+   *
+   * @return {@code true} if the sum fits into a {@code long},
+   *         {@code false} otherwise
+   */
+  final boolean _isSumLong() {
+    return (this.m_sum1 == (this.m_sum0 >> 63L));
+  }
+
+  /**
+   * Get the sum, if it {@linkplain #_isSumLong() fits into a long}
+   *
+   * @return the sum
+   */
+  final long _getSumLong() {
+    return this.m_sum0;
+  }
+
+  /**
+   * Add the sum to a double-double number
+   *
+   * @param dest
+   *          the destination
+   */
+  final void _addSumTo(final _DoubleDouble dest) {
+    dest._addSigned(this.m_sum1, _ExactLongSums.TWO_64);
+    dest._addUnsigned(this.m_sum0, 1d);
+  }
+
+  /**
+   * Add the sum of squares to a double-double number
+   *
+   * @param dest
+   *          the destination
+   */
+  final void _addSquaresTo(final _DoubleDouble dest) {
+    dest._addSigned(this.m_squares2,
+        (_ExactLongSums.TWO_64 * _ExactLongSums.TWO_64));
+    dest._addUnsigned(this.m_squares1, _ExactLongSums.TWO_64);
+    dest._addUnsigned(this.m_squares0, 1d);
+  }
+}
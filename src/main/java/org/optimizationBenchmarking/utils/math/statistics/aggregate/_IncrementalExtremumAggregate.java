@@ -0,0 +1,251 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+
+/**
+ * The base class for incremental aggregates computing an extreme value.
+ * Internally, the values are {@linkplain #_orient(long) oriented} such
+ * that the extreme value is always the smallest one, and the oriented
+ * values are stored in heaps. Removed values are recorded in separate
+ * heaps and deleted lazily once they reach the top of their heap, so
+ * appending and removing a value both take {@code O(log n)} steps.
+ */
+abstract class _IncrementalExtremumAggregate extends _StatefulNumber
+    implements IIncrementalAggregate {
+
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the oriented {@code long} values */
+  private final _LongHeap m_longs;
+  /** the oriented {@code long} values scheduled for removal */
+  private final _LongHeap m_removedLongs;
+  /** the sortable bits of the oriented, non-integer {@code double} values */
+  private final _LongHeap m_doubles;
+  /**
+   * the sortable bits of the oriented, non-integer {@code double} values
+   * scheduled for removal
+   */
+  private final _LongHeap m_removedDoubles;
+  /** the number of {@code NaN}s */
+  private long m_nanCount;
+  /** the number of infinities which would be the extreme value */
+  private long m_extremeInfinityCount;
+  /** the number of infinities which can never be the extreme value */
+  private long m_oppositeInfinityCount;
+
+  /** create */
+  _IncrementalExtremumAggregate() {
+    super();
+    this.m_longs = new _LongHeap();
+    this.m_removedLongs = new _LongHeap();
+    this.m_doubles = new _LongHeap();
+    this.m_removedDoubles = new _LongHeap();
+  }
+
+  /**
+   * Orient a {@code long} value such that the extreme value becomes the
+   * smallest one. Applying this function twice must yield the original
+   * value.
+   *
+   * @param value
+   *          the value
+   * @return the oriented value
+   */
+  abstract long _orient(final long value);
+
+  /**
+   * Orient a {@code double} value such that the extreme value becomes the
+   * smallest one. Applying this function twice must yield the original
+   * value.
+   *
+   * @param value
+   *          the value
+   * @return the oriented value
+   */
+  abstract double _orient(final double value);
+
+  /**
+   * Translate a {@code double} to {@code long} bits which have the same
+   * order as the {@code double} values, or translate such bits back. This
+   * function is its own inverse.
+   *
+   * @param bits
+   *          the bits
+   * @return the sortable bits
+   */
+  private static final long __sortable(final long bits) {
+    return ((bits < 0L) ? (bits ^ Long.MAX_VALUE) : bits);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void reset() {
+    super.reset();
+    this.m_longs._clear();
+    this.m_removedLongs._clear();
+    this.m_doubles._clear();
+    this.m_removedDoubles._clear();
+    this.m_nanCount = 0L;
+    this.m_extremeInfinityCount = 0L;
+    this.m_oppositeInfinityCount = 0L;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long value) {
+    this.m_longs._add(this._orient(value));
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double value) {
+    final double oriented;
+
+    if (NumericalTypes.isLong(value)) {
+      this.append((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount++;
+    } else {
+      oriented = this._orient(value);
+      if (oriented <= Double.NEGATIVE_INFINITY) {
+        this.m_extremeInfinityCount++;
+      } else {
+        if (oriented >= Double.POSITIVE_INFINITY) {
+          this.m_oppositeInfinityCount++;
+        } else {
+          this.m_doubles._add(_IncrementalExtremumAggregate
+              .__sortable(Double.doubleToLongBits(oriented)));
+        }
+      }
+    }
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final long value) {
+    this.m_removedLongs._remove(this._orient(value), this.m_longs);
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final double value) {
+    final double oriented;
+
+    if (NumericalTypes.isLong(value)) {
+      this.remove((long) value);
+      return;
+    }
+
+    if (value != value) {
+      this.m_nanCount--;
+    } else {
+      oriented = this._orient(value);
+      if (oriented <= Double.NEGATIVE_INFINITY) {
+        this.m_extremeInfinityCount--;
+      } else {
+        if (oriented >= Double.POSITIVE_INFINITY) {
+          this.m_oppositeInfinityCount--;
+        } else {
+          this.m_removedDoubles._remove(
+              _IncrementalExtremumAggregate
+                  .__sortable(Double.doubleToLongBits(oriented)),
+              this.m_doubles);
+        }
+      }
+    }
+    this.m_state = BasicNumber.STATE_EMPTY;
+  }
+
+  /** compute the extreme value */
+  private final void __compute() {
+    final _LongHeap longs, doubles;
+    final boolean hasLong;
+    double best;
+
+    if (this.m_nanCount > 0L) {
+      this._setNaN();
+      return;
+    }
+    if (this.m_extremeInfinityCount > 0L) {
+      this._setDoubleFully(this._orient(Double.NEGATIVE_INFINITY));
+      return;
+    }
+
+    longs = this.m_longs;
+    longs._purge(this.m_removedLongs);
+    doubles = this.m_doubles;
+    doubles._purge(this.m_removedDoubles);
+
+    hasLong = (longs.m_size > 0);
+    if (doubles.m_size > 0) {
+      best = Double.longBitsToDouble(
+          _IncrementalExtremumAggregate.__sortable(doubles._peek()));
+      // the orientation of longs and doubles differs, so we compare the
+      // oriented double with the long oriented as double
+      if ((!hasLong) || (best < this._orient(//
+          (double) (this._orient(longs._peek()))))) {
+        this._setDouble(this._orient(best));
+        return;
+      }
+    }
+
+    if (hasLong) {
+      this._setLong(this._orient(longs._peek()));
+      return;
+    }
+
+    if (this.m_oppositeInfinityCount > 0L) {
+      this._setDoubleFully(this._orient(Double.POSITIVE_INFINITY));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int getState() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return this.m_state;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isInteger() {
+    return (this.getState() == BasicNumber.STATE_INTEGER);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean isReal() {
+    final int state;
+    state = this.getState();
+    return ((state >= BasicNumber.STATE_INTEGER)
+        && (state <= BasicNumber.STATE_DOUBLE));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long longValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.longValue();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double doubleValue() {
+    if (this.m_state == BasicNumber.STATE_EMPTY) {
+      this.__compute();
+    }
+    return super.doubleValue();
+  }
+}
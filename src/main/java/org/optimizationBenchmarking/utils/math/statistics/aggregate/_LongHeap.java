@@ -0,0 +1,162 @@
+package org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Arrays;
+
+/** A binary min-heap of {@code long} values. */
+final class _LongHeap {
+
+  /** the heap data */
+  private long[] m_data;
+
+  /** the number of elements in the heap */
+  int m_size;
+
+  /** create */
+  _LongHeap() {
+    super();
+    this.m_data = new long[16];
+  }
+
+  /**
+   * Add a value to the heap
+   *
+   * @param value
+   *          the value
+   */
+  final void _add(final long value) {
+    long[] data;
+    long parentValue;
+    int index, parent;
+
+    data = this.m_data;
+    index = this.m_size;
+    if (index >= data.length) {
+      this.m_data = data = Arrays.copyOf(data, (index << 1));
+    }
+    this.m_size = (index + 1);
+
+    while (index > 0) {
+      parent = ((index - 1) >>> 1);
+      parentValue = data[parent];
+      if (parentValue <= value) {
+        break;
+      }
+      data[index] = parentValue;
+      index = parent;
+    }
+    data[index] = value;
+  }
+
+  /**
+   * Get the smallest value in the heap, which must not be empty
+   *
+   * @return the smallest value
+   */
+  final long _peek() {
+    return this.m_data[0];
+  }
+
+  /** Remove the smallest value from the heap, which must not be empty */
+  final void _poll() {
+    final long[] data;
+    final int size;
+    final long value;
+    long childValue;
+    int index, child;
+
+    data = this.m_data;
+    this.m_size = size = (this.m_size - 1);
+    if (size <= 0) {
+      return;
+    }
+
+    value = data[size];
+    index = 0;
+    while ((child = ((index << 1) + 1)) < size) {
+      childValue = data[child];
+      if (((child + 1) < size) && (data[child + 1] < childValue)) {
+        childValue = data[++child];
+      }
+      if (value <= childValue) {
+        break;
+      }
+      data[index] = childValue;
+      index = child;
+    }
+    data[index] = value;
+  }
+
+  /** Delete all values */
+  final void _clear() {
+    this.m_size = 0;
+  }
+
+  /**
+   * Schedule a value for lazy deletion from another heap, i.e., add it to
+   * this heap of removed values. If too many removed values have
+   * accumulated, they are deleted from the other heap right away, so that
+   * the memory consumption stays proportional to the number of values
+   * which are actually present.
+   *
+   * @param value
+   *          the value to remove
+   * @param values
+   *          the heap from which the value is removed
+   */
+  final void _remove(final long value, final _LongHeap values) {
+    final long[] data, removedData;
+    final int size, removedSize;
+    int index, removedIndex, newSize;
+    long current;
+
+    this._add(value);
+    removedSize = this.m_size;
+    size = values.m_size;
+    if ((removedSize <= 16) || (removedSize <= (size >>> 1))) {
+      return;
+    }
+
+    // A sorted array is a valid heap, so we sort both heaps and remove the
+    // deleted values in a single merge-like pass.
+    data = values.m_data;
+    removedData = this.m_data;
+    Arrays.sort(data, 0, size);
+    Arrays.sort(removedData, 0, removedSize);
+    newSize = removedIndex = 0;
+    for (index = 0; index < size; index++) {
+      current = data[index];
+      while ((removedIndex < removedSize)
+          && (removedData[removedIndex] < current)) {
+        removedIndex++;
+      }
+      if ((removedIndex < removedSize)
+          && (removedData[removedIndex] == current)) {
+        removedIndex++;
+      } else {
+        data[newSize++] = current;
+      }
+    }
+    values.m_size = newSize;
+    this.m_size = 0;
+  }
+
+  /**
+   * Remove all elements from the top of this heap which have been
+   * scheduled for lazy deletion in another heap.
+   *
+   * @param removed
+   *          the heap with the values scheduled for deletion
+   */
+  final void _purge(final _LongHeap removed) {
+    long top;
+
+    while ((removed.m_size > 0) && (this.m_size > 0)) {
+      top = this.m_data[0];
+      if (removed.m_data[0] != top) {
+        return;
+      }
+      this._poll();
+      removed._poll();
+    }
+  }
+}
@@ -1,19 +1,22 @@
 package org.optimizationBenchmarking.utils.math.statistics.aggregate;
 
-import java.util.Arrays;
-
 import org.optimizationBenchmarking.utils.math.BasicNumber;
 
 /**
- * A base class for quantile-based aggregates
+ * A base class for quantile-based aggregates. Values can be removed again
+ * if they have been appended before and if the
+ * {@linkplain AbstractQuantileDataStore quantile data store} backing the
+ * aggregate supports this, which also determines how efficient removing
+ * is.
  */
-abstract class _QuantileBasedAggregate extends _StatefulNumber {
+abstract class _QuantileBasedAggregate extends _StatefulNumber
+    implements IIncrementalAggregate {
 
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
   /** the quantile data store to use. */
-  private final QuantileDataStore m_store;
+  private final AbstractQuantileDataStore m_store;
 
   /** the current time stamp */
   private long m_timestamp;
@@ -24,7 +27,7 @@ abstract class _QuantileBasedAggregate extends _StatefulNumber {
    * @param store
    *          the quantile data store
    */
-  _QuantileBasedAggregate(final QuantileDataStore store) {
+  _QuantileBasedAggregate(final AbstractQuantileDataStore store) {
     super();
 
     if (store == null) {
@@ -35,57 +38,68 @@ abstract class _QuantileBasedAggregate extends _StatefulNumber {
     this.m_store = store;
   }
 
+  /**
+   * Get the quantile data store
+   *
+   * @return the quantile data store
+   */
+  final AbstractQuantileDataStore _getStore() {
+    return this.m_store;
+  }
+
+  /**
+   * Can values be removed from this aggregate?
+   *
+   * @return {@code true} if values can be removed, {@code false} if the
+   *         quantile data store does not support removing values
+   */
+  final boolean _canRemove() {
+    return (this.m_store instanceof IIncrementalAggregate);
+  }
+
   /**
    * compute the {@code long} value
    *
    * @param data
-   *          the {@code long} data
+   *          the store providing the sorted {@code long} data
    * @param count
    *          the number of elements in {@code data}
    */
-  abstract void _computeLong(final long[] data, final int count);
+  abstract void _computeLong(final AbstractQuantileDataStore data,
+      final int count);
 
   /**
    * compute the {@code double} value
    *
    * @param data
-   *          the {@code double} data
+   *          the store providing the sorted {@code double} data
    * @param count
    *          the number of elements in {@code data}
    */
-  abstract void _computeDouble(final double[] data, final int count);
+  abstract void _computeDouble(final AbstractQuantileDataStore data,
+      final int count);
 
   /** compute the value of this quantile */
-  @SuppressWarnings("fallthrough")
   private final void __compute() {
+    final AbstractQuantileDataStore store;
 
-    this.m_timestamp = this.m_store.m_timestamp;
+    store = this.m_store;
+    this.m_timestamp = store.m_timestamp;
 
-    switch (this.m_store.m_state) {
+    switch (store._prepare()) {
 
-      case QuantileDataStore.IS_EMPTY: {
+      case AbstractQuantileDataStore.IS_EMPTY: {
         this.m_state = BasicNumber.STATE_EMPTY;
         return;
       }
 
-      case QuantileDataStore.HAS_DATA_LONG: {
-        Arrays.sort(this.m_store.m_longData, 0, this.m_store.m_size);
-        this.m_store.m_state = QuantileDataStore.IS_SORTED_LONG;
-      }
-
-      case QuantileDataStore.IS_SORTED_LONG: {
-        this._computeLong(this.m_store.m_longData, this.m_store.m_size);
+      case AbstractQuantileDataStore.IS_SORTED_LONG: {
+        this._computeLong(store, store._size());
         return;
       }
 
-      case QuantileDataStore.HAS_DATA_DOUBLE: {
-        Arrays.sort(this.m_store.m_doubleData, 0, this.m_store.m_size);
-        this.m_store.m_state = QuantileDataStore.IS_SORTED_DOUBLE;
-      }
-
-      case QuantileDataStore.IS_SORTED_DOUBLE: {
-        this._computeDouble(this.m_store.m_doubleData,
-            this.m_store.m_size);
+      case AbstractQuantileDataStore.IS_SORTED_DOUBLE: {
+        this._computeDouble(store, store._size());
         return;
       }
 
@@ -136,6 +150,36 @@ abstract class _QuantileBasedAggregate extends _StatefulNumber {
     this.m_store.append(value);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    this.m_state = BasicNumber.STATE_EMPTY;
+    this.m_store.append(data, start, end);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    this.m_state = BasicNumber.STATE_EMPTY;
+    this.m_store.append(data, start, end);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final long value) {
+    this.m_state = BasicNumber.STATE_EMPTY;
+    this.m_store.remove(value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void remove(final double value) {
+    this.m_state = BasicNumber.STATE_EMPTY;
+    this.m_store.remove(value);
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void reset() {
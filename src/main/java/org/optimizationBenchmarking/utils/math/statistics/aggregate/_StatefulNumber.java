@@ -105,6 +105,43 @@ abstract class _StatefulNumber extends ScalarAggregate {
     this.m_state = src.m_state;
   }
 
+  /**
+   * Append the value of another number of the same kind, as used when
+   * merging minimum or maximum aggregates.
+   *
+   * @param other
+   *          the other number
+   */
+  final void _appendValueOf(final _StatefulNumber other) {
+    switch (other.m_state) {
+      case STATE_INTEGER: {
+        this.append(other.m_long);
+        return;
+      }
+      case STATE_DOUBLE: {
+        this.append(other.m_double);
+        return;
+      }
+      case STATE_POSITIVE_OVERFLOW:
+      case STATE_POSITIVE_INFINITY: {
+        this.append(Double.POSITIVE_INFINITY);
+        return;
+      }
+      case STATE_NEGATIVE_OVERFLOW:
+      case STATE_NEGATIVE_INFINITY: {
+        this.append(Double.NEGATIVE_INFINITY);
+        return;
+      }
+      case STATE_NAN: {
+        this.append(Double.NaN);
+        return;
+      }
+      default: {
+        // STATE_EMPTY: nothing to do
+      }
+    }
+  }
+
   /** reset all internal state information */
   @Override
   public void reset() {
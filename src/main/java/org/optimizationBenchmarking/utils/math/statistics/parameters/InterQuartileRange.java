@@ -1,6 +1,7 @@
 package org.optimizationBenchmarking.utils.math.statistics.parameters;
 
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.InterQuantileRangeAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileSketch;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
 import org.optimizationBenchmarking.utils.text.ETextCase;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
@@ -32,6 +33,14 @@ public final class InterQuartileRange extends StatisticalParameter {
     return new InterQuantileRangeAggregate(0.25d, 0.75d);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final ScalarAggregate createBoundedSampleAggregate(
+      final double rankError) {
+    return new InterQuantileRangeAggregate(0.25d, 0.75d,
+        QuantileSketch.createForRankError(rankError));
+  }
+
   /** {@inheritDoc} */
   @Override
   public final ETextCase printDescription(final ITextOutput textOut,
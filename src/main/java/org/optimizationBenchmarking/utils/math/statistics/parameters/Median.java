@@ -1,6 +1,7 @@
 package org.optimizationBenchmarking.utils.math.statistics.parameters;
 
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileSketch;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
 import org.optimizationBenchmarking.utils.text.ETextCase;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
@@ -30,6 +31,14 @@ public final class Median extends StatisticalParameter {
     return new QuantileAggregate(0.5d);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final ScalarAggregate createBoundedSampleAggregate(
+      final double rankError) {
+    return new QuantileAggregate(0.5d,
+        QuantileSketch.createForRankError(rankError));
+  }
+
   /** {@inheritDoc} */
   @Override
   public final ETextCase printDescription(final ITextOutput textOut,
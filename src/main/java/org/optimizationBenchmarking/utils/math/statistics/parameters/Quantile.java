@@ -2,6 +2,7 @@ package org.optimizationBenchmarking.utils.math.statistics.parameters;
 
 import org.optimizationBenchmarking.utils.hash.HashUtils;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileSketch;
 import org.optimizationBenchmarking.utils.text.ETextCase;
 import org.optimizationBenchmarking.utils.text.numbers.SimpleNumberAppender;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
@@ -133,6 +134,14 @@ public final class Quantile extends StatisticalParameter {
     return new QuantileAggregate(this.m_p);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final QuantileAggregate createBoundedSampleAggregate(
+      final double rankError) {
+    return new QuantileAggregate(this.m_p,
+        QuantileSketch.createForRankError(rankError));
+  }
+
   /** {@inheritDoc} */
   @Override
   public final boolean equals(final Object o) {
@@ -143,6 +143,29 @@ public abstract class StatisticalParameter
    */
   public abstract ScalarAggregate createSampleAggregate();
 
+  /**
+   * Create a new
+   * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate
+   * scalar aggregate} which computes this parameter from a data sample
+   * using only a bounded amount of memory, regardless of the size of the
+   * sample. Parameters based on quantiles are then computed approximately
+   * via a
+   * {@linkplain org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileSketch
+   * quantile sketch}. All other parameters need only constant memory
+   * anyway and are computed exactly by the aggregate returned by
+   * {@link #createSampleAggregate()}.
+   *
+   * @param rankError
+   *          the normalized rank error of the quantile sketch, e.g.,
+   *          {@code 0.01} for 1%
+   * @return the scalar aggregate used to compute the parameter from a data
+   *         sample with bounded memory
+   */
+  public ScalarAggregate createBoundedSampleAggregate(
+      final double rankError) {
+    return this.createSampleAggregate();
+  }
+
   /**
    * Does this statistic represent some value from a sample in any way,
    * like a mean or median?
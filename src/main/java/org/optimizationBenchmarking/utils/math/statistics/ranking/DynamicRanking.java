@@ -0,0 +1,665 @@
+package org.optimizationBenchmarking.utils.math.statistics.ranking;
+
+/**
+ * <p>
+ * A ranking of a changing set of values. Each value is identified by an
+ * id obtained when {@linkplain #add(double) adding} it, and can later be
+ * {@linkplain #set(int, double) updated} or {@linkplain #remove(int)
+ * removed}. The values are kept in a sorted primitive index. Changing a
+ * value only moves the entries between its old and new position (adding
+ * or removing a value moves the entries above it) and only re-computes
+ * the ranks of the affected groups of tied values, instead of ranking all
+ * values again with {@link RankingStrategy#rank(double[], double[])}.
+ * </p>
+ * <p>
+ * After each modification, the positions in the sorted index whose
+ * ranks may have changed are available as the range
+ * {@link #getChangeStart()}{@code ...}{@link #getChangeEnd()}{@code -1}.
+ * For the tie strategies {@link ETieStrategy#MINIMUM},
+ * {@link ETieStrategy#MAXIMUM}, and {@link ETieStrategy#AVERAGE}, this
+ * range reaches to the end if a value was added or removed, since all
+ * larger values change their rank. For
+ * {@link ETieStrategy#MINIMUM_TIGHT}, it only reaches to the end if the
+ * number of distinct values changed.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public final class DynamicRanking {
+
+  /** the ranking strategy */
+  private final RankingStrategy m_strategy;
+
+  /** the NaN strategy */
+  private final ENaNStrategy m_nan;
+
+  /** the tie strategy */
+  private final ETieStrategy m_ties;
+
+  /** the sorted keys */
+  private double[] m_keys;
+
+  /** the id of the value at each position */
+  private int[] m_ids;
+
+  /** the rank at each position */
+  private double[] m_ranks;
+
+  /**
+   * the index of the group of tied values at each position, only
+   * maintained for {@link ETieStrategy#MINIMUM_TIGHT}, {@code null}
+   * otherwise
+   */
+  private int[] m_groups;
+
+  /** the number of values */
+  private int m_size;
+
+  /** the value of each id */
+  private double[] m_values;
+
+  /** the position of each id, or {@code -1} if the id is not used */
+  private int[] m_positions;
+
+  /** the number of ids handed out so far */
+  private int m_idCount;
+
+  /** the ids of removed values, which can be re-used */
+  private int[] m_free;
+
+  /** the number of free ids */
+  private int m_freeCount;
+
+  /** the start of the range of positions changed by the last update */
+  private int m_changeStart;
+
+  /** the end of the range of positions changed by the last update */
+  private int m_changeEnd;
+
+  /**
+   * Create an empty dynamic ranking
+   *
+   * @param strategy
+   *          the ranking strategy
+   */
+  public DynamicRanking(final RankingStrategy strategy) {
+    super();
+
+    if (strategy == null) {
+      throw new IllegalArgumentException(//
+          "Ranking strategy must not be null."); //$NON-NLS-1$
+    }
+    this.m_strategy = strategy;
+    this.m_nan = strategy.getNaNStrategy();
+    this.m_ties = strategy.getTieStrategy();
+
+    this.m_keys = this.m_ranks = this.m_values = new double[0];
+    this.m_ids = this.m_positions = this.m_free = new int[0];
+    if (this.m_ties == ETieStrategy.MINIMUM_TIGHT) {
+      this.m_groups = new int[0];
+    }
+  }
+
+  /**
+   * Create a dynamic ranking of the given values. The value at index
+   * {@code i} receives the id {@code i}.
+   *
+   * @param strategy
+   *          the ranking strategy
+   * @param values
+   *          the values
+   */
+  public DynamicRanking(final RankingStrategy strategy,
+      final double[] values) {
+    this(strategy);
+
+    final _Ranker ranker;
+    final int size;
+    int i;
+
+    size = values.length;
+    this.__ensurePositions(size);
+    this.__ensureIds(size);
+    ranker = _Ranker._acquire(this.m_nan, size);
+    try {
+      for (i = 0; i < size; i++) {
+        ranker._add(values[i], i);
+      }
+      ranker._rank(this.m_ties);
+      System.arraycopy(ranker.m_keys, 0, this.m_keys, 0, size);
+      System.arraycopy(ranker.m_owners, 0, this.m_ids, 0, size);
+    } finally {
+      ranker._release();
+    }
+
+    System.arraycopy(values, 0, this.m_values, 0, size);
+    this.m_size = this.m_idCount = size;
+    this.__assign(0, size);
+  }
+
+  /**
+   * Get the ranking strategy
+   *
+   * @return the ranking strategy
+   */
+  public final RankingStrategy getRankingStrategy() {
+    return this.m_strategy;
+  }
+
+  /**
+   * Get the number of ranked values
+   *
+   * @return the number of ranked values
+   */
+  public final int size() {
+    return this.m_size;
+  }
+
+  /**
+   * Get the first position in the sorted index whose rank may have been
+   * changed by the last modification
+   *
+   * @return the first position whose rank may have changed
+   */
+  public final int getChangeStart() {
+    return this.m_changeStart;
+  }
+
+  /**
+   * Get the exclusive end of the range of positions in the sorted index
+   * whose ranks may have been changed by the last modification
+   *
+   * @return the exclusive end of the range of positions whose ranks may
+   *         have changed
+   */
+  public final int getChangeEnd() {
+    return this.m_changeEnd;
+  }
+
+  /**
+   * Get the value with the given id
+   *
+   * @param id
+   *          the id
+   * @return the value
+   */
+  public final double getValue(final int id) {
+    this.__position(id);
+    return this.m_values[id];
+  }
+
+  /**
+   * Get the rank of the value with the given id
+   *
+   * @param id
+   *          the id
+   * @return the rank
+   */
+  public final double getRank(final int id) {
+    return this.m_ranks[this.__position(id)];
+  }
+
+  /**
+   * Get the position of the value with the given id in the sorted index
+   *
+   * @param id
+   *          the id
+   * @return the position, in {@code 0...}{@link #size()}{@code -1}
+   */
+  public final int getPosition(final int id) {
+    return this.__position(id);
+  }
+
+  /**
+   * Get the id of the value at the given position in the sorted index
+   *
+   * @param position
+   *          the position, in {@code 0...}{@link #size()}{@code -1}
+   * @return the id
+   */
+  public final int getIdAt(final int position) {
+    this.__checkPosition(position);
+    return this.m_ids[position];
+  }
+
+  /**
+   * Get the rank of the value at the given position in the sorted index
+   *
+   * @param position
+   *          the position, in {@code 0...}{@link #size()}{@code -1}
+   * @return the rank
+   */
+  public final double getRankAt(final int position) {
+    this.__checkPosition(position);
+    return this.m_ranks[position];
+  }
+
+  /**
+   * Store the rank of each value at the index of its id in the
+   * destination array. Unused ids are not written.
+   *
+   * @param dest
+   *          the destination array, of length at least the largest id
+   *          plus one
+   */
+  public final void getRanks(final double[] dest) {
+    int position;
+
+    for (position = this.m_size; (--position) >= 0;) {
+      dest[this.m_ids[position]] = this.m_ranks[position];
+    }
+  }
+
+  /**
+   * Add a value
+   *
+   * @param value
+   *          the value
+   * @return the id of the value
+   */
+  public final int add(final double value) {
+    final double key;
+    final int id, position, size;
+
+    key = this.__key(value);
+
+    if (this.m_freeCount > 0) {
+      id = this.m_free[--this.m_freeCount];
+    } else {
+      this.__ensureIds(this.m_idCount + 1);
+      id = this.m_idCount++;
+    }
+    this.m_values[id] = value;
+
+    size = this.m_size;
+    this.__ensurePositions(size + 1);
+    position = this.__upper(key);
+    this.__move(position, (position + 1), (size - position));
+    this.m_keys[position] = key;
+    this.m_ids[position] = id;
+    this.m_size = (size + 1);
+
+    this.__update(this.__lower(key), //
+        (((this.m_groups == null) || //
+            (!(this.__isTied(position, key)))) ? this.m_size
+            : this.__upper(key)));
+    this.__movedAbove();
+    return id;
+  }
+
+  /**
+   * Remove the value with the given id. The id may be re-used by a value
+   * added later.
+   *
+   * @param id
+   *          the id
+   */
+  public final void remove(final int id) {
+    final double key;
+    final int position, lower, upper;
+
+    position = this.__position(id);
+    key = this.m_keys[position];
+    this.__move((position + 1), position, (this.m_size - position - 1));
+    this.m_size--;
+
+    this.m_positions[id] = (-1);
+    this.m_free[this.m_freeCount++] = id;
+
+    lower = this.__lower(key);
+    upper = this.__upper(key);
+    this.__update(lower, (((this.m_groups == null) || (lower >= upper))//
+        ? this.m_size : upper));
+    this.__movedAbove();
+  }
+
+  /**
+   * Change the value with the given id
+   *
+   * @param id
+   *          the id
+   * @param value
+   *          the new value
+   */
+  public final void set(final int id, final double value) {
+    final double oldKey, newKey;
+    final int oldPosition;
+    final boolean oldGroupVanished, newGroupCreated;
+    int newPosition, oldLower, oldUpper, newLower, newUpper;
+
+    oldPosition = this.__position(id);
+    oldKey = this.m_keys[oldPosition];
+    newKey = this.__key(value);
+    this.m_values[id] = value;
+
+    if (this.__equal(oldKey, newKey)) {
+      this.m_changeStart = this.m_changeEnd = oldPosition;
+      return;
+    }
+
+    newPosition = this.__upper(newKey);
+    if (newPosition > oldPosition) {
+      newPosition--;
+      this.__move((oldPosition + 1), oldPosition,
+          (newPosition - oldPosition));
+    } else {
+      this.__move(newPosition, (newPosition + 1),
+          (oldPosition - newPosition));
+    }
+    this.m_keys[newPosition] = newKey;
+    this.m_ids[newPosition] = id;
+
+    oldLower = this.__lower(oldKey);
+    oldUpper = this.__upper(oldKey);
+    newLower = this.__lower(newKey);
+    newUpper = this.__upper(newKey);
+
+    // the values between the old and new group were moved, so the
+    // affected range spans both groups
+    oldGroupVanished = (oldLower >= oldUpper);
+    newGroupCreated = ((newUpper - newLower) <= 1);
+    this.__update(Math.min(oldLower, newLower),
+        (((this.m_groups != null) && //
+            (oldGroupVanished != newGroupCreated)) ? this.m_size
+            : Math.max(oldUpper, newUpper)));
+  }
+
+  /**
+   * Move a range of entries of the sorted index
+   *
+   * @param source
+   *          the first position to move
+   * @param dest
+   *          the position to move it to
+   * @param length
+   *          the number of entries to move
+   */
+  private final void __move(final int source, final int dest,
+      final int length) {
+    System.arraycopy(this.m_keys, source, this.m_keys, dest, length);
+    System.arraycopy(this.m_ids, source, this.m_ids, dest, length);
+    System.arraycopy(this.m_ranks, source, this.m_ranks, dest, length);
+    if (this.m_groups != null) {
+      System.arraycopy(this.m_groups, source, this.m_groups, dest,
+          length);
+    }
+  }
+
+  /**
+   * Update the positions of the values above the changed range, which
+   * have moved by one position without changing their rank
+   */
+  private final void __movedAbove() {
+    int position;
+
+    for (position = this.m_changeEnd; position < this.m_size; position++) {
+      this.m_positions[this.m_ids[position]] = position;
+    }
+  }
+
+  /**
+   * Re-compute the ranks in a range of positions and remember it as
+   * changed
+   *
+   * @param start
+   *          the start of the range, which must be the start of a group of
+   *          tied values
+   * @param end
+   *          the exclusive end of the range, which must be the end of a
+   *          group of tied values
+   */
+  private final void __update(final int start, final int end) {
+    this.m_changeStart = start;
+    this.m_changeEnd = end;
+    this.__assign(start, end);
+  }
+
+  /**
+   * Assign the ranks and positions in a range of positions
+   *
+   * @param start
+   *          the start of the range, which must be the start of a group of
+   *          tied values
+   * @param end
+   *          the exclusive end of the range, which must be the end of a
+   *          group of tied values
+   */
+  private final void __assign(final int start, final int end) {
+    final double[] keys, ranks;
+    final int[] ids, groups, positions;
+    int groupStart, groupEnd, group, index;
+    double key, rank;
+
+    keys = this.m_keys;
+    ids = this.m_ids;
+    ranks = this.m_ranks;
+    groups = this.m_groups;
+    positions = this.m_positions;
+
+    group = (((groups == null) || (start <= 0)) ? 0
+        : (groups[start - 1] + 1));
+    for (groupStart = start; groupStart < end; groupStart = groupEnd) {
+      key = keys[groupStart];
+      for (groupEnd = (groupStart + 1); (groupEnd < end)
+          && this.__equal(keys[groupEnd], key); groupEnd++) {
+        // find the end of the group
+      }
+
+      rank = this.m_ties._rank(groupStart, groupEnd, group);
+      if (key != key) {
+        rank = this.m_nan._nanRank(rank);
+      }
+
+      for (index = groupStart; index < groupEnd; index++) {
+        ranks[index] = rank;
+        positions[ids[index]] = index;
+        if (groups != null) {
+          groups[index] = group;
+        }
+      }
+      group++;
+    }
+  }
+
+  /**
+   * Is there another value tied with the given key at the given position?
+   *
+   * @param position
+   *          the position
+   * @param key
+   *          the key at the position
+   * @return {@code true} if a neighbouring value is equal to the key
+   */
+  private final boolean __isTied(final int position, final double key) {
+    return (((position > 0) && this.__equal(this.m_keys[position - 1],
+        key)) || (((position + 1) < this.m_size) && //
+    this.__equal(this.m_keys[position + 1], key)));
+  }
+
+  /**
+   * Translate a value to a key
+   *
+   * @param value
+   *          the value
+   * @return the key, which is {@link java.lang.Double#NaN} only if
+   *         {@link java.lang.Double#NaN}s form a group of their own
+   */
+  private final double __key(final double value) {
+    if (value != value) {
+      return this.m_nan._nanKey();
+    }
+    return (value + 0d); // -0d and 0d are the same when ranking
+  }
+
+  /**
+   * Check whether two keys are equal
+   *
+   * @param a
+   *          the first key
+   * @param b
+   *          the second key
+   * @return {@code true} if they are equal
+   */
+  private final boolean __equal(final double a, final double b) {
+    return ((a == b) || ((a != a) && (b != b)));
+  }
+
+  /**
+   * Check whether one key is smaller than another one
+   *
+   * @param a
+   *          the first key
+   * @param b
+   *          the second key
+   * @return {@code true} if {@code a<b}
+   */
+  private final boolean __less(final double a, final double b) {
+    if (a != a) {
+      return ((b == b) && this.m_nan._isNaNFirst());
+    }
+    if (b != b) {
+      return (!(this.m_nan._isNaNFirst()));
+    }
+    return (a < b);
+  }
+
+  /**
+   * Get the first position whose key is not smaller than the given key
+   *
+   * @param key
+   *          the key
+   * @return the position
+   */
+  private final int __lower(final double key) {
+    int low, high, middle;
+
+    low = 0;
+    high = this.m_size;
+    while (low < high) {
+      middle = ((low + high) >>> 1);
+      if (this.__less(this.m_keys[middle], key)) {
+        low = (middle + 1);
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the first position whose key is larger than the given key
+   *
+   * @param key
+   *          the key
+   * @return the position
+   */
+  private final int __upper(final double key) {
+    int low, high, middle;
+
+    low = 0;
+    high = this.m_size;
+    while (low < high) {
+      middle = ((low + high) >>> 1);
+      if (this.__less(key, this.m_keys[middle])) {
+        high = middle;
+      } else {
+        low = (middle + 1);
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the position of a given id
+   *
+   * @param id
+   *          the id
+   * @return the position
+   */
+  private final int __position(final int id) {
+    final int position;
+
+    if ((id >= 0) && (id < this.m_idCount)) {
+      position = this.m_positions[id];
+      if (position >= 0) {
+        return position;
+      }
+    }
+    throw new IllegalArgumentException(//
+        "There is no value with id " + id); //$NON-NLS-1$
+  }
+
+  /**
+   * Check a position
+   *
+   * @param position
+   *          the position
+   */
+  private final void __checkPosition(final int position) {
+    if ((position < 0) || (position >= this.m_size)) {
+      throw new IllegalArgumentException(//
+          (((("Position must be in 0.." + (this.m_size - 1)) + //$NON-NLS-1$
+              ", but is ") + position) + '.')); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Make sure that the sorted index can hold the given number of values
+   *
+   * @param size
+   *          the number of values
+   */
+  private final void __ensurePositions(final int size) {
+    final int length;
+    double[] keys, ranks;
+    int[] ids, groups;
+
+    if (this.m_keys.length >= size) {
+      return;
+    }
+    length = Math.max(size, (this.m_keys.length << 1));
+
+    keys = new double[length];
+    System.arraycopy(this.m_keys, 0, keys, 0, this.m_size);
+    this.m_keys = keys;
+    ranks = new double[length];
+    System.arraycopy(this.m_ranks, 0, ranks, 0, this.m_size);
+    this.m_ranks = ranks;
+    ids = new int[length];
+    System.arraycopy(this.m_ids, 0, ids, 0, this.m_size);
+    this.m_ids = ids;
+    if (this.m_groups != null) {
+      groups = new int[length];
+      System.arraycopy(this.m_groups, 0, groups, 0, this.m_size);
+      this.m_groups = groups;
+    }
+  }
+
+  /**
+   * Make sure that the given number of ids can be handed out
+   *
+   * @param count
+   *          the number of ids
+   */
+  private final void __ensureIds(final int count) {
+    final int length;
+    double[] values;
+    int[] positions, free;
+
+    if (this.m_values.length >= count) {
+      return;
+    }
+    length = Math.max(count, (this.m_values.length << 1));
+
+    values = new double[length];
+    System.arraycopy(this.m_values, 0, values, 0, this.m_idCount);
+    this.m_values = values;
+    positions = new int[length];
+    System.arraycopy(this.m_positions, 0, positions, 0, this.m_idCount);
+    this.m_positions = positions;
+    free = new int[length];
+    System.arraycopy(this.m_free, 0, free, 0, this.m_freeCount);
+    this.m_free = free;
+  }
+}
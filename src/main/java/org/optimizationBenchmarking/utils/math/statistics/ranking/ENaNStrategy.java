@@ -1,6 +1,5 @@
 package org.optimizationBenchmarking.utils.math.statistics.ranking;
 
-import org.optimizationBenchmarking.utils.math.NumericalTypes;
 import org.optimizationBenchmarking.utils.text.ETextCase;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
 
@@ -18,14 +17,8 @@ public enum ENaNStrategy {
   MINIMAL {
     /** {@inheritDoc} */
     @Override
-    final int _compareLong() {
-      return (-1);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    final int _compareDouble(final double value) {
-      return (-1);
+    final boolean _isNaNFirst() {
+      return true;
     }
 
     /** {@inheritDoc} */
@@ -52,14 +45,8 @@ public enum ENaNStrategy {
   NEGATIVE_INFINITY {
     /** {@inheritDoc} */
     @Override
-    final int _compareLong() {
-      return (-1);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    final int _compareDouble(final double value) {
-      return ((value <= Double.NEGATIVE_INFINITY) ? 0 : (-1));
+    final double _nanKey() {
+      return Double.NEGATIVE_INFINITY;
     }
 
     /** {@inheritDoc} */
@@ -86,8 +73,8 @@ public enum ENaNStrategy {
   POSITIVE_INFINITY {
     /** {@inheritDoc} */
     @Override
-    final int _compareDouble(final double value) {
-      return ((value >= Double.POSITIVE_INFINITY) ? 0 : (1));
+    final double _nanKey() {
+      return Double.POSITIVE_INFINITY;
     }
 
     /** {@inheritDoc} */
@@ -136,6 +123,14 @@ public enum ENaNStrategy {
    * {@link java.lang.IllegalArgumentException}s.
    */
   ERROR {
+    /** {@inheritDoc} */
+    @Override
+    final double _nanKey() {
+      throw new IllegalArgumentException(//
+          "NaN not permitted with NaN Strategy " //$NON-NLS-1$
+              + this);
+    }
+
     /** {@inheritDoc} */
     @Override
     final ETextCase _printDescription(final ITextOutput textOut,
@@ -155,17 +150,8 @@ public enum ENaNStrategy {
   NAN {
     /** {@inheritDoc} */
     @Override
-    final void _refine(final _RankedElement[] ranks) {
-      _RankedElement e;
-      int i;
-      for (i = ranks.length; (--i) >= 0;) {
-        e = ranks[i];
-        if (e instanceof _RankedNaN) {
-          e.m_rank = Double.NaN;
-        } else {
-          return;
-        }
-      }
+    final double _nanRank(final double rank) {
+      return Double.NaN;
     }
 
     /** {@inheritDoc} */
@@ -191,70 +177,36 @@ public enum ENaNStrategy {
   public static final ENaNStrategy DEFAULT = ERROR;
 
   /**
-   * compare to a {@code long} value, whatever it is
+   * Get the value which {@link java.lang.Double#NaN}s are treated as
+   * equal to during ranking.
    *
-   * @return the comparison result
+   * @return the value, or {@link java.lang.Double#NaN} if
+   *         {@link java.lang.Double#NaN}s are only equal to each other
    */
-  int _compareLong() {
-    return 1;
+  double _nanKey() {
+    return Double.NaN;
   }
 
   /**
-   * compare to a {@code double} value
+   * If {@link java.lang.Double#NaN}s are only equal to each other, are
+   * they smaller than anything else?
    *
-   * @param value
-   *          the value
-   * @return the comparison result
+   * @return {@code true} if {@link java.lang.Double#NaN}s are smaller
+   *         than anything else, {@code false} if they are larger
    */
-  int _compareDouble(final double value) {
-    return 1;
-  }
-
-  /**
-   * Get the ranked element for a {@code long} value
-   *
-   * @param index
-   *          the index of the original value
-   * @param value
-   *          the value
-   * @return the ranked element
-   */
-  final _RankedElement _element(final int index, final long value) {
-    return new _RankedLong(index, value);
-  }
-
-  /**
-   * Get the ranked element for a {@code double} value
-   *
-   * @param index
-   *          the index of the original value
-   * @param value
-   *          the value
-   * @return the ranked element
-   */
-  final _RankedElement _element(final int index, final double value) {
-    if (NumericalTypes.isLong(value)) {
-      return this._element(index, ((long) value));
-    }
-    if (value != value) {
-      if (this == ENaNStrategy.ERROR) {
-        throw new IllegalArgumentException(//
-            "NaN not permitted with NaN Strategy " //$NON-NLS-1$
-                + this);
-      }
-      return new _RankedNaN(index, this);
-    }
-    return new _RankedDouble(index, value);
+  boolean _isNaNFirst() {
+    return false;
   }
 
   /**
-   * Refine the ranks of the ranked elements
+   * Get the rank of {@link java.lang.Double#NaN}s
    *
-   * @param ranks
-   *          the ranks
+   * @param rank
+   *          the rank assigned by the tie strategy
+   * @return the rank of the {@link java.lang.Double#NaN}s
    */
-  void _refine(final _RankedElement[] ranks) {
-    //
+  double _nanRank(final double rank) {
+    return rank;
   }
 
   /**
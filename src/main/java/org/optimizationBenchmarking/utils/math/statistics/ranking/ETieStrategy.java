@@ -15,21 +15,9 @@ public enum ETieStrategy {
   MINIMUM {
     /** {@inheritDoc} */
     @Override
-    final void _rank(final _RankedElement[] elements) {
-      int startIndex, endIndex;
-      _RankedElement current, next;
-
-      for (startIndex = 0; startIndex < elements.length; startIndex = endIndex) {
-        current = elements[startIndex];
-        current.m_rank = (++startIndex);
-        findEqual: for (endIndex = startIndex; endIndex < elements.length; endIndex++) {
-          next = elements[endIndex];
-          if (current.compareTo(next) != 0) {
-            break findEqual;
-          }
-          next.m_rank = startIndex;
-        }
-      }
+    final double _rank(final int start, final int end,
+        final int group) {
+      return (start + 1);
     }
 
     /** {@inheritDoc} */
@@ -51,22 +39,9 @@ public enum ETieStrategy {
   MINIMUM_TIGHT {
     /** {@inheritDoc} */
     @Override
-    final void _rank(final _RankedElement[] elements) {
-      int nextRank, startIndex, endIndex;
-      _RankedElement current, next;
-
-      nextRank = 0;
-      for (startIndex = 0; startIndex < elements.length; startIndex = endIndex) {
-        current = elements[startIndex];
-        current.m_rank = (++nextRank);
-        findEqual: for (endIndex = startIndex; (++endIndex) < elements.length;) {
-          next = elements[endIndex];
-          if (current.compareTo(next) != 0) {
-            break findEqual;
-          }
-          next.m_rank = nextRank;
-        }
-      }
+    final double _rank(final int start, final int end,
+        final int group) {
+      return (group + 1);
     }
 
     /** {@inheritDoc} */
@@ -91,21 +66,9 @@ public enum ETieStrategy {
   MAXIMUM {
     /** {@inheritDoc} */
     @Override
-    final void _rank(final _RankedElement[] elements) {
-      int startIndex, endIndex;
-      _RankedElement current;
-
-      for (startIndex = 0; startIndex < elements.length;) {
-        current = elements[startIndex];
-        findEqual: for (endIndex = startIndex; (++endIndex) < elements.length;) {
-          if (current.compareTo(elements[endIndex]) != 0) {
-            break findEqual;
-          }
-        }
-        for (; startIndex < endIndex; startIndex++) {
-          elements[startIndex].m_rank = endIndex;
-        }
-      }
+    final double _rank(final int start, final int end,
+        final int group) {
+      return end;
     }
 
     /** {@inheritDoc} */
@@ -126,25 +89,9 @@ public enum ETieStrategy {
   AVERAGE {
     /** {@inheritDoc} */
     @Override
-    final void _rank(final _RankedElement[] elements) {
-      int startIndex, endIndex;
-      _RankedElement current;
-      double rank;
-
-      for (startIndex = 0; startIndex < elements.length;) {
-        current = elements[startIndex];
-        findEqual: for (endIndex = startIndex; (++endIndex) < elements.length;) {
-          if (current.compareTo(elements[endIndex]) != 0) {
-            break findEqual;
-          }
-        }
-
-        rank = (0.5d * (startIndex + 1 + endIndex));
-
-        for (; startIndex < endIndex; startIndex++) {
-          elements[startIndex].m_rank = rank;
-        }
-      }
+    final double _rank(final int start, final int end,
+        final int group) {
+      return (0.5d * (start + 1 + end));
     }
 
     /** {@inheritDoc} */
@@ -161,12 +108,19 @@ public enum ETieStrategy {
   public static final ETieStrategy DEFAULT = AVERAGE;
 
   /**
-   * Rank the given sorted set of elements.
+   * Get the rank of a group of tied elements.
    *
-   * @param elements
-   *          the elements
+   * @param start
+   *          the index of the first element of the group in the sorted
+   *          sequence of all elements
+   * @param end
+   *          the exclusive end index of the group in the sorted sequence
+   * @param group
+   *          the index of the group, i.e., the number of groups of
+   *          different elements before it
+   * @return the rank of all elements in the group
    */
-  abstract void _rank(final _RankedElement[] elements);
+  abstract double _rank(final int start, final int end, final int group);
 
   /**
    * Describe this tie strategy.
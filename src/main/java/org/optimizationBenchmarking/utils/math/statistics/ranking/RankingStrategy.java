@@ -1,11 +1,14 @@
 package org.optimizationBenchmarking.utils.math.statistics.ranking;
 
-import java.util.Arrays;
+import java.util.concurrent.Future;
 
 import org.optimizationBenchmarking.utils.config.Configuration;
 import org.optimizationBenchmarking.utils.document.spec.ISemanticComponent;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+import org.optimizationBenchmarking.utils.parallel.Execute;
 import org.optimizationBenchmarking.utils.text.ETextCase;
 import org.optimizationBenchmarking.utils.text.TextUtils;
 import org.optimizationBenchmarking.utils.text.textOutput.ITextOutput;
@@ -20,6 +23,12 @@ public final class RankingStrategy implements ISemanticComponent {
   /** the tie strategy for the ranking */
   public static final String TIE_STRATEGY_PARAMETER = "rankingTieStrategy"; //$NON-NLS-1$
 
+  /**
+   * the maximum number of ranks buffered when ranking the rows of a
+   * matrix into aggregates
+   */
+  private static final int AGGREGATE_BLOCK_ELEMENTS = (1 << 18);
+
   /** the short name for the ranking */
   private static final char[] SHORT_NAME = { 'r', 'a', 'n', 'k' };
 
@@ -69,30 +78,36 @@ public final class RankingStrategy implements ISemanticComponent {
   }
 
   /**
-   * perform the ranking after the ranked elements have been created
-   *
-   * @param elements
-   *          the ranked elements
-   */
-  private final void __rank(final _RankedElement[] elements) {
-    Arrays.sort(elements);
-    this.m_ties._rank(elements);
-    this.m_nan._refine(elements);
-  }
-
-  /**
-   * perform the ranking after the ranked elements have been created
+   * Compute the ranks of the values added to a ranker and store them in
+   * the destination array.
    *
-   * @param elements
-   *          the ranked elements
+   * @param ranker
+   *          the ranker
    * @param dest
    *          the destination {@code double} array
+   * @param start
+   *          the index where the rank of the value with owner {@code 0}
+   *          is stored
+   * @param step
+   *          the distance between the ranks of two consecutive owners
    */
-  private final void __rank(final _RankedElement[] elements,
-      final double[] dest) {
-    this.__rank(elements);
-    for (final _RankedElement e : elements) {
-      dest[e.m_index] = e.m_rank;
+  private final void __rank(final _Ranker ranker, final double[] dest,
+      final int start, final int step) {
+    final int[] owners;
+    final double[] ranks;
+    int index;
+
+    ranker._rank(this.m_ties);
+    owners = ranker.m_owners;
+    ranks = ranker.m_ranks;
+    if (step == 1) {
+      for (index = ranker.m_size; (--index) >= 0;) {
+        dest[start + owners[index]] = ranks[index];
+      }
+    } else {
+      for (index = ranker.m_size; (--index) >= 0;) {
+        dest[start + (owners[index] * step)] = ranks[index];
+      }
     }
   }
 
@@ -106,16 +121,18 @@ public final class RankingStrategy implements ISemanticComponent {
    *          the destination array
    */
   public final void rank(final double[] data, final double[] dest) {
-    final _RankedElement[] elements;
+    final _Ranker ranker;
     int i;
 
-    elements = new _RankedElement[data.length];
-    i = 0;
-    for (final double d : data) {
-      elements[i] = this.m_nan._element(i, d);
-      ++i;
+    ranker = _Ranker._acquire(this.m_nan, data.length);
+    try {
+      for (i = 0; i < data.length; i++) {
+        ranker._add(data[i], i);
+      }
+      this.__rank(ranker, dest, 0, 1);
+    } finally {
+      ranker._release();
     }
-    this.__rank(elements, dest);
   }
 
   /**
@@ -128,16 +145,61 @@ public final class RankingStrategy implements ISemanticComponent {
    *          the destination array
    */
   public final void rank(final long[] data, final double[] dest) {
-    final _RankedElement[] elements;
+    final _Ranker ranker;
     int i;
 
-    elements = new _RankedElement[data.length];
-    i = 0;
-    for (final double d : data) {
-      elements[i] = this.m_nan._element(i, d);
-      ++i;
+    ranker = _Ranker._acquire(this.m_nan, data.length);
+    try {
+      for (i = 0; i < data.length; i++) {
+        ranker._add(data[i], i);
+      }
+      this.__rank(ranker, dest, 0, 1);
+    } finally {
+      ranker._release();
+    }
+  }
+
+  /**
+   * Rank the elements of one row or column of a matrix and store the
+   * resulting ranks in the destination array.
+   *
+   * @param matrix
+   *          the matrix
+   * @param column
+   *          {@code true} if {@code line} is a column index,
+   *          {@code false} if it is a row index
+   * @param line
+   *          the index of the row or column to rank
+   * @param dest
+   *          the destination array
+   * @param start
+   *          the index where the rank of the first element is stored
+   * @param step
+   *          the distance between the ranks of two consecutive elements
+   */
+  final void _rankLine(final IMatrix matrix, final boolean column,
+      final int line, final double[] dest, final int start,
+      final int step) {
+    final _Ranker ranker;
+    final int length;
+    int i;
+
+    length = (column ? matrix.m() : matrix.n());
+    ranker = _Ranker._acquire(this.m_nan, length);
+    try {
+      if (column) {
+        for (i = 0; i < length; i++) {
+          ranker._add(matrix.getDouble(i, line), i);
+        }
+      } else {
+        for (i = 0; i < length; i++) {
+          ranker._add(matrix.getDouble(line, i), i);
+        }
+      }
+      this.__rank(ranker, dest, start, step);
+    } finally {
+      ranker._release();
     }
-    this.__rank(elements, dest);
   }
 
   /**
@@ -153,29 +215,289 @@ public final class RankingStrategy implements ISemanticComponent {
    */
   public final void rankRow(final IMatrix matrix, final int row,
       final double[] dest) {
-    final _RankedElement[] elements;
-    int i;
+    this._rankLine(matrix, false, row, dest, 0, 1);
+  }
+
+  /**
+   * Rank the elements in column {@code column} of a given {@code matrix}
+   * store the resulting ranks in the destination array.
+   *
+   * @param matrix
+   *          the matrix, containing the column with the elements to be
+   *          ranked
+   * @param column
+   *          the index of the column to rank
+   * @param dest
+   *          the destination array
+   */
+  public final void rankColumn(final IMatrix matrix, final int column,
+      final double[] dest) {
+    this._rankLine(matrix, true, column, dest, 0, 1);
+  }
+
+  /**
+   * Rank a range of rows or columns of a matrix. If the range is large,
+   * it is divided into at most one chunk of lines per available
+   * processor and the chunks are ranked in parallel via {@link Execute}.
+   *
+   * @param matrix
+   *          the matrix
+   * @param columns
+   *          should columns be ranked instead of rows?
+   * @param dest
+   *          the destination array
+   * @param offset
+   *          the offset into the destination array
+   * @param lineStride
+   *          the distance between the ranks of two consecutive lines
+   * @param elementStride
+   *          the distance between the ranks of two consecutive elements
+   * @param start
+   *          the first line
+   * @param end
+   *          the exclusive end line
+   */
+  @SuppressWarnings("unchecked")
+  private final void __rankLineRange(final IMatrix matrix,
+      final boolean columns, final double[] dest, final int offset,
+      final int lineStride, final int elementStride, final int start,
+      final int end) {
+    final int lines, chunks;
+    final _BatchRanker[] jobs;
+    final Future<Void>[] futures;
+    int index, chunkStart, chunkEnd;
+
+    lines = (end - start);
+    chunks = ((int) (Math.min(
+        Math.min(lines, Runtime.getRuntime().availableProcessors()),
+        ((((long) lines) * (columns ? matrix.m() : matrix.n()))
+            / _BatchRanker.TASK_ELEMENTS))));
+    if (chunks <= 1) {
+      new _BatchRanker(this, matrix, columns, dest, offset, lineStride,
+          elementStride, start, end).call();
+      return;
+    }
+
+    jobs = new _BatchRanker[chunks];
+    chunkEnd = start;
+    for (index = 0; index < chunks; index++) {
+      chunkStart = chunkEnd;
+      chunkEnd = (start + ((int) ((((long) lines) * (index + 1)) / chunks)));
+      jobs[index] = new _BatchRanker(this, matrix, columns, dest, offset,
+          lineStride, elementStride, chunkStart, chunkEnd);
+    }
+
+    futures = Execute.parallel(jobs);
+    Execute.join(futures, new Void[chunks], 0, false);
+  }
+
+  /**
+   * Rank the elements of all rows or all columns of a matrix
+   *
+   * @param matrix
+   *          the matrix
+   * @param columns
+   *          should columns be ranked instead of rows?
+   * @param dest
+   *          the destination array, of length at least
+   *          {@code matrix.m()*matrix.n()}
+   * @param lineStride
+   *          the distance between the ranks of two consecutive lines
+   * @param elementStride
+   *          the distance between the ranks of two consecutive elements
+   */
+  private final void __rankLines(final IMatrix matrix,
+      final boolean columns, final double[] dest, final int lineStride,
+      final int elementStride) {
+    final int m, n;
+
+    m = matrix.m();
+    n = matrix.n();
+    if (dest.length < (m * n)) {
+      throw new IllegalArgumentException(//
+          (((("Destination array must have at least " + (m * n)) + //$NON-NLS-1$
+              " elements, but has only ") + dest.length) + '.')); //$NON-NLS-1$
+    }
+
+    this.__rankLineRange(matrix, columns, dest, 0, lineStride,
+        elementStride, 0, (columns ? n : m));
+  }
+
+  /**
+   * Rank the elements of each row of a {@code matrix} separately, in
+   * parallel if the matrix is large. The rank of the element at row
+   * {@code i} and column {@code j} is stored at index
+   * {@code i*matrix.n()+j} of the destination array. The matrix must
+   * permit concurrent reading.
+   *
+   * @param matrix
+   *          the matrix
+   * @param dest
+   *          the destination array, of length at least
+   *          {@code matrix.m()*matrix.n()}
+   */
+  public final void rankRows(final IMatrix matrix, final double[] dest) {
+    this.__rankLines(matrix, false, dest, matrix.n(), 1);
+  }
+
+  /**
+   * Rank the elements of each column of a {@code matrix} separately, in
+   * parallel if the matrix is large. The rank of the element at row
+   * {@code i} and column {@code j} is stored at index
+   * {@code i*matrix.n()+j} of the destination array. The matrix must
+   * permit concurrent reading.
+   *
+   * @param matrix
+   *          the matrix
+   * @param dest
+   *          the destination array, of length at least
+   *          {@code matrix.m()*matrix.n()}
+   */
+  public final void rankColumns(final IMatrix matrix,
+      final double[] dest) {
+    this.__rankLines(matrix, true, dest, 1, matrix.n());
+  }
+
+  /**
+   * Rank the elements of each row of a {@code matrix} separately.
+   *
+   * @param matrix
+   *          the matrix
+   * @return a matrix of the same dimensions holding the rank of each
+   *         element within its row
+   * @see #rankRows(IMatrix, double[])
+   */
+  public final DoubleMatrix1D rankRows(final IMatrix matrix) {
+    final double[] data;
+
+    data = new double[matrix.m() * matrix.n()];
+    this.rankRows(matrix, data);
+    return new DoubleMatrix1D(data, matrix.m(), matrix.n());
+  }
 
-    elements = new _RankedElement[matrix.n()];
-    for (i = elements.length; (--i) >= 0;) {
-      elements[i] = this.m_nan._element(i, matrix.getDouble(row, i));
+  /**
+   * Rank the elements of each column of a {@code matrix} separately.
+   *
+   * @param matrix
+   *          the matrix
+   * @return a matrix of the same dimensions holding the rank of each
+   *         element within its column
+   * @see #rankColumns(IMatrix, double[])
+   */
+  public final DoubleMatrix1D rankColumns(final IMatrix matrix) {
+    final double[] data;
+
+    data = new double[matrix.m() * matrix.n()];
+    this.rankColumns(matrix, data);
+    return new DoubleMatrix1D(data, matrix.m(), matrix.n());
+  }
+
+  /**
+   * Rank the elements of each row of a {@code matrix} separately and
+   * append the rank of each element to the aggregate of its column, e.g.,
+   * to compute the mean rank of each column. The ranks are appended row
+   * by row, in the same order as when ranking each row with
+   * {@link #rankRow(IMatrix, int, double[])} and appending the ranks one
+   * by one, but the rows are ranked in parallel blocks and the complete
+   * rank matrix is never created. The matrix must permit concurrent
+   * reading.
+   *
+   * @param matrix
+   *          the matrix
+   * @param dest
+   *          the destination aggregates: The aggregate at index {@code j}
+   *          receives the ranks of the elements in column {@code j}
+   */
+  public final void rankRows(final IMatrix matrix, final IAggregate[] dest) {
+    final double[] buffer;
+    final int m, n, block;
+    IAggregate aggregate;
+    int start, rows, column, index;
+
+    m = matrix.m();
+    n = matrix.n();
+    if (dest.length != n) {
+      throw new IllegalArgumentException(//
+          (((("Destination aggregate array must have one aggregate for each of the " //$NON-NLS-1$
+              + n) + " columns, but has ") + dest.length) + '.')); //$NON-NLS-1$
+    }
+    if ((m <= 0) || (n <= 0)) {
+      return;
+    }
+
+    // the ranks of a block of rows, stored column by column
+    block = Math.max(1,
+        Math.min(m, (RankingStrategy.AGGREGATE_BLOCK_ELEMENTS / n)));
+    buffer = new double[block * n];
+    for (start = 0; start < m; start += block) {
+      rows = Math.min(block, (m - start));
+      this.__rankLineRange(matrix, false, buffer, (-start), 1, block, start,
+          (start + rows));
+
+      for (column = 0; column < n; column++) {
+        aggregate = dest[column];
+        index = (column * block);
+        if (aggregate instanceof IBulkAggregate) {
+          ((IBulkAggregate) aggregate).append(buffer, index,
+              (index + rows));
+        } else {
+          for (; index < ((column * block) + rows); index++) {
+            aggregate.append(buffer[index]);
+          }
+        }
+      }
     }
-    this.__rank(elements, dest);
   }
 
   /**
-   * perform the ranking after the ranked elements have been created
+   * Compute the ranks of the values added to a ranker and append them to
+   * the destination aggregates in ascending order of the values.
    *
-   * @param elements
-   *          the ranked elements
+   * @param ranker
+   *          the ranker
    * @param dest
    *          the destination aggregates
    */
-  private final void __rank(final _RankedElement[] elements,
-      final IAggregate[] dest) {
-    this.__rank(elements);
-    for (final _RankedElement e : elements) {
-      dest[e.m_index].append(e.m_rank);
+  private final void __rank(final _Ranker ranker, final IAggregate[] dest) {
+    final double[][] ranks;
+    final int[] counts, owners;
+    final double[] values;
+    final int size;
+    int index, owner;
+
+    ranker._rank(this.m_ties);
+    owners = ranker.m_owners;
+    values = ranker.m_ranks;
+    size = ranker.m_size;
+
+    // collect the ranks for each destination so that bulk aggregates can
+    // receive them at once, in the same order as one by one
+    ranks = new double[dest.length][];
+    counts = new int[dest.length];
+    for (index = 0; index < size; index++) {
+      counts[owners[index]]++;
+    }
+    for (index = dest.length; (--index) >= 0;) {
+      if (dest[index] instanceof IBulkAggregate) {
+        ranks[index] = new double[counts[index]];
+        counts[index] = 0;
+      }
+    }
+
+    for (index = 0; index < size; index++) {
+      owner = owners[index];
+      if (ranks[owner] != null) {
+        ranks[owner][counts[owner]++] = values[index];
+      } else {
+        dest[owner].append(values[index]);
+      }
+    }
+
+    for (index = dest.length; (--index) >= 0;) {
+      if (ranks[index] != null) {
+        ((IBulkAggregate) (dest[index])).append(ranks[index], 0,
+            counts[index]);
+      }
     }
   }
 
@@ -191,8 +513,8 @@ public final class RankingStrategy implements ISemanticComponent {
    *          {@code double[]} array in {@code data} at index {@code i}
    */
   public final void rank(final double[][] data, final IAggregate[] dest) {
-    final _RankedElement[] elements;
-    int index, size, arrayIndex;
+    final _Ranker ranker;
+    int size, arrayIndex;
 
     if (dest.length != data.length) {
       throw new IllegalArgumentException(//
@@ -204,15 +526,19 @@ public final class RankingStrategy implements ISemanticComponent {
       size += array.length;
     }
 
-    elements = new _RankedElement[size];
-    arrayIndex = index = (-1);
-    for (final double[] array : data) {
-      ++arrayIndex;
-      for (final double d : array) {
-        elements[++index] = this.m_nan._element(arrayIndex, d);
+    ranker = _Ranker._acquire(this.m_nan, size);
+    try {
+      arrayIndex = (-1);
+      for (final double[] array : data) {
+        ++arrayIndex;
+        for (final double d : array) {
+          ranker._add(d, arrayIndex);
+        }
       }
+      this.__rank(ranker, dest);
+    } finally {
+      ranker._release();
     }
-    this.__rank(elements, dest);
   }
 
   /**
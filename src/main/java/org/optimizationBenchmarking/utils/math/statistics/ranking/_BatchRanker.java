@@ -0,0 +1,97 @@
+package org.optimizationBenchmarking.utils.math.statistics.ranking;
+
+import java.util.concurrent.Callable;
+
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * A job ranking a range of rows or columns of a matrix. The ranks of
+ * element {@code k} of line {@code i} are stored at index
+ * {@code offset+(i*lineStride)+(k*elementStride)} of the destination
+ * array. Large matrices are divided into several such jobs, which are
+ * executed via {@link org.optimizationBenchmarking.utils.parallel.Execute},
+ * and each worker thread uses its own {@link _Ranker}.
+ */
+final class _BatchRanker implements Callable<Void> {
+
+  /** the minimum number of elements per job */
+  static final int TASK_ELEMENTS = (1 << 14);
+
+  /** the ranking strategy */
+  private final RankingStrategy m_strategy;
+
+  /** the matrix */
+  private final IMatrix m_matrix;
+
+  /** should columns be ranked instead of rows? */
+  private final boolean m_columns;
+
+  /** the destination array */
+  private final double[] m_dest;
+
+  /** the offset into the destination array */
+  private final int m_offset;
+
+  /** the distance between the ranks of two consecutive lines */
+  private final int m_lineStride;
+
+  /** the distance between the ranks of two consecutive elements */
+  private final int m_elementStride;
+
+  /** the first line */
+  private final int m_start;
+
+  /** the exclusive end line */
+  private final int m_end;
+
+  /**
+   * create
+   *
+   * @param strategy
+   *          the ranking strategy
+   * @param matrix
+   *          the matrix
+   * @param columns
+   *          should columns be ranked instead of rows?
+   * @param dest
+   *          the destination array
+   * @param offset
+   *          the offset into the destination array
+   * @param lineStride
+   *          the distance between the ranks of two consecutive lines
+   * @param elementStride
+   *          the distance between the ranks of two consecutive elements
+   * @param start
+   *          the first line
+   * @param end
+   *          the exclusive end line
+   */
+  _BatchRanker(final RankingStrategy strategy, final IMatrix matrix,
+      final boolean columns, final double[] dest, final int offset,
+      final int lineStride, final int elementStride, final int start,
+      final int end) {
+    super();
+    this.m_strategy = strategy;
+    this.m_matrix = matrix;
+    this.m_columns = columns;
+    this.m_dest = dest;
+    this.m_offset = offset;
+    this.m_lineStride = lineStride;
+    this.m_elementStride = elementStride;
+    this.m_start = start;
+    this.m_end = end;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final Void call() {
+    int line;
+
+    for (line = this.m_start; line < this.m_end; line++) {
+      this.m_strategy._rankLine(this.m_matrix, this.m_columns, line,
+          this.m_dest, (this.m_offset + (line * this.m_lineStride)),
+          this.m_elementStride);
+    }
+    return null;
+  }
+}
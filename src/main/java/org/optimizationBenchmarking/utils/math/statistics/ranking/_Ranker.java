@@ -0,0 +1,270 @@
+package org.optimizationBenchmarking.utils.math.statistics.ranking;
+
+/**
+ * The internal ranking engine: values are stored as primitive keys
+ * together with the index of their owner in reusable buffers, sorted
+ * with a stable merge sort, and ranked in a single sweep over the sorted
+ * keys. Each thread keeps one instance, so that ranking does not create
+ * any garbage once the buffers are large enough. Since the buffers need
+ * about 36 bytes per value, a thread does not keep buffers for more than
+ * {@link #MAX_RETAINED_CAPACITY} values after a ranking.
+ */
+final class _Ranker {
+
+  /** the rankers of the threads */
+  private static final ThreadLocal<_Ranker> RANKERS = new ThreadLocal<>();
+
+  /** the size below which we use insertion sort */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * the maximum number of values for which the buffers are kept after a
+   * ranking, which corresponds to about 2.3 MiB per thread
+   */
+  static final int MAX_RETAINED_CAPACITY = (1 << 16);
+
+  /** the empty {@code double} buffer */
+  private static final double[] EMPTY_DOUBLES = new double[0];
+
+  /** the empty {@code int} buffer */
+  private static final int[] EMPTY_INTS = new int[0];
+
+  /** the NaN strategy */
+  private ENaNStrategy m_nan;
+
+  /** the keys, sorted after ranking */
+  double[] m_keys;
+
+  /** the owner indexes, sorted according to the keys after ranking */
+  int[] m_owners;
+
+  /** the ranks, in the same order as the owners after ranking */
+  double[] m_ranks;
+
+  /** the temporary keys */
+  private double[] m_tempKeys;
+
+  /** the temporary owners */
+  private int[] m_tempOwners;
+
+  /** the owners of the NaN values which form a block of their own */
+  private int[] m_nanOwners;
+
+  /** the number of added values */
+  int m_size;
+
+  /** the number of NaN values which form a block of their own */
+  private int m_nanSize;
+
+  /** is this ranker currently in use? */
+  private boolean m_inUse;
+
+  /** create */
+  private _Ranker() {
+    super();
+    this.__clear();
+  }
+
+  /** drop the buffers */
+  private final void __clear() {
+    this.m_keys = this.m_tempKeys = this.m_ranks = _Ranker.EMPTY_DOUBLES;
+    this.m_owners = this.m_tempOwners = this.m_nanOwners = _Ranker.EMPTY_INTS;
+  }
+
+  /**
+   * Obtain a ranker and prepare it for the given number of values. The
+   * ranker must be {@linkplain #_release() released} after use.
+   *
+   * @param nan
+   *          the NaN strategy
+   * @param capacity
+   *          the number of values to be ranked
+   * @return the ranker
+   */
+  static final _Ranker _acquire(final ENaNStrategy nan,
+      final int capacity) {
+    _Ranker ranker;
+
+    ranker = _Ranker.RANKERS.get();
+    if (ranker == null) {
+      ranker = new _Ranker();
+      _Ranker.RANKERS.set(ranker);
+    } else {
+      if (ranker.m_inUse) {
+        // ranking from within a ranking, e.g., in an aggregate
+        ranker = new _Ranker();
+      }
+    }
+
+    ranker.m_inUse = true;
+    ranker.m_nan = nan;
+    ranker.m_size = ranker.m_nanSize = 0;
+    if (ranker.m_keys.length < capacity) {
+      ranker.m_keys = new double[capacity];
+      ranker.m_tempKeys = new double[capacity];
+      ranker.m_ranks = new double[capacity];
+      ranker.m_owners = new int[capacity];
+      ranker.m_tempOwners = new int[capacity];
+      ranker.m_nanOwners = new int[capacity];
+    }
+    return ranker;
+  }
+
+  /**
+   * Release this ranker. Buffers for more than
+   * {@link #MAX_RETAINED_CAPACITY} values are dropped, so that a single
+   * large ranking does not keep memory allocated for the lifetime of the
+   * thread.
+   */
+  final void _release() {
+    this.m_inUse = false;
+    if (this.m_keys.length > _Ranker.MAX_RETAINED_CAPACITY) {
+      this.__clear();
+    }
+  }
+
+  /**
+   * Add a value
+   *
+   * @param value
+   *          the value
+   * @param owner
+   *          the index of its owner
+   */
+  final void _add(final double value, final int owner) {
+    final double key;
+    final int size;
+
+    if (value != value) {
+      key = this.m_nan._nanKey();
+      if (key != key) {
+        this.m_nanOwners[this.m_nanSize++] = owner;
+        return;
+      }
+    } else {
+      key = (value + 0d); // -0d and 0d are the same when ranking
+    }
+
+    size = this.m_size++;
+    this.m_keys[size] = key;
+    this.m_owners[size] = owner;
+  }
+
+  /**
+   * Sort the range {@code [start, end)} of the keys and owners
+   *
+   * @param start
+   *          the start index
+   * @param end
+   *          the exclusive end index
+   */
+  private final void __sort(final int start, final int end) {
+    final double[] keys, tempKeys;
+    final int[] owners, tempOwners;
+    final int middle;
+    double key;
+    int owner, i, j, k;
+
+    keys = this.m_keys;
+    owners = this.m_owners;
+
+    if ((end - start) <= _Ranker.INSERTION_SORT_THRESHOLD) {
+      for (i = (start + 1); i < end; i++) {
+        key = keys[i];
+        owner = owners[i];
+        for (j = i; (j > start) && (keys[j - 1] > key); j--) {
+          keys[j] = keys[j - 1];
+          owners[j] = owners[j - 1];
+        }
+        keys[j] = key;
+        owners[j] = owner;
+      }
+      return;
+    }
+
+    middle = ((start + end) >>> 1);
+    this.__sort(start, middle);
+    this.__sort(middle, end);
+    if (keys[middle - 1] <= keys[middle]) {
+      return;// already in order
+    }
+
+    tempKeys = this.m_tempKeys;
+    tempOwners = this.m_tempOwners;
+    System.arraycopy(keys, start, tempKeys, start, (end - start));
+    System.arraycopy(owners, start, tempOwners, start, (end - start));
+    i = start;
+    j = middle;
+    for (k = start; k < end; k++) {
+      if ((j >= end) || ((i < middle) && (tempKeys[i] <= tempKeys[j]))) {
+        keys[k] = tempKeys[i];
+        owners[k] = tempOwners[i++];
+      } else {
+        keys[k] = tempKeys[j];
+        owners[k] = tempOwners[j++];
+      }
+    }
+  }
+
+  /**
+   * Sort the values and compute their ranks. Afterwards, the first
+   * {@link #m_size} elements of {@link #m_owners} and {@link #m_ranks}
+   * hold the owners and ranks of the values in ascending order of the
+   * values.
+   *
+   * @param ties
+   *          the tie strategy
+   */
+  final void _rank(final ETieStrategy ties) {
+    final double[] keys, ranks;
+    final int[] owners;
+    final int size;
+    int start, end, group, nanStart, index;
+    double key, rank;
+
+    this.__sort(0, this.m_size);
+
+    keys = this.m_keys;
+    owners = this.m_owners;
+    if (this.m_nanSize > 0) {
+      // the NaN values form one block of ties at the start or end
+      if (this.m_nan._isNaNFirst()) {
+        System.arraycopy(keys, 0, keys, this.m_nanSize, this.m_size);
+        System.arraycopy(owners, 0, owners, this.m_nanSize, this.m_size);
+        nanStart = 0;
+      } else {
+        nanStart = this.m_size;
+      }
+      System.arraycopy(this.m_nanOwners, 0, owners, nanStart,
+          this.m_nanSize);
+      for (index = (nanStart + this.m_nanSize); (--index) >= nanStart;) {
+        keys[index] = Double.NaN;
+      }
+      this.m_size += this.m_nanSize;
+    }
+
+    size = this.m_size;
+    ranks = this.m_ranks;
+    group = 0;
+    for (start = 0; start < size; start = end) {
+      key = keys[start];
+      if (key != key) {
+        for (end = (start + 1); (end < size)
+            && (keys[end] != keys[end]); end++) {
+          // find the end of the NaN block
+        }
+        rank = this.m_nan._nanRank(ties._rank(start, end, group));
+      } else {
+        for (end = (start + 1); (end < size)
+            && (keys[end] == key); end++) {
+          // find the end of the block of equal values
+        }
+        rank = ties._rank(start, end, group);
+      }
+      for (index = start; index < end; index++) {
+        ranks[index] = rank;
+      }
+      group++;
+    }
+  }
+}
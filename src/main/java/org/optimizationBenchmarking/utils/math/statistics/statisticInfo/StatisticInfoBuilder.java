@@ -1,19 +1,48 @@
 package org.optimizationBenchmarking.utils.math.statistics.statisticInfo;
 
-import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.NumericalTypes;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqrt;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.AbstractQuantileDataStore;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalMaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalMinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalQuantileDataStore;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalVarianceAggregate;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.InterQuantileRangeAggregate;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileDataStore;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.StandardDeviationAggregate;
 
-/** A builder for statistic info records. */
-public final class StatisticInfoBuilder implements IAggregate {
+/**
+ * A builder for statistic info records. An incremental builder also
+ * allows for {@linkplain #remove(double) removing} values again, e.g., to
+ * obtain the statistics over a sliding window, at the cost of slightly
+ * slower appending.
+ */
+public final class StatisticInfoBuilder implements IBulkAggregate {
 
-  /** the standard deviation aggregate */
+  /**
+   * the standard deviation aggregate, or {@code null} if the builder is
+   * incremental
+   */
   private final StandardDeviationAggregate m_stddev;
 
+  /** the incremental minimum, or {@code null} if not incremental */
+  private final IncrementalMinimumAggregate m_minimum;
+
+  /** the incremental maximum, or {@code null} if not incremental */
+  private final IncrementalMaximumAggregate m_maximum;
+
+  /** the incremental mean, or {@code null} if not incremental */
+  private final IncrementalArithmeticMeanAggregate m_mean;
+
+  /** the incremental variance, or {@code null} if not incremental */
+  private final IncrementalVarianceAggregate m_variance;
+
   /** the quantile data store */
-  private final QuantileDataStore m_quantileStore;
+  private final AbstractQuantileDataStore m_quantileStore;
 
   /** the inter-quantile range */
   private final InterQuantileRangeAggregate m_interQuantileRange;
@@ -35,9 +64,33 @@ public final class StatisticInfoBuilder implements IAggregate {
 
   /** create the builder */
   public StatisticInfoBuilder() {
+    this(false);
+  }
+
+  /**
+   * create the builder
+   *
+   * @param incremental
+   *          should the builder be incremental, i.e., allow for removing
+   *          values?
+   */
+  public StatisticInfoBuilder(final boolean incremental) {
     super();
-    this.m_stddev = new StandardDeviationAggregate();
-    this.m_quantileStore = new QuantileDataStore();
+    if (incremental) {
+      this.m_stddev = null;
+      this.m_minimum = new IncrementalMinimumAggregate();
+      this.m_maximum = new IncrementalMaximumAggregate();
+      this.m_mean = new IncrementalArithmeticMeanAggregate();
+      this.m_variance = new IncrementalVarianceAggregate();
+      this.m_quantileStore = new IncrementalQuantileDataStore();
+    } else {
+      this.m_stddev = new StandardDeviationAggregate();
+      this.m_minimum = null;
+      this.m_maximum = null;
+      this.m_mean = null;
+      this.m_variance = null;
+      this.m_quantileStore = new QuantileDataStore();
+    }
     this.m_interQuantileRange = new InterQuantileRangeAggregate(0.25,
         0.75d, this.m_quantileStore);
     this.m_q05 = new QuantileAggregate(0.05d, this.m_quantileStore);
@@ -50,51 +103,181 @@ public final class StatisticInfoBuilder implements IAggregate {
   /** {@inheritDoc} */
   @Override
   public final void append(final byte v) {
-    this.m_stddev.append(v);
-    this.m_quantileStore.append(v);
+    this.append((long) v);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void append(final short v) {
-    this.m_stddev.append(v);
-    this.m_quantileStore.append(v);
+    this.append((long) v);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void append(final int v) {
-    this.m_stddev.append(v);
-    this.m_quantileStore.append(v);
+    this.append((long) v);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void append(final long v) {
-    this.m_stddev.append(v);
+    if (this.m_stddev != null) {
+      this.m_stddev.append(v);
+    } else {
+      this.m_minimum.append(v);
+      this.m_maximum.append(v);
+      this.m_mean.append(v);
+      this.m_variance.append(v);
+    }
     this.m_quantileStore.append(v);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void append(final float v) {
-    this.m_stddev.append(v);
-    this.m_quantileStore.append(v);
+    this.append((double) v);
   }
 
   /** {@inheritDoc} */
   @Override
   public final void append(final double v) {
-    this.m_stddev.append(v);
+    if (this.m_stddev != null) {
+      this.m_stddev.append(v);
+    } else {
+      this.m_minimum.append(v);
+      this.m_maximum.append(v);
+      this.m_mean.append(v);
+      this.m_variance.append(v);
+    }
     this.m_quantileStore.append(v);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final long[] data, final int start,
+      final int end) {
+    if (this.m_stddev != null) {
+      this.m_stddev.append(data, start, end);
+    } else {
+      this.m_minimum.append(data, start, end);
+      this.m_maximum.append(data, start, end);
+      this.m_mean.append(data, start, end);
+      this.m_variance.append(data, start, end);
+    }
+    this.m_quantileStore.append(data, start, end);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void append(final double[] data, final int start,
+      final int end) {
+    if (this.m_stddev != null) {
+      this.m_stddev.append(data, start, end);
+    } else {
+      this.m_minimum.append(data, start, end);
+      this.m_maximum.append(data, start, end);
+      this.m_mean.append(data, start, end);
+      this.m_variance.append(data, start, end);
+    }
+    this.m_quantileStore.append(data, start, end);
+  }
+
+  /**
+   * Check whether values can be removed
+   *
+   * @throws IllegalStateException
+   *           if the builder is not incremental
+   */
+  private final void __checkIncremental() {
+    if (this.m_stddev != null) {
+      throw new IllegalStateException(//
+          "Values can only be removed from incremental statistic info builders."); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Remove a value which has previously been appended. This is only
+   * possible if the builder is incremental.
+   *
+   * @param v
+   *          the value
+   */
+  public final void remove(final long v) {
+    this.__checkIncremental();
+    this.m_minimum.remove(v);
+    this.m_maximum.remove(v);
+    this.m_mean.remove(v);
+    this.m_variance.remove(v);
+    this.m_quantileStore.remove(v);
+  }
+
+  /**
+   * Remove a value which has previously been appended. This is only
+   * possible if the builder is incremental.
+   *
+   * @param v
+   *          the value
+   */
+  public final void remove(final double v) {
+    this.__checkIncremental();
+    this.m_minimum.remove(v);
+    this.m_maximum.remove(v);
+    this.m_mean.remove(v);
+    this.m_variance.remove(v);
+    this.m_quantileStore.remove(v);
+  }
+
+  /**
+   * Compute the standard deviation from the incremental variance
+   *
+   * @return the standard deviation
+   */
+  private final Number __standardDeviation() {
+    final double value;
+
+    switch (this.m_variance.getState()) {
+      case BasicNumber.STATE_EMPTY: {
+        return null;
+      }
+      case BasicNumber.STATE_INTEGER:
+      case BasicNumber.STATE_DOUBLE: {
+        value = Sqrt.INSTANCE.computeAsDouble(//
+            this.m_variance.doubleValue());
+        if (NumericalTypes.isLong(value)) {
+          return Long.valueOf((long) value);
+        }
+        return Double.valueOf(value);
+      }
+      case BasicNumber.STATE_NAN: {
+        return Double.valueOf(Double.NaN);
+      }
+      default: {
+        return Double.valueOf(Double.POSITIVE_INFINITY);
+      }
+    }
+  }
+
   /**
    * Build the statistic info
    *
    * @return the statistic information record
    */
   public final StatisticInfo build() {
+    this.m_quantileStore.prepareQuantiles(0.05d, 0.25d, 0.5d, 0.75d,
+        0.95d);
+    if (this.m_stddev == null) {
+      return new StatisticInfo(//
+          this.m_mean.getCountValue(), //
+          this.m_minimum.toNumber(), //
+          this.m_maximum.toNumber(), //
+          this.m_mean.toNumber(), //
+          this.__standardDeviation(), //
+          this.m_median.toNumber(), //
+          this.m_interQuantileRange.toNumber(), this.m_q05.toNumber(), //
+          this.m_q25.toNumber(), //
+          this.m_q75.toNumber(), //
+          this.m_q95.toNumber());
+    }
     return new StatisticInfo(//
         this.m_stddev.getCountValue(), //
         this.m_stddev.getMinimum().toNumber(), //
@@ -0,0 +1,96 @@
+package examples.org.optimizationBenchmarking.utils.math.functions.compound;
+
+import org.optimizationBenchmarking.utils.math.functions.UnaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.compound.UnaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.text.CompoundFunctionParser;
+
+/**
+ * A small benchmark comparing the evaluation of parsed compound functions
+ * as function trees to their
+ * {@linkplain UnaryFunctionBuilder#compile(org.optimizationBenchmarking.utils.math.functions.MathematicalFunction)
+ * compiled} and to their
+ * {@linkplain UnaryFunctionBuilder#optimize(org.optimizationBenchmarking.utils.math.functions.MathematicalFunction)
+ * optimized} and compiled form. The formulas are those of the
+ * {@link examples.org.optimizationBenchmarking.utils.math.CompoundParserTest
+ * compound parser example}. For each formula and form, the best time over
+ * several repetitions of {@link #SIZE} evaluations is printed, together
+ * with a checksum which ensures that the work is not optimized away and
+ * which should be the same for all forms.
+ */
+public final class FunctionCompilerBenchmark {
+
+  /** the number of evaluations per measurement */
+  private static final int SIZE = 2000000;
+  /** the number of repetitions per measurement */
+  private static final int REPETITIONS = 15;
+
+  /** the formulas */
+  private static final String[] FORMULAS = { //
+      "5+4*3^0.333333333333333333333333333/7", //$NON-NLS-1$
+      "mul(5,sin(4)*ln 4)", //$NON-NLS-1$
+      "#1#+max[ln{5+-4*sin(45.3e-5-3)},-mul(2,1)]/|25*-1|-3*|-4|", //$NON-NLS-1$
+      "(5+4)*3", //$NON-NLS-1$
+      "sin 3.4*12+ln(45-tan 3)²", //$NON-NLS-1$
+      "#1#*#1#+3*#1#-ln(#1#+1)/(2+#1#)", //$NON-NLS-1$
+  };
+
+  /**
+   * The main function
+   *
+   * @param args
+   *          ignored
+   */
+  public static void main(final String[] args) {
+    final CompoundFunctionParser<UnaryFunction> parser;
+    final UnaryFunctionBuilder builder;
+    UnaryFunction tree;
+
+    parser = CompoundFunctionParser.getDefaultUnaryFunctionParser();
+    builder = UnaryFunctionBuilder.getInstance();
+
+    for (final String formula : FunctionCompilerBenchmark.FORMULAS) {
+      tree = parser.parseString(formula);
+      System.out.println(formula);
+      FunctionCompilerBenchmark.__measure("tree              ", tree); //$NON-NLS-1$
+      FunctionCompilerBenchmark.__measure("compiled          ", //$NON-NLS-1$
+          builder.compile(tree));
+      FunctionCompilerBenchmark.__measure("optimized+compiled", //$NON-NLS-1$
+          builder.compile(builder.optimize(tree)));
+      System.out.println();
+    }
+  }
+
+  /**
+   * Measure one function and print the results
+   *
+   * @param name
+   *          the name of the form of the function
+   * @param function
+   *          the function
+   */
+  private static final void __measure(final String name,
+      final UnaryFunction function) {
+    long best, time;
+    double checksum;
+    int repetition, index;
+
+    best = Long.MAX_VALUE;
+    checksum = 0d;
+    for (repetition = FunctionCompilerBenchmark.REPETITIONS; (--repetition) >= 0;) {
+      checksum = 0d;
+      time = System.nanoTime();
+      for (index = FunctionCompilerBenchmark.SIZE; (--index) >= 0;) {
+        checksum += function.computeAsDouble(index * 1e-3d);
+      }
+      time = (System.nanoTime() - time);
+
+      if (time < best) {
+        best = time;
+      }
+    }
+
+    System.out.println(name + '\t' + //
+        (best / ((double) (FunctionCompilerBenchmark.SIZE))) + "ns\t" + //$NON-NLS-1$
+        checksum);
+  }
+}
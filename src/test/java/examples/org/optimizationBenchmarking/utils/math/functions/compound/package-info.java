@@ -0,0 +1,6 @@
+/**
+ * Some manual examples and benchmarks for the
+ * {@link org.optimizationBenchmarking.utils.math.functions.compound
+ * compound functions}.
+ */
+package examples.org.optimizationBenchmarking.utils.math.functions.compound;
@@ -0,0 +1,164 @@
+package examples.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+
+/**
+ * A small benchmark comparing the ways in which a
+ * {@link org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder}
+ * can store the values appended to it: growing a single array of the
+ * narrowest type which fits so far, recording the values in fixed-size
+ * chunks and creating the narrowest array once in
+ * {@link org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder#make()},
+ * and an array allocated for the expected size. The data sets differ in
+ * how often the growing array needs to switch to a wider type. For each
+ * configuration, the best time over several repetitions of building a
+ * matrix with {@link #SIZE} elements is printed, together with the class
+ * of the matrix and a checksum which ensures that the work is not
+ * optimized away and which should be the same for all builders.
+ */
+public final class MatrixBuilderBenchmark {
+
+  /** the number of values */
+  private static final int SIZE = 10000000;
+  /** the number of repetitions per measurement */
+  private static final int REPETITIONS = 10;
+
+  /** the names of the data sets */
+  private static final String[] DATA = { "bytes   ", //$NON-NLS-1$
+      "ints    ", //$NON-NLS-1$
+      "widening", //$NON-NLS-1$
+      "doubles ", //$NON-NLS-1$
+  };
+
+  /** the names of the builders */
+  private static final String[] BUILDERS = { "growing ", //$NON-NLS-1$
+      "chunked ", //$NON-NLS-1$
+      "presized", //$NON-NLS-1$
+  };
+
+  /**
+   * The main function
+   *
+   * @param args
+   *          ignored
+   */
+  public static void main(final String[] args) {
+    final Random random;
+    final long[] longs;
+    final double[] doubles;
+    int data, builder, index, split;
+
+    random = new Random(12345L);
+    longs = new long[MatrixBuilderBenchmark.SIZE];
+    doubles = new double[MatrixBuilderBenchmark.SIZE];
+
+    for (data = 0; data < MatrixBuilderBenchmark.DATA.length; data++) {
+      split = MatrixBuilderBenchmark.SIZE;
+      switch (data) {
+        case 0: {// only small integers: no widening at all
+          for (index = longs.length; (--index) >= 0;) {
+            longs[index] = random.nextInt(100);
+          }
+          break;
+        }
+        case 1: {// large integers right from the start
+          for (index = longs.length; (--index) >= 0;) {
+            longs[index] = random.nextInt();
+          }
+          break;
+        }
+        case 2: {// growing integers followed by doubles: many widenings
+          split = ((3 * MatrixBuilderBenchmark.SIZE) >>> 2);
+          for (index = 0; index < split; index++) {
+            longs[index] = (random.nextInt(1 + (index >>> 8))
+                * (1L + (index >>> 16)));
+          }
+          for (; index < doubles.length; index++) {
+            doubles[index] = (random.nextDouble() * index);
+          }
+          break;
+        }
+        default: {// only doubles
+          split = 0;
+          for (index = doubles.length; (--index) >= 0;) {
+            doubles[index] = random.nextGaussian();
+          }
+        }
+      }
+
+      for (builder = 0; builder < MatrixBuilderBenchmark.BUILDERS.length; builder++) {
+        MatrixBuilderBenchmark.__measure(data, builder, longs, doubles,
+            split);
+      }
+    }
+  }
+
+  /**
+   * Measure one configuration and print the results
+   *
+   * @param data
+   *          the index of the data set
+   * @param builder
+   *          the index of the builder type
+   * @param longs
+   *          the {@code long} values
+   * @param doubles
+   *          the {@code double} values
+   * @param split
+   *          the index of the first value which is taken from
+   *          {@code doubles} instead of {@code longs}
+   */
+  private static final void __measure(final int data, final int builder,
+      final long[] longs, final double[] doubles, final int split) {
+    MatrixBuilder matrix;
+    IMatrix result;
+    String type;
+    long best, time;
+    double checksum;
+    int repetition, index;
+
+    best = Long.MAX_VALUE;
+    checksum = 0d;
+    type = null;
+    for (repetition = MatrixBuilderBenchmark.REPETITIONS; (--repetition) >= 0;) {
+      time = System.nanoTime();
+      switch (builder) {
+        case 0: {
+          matrix = new MatrixBuilder();
+          break;
+        }
+        case 1: {
+          matrix = new MatrixBuilder(true);
+          break;
+        }
+        default: {
+          matrix = new MatrixBuilder(MatrixBuilderBenchmark.SIZE);
+        }
+      }
+
+      for (index = 0; index < split; index++) {
+        matrix.append(longs[index]);
+      }
+      for (; index < MatrixBuilderBenchmark.SIZE; index++) {
+        matrix.append(doubles[index]);
+      }
+      matrix.setN(1);
+      result = matrix.make();
+      checksum = result.getDouble((MatrixBuilderBenchmark.SIZE >>> 1), 0);
+      time = (System.nanoTime() - time);
+
+      if (time < best) {
+        best = time;
+      }
+      type = result.getClass().getSimpleName();
+    }
+
+    System.out.println(MatrixBuilderBenchmark.DATA[data] + '\t' + //
+        MatrixBuilderBenchmark.BUILDERS[builder] + '\t' + //
+        (best / 1000000d) + "ms\t" + //$NON-NLS-1$
+        type + '\t' + checksum);
+  }
+}
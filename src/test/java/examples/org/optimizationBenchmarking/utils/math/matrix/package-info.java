@@ -0,0 +1,5 @@
+/**
+ * Some manual examples for the usage of the
+ * {@link org.optimizationBenchmarking.utils.math.matrix matrix utils}.
+ */
+package examples.org.optimizationBenchmarking.utils.math.matrix;
@@ -0,0 +1,381 @@
+package examples.org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.collections.visitors.IVisitor;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationDirection;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationEngine;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EMissingValueMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState;
+
+/**
+ * A small benchmark for the matrix iteration on data with skewed row
+ * densities: A few dense runs with long stretches of rows sharing the
+ * same {@code x} coordinate (as, e.g., many log points recorded within
+ * the same millisecond) are mixed with many sparse runs. The benchmark
+ * covers the same dimensions as the {@code MatrixIteration2DTest}
+ * scenarios, i.e., {@code long} and {@code double} data, both iteration
+ * directions, and both iteration modes, and measures them with each
+ * {@link EIterationEngine}. Besides the runtime, it prints how often the
+ * {@code x} coordinates of the dense runs were read per row: Walking over
+ * the rows one by one needs at least one read per row, while the
+ * galloping search needs far less than that. Finally, the benchmark
+ * compares iterating over a few matrices with a million rows each when
+ * they are backed by arrays, which are read directly, to iterating over
+ * the same data wrapped in a view, which is read via the {@link IMatrix}
+ * interface.
+ */
+public final class MatrixIteration2DBenchmark {
+
+  /** the number of dense runs */
+  private static final int DENSE_RUNS = 4;
+  /** the number of rows in a dense run */
+  private static final int DENSE_ROWS = 500000;
+  /** the average number of rows sharing an x coordinate in a dense run */
+  private static final int DENSE_STRETCH = 5000;
+  /** the number of sparse runs */
+  private static final int SPARSE_RUNS = 200;
+  /** the number of rows in a sparse run */
+  private static final int SPARSE_ROWS = 10;
+  /** the number of repetitions per measurement */
+  private static final int REPETITIONS = 10;
+  /** the number of matrices in the megarow comparison */
+  private static final int MEGAROW_MATRICES = 8;
+  /** the number of rows per matrix in the megarow comparison */
+  private static final int MEGAROW_ROWS = 1000000;
+
+  /**
+   * The main function
+   *
+   * @param args
+   *          ignored
+   */
+  public static void main(final String[] args) {
+    final Random random;
+    __CountingMatrix[] matrices;
+
+    random = new Random(12345L);
+
+    for (final boolean isInteger : new boolean[] { true, false }) {
+      for (final EIterationDirection direction : EIterationDirection
+          .values()) {
+        matrices = MatrixIteration2DBenchmark.__makeMatrices(random,
+            isInteger, direction);
+        for (final EIterationMode mode : EIterationMode.values()) {
+          for (final EIterationEngine engine : EIterationEngine.values()) {
+            MatrixIteration2DBenchmark.__measure(matrices, isInteger,
+                direction, mode, engine);
+          }
+        }
+      }
+    }
+
+    for (final boolean isInteger : new boolean[] { true, false }) {
+      MatrixIteration2DBenchmark.__measureMegarows(random, isInteger);
+    }
+  }
+
+  /**
+   * Compare the iteration over array-backed matrices with a million rows
+   * each to the iteration over the same data wrapped into views
+   *
+   * @param random
+   *          the random number generator
+   * @param isInteger
+   *          is the data integer?
+   */
+  private static final void __measureMegarows(final Random random,
+      final boolean isInteger) {
+    final IMatrix[] arrays;
+    final __CountingMatrix[] views;
+    final __Visitor visitor;
+    final MatrixIteration2DBuilder builder;
+    long best, time;
+    int repetition, index;
+
+    arrays = new IMatrix[MatrixIteration2DBenchmark.MEGAROW_MATRICES];
+    views = new __CountingMatrix[arrays.length];
+    for (index = arrays.length; (--index) >= 0;) {
+      arrays[index] = MatrixIteration2DBenchmark.__makeMatrix(random,
+          isInteger, EIterationDirection.INCREASING,
+          MatrixIteration2DBenchmark.MEGAROW_ROWS, 2, 10);
+      views[index] = new __CountingMatrix(arrays[index]);
+    }
+
+    visitor = new __Visitor();
+    builder = new MatrixIteration2DBuilder();
+    builder.setXDimension(0);
+    builder.setYDimension(1);
+    builder.setXDirection(EIterationDirection.INCREASING);
+    builder.setIterationMode(EIterationMode.KEEP_PREVIOUS);
+    builder.setStartMode(EMissingValueMode.SKIP);
+    builder.setEndMode(EMissingValueMode.USE_ITERATION_MODE);
+    builder.setVisitor(visitor);
+
+    for (final EIterationEngine engine : EIterationEngine.values()) {
+      builder.setIterationEngine(engine);
+      for (final boolean useViews : new boolean[] { false, true }) {
+        builder.setMatrices(useViews ? views : arrays);
+        best = Long.MAX_VALUE;
+        for (repetition = MatrixIteration2DBenchmark.REPETITIONS; (--repetition) >= 0;) {
+          time = System.nanoTime();
+          builder.create().run();
+          time = (System.nanoTime() - time);
+          if (time < best) {
+            best = time;
+          }
+        }
+
+        System.out.println((isInteger ? "long  " : "double") + //$NON-NLS-1$//$NON-NLS-2$
+            '\t' + engine + '\t' + //
+            (useViews ? "views " : "arrays") + '\t' + //$NON-NLS-1$//$NON-NLS-2$
+            (best / 1000000d) + "ms\t" + //$NON-NLS-1$
+            visitor.m_checksum);
+      }
+    }
+  }
+
+  /**
+   * Measure one configuration and print the results
+   *
+   * @param matrices
+   *          the matrices, starting with the dense runs
+   * @param isInteger
+   *          is the data integer?
+   * @param direction
+   *          the iteration direction
+   * @param mode
+   *          the iteration mode
+   * @param engine
+   *          the iteration engine
+   */
+  private static final void __measure(final __CountingMatrix[] matrices,
+      final boolean isInteger,
+      final EIterationDirection direction, final EIterationMode mode,
+      final EIterationEngine engine) {
+    final MatrixIteration2DBuilder builder;
+    final __Visitor visitor;
+    long best, time, reads;
+    int repetition, index;
+
+    visitor = new __Visitor();
+    builder = new MatrixIteration2DBuilder();
+    builder.setMatrices(matrices);
+    builder.setXDimension(0);
+    builder.setYDimension(1);
+    builder.setXDirection(direction);
+    builder.setIterationMode(mode);
+    builder.setIterationEngine(engine);
+    if (mode == EIterationMode.KEEP_PREVIOUS) {
+      builder.setStartMode(EMissingValueMode.SKIP);
+      builder.setEndMode(EMissingValueMode.USE_ITERATION_MODE);
+    } else {
+      builder.setStartMode(EMissingValueMode.USE_ITERATION_MODE);
+      builder.setEndMode(EMissingValueMode.SKIP);
+    }
+    builder.setVisitor(visitor);
+
+    best = Long.MAX_VALUE;
+    reads = 0L;
+    for (repetition = MatrixIteration2DBenchmark.REPETITIONS; (--repetition) >= 0;) {
+      for (final __CountingMatrix matrix : matrices) {
+        matrix.m_reads = 0L;
+      }
+      time = System.nanoTime();
+      builder.create().run();
+      time = (System.nanoTime() - time);
+      if (time < best) {
+        best = time;
+      }
+      reads = 0L;
+      for (index = MatrixIteration2DBenchmark.DENSE_RUNS; (--index) >= 0;) {
+        reads += matrices[index].m_reads;
+      }
+    }
+
+    System.out.println((isInteger ? "long  " : "double") + //$NON-NLS-1$//$NON-NLS-2$
+        '\t' + direction + '\t' + mode + '\t' + engine + '\t' + //
+        (best / 1000000d) + "ms\t" + //$NON-NLS-1$
+        (reads / ((double) (MatrixIteration2DBenchmark.DENSE_RUNS
+            * MatrixIteration2DBenchmark.DENSE_ROWS)))
+        + " x-reads/dense row\t" + //$NON-NLS-1$
+        visitor.m_checksum);
+  }
+
+  /**
+   * Create the skewed set of matrices
+   *
+   * @param random
+   *          the random number generator
+   * @param isInteger
+   *          should the data be integer?
+   * @param direction
+   *          the iteration direction
+   * @return the matrices
+   */
+  private static final __CountingMatrix[] __makeMatrices(
+      final Random random, final boolean isInteger,
+      final EIterationDirection direction) {
+    final __CountingMatrix[] matrices;
+    int index;
+
+    matrices = new __CountingMatrix[MatrixIteration2DBenchmark.DENSE_RUNS
+        + MatrixIteration2DBenchmark.SPARSE_RUNS];
+    index = 0;
+    for (; index < MatrixIteration2DBenchmark.DENSE_RUNS; index++) {
+      matrices[index] = new __CountingMatrix(
+          MatrixIteration2DBenchmark.__makeMatrix(random, isInteger,
+              direction, MatrixIteration2DBenchmark.DENSE_ROWS,
+              MatrixIteration2DBenchmark.DENSE_STRETCH, 100));
+    }
+    for (; index < matrices.length; index++) {
+      matrices[index] = new __CountingMatrix(
+          MatrixIteration2DBenchmark.__makeMatrix(random, isInteger,
+              direction, MatrixIteration2DBenchmark.SPARSE_ROWS, 1,
+              10000));
+    }
+    return matrices;
+  }
+
+  /**
+   * Create a matrix whose {@code x} coordinates advance with probability
+   * {@code 1/stretch} per row by at most {@code maxStep} and whose
+   * {@code y} coordinates improve monotonically
+   *
+   * @param random
+   *          the random number generator
+   * @param isInteger
+   *          should the data be integer?
+   * @param direction
+   *          the iteration direction
+   * @param rows
+   *          the number of rows
+   * @param stretch
+   *          the average number of rows sharing the same {@code x}
+   *          coordinate
+   * @param maxStep
+   *          the maximum step width of the {@code x} coordinates
+   * @return the matrix
+   */
+  private static final IMatrix __makeMatrix(final Random random,
+      final boolean isInteger, final EIterationDirection direction,
+      final int rows, final int stretch, final int maxStep) {
+    final long[] longs;
+    final double[] doubles;
+    final int sign;
+    long x, y;
+    int row;
+
+    sign = ((direction == EIterationDirection.INCREASING) ? 1 : (-1));
+    longs = (isInteger ? new long[rows << 1] : null);
+    doubles = (isInteger ? null : new double[rows << 1]);
+    x = random.nextInt(100);
+    y = 1000000000L;
+    for (row = 0; row < rows; row++) {
+      if (random.nextInt(stretch) <= 0) {
+        x += (1 + random.nextInt(maxStep));
+      }
+      y -= random.nextInt(1000);
+      if (isInteger) {
+        longs[row << 1] = (sign * x);
+        longs[(row << 1) + 1] = y;
+      } else {
+        doubles[row << 1] = (sign * (x * 0.5d));
+        doubles[(row << 1) + 1] = (y * 0.5d);
+      }
+    }
+
+    return (isInteger ? //
+        new LongMatrix1D(longs, rows, 2) : //
+        new DoubleMatrix1D(doubles, rows, 2));
+  }
+
+  /** a matrix which counts how often its elements are accessed */
+  private static final class __CountingMatrix extends AbstractMatrix {
+
+    /** the wrapped matrix */
+    private final IMatrix m_matrix;
+
+    /** the number of reads */
+    long m_reads;
+
+    /**
+     * create
+     *
+     * @param matrix
+     *          the wrapped matrix
+     */
+    __CountingMatrix(final IMatrix matrix) {
+      super();
+      this.m_matrix = matrix;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int m() {
+      return this.m_matrix.m();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int n() {
+      return this.m_matrix.n();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isIntegerMatrix() {
+      return this.m_matrix.isIntegerMatrix();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final int row, final int column) {
+      if (column == 0) {
+        this.m_reads++;
+      }
+      return this.m_matrix.getDouble(row, column);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final int row, final int column) {
+      if (column == 0) {
+        this.m_reads++;
+      }
+      return this.m_matrix.getLong(row, column);
+    }
+  }
+
+  /** the visitor computing a checksum */
+  private static final class __Visitor
+      implements IVisitor<MatrixIteration2DState> {
+
+    /** the checksum */
+    double m_checksum;
+
+    /** create */
+    __Visitor() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean visit(final MatrixIteration2DState state) {
+      final AbstractMatrix y;
+      int index;
+
+      y = state.getY();
+      for (index = y.n(); (--index) >= 0;) {
+        this.m_checksum += y.getDouble(0, index);
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,6 @@
+/**
+ * Some manual examples and benchmarks for the
+ * {@link org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DBuilder
+ * matrix iteration}.
+ */
+package examples.org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
@@ -0,0 +1,6 @@
+/**
+ * Some manual examples for the usage of the
+ * {@link org.optimizationBenchmarking.utils.math.matrix.processing matrix
+ * processing utils}.
+ */
+package examples.org.optimizationBenchmarking.utils.math.matrix.processing;
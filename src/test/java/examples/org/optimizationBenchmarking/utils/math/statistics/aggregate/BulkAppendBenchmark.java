@@ -0,0 +1,342 @@
+package examples.org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuickStableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+import org.optimizationBenchmarking.utils.math.statistics.statisticInfo.StatisticInfoBuilder;
+
+/**
+ * A small benchmark comparing the throughput of appending values one by
+ * one to the throughput of appending them in slices via the
+ * {@link IBulkAggregate} interface, for several aggregates and for both
+ * {@code long} and {@code double} data. The values are appended in slices
+ * of {@link #SLICE} elements, as done, e.g., when aggregating a matrix
+ * column. For each configuration, the best time over several repetitions
+ * is printed, together with a checksum which ensures that the work is not
+ * optimized away and which should be the same for both ways of appending.
+ */
+public final class BulkAppendBenchmark {
+
+  /** the number of values */
+  private static final int SIZE = 4000000;
+  /** the size of a slice */
+  private static final int SLICE = 1024;
+  /** the number of repetitions per measurement */
+  private static final int REPETITIONS = 15;
+
+  /**
+   * The main function
+   *
+   * @param args
+   *          ignored
+   */
+  public static void main(final String[] args) {
+    final Random random;
+    final long[] longs;
+    final double[] doubles;
+    int index;
+
+    random = new Random(12345L);
+    longs = new long[BulkAppendBenchmark.SIZE];
+    doubles = new double[BulkAppendBenchmark.SIZE];
+    for (index = longs.length; (--index) >= 0;) {
+      longs[index] = (random.nextInt(2000001) - 1000000);
+      doubles[index] = (random.nextGaussian() * 1000d);
+    }
+
+    for (final __Factory factory : new __Factory[] { //
+        new __StableSum(), new __QuickStableSum(), new __Minimum(),
+        new __ArithmeticMean(), new __Median(), new __MatrixBuilder(),
+        new __StatisticInfo() }) {
+      for (final boolean bulk : new boolean[] { false, true }) {
+        BulkAppendBenchmark.__measure(factory, longs, null, bulk);
+      }
+      for (final boolean bulk : new boolean[] { false, true }) {
+        BulkAppendBenchmark.__measure(factory, null, doubles, bulk);
+      }
+    }
+  }
+
+  /**
+   * Measure one configuration and print the results
+   *
+   * @param factory
+   *          the aggregate factory
+   * @param longs
+   *          the {@code long} data, or {@code null} to use the
+   *          {@code double} data
+   * @param doubles
+   *          the {@code double} data
+   * @param bulk
+   *          should we append in slices?
+   */
+  private static final void __measure(final __Factory factory,
+      final long[] longs, final double[] doubles, final boolean bulk) {
+    IBulkAggregate aggregate;
+    IAggregate single;
+    long best, time;
+    double checksum;
+    int repetition, index, end;
+
+    best = Long.MAX_VALUE;
+    checksum = 0d;
+    for (repetition = BulkAppendBenchmark.REPETITIONS; (--repetition) >= 0;) {
+      aggregate = factory._create();
+      single = aggregate;
+
+      time = System.nanoTime();
+      if (longs != null) {
+        if (bulk) {
+          for (index = 0; index < longs.length; index = end) {
+            end = Math.min(longs.length,
+                (index + BulkAppendBenchmark.SLICE));
+            aggregate.append(longs, index, end);
+          }
+        } else {
+          for (final long value : longs) {
+            single.append(value);
+          }
+        }
+      } else {
+        if (bulk) {
+          for (index = 0; index < doubles.length; index = end) {
+            end = Math.min(doubles.length,
+                (index + BulkAppendBenchmark.SLICE));
+            aggregate.append(doubles, index, end);
+          }
+        } else {
+          for (final double value : doubles) {
+            single.append(value);
+          }
+        }
+      }
+      checksum = factory._result(aggregate);
+      time = (System.nanoTime() - time);
+
+      if (time < best) {
+        best = time;
+      }
+    }
+
+    System.out.println(factory.toString() + '\t' + //
+        ((longs != null) ? "long  " : "double") + '\t' + //$NON-NLS-1$//$NON-NLS-2$
+        (bulk ? "bulk  " : "single") + '\t' + //$NON-NLS-1$//$NON-NLS-2$
+        (best / 1000000d) + "ms\t" + //$NON-NLS-1$
+        checksum);
+  }
+
+  /** the factory for aggregates */
+  private static abstract class __Factory {
+
+    /** create */
+    __Factory() {
+      super();
+    }
+
+    /**
+     * create the aggregate
+     *
+     * @return the aggregate
+     */
+    abstract IBulkAggregate _create();
+
+    /**
+     * obtain the result of the aggregate
+     *
+     * @param aggregate
+     *          the aggregate
+     * @return the result
+     */
+    abstract double _result(final IBulkAggregate aggregate);
+  }
+
+  /** the stable sum */
+  private static final class __StableSum extends __Factory {
+    /** create */
+    __StableSum() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new StableSum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((StableSum) aggregate).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "StableSum      "; //$NON-NLS-1$
+    }
+  }
+
+  /** the quick stable sum */
+  private static final class __QuickStableSum extends __Factory {
+    /** create */
+    __QuickStableSum() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new QuickStableSum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((QuickStableSum) aggregate).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "QuickStableSum "; //$NON-NLS-1$
+    }
+  }
+
+  /** the minimum */
+  private static final class __Minimum extends __Factory {
+    /** create */
+    __Minimum() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new MinimumAggregate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((MinimumAggregate) aggregate).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "Minimum        "; //$NON-NLS-1$
+    }
+  }
+
+  /** the arithmetic mean */
+  private static final class __ArithmeticMean extends __Factory {
+    /** create */
+    __ArithmeticMean() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new ArithmeticMeanAggregate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((ArithmeticMeanAggregate) aggregate).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "ArithmeticMean "; //$NON-NLS-1$
+    }
+  }
+
+  /** the median */
+  private static final class __Median extends __Factory {
+    /** create */
+    __Median() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new QuantileAggregate(0.5d);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((QuantileAggregate) aggregate).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "Median         "; //$NON-NLS-1$
+    }
+  }
+
+  /** the matrix builder */
+  private static final class __MatrixBuilder extends __Factory {
+    /** create */
+    __MatrixBuilder() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new MatrixBuilder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((MatrixBuilder) aggregate).make().getDouble(0, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "MatrixBuilder  "; //$NON-NLS-1$
+    }
+  }
+
+  /** the statistic info builder */
+  private static final class __StatisticInfo extends __Factory {
+    /** create */
+    __StatisticInfo() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final IBulkAggregate _create() {
+      return new StatisticInfoBuilder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    final double _result(final IBulkAggregate aggregate) {
+      return ((StatisticInfoBuilder) aggregate).build().getMedian()
+          .doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "StatisticInfo  "; //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,6 @@
+/**
+ * Some manual examples and benchmarks for the
+ * {@link org.optimizationBenchmarking.utils.math.statistics statistics}
+ * utilities.
+ */
+package examples.org.optimizationBenchmarking.utils.math.statistics;
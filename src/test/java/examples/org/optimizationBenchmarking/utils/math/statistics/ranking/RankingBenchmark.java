@@ -0,0 +1,176 @@
+package examples.org.optimizationBenchmarking.utils.math.statistics.ranking;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.math.statistics.ranking.ENaNStrategy;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.ETieStrategy;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.RankingStrategy;
+
+/**
+ * A small benchmark comparing the
+ * {@link org.optimizationBenchmarking.utils.math.statistics.ranking.RankingStrategy
+ * ranking strategy}, which ranks primitive keys in reusable per-thread
+ * buffers, to the object-based way of ranking it replaced: one element
+ * object per value, sorted with {@link java.util.Arrays#sort(Object[])},
+ * followed by a sweep assigning the ranks. The object-based ranking is
+ * re-implemented here for {@link ETieStrategy#AVERAGE average} ranks of
+ * data without {@code NaN}s. About a third of the values are tied. For
+ * each array length, the best time per ranked value over several
+ * repetitions is printed, together with a checksum which ensures that the
+ * work is not optimized away and which should be the same for both ways
+ * of ranking.
+ */
+public final class RankingBenchmark {
+
+  /** the number of values ranked per repetition */
+  private static final int TOTAL = 10000000;
+  /** the number of repetitions per measurement */
+  private static final int REPETITIONS = 10;
+  /** the array lengths */
+  private static final int[] LENGTHS = { 100, 10000, 1000000 };
+
+  /**
+   * The main function
+   *
+   * @param args
+   *          ignored
+   */
+  public static void main(final String[] args) {
+    final Random random;
+    final RankingStrategy strategy;
+    double[] data;
+    int index;
+
+    random = new Random(12345L);
+    strategy = new RankingStrategy(ENaNStrategy.DEFAULT,
+        ETieStrategy.AVERAGE);
+
+    for (final int length : RankingBenchmark.LENGTHS) {
+      data = new double[length];
+      for (index = length; (--index) >= 0;) {
+        data[index] = (((index % 3) == 0) ? random.nextInt(length / 10)
+            : random.nextGaussian());
+      }
+      for (final boolean objects : new boolean[] { true, false }) {
+        RankingBenchmark.__measure(strategy, data, objects);
+      }
+    }
+  }
+
+  /**
+   * Measure one configuration and print the results
+   *
+   * @param strategy
+   *          the ranking strategy
+   * @param data
+   *          the data to rank
+   * @param objects
+   *          should we use the object-based ranking?
+   */
+  private static final void __measure(final RankingStrategy strategy,
+      final double[] data, final boolean objects) {
+    final double[] dest;
+    final int loops;
+    long best, time;
+    double checksum;
+    int repetition, loop;
+
+    dest = new double[data.length];
+    loops = Math.max(1, (RankingBenchmark.TOTAL / data.length));
+    best = Long.MAX_VALUE;
+    checksum = 0d;
+    for (repetition = RankingBenchmark.REPETITIONS; (--repetition) >= 0;) {
+      checksum = 0d;
+      time = System.nanoTime();
+      for (loop = loops; (--loop) >= 0;) {
+        if (objects) {
+          RankingBenchmark.__rankObjects(data, dest);
+        } else {
+          strategy.rank(data, dest);
+        }
+        checksum += dest[loop % dest.length];
+      }
+      time = (System.nanoTime() - time);
+
+      if (time < best) {
+        best = time;
+      }
+    }
+
+    System.out.println(data.length + "\t" + //$NON-NLS-1$
+        (objects ? "objects   " : "primitives") + '\t' + //$NON-NLS-1$//$NON-NLS-2$
+        (best / ((double) (loops * ((long) (data.length))))) + "ns\t" + //$NON-NLS-1$
+        checksum);
+  }
+
+  /**
+   * Rank the data by creating one element object per value, sorting the
+   * elements, and assigning average ranks to groups of equal values.
+   *
+   * @param data
+   *          the data
+   * @param dest
+   *          the destination array
+   */
+  private static final void __rankObjects(final double[] data,
+      final double[] dest) {
+    final __Element[] elements;
+    double rank;
+    int start, end, index;
+
+    elements = new __Element[data.length];
+    for (index = data.length; (--index) >= 0;) {
+      elements[index] = new __Element(index, data[index]);
+    }
+    Arrays.sort(elements);
+
+    for (start = 0; start < elements.length; start = end) {
+      for (end = (start + 1); (end < elements.length)
+          && (elements[end].m_value == elements[start].m_value); end++) {
+        // find the end of the block of equal values
+      }
+      rank = (0.5d * (start + 1 + end));
+      for (index = start; index < end; index++) {
+        elements[index].m_rank = rank;
+      }
+    }
+
+    for (final __Element element : elements) {
+      dest[element.m_index] = element.m_rank;
+    }
+  }
+
+  /** a ranked element */
+  private static final class __Element implements Comparable<__Element> {
+
+    /** the index of the original value */
+    final int m_index;
+
+    /** the original value */
+    final double m_value;
+
+    /** the rank this element received */
+    double m_rank;
+
+    /**
+     * create
+     *
+     * @param index
+     *          the index of the original value
+     * @param value
+     *          the original value
+     */
+    __Element(final int index, final double value) {
+      super();
+      this.m_index = index;
+      this.m_value = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final int compareTo(final __Element o) {
+      return Double.compare(this.m_value, o.m_value);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package test.junit.org.optimizationBenchmarking.utils.math.functions.compound;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.functions.BinaryFunction;
+import org.optimizationBenchmarking.utils.ICloneable;
+import org.optimizationBenchmarking.utils.math.functions.MathematicalFunction;
+import org.optimizationBenchmarking.utils.math.functions.QuaternaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.UnaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Add;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Max;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Min;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Mul;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Negate;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Sub;
+import org.optimizationBenchmarking.utils.math.functions.compound.BinaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.compound.FunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.compound.QuaternaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.compound.UnaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.power.Cube;
+import org.optimizationBenchmarking.utils.math.functions.power.Exp;
+import org.optimizationBenchmarking.utils.math.functions.power.Ln;
+import org.optimizationBenchmarking.utils.math.functions.power.Pow;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqr;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqrt;
+
+/**
+ * Test that compiled compound functions compute exactly the same results
+ * as the function trees they were compiled from.
+ */
+public class FunctionCompilerTest {
+
+  /** the seed of the random number generators */
+  private static final long SEED = 7331L;
+
+  /** the unary functions to use */
+  private static final UnaryFunction[] UNARY = { Negate.INSTANCE,
+      Absolute.INSTANCE, Sqr.INSTANCE, Cube.INSTANCE, Sqrt.INSTANCE,
+      Exp.INSTANCE, Ln.INSTANCE, };
+
+  /** the binary functions to use */
+  private static final BinaryFunction[] BINARY = { Add.INSTANCE,
+      Sub.INSTANCE, Mul.INSTANCE, Div.INSTANCE, Max.INSTANCE,
+      Min.INSTANCE, Pow.INSTANCE, };
+
+  /** create */
+  public FunctionCompilerTest() {
+    super();
+  }
+
+  /**
+   * create a random value
+   *
+   * @param rand
+   *          the random number generator
+   * @return the value
+   */
+  private static final double __value(final Random rand) {
+    switch (rand.nextInt(5)) {
+      case 0: {
+        return (rand.nextBoolean() ? 0d : -0d);
+      }
+      case 1: {
+        return (rand.nextInt(21) - 10);
+      }
+      case 2: {
+        return (rand.nextBoolean() ? Long.MAX_VALUE : Long.MIN_VALUE);
+      }
+      default: {
+        return (rand.nextGaussian() * 10d);
+      }
+    }
+  }
+
+  /**
+   * create a random function
+   *
+   * @param builder
+   *          the function builder
+   * @param rand
+   *          the random number generator
+   * @param depth
+   *          the maximum depth
+   * @return the function
+   */
+  private static final <T extends MathematicalFunction> T __function(
+      final FunctionBuilder<T> builder, final Random rand,
+      final int depth) {
+    switch ((depth <= 0) ? rand.nextInt(2) : rand.nextInt(6)) {
+      case 0: {
+        return builder.parameter(rand.nextInt(builder.getFunctionArity()));
+      }
+      case 1: {
+        return builder.constant(FunctionCompilerTest.__value(rand));
+      }
+      case 2: {
+        return builder.compound(
+            FunctionCompilerTest.UNARY[rand
+                .nextInt(FunctionCompilerTest.UNARY.length)],
+            FunctionCompilerTest.__function(builder, rand, (depth - 1)));
+      }
+      default: {
+        return builder.compound(
+            FunctionCompilerTest.BINARY[rand
+                .nextInt(FunctionCompilerTest.BINARY.length)],
+            FunctionCompilerTest.__function(builder, rand, (depth - 1)),
+            FunctionCompilerTest.__function(builder, rand, (depth - 1)));
+      }
+    }
+  }
+
+  /**
+   * Assert that two doubles are exactly the same, including the sign of
+   * zeros
+   *
+   * @param message
+   *          the message identifying the failed case
+   * @param expected
+   *          the expected value
+   * @param actual
+   *          the actual value
+   */
+  private static final void __assertSame(final String message,
+      final double expected, final double actual) {
+    Assert.assertEquals(((((message + ": expected ") + expected) + //$NON-NLS-1$
+        " but was ") + actual), 0, Double.compare(expected, actual)); //$NON-NLS-1$
+  }
+
+  /**
+   * Get the message for a failed random case
+   *
+   * @param function
+   *          the original function
+   * @return the message
+   */
+  private static final String __message(
+      final MathematicalFunction function) {
+    return ((("seed " + FunctionCompilerTest.SEED) + ", function ") //$NON-NLS-1$//$NON-NLS-2$
+        + function);
+  }
+
+  /**
+   * Assert that a compound function has really been compiled, i.e., that
+   * its method handle could be composed, and that other functions are
+   * returned as they are
+   *
+   * @param original
+   *          the original function
+   * @param compiled
+   *          the compiled function
+   */
+  private static final void __assertCompiled(
+      final MathematicalFunction original,
+      final MathematicalFunction compiled) {
+    if (original.getClass().getSimpleName().startsWith("_Compound")) { //$NON-NLS-1$
+      Assert.assertNotSame(original, compiled);
+      Assert.assertTrue(compiled.getClass().getSimpleName()
+          .startsWith("_Compiled")); //$NON-NLS-1$
+    } else {
+      Assert.assertSame(original, compiled);
+    }
+  }
+
+  /** test that compound functions of all arities are compiled */
+  @Test(timeout = 3600000)
+  public void testCompoundsAreCompiled() {
+    final UnaryFunctionBuilder unary;
+    final BinaryFunctionBuilder binary;
+    final UnaryFunction f1, c1;
+    final BinaryFunction f2, c2;
+
+    unary = UnaryFunctionBuilder.getInstance();
+    f1 = unary.compound(Add.INSTANCE, //
+        unary.compound(Sqr.INSTANCE, unary.parameter(0)), //
+        unary.compound(Exp.INSTANCE, //
+            unary.compound(Negate.INSTANCE, unary.parameter(0))));
+    c1 = unary.compile(f1);
+    FunctionCompilerTest.__assertCompiled(f1, c1);
+    FunctionCompilerTest.__assertSame(f1.toString(),
+        f1.computeAsDouble(1.5d), c1.computeAsDouble(1.5d));
+
+    binary = BinaryFunctionBuilder.getInstance();
+    f2 = binary.compound(Div.INSTANCE, //
+        binary.compound(Mul.INSTANCE, binary.parameter(0),
+            binary.constant(3)), //
+        binary.compound(Ln.INSTANCE, binary.parameter(1)));
+    c2 = binary.compile(f2);
+    FunctionCompilerTest.__assertCompiled(f2, c2);
+    FunctionCompilerTest.__assertSame(f2.toString(),
+        f2.computeAsDouble(2d, 7d), c2.computeAsDouble(2d, 7d));
+  }
+
+  /** test random unary functions */
+  @Test(timeout = 3600000)
+  public void testRandomUnaryFunctions() {
+    final Random rand;
+    final UnaryFunctionBuilder builder;
+    UnaryFunction original, compiled;
+    double x;
+    int i, j;
+
+    rand = new Random(FunctionCompilerTest.SEED);
+    builder = UnaryFunctionBuilder.getInstance();
+    for (i = 0; i < 300; i++) {
+      original = FunctionCompilerTest.__function(builder, rand,
+          rand.nextInt(7));
+      compiled = builder.compile(original);
+      FunctionCompilerTest.__assertCompiled(original, compiled);
+      Assert.assertEquals(compiled, builder.compile(original));
+      Assert.assertSame(compiled, builder.compile(compiled));
+      for (j = 0; j < 100; j++) {
+        x = FunctionCompilerTest.__value(rand);
+        FunctionCompilerTest.__assertSame(
+            ((FunctionCompilerTest.__message(original) + ", x=") + x), //$NON-NLS-1$
+            original.computeAsDouble(x), compiled.computeAsDouble(x));
+      }
+    }
+  }
+
+  /** test random binary functions */
+  @Test(timeout = 3600000)
+  public void testRandomBinaryFunctions() {
+    final Random rand;
+    final BinaryFunctionBuilder builder;
+    BinaryFunction original, compiled;
+    double x0, x1;
+    int i, j;
+
+    rand = new Random(FunctionCompilerTest.SEED);
+    builder = BinaryFunctionBuilder.getInstance();
+    for (i = 0; i < 300; i++) {
+      original = FunctionCompilerTest.__function(builder, rand,
+          rand.nextInt(7));
+      compiled = builder.compile(original);
+      FunctionCompilerTest.__assertCompiled(original, compiled);
+      Assert.assertEquals(compiled, builder.compile(original));
+      for (j = 0; j < 100; j++) {
+        x0 = FunctionCompilerTest.__value(rand);
+        x1 = FunctionCompilerTest.__value(rand);
+        FunctionCompilerTest.__assertSame(
+            ((((FunctionCompilerTest.__message(original) + ", x0=") + x0) //$NON-NLS-1$
+                + ", x1=") + x1), //$NON-NLS-1$
+            original.computeAsDouble(x0, x1),
+            compiled.computeAsDouble(x0, x1));
+      }
+    }
+  }
+
+  /** test random quaternary functions */
+  @Test(timeout = 3600000)
+  public void testRandomQuaternaryFunctions() {
+    final Random rand;
+    final QuaternaryFunctionBuilder builder;
+    QuaternaryFunction original, compiled;
+    double x0, x1, x2, x3;
+    int i, j;
+
+    rand = new Random(FunctionCompilerTest.SEED);
+    builder = QuaternaryFunctionBuilder.getInstance();
+    for (i = 0; i < 300; i++) {
+      original = FunctionCompilerTest.__function(builder, rand,
+          rand.nextInt(7));
+      compiled = builder.compile(original);
+      FunctionCompilerTest.__assertCompiled(original, compiled);
+      for (j = 0; j < 100; j++) {
+        x0 = FunctionCompilerTest.__value(rand);
+        x1 = FunctionCompilerTest.__value(rand);
+        x2 = FunctionCompilerTest.__value(rand);
+        x3 = FunctionCompilerTest.__value(rand);
+        FunctionCompilerTest.__assertSame(
+            ((((((((FunctionCompilerTest.__message(original) + ", x0=") //$NON-NLS-1$
+                + x0) + ", x1=") + x1) + ", x2=") + x2) + ", x3=") + x3), //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+            original.computeAsDouble(x0, x1, x2, x3),
+            compiled.computeAsDouble(x0, x1, x2, x3));
+      }
+    }
+  }
+
+  /**
+   * test that the tree of a compiled function can be inspected and cloned
+   * like the tree of the original function
+   */
+  @Test(timeout = 3600000)
+  public void testTreeInspection() {
+    final BinaryFunctionBuilder builder;
+    final BinaryFunction original, compiled, clone;
+    final Iterator<?> expected, actual;
+
+    builder = BinaryFunctionBuilder.getInstance();
+    original = builder.compound(Add.INSTANCE, //
+        builder.compound(Sqr.INSTANCE, builder.parameter(0)), //
+        builder.compound(Sub.INSTANCE, builder.parameter(1),
+            builder.constant(2)));
+    compiled = builder.compile(original);
+    FunctionCompilerTest.__assertCompiled(original, compiled);
+
+    Assert.assertTrue(compiled instanceof Iterable);
+    expected = ((Iterable<?>) original).iterator();
+    actual = ((Iterable<?>) compiled).iterator();
+    while (expected.hasNext()) {
+      Assert.assertTrue(actual.hasNext());
+      Assert.assertSame(expected.next(), actual.next());
+    }
+    Assert.assertFalse(actual.hasNext());
+
+    Assert.assertTrue(compiled instanceof ICloneable);
+    clone = ((BinaryFunction) (((ICloneable) compiled).clone()));
+    Assert.assertEquals(compiled, clone);
+    FunctionCompilerTest.__assertSame(original.toString(),
+        compiled.computeAsDouble(3d, 5d), clone.computeAsDouble(3d, 5d));
+  }
+
+  /** test that functions which are no compounds are not changed */
+  @Test(timeout = 3600000)
+  public void testNoCompound() {
+    Assert.assertSame(Sqr.INSTANCE,
+        UnaryFunctionBuilder.getInstance().compile(Sqr.INSTANCE));
+    Assert.assertSame(Add.INSTANCE,
+        BinaryFunctionBuilder.getInstance().compile(Add.INSTANCE));
+  }
+}
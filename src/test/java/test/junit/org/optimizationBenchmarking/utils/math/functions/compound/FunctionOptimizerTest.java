@@ -0,0 +1,262 @@
+package test.junit.org.optimizationBenchmarking.utils.math.functions.compound;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.functions.BinaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.UnaryFunction;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Absolute;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Add;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Div;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Max;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Mul;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Negate;
+import org.optimizationBenchmarking.utils.math.functions.arithmetic.Sub;
+import org.optimizationBenchmarking.utils.math.functions.compound.BinaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.compound.UnaryFunctionBuilder;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqr;
+import org.optimizationBenchmarking.utils.math.functions.power.Sqrt;
+
+/**
+ * Test that optimized compound functions compute the same results as the
+ * function trees they were created from.
+ */
+public class FunctionOptimizerTest {
+
+  /** the unary functions to use */
+  private static final UnaryFunction[] UNARY = { Negate.INSTANCE,
+      Absolute.INSTANCE, Sqr.INSTANCE, Sqrt.INSTANCE, };
+
+  /** the binary functions to use */
+  private static final BinaryFunction[] BINARY = { Add.INSTANCE,
+      Sub.INSTANCE, Mul.INSTANCE, Div.INSTANCE, Max.INSTANCE, };
+
+  /** the constants to use */
+  private static final Number[] CONSTANTS = { Integer.valueOf(0),
+      Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(7),
+      Integer.valueOf(-3), Double.valueOf(0.5d), Double.valueOf(-0d),
+      Double.valueOf(1d), Long.valueOf(Long.MAX_VALUE), };
+
+  /** create */
+  public FunctionOptimizerTest() {
+    super();
+  }
+
+  /**
+   * create a random function
+   *
+   * @param builder
+   *          the function builder
+   * @param rand
+   *          the random number generator
+   * @param depth
+   *          the maximum depth
+   * @return the function
+   */
+  private static final BinaryFunction __function(
+      final BinaryFunctionBuilder builder, final Random rand,
+      final int depth) {
+
+    switch ((depth <= 0) ? rand.nextInt(2) : rand.nextInt(6)) {
+      case 0: {
+        return builder.parameter(rand.nextInt(2));
+      }
+      case 1: {
+        return builder.constant(FunctionOptimizerTest.CONSTANTS[rand
+            .nextInt(FunctionOptimizerTest.CONSTANTS.length)]);
+      }
+      case 2: {
+        return builder.compound(
+            FunctionOptimizerTest.UNARY[rand
+                .nextInt(FunctionOptimizerTest.UNARY.length)],
+            FunctionOptimizerTest.__function(builder, rand, (depth - 1)));
+      }
+      default: {
+        return builder.compound(
+            FunctionOptimizerTest.BINARY[rand
+                .nextInt(FunctionOptimizerTest.BINARY.length)], //
+            FunctionOptimizerTest.__function(builder, rand, (depth - 1)), //
+            FunctionOptimizerTest.__function(builder, rand, (depth - 1)));
+      }
+    }
+  }
+
+  /**
+   * Compare the {@code long} results of two functions, if the original
+   * function can compute them
+   *
+   * @param original
+   *          the original function
+   * @param optimized
+   *          the optimized function
+   * @param x0
+   *          the first argument
+   * @param x1
+   *          the second argument
+   */
+  private static final void __compareLong(final BinaryFunction original,
+      final BinaryFunction optimized, final long x0, final long x1) {
+    final long expected;
+
+    try {
+      expected = original.computeAsLong(x0, x1);
+    } catch (final ArithmeticException error) {
+      return;
+    }
+    Assert.assertEquals(expected, optimized.computeAsLong(x0, x1));
+  }
+
+  /**
+   * create a random {@code double} argument
+   *
+   * @param rand
+   *          the random number generator
+   * @return the argument
+   */
+  private static final double __argument(final Random rand) {
+    switch (rand.nextInt(4)) {
+      case 0: {
+        return (rand.nextInt(21) - 10);
+      }
+      case 1: {
+        return ((rand.nextBoolean() ? 1e308d : -1e308d) * rand.nextDouble());
+      }
+      case 2: {
+        return (rand.nextBoolean() ? 0d : -0d);
+      }
+      default: {
+        return (10d * rand.nextGaussian());
+      }
+    }
+  }
+
+  /** test random functions in integer arithmetic */
+  @Test(timeout = 3600000)
+  public void testRandomIntegerResults() {
+    final Random rand;
+    final BinaryFunctionBuilder builder;
+    BinaryFunction original, optimized;
+    int i, j;
+
+    rand = new Random();
+    builder = BinaryFunctionBuilder.getInstance();
+    for (i = 0; i < 1000; i++) {
+      original = FunctionOptimizerTest.__function(builder, rand,
+          rand.nextInt(7));
+      optimized = builder.optimize(original);
+      for (j = 0; j < 100; j++) {
+        FunctionOptimizerTest.__compareLong(original, optimized,
+            (rand.nextInt(21) - 10), (rand.nextInt(21) - 10));
+        FunctionOptimizerTest.__compareLong(original, optimized,
+            rand.nextLong(), rand.nextLong());
+      }
+    }
+  }
+
+  /** test random functions in floating point arithmetic */
+  @Test(timeout = 3600000)
+  public void testRandomResults() {
+    final Random rand;
+    final BinaryFunctionBuilder builder;
+    BinaryFunction original, optimized;
+    double x0, x1;
+    int i, j;
+
+    rand = new Random();
+    builder = BinaryFunctionBuilder.getInstance();
+    for (i = 0; i < 1000; i++) {
+      original = FunctionOptimizerTest.__function(builder, rand,
+          rand.nextInt(7));
+      optimized = builder.optimize(original);
+      for (j = 0; j < 100; j++) {
+        x0 = FunctionOptimizerTest.__argument(rand);
+        x1 = FunctionOptimizerTest.__argument(rand);
+        Assert.assertEquals(0, Double.compare(//
+            original.computeAsDouble(x0, x1),
+            optimized.computeAsDouble(x0, x1)));
+        FunctionOptimizerTest.__compareLong(original, optimized,
+            ((long) x0), ((long) x1));
+      }
+    }
+  }
+
+  /** test constant folding */
+  @Test(timeout = 3600000)
+  public void testConstantFolding() {
+    final UnaryFunctionBuilder builder;
+    final UnaryFunction x, unfoldable;
+
+    builder = UnaryFunctionBuilder.getInstance();
+    x = builder.parameter(0);
+
+    Assert.assertEquals(builder.constant(6d), builder.optimize(//
+        builder.compound(Mul.INSTANCE, builder.constant(2),
+            builder.constant(3))));
+    Assert.assertEquals(builder.compound(Absolute.INSTANCE, x),
+        builder.optimize(builder.compound(Mul.INSTANCE, //
+            builder.compound(Absolute.INSTANCE, x), //
+            builder.compound(Sub.INSTANCE, builder.constant(4),
+                builder.constant(3)))));
+
+    // this product overflows in integer, but not in floating point
+    // arithmetic
+    unfoldable = builder.compound(Mul.INSTANCE,
+        builder.constant(Long.MAX_VALUE), builder.constant(2));
+    Assert.assertSame(unfoldable, builder.optimize(unfoldable));
+  }
+
+  /** test the removal of identities */
+  @Test(timeout = 3600000)
+  public void testIdentities() {
+    final BinaryFunctionBuilder builder;
+    final BinaryFunction x, y, abs, sum, sqr;
+    BinaryFunction keep;
+
+    builder = BinaryFunctionBuilder.getInstance();
+    x = builder.parameter(0);
+    y = builder.parameter(1);
+    abs = builder.compound(Absolute.INSTANCE, y);
+    sum = builder.compound(Add.INSTANCE, x, y);
+    sqr = builder.compound(Sqr.INSTANCE, y);
+
+    Assert.assertEquals(abs, builder.optimize(//
+        builder.compound(Add.INSTANCE, abs, builder.constant(0))));
+    Assert.assertEquals(sum, builder.optimize(//
+        builder.compound(Add.INSTANCE, builder.constant(0), sum)));
+    Assert.assertEquals(abs, builder.optimize(//
+        builder.compound(Sub.INSTANCE, abs, builder.constant(0d))));
+    Assert.assertEquals(sum, builder.optimize(//
+        builder.compound(Mul.INSTANCE, builder.constant(1), sum)));
+    Assert.assertEquals(x, builder.optimize(//
+        builder.compound(Div.INSTANCE, x, builder.constant(1))));
+    Assert.assertSame(sqr, builder.optimize(sqr));
+
+    // -0+0 is 0, so x+0 cannot be replaced with x if x may be -0
+    keep = builder.compound(Add.INSTANCE, x, builder.constant(0));
+    Assert.assertSame(keep, builder.optimize(keep));
+    keep = builder.compound(Mul.INSTANCE, sqr, builder.constant(1));
+    Assert.assertSame(keep, builder.optimize(keep));
+  }
+
+  /**
+   * test that nested sums are not flattened, since a flattened sum would
+   * return {@code NaN} instead of an infinity on overflow
+   */
+  @Test(timeout = 3600000)
+  public void testSumsAreNotFlattened() {
+    final BinaryFunctionBuilder builder;
+    final BinaryFunction x, y, sum, optimized;
+
+    builder = BinaryFunctionBuilder.getInstance();
+    x = builder.parameter(0);
+    y = builder.parameter(1);
+    sum = builder.compound(Add.INSTANCE,
+        builder.compound(Add.INSTANCE, x, x), y);
+
+    optimized = builder.optimize(sum);
+    Assert.assertSame(sum, optimized);
+    Assert.assertEquals(Double.POSITIVE_INFINITY,
+        optimized.computeAsDouble(1e308d, 1d), 0d);
+  }
+}
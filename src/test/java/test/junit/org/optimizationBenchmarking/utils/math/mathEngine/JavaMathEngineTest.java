@@ -0,0 +1,80 @@
+package test.junit.org.optimizationBenchmarking.utils.math.mathEngine;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.java.JavaMath;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+
+/** A test for the Java math engine */
+public class JavaMathEngineTest extends MathEngineTest {
+
+  /** create the test */
+  public JavaMathEngineTest() {
+    super(JavaMath.getInstance());
+  }
+
+  /**
+   * test whether we can execute scripts with element-wise expressions and
+   * summary functions
+   */
+  @Test(timeout = 3600000)
+  public void testScript() {
+    final IMatrix x, y;
+
+    x = new LongMatrix1D(new long[] { 1, 2, 3, 4, 5, 6 }, 2, 3);
+    y = new DoubleMatrix1D(new double[] { 0.5, 1, 1.5, 2, 2.5, 3 }, 2, 3);
+
+    try (final IMathEngine engine = JavaMath.getInstance().use()
+        .create()) {
+      engine.setMatrix("x", x); //$NON-NLS-1$
+      engine.setMatrix("y", y); //$NON-NLS-1$
+      engine.setDouble("a", 2d); //$NON-NLS-1$
+
+      engine.execute(Arrays.asList(//
+          "# element-wise expressions", //$NON-NLS-1$
+          "z <- x * a - y; w = 3 - x", //$NON-NLS-1$
+          "s <- sum(x); m <- mean(y)", //$NON-NLS-1$
+          "lo <- min(x); hi <- max(z); med <- median(x)", //$NON-NLS-1$
+          "k <- length(x); r <- nrow(x); c <- ncol(x); tx <- t(x)", //$NON-NLS-1$
+          "rm(a, \"y\")")); //$NON-NLS-1$
+
+      MathEngineTest._compareMatrices(new DoubleMatrix1D(
+          new double[] { 1.5, 3, 4.5, 6, 7.5, 9 }, 2, 3),
+          engine.getMatrix("z")); //$NON-NLS-1$
+      Assert.assertEquals(2d, engine.getMatrix("w").getDouble(0, 0), 0d); //$NON-NLS-1$
+      Assert.assertEquals(-3d, engine.getMatrix("w").getDouble(1, 2), 0d); //$NON-NLS-1$
+      Assert.assertEquals(21L, engine.getLong("s")); //$NON-NLS-1$
+      Assert.assertEquals(1.75d, engine.getDouble("m"), 1e-15d); //$NON-NLS-1$
+      Assert.assertEquals(1L, engine.getLong("lo")); //$NON-NLS-1$
+      Assert.assertEquals(9d, engine.getDouble("hi"), 0d); //$NON-NLS-1$
+      Assert.assertEquals(3.5d, engine.getDouble("med"), 0d); //$NON-NLS-1$
+      Assert.assertEquals(6L, engine.getLong("k")); //$NON-NLS-1$
+      Assert.assertEquals(2L, engine.getLong("r")); //$NON-NLS-1$
+      Assert.assertEquals(3L, engine.getLong("c")); //$NON-NLS-1$
+      MathEngineTest._compareMatrices(x.transpose(),
+          engine.getMatrix("tx")); //$NON-NLS-1$
+
+      try {
+        engine.getDouble("a"); //$NON-NLS-1$
+        Assert.fail("Variable a should have been disposed."); //$NON-NLS-1$
+      } catch (final IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  /** test that invalid scripts are rejected */
+  @Test(timeout = 3600000, expected = IllegalArgumentException.class)
+  public void testInvalidScript() {
+    try (final IMathEngine engine = JavaMath.getInstance().use()
+        .create()) {
+      engine.setLong("x", 1L); //$NON-NLS-1$
+      engine.execute(Arrays.asList("print(x)")); //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,549 @@
+package test.junit.org.optimizationBenchmarking.utils.math.mathEngine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngineBuilder;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEnginePool;
+import org.optimizationBenchmarking.utils.math.mathEngine.impl.abstr.MathEngineTool;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+
+/**
+ * A test for the math engine pool, using a simple in-memory engine which
+ * does not need any external process.
+ */
+public class MathEnginePoolTest {
+
+  /**
+   * test that returned engines are reused and their session is reset
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testReuse() throws IOException {
+    final __Tool tool;
+    IMathEngine engine;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 2)) {
+      engine = pool.lease();
+      engine.setDouble("x", 3d); //$NON-NLS-1$
+      Assert.assertEquals(3d, engine.getDouble("x"), 0d); //$NON-NLS-1$
+      engine.close();
+      Assert.assertEquals(1, pool.getIdleCount());
+      Assert.assertEquals(0, pool.getLeasedCount());
+
+      engine = pool.lease();
+      Assert.assertTrue(Double.isNaN(engine.getDouble("x"))); //$NON-NLS-1$
+      engine.close();
+
+      Assert.assertEquals(1L, pool.getCreationCount());
+      Assert.assertEquals(2L, pool.getLeaseCount());
+      Assert.assertEquals(1, tool.m_engines.size());
+    }
+    Assert.assertTrue(tool.m_engines.get(0).m_closed);
+  }
+
+  /**
+   * test that a leased engine cannot be used after it has been returned
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000, expected = IllegalStateException.class)
+  public void testUseAfterReturn() throws IOException {
+    final IMathEngine engine;
+
+    try (final MathEnginePool pool = new MathEnginePool(new __Tool(),
+        null, 1)) {
+      engine = pool.lease();
+      engine.close();
+      engine.setDouble("x", 3d); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * test that crashed engines are replaced
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testRestart() throws IOException {
+    final __Tool tool;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 1)) {
+      pool.lease().close();
+      tool.m_engines.get(0).m_alive = false;
+      pool.lease().close();
+
+      Assert.assertEquals(2L, pool.getCreationCount());
+      Assert.assertEquals(1L, pool.getRestartCount());
+      Assert.assertTrue(tool.m_engines.get(0).m_closed);
+      Assert.assertFalse(tool.m_engines.get(1).m_closed);
+    }
+  }
+
+  /**
+   * test that engines on which an operation has failed are discarded
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testDiscardAfterFailure() throws IOException {
+    final __Tool tool;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 1)) {
+      try (final IMathEngine engine = pool.lease()) {
+        engine.execute(null);
+        Assert.fail("Executing a null script should fail."); //$NON-NLS-1$
+      } catch (final IllegalArgumentException expected) {
+        // expected
+      }
+
+      Assert.assertEquals(1L, pool.getDiscardCount());
+      Assert.assertEquals(0, pool.getIdleCount());
+      Assert.assertTrue(tool.m_engines.get(0).m_closed);
+
+      pool.lease().close();
+      Assert.assertEquals(2L, pool.getCreationCount());
+    }
+  }
+
+  /**
+   * test that idle engines are closed after the maximum idle time
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @Test(timeout = 3600000)
+  public void testEviction() throws Exception {
+    final __Tool tool;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 3,
+        1L)) {
+      pool.warmUp(2);
+      Assert.assertEquals(2, pool.getIdleCount());
+      Thread.sleep(20L);
+
+      pool.lease().close();
+      Assert.assertEquals(2L, pool.getEvictionCount());
+      Assert.assertEquals(3L, pool.getCreationCount());
+      Assert.assertTrue(tool.m_engines.get(0).m_closed);
+      Assert.assertTrue(tool.m_engines.get(1).m_closed);
+    }
+  }
+
+  /**
+   * test that idle engines are closed after the maximum idle time even if
+   * the pool is not used anymore
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @Test(timeout = 3600000)
+  public void testReaper() throws Exception {
+    final __Tool tool;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 3,
+        1L)) {
+      pool.warmUp(2);
+      while (pool.getIdleCount() > 0) {
+        Thread.sleep(10L);
+      }
+      Assert.assertEquals(2L, pool.getEvictionCount());
+      Assert.assertTrue(tool.m_engines.get(0).m_closed);
+      Assert.assertTrue(tool.m_engines.get(1).m_closed);
+    }
+  }
+
+  /**
+   * test that engines which hang while their session is reset are
+   * discarded after the timeout
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @Test(timeout = 3600000)
+  public void testCheckTimeout() throws Exception {
+    final __Tool tool;
+    final IMathEngine engine;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 1,
+        MathEnginePool.DEFAULT_MAX_IDLE_TIME, 50L)) {
+      engine = pool.lease();
+      tool.m_engines.get(0).m_hang = true;
+      engine.close();
+
+      Assert.assertEquals(1L, pool.getCheckTimeoutCount());
+      Assert.assertEquals(1L, pool.getDiscardCount());
+      Assert.assertEquals(0, pool.getIdleCount());
+      Assert.assertEquals(0, pool.getLeasedCount());
+
+      pool.lease().close();
+      Assert.assertEquals(2L, pool.getCreationCount());
+      Assert.assertEquals(1, pool.getIdleCount());
+    }
+  }
+
+  /**
+   * test that leasing blocks while all engines are in use
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @Test(timeout = 3600000)
+  public void testWait() throws Exception {
+    final __Tool tool;
+    final IMathEngine first;
+    final IMathEngine[] second;
+    final Thread thread;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 1)) {
+      first = pool.lease();
+      second = new IMathEngine[1];
+      thread = new Thread(new Runnable() {
+        @Override
+        public final void run() {
+          try {
+            second[0] = pool.lease();
+          } catch (final IOException error) {
+            throw new AssertionError(error);
+          }
+        }
+      });
+      thread.start();
+      Thread.sleep(50L);
+      Assert.assertNull(second[0]);
+      Assert.assertTrue(thread.isAlive());
+
+      first.close();
+      thread.join();
+      Assert.assertNotNull(second[0]);
+      second[0].close();
+
+      Assert.assertEquals(1L, pool.getCreationCount());
+      Assert.assertTrue(pool.getMaximumLeaseWaitTime() >= 50000000L);
+      Assert.assertTrue(
+          pool.getTotalLeaseWaitTime() >= pool.getMaximumLeaseWaitTime());
+    }
+  }
+
+  /**
+   * test that batches of a leased engine are carried out on the pooled
+   * engine
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @Test(timeout = 3600000)
+  public void testBatch() throws Exception {
+    final Future<Double> x, y;
+    final Future<Long> z;
+    final IMathEngineBatch batch;
+
+    try (final MathEnginePool pool = new MathEnginePool(new __Tool(),
+        null, 1)) {
+      try (final IMathEngine engine = pool.lease()) {
+        batch = engine.batch();
+        batch.setDouble("x", 3d).setLong("z", 5L); //$NON-NLS-1$//$NON-NLS-2$
+        x = batch.getDouble("x"); //$NON-NLS-1$
+        batch.dispose("x"); //$NON-NLS-1$
+        y = batch.getDouble("x"); //$NON-NLS-1$
+        z = batch.getLong("z"); //$NON-NLS-1$
+        batch.commit();
+
+        Assert.assertEquals(3d, x.get().doubleValue(), 0d);
+        Assert.assertTrue(Double.isNaN(y.get().doubleValue()));
+        Assert.assertEquals(5L, z.get().longValue());
+        Assert.assertEquals(5L, engine.getLong("z")); //$NON-NLS-1$
+      }
+      try {
+        batch.setDouble("x", 3d); //$NON-NLS-1$
+        Assert.fail("A committed batch cannot be used."); //$NON-NLS-1$
+      } catch (final IllegalStateException expected) {
+        // expected
+      }
+      Assert.assertEquals(1, pool.getIdleCount());
+    }
+  }
+
+  /**
+   * test that a failing batch of a leased engine causes the engine to be
+   * discarded
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testDiscardAfterBatchFailure() throws IOException {
+    final __Tool tool;
+
+    tool = new __Tool();
+    try (final MathEnginePool pool = new MathEnginePool(tool, null, 1)) {
+      try (final IMathEngine engine = pool.lease()) {
+        engine.batch().setDouble("x", 3d).execute(null).commit(); //$NON-NLS-1$
+        Assert.fail("Executing a null script should fail."); //$NON-NLS-1$
+      } catch (final IllegalArgumentException expected) {
+        // expected
+      }
+
+      Assert.assertEquals(1L, pool.getDiscardCount());
+      Assert.assertEquals(0, pool.getIdleCount());
+      Assert.assertTrue(tool.m_engines.get(0).m_closed);
+    }
+  }
+
+  /**
+   * test that a batch of a leased engine cannot be used after the engine
+   * has been returned
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000, expected = IllegalStateException.class)
+  public void testBatchUseAfterReturn() throws IOException {
+    final IMathEngine engine;
+    final IMathEngineBatch batch;
+
+    try (final MathEnginePool pool = new MathEnginePool(new __Tool(),
+        null, 1)) {
+      engine = pool.lease();
+      batch = engine.batch();
+      engine.close();
+      batch.setDouble("x", 3d); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * test that a closed pool cannot be used
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000, expected = IllegalStateException.class)
+  public void testClosed() throws IOException {
+    final MathEnginePool pool;
+
+    pool = new MathEnginePool(new __Tool(), null, 1);
+    pool.close();
+    pool.lease();
+  }
+
+  /** the tool for the in-memory engines */
+  private static final class __Tool extends MathEngineTool {
+
+    /** the engines created so far */
+    final ArrayList<__Engine> m_engines;
+
+    /** create */
+    __Tool() {
+      super();
+      this.m_engines = new ArrayList<>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean canUse() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Builder use() {
+      return new __Builder(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String toString() {
+      return "In-Memory Engine Tool"; //$NON-NLS-1$
+    }
+  }
+
+  /** the builder for the in-memory engines */
+  private static final class __Builder
+      extends MathEngineBuilder<__Engine, __Builder> {
+
+    /** the owning tool */
+    private final __Tool m_tool;
+
+    /**
+     * create
+     *
+     * @param tool
+     *          the owning tool
+     */
+    __Builder(final __Tool tool) {
+      super();
+      this.m_tool = tool;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final __Engine create() {
+      final __Engine engine;
+
+      engine = new __Engine(this.getLogger());
+      synchronized (this.m_tool) {
+        this.m_tool.m_engines.add(engine);
+      }
+      return engine;
+    }
+  }
+
+  /**
+   * A simple engine which stores {@code double} values in memory. Unknown
+   * variables have the value {@link Double#NaN}.
+   */
+  private static final class __Engine extends MathEngine {
+
+    /** the variables */
+    private final HashMap<String, Double> m_variables;
+
+    /** is the engine alive? */
+    volatile boolean m_alive;
+
+    /** has the engine been closed? */
+    volatile boolean m_closed;
+
+    /** does the engine hang when its session is reset? */
+    volatile boolean m_hang;
+
+    /**
+     * create
+     *
+     * @param logger
+     *          the logger
+     */
+    __Engine(final Logger logger) {
+      super(logger);
+      this.m_variables = new HashMap<>();
+      this.m_alive = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final boolean isAlive() {
+      return (this.m_alive && (!(this.m_closed)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final boolean resetSession() {
+      if (this.m_hang) {
+        try {
+          Thread.sleep(3600000L);
+        } catch (final InterruptedException interrupted) {
+          return false;
+        }
+      }
+      this.m_variables.clear();
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setBoolean(final String variable,
+        final boolean value) {
+      this.setDouble(variable, (value ? 1d : 0d));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean getBoolean(final String variable) {
+      return (this.getDouble(variable) != 0d);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setLong(final String variable, final long value) {
+      this.setDouble(variable, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long getLong(final String variable) {
+      return ((long) (this.getDouble(variable)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setDouble(final String variable,
+        final double value) {
+      this.m_variables.put(variable, Double.valueOf(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final double getDouble(final String variable) {
+      final Double value;
+
+      value = this.m_variables.get(variable);
+      return ((value != null) ? value.doubleValue() : Double.NaN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setMatrix(final String variable,
+        final IMatrix value) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMatrix getMatrix(final String variable) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void setVector(final String variable,
+        final IMatrix value) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final IMatrix getVector(final String variable) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void dispose(final String variable) {
+      this.m_variables.remove(variable);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void execute(final Iterable<String> script) {
+      if (script == null) {
+        throw new IllegalArgumentException(//
+            "Script cannot be null."); //$NON-NLS-1$
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void close() {
+      this.m_closed = true;
+    }
+  }
+}
@@ -3,11 +3,13 @@ package test.junit.org.optimizationBenchmarking.utils.math.mathEngine;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngine;
+import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineBatch;
 import org.optimizationBenchmarking.utils.math.mathEngine.spec.IMathEngineTool;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
 import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
@@ -233,6 +235,91 @@ public abstract class MathEngineTest extends ToolTest<IMathEngineTool> {
     }
   }
 
+  /** test whether we can send commands in batches */
+  @Test(timeout = 3600000)
+  public void testBatchIO() {
+    final IMathEngineTool tool;
+    final Random random;
+    final ArrayList<Future<Boolean>> booleans;
+    final ArrayList<Future<Long>> longs;
+    final ArrayList<Future<Double>> doubles;
+    final boolean[] booleanValues;
+    final long[] longValues;
+    final double[] doubleValues;
+    final IMatrix matrix;
+    IMathEngineBatch batch;
+    int count;
+
+    tool = this.getInstance();
+    Assert.assertNotNull(tool);
+
+    if (!(tool.canUse())) {
+      return;
+    }
+
+    random = new Random();
+    count = 50;
+    booleans = new ArrayList<>();
+    longs = new ArrayList<>();
+    doubles = new ArrayList<>();
+    booleanValues = new boolean[count];
+    longValues = new long[count];
+    doubleValues = new double[count];
+    matrix = MathEngineTest.__randomMatrix((1 + random.nextInt(100)),
+        (1 + random.nextInt(100)), random.nextInt(3), random);
+
+    try (final IMathEngine engine = tool.use().create()) {
+      Assert.assertNotNull(engine);
+
+      batch = engine.batch();
+      Assert.assertNotNull(batch);
+      for (; (--count) >= 0;) {
+        booleanValues[count] = random.nextBoolean();
+        longValues[count] = (random.nextBoolean() //
+            ? MathEngineTest.__randomLong(random) : random.nextInt());
+        doubleValues[count] = MathEngineTest.__randomDouble(random);
+
+        batch.setBoolean(("b" + count), booleanValues[count]); //$NON-NLS-1$
+        batch.setLong(("l" + count), longValues[count]); //$NON-NLS-1$
+        batch.setDouble(("d" + count), doubleValues[count]); //$NON-NLS-1$
+        booleans.add(batch.getBoolean("b" + count)); //$NON-NLS-1$
+        longs.add(batch.getLong("l" + count)); //$NON-NLS-1$
+        doubles.add(batch.getDouble("d" + count)); //$NON-NLS-1$
+      }
+      batch.setMatrix("m", matrix); //$NON-NLS-1$
+      batch.dispose("d0"); //$NON-NLS-1$
+      batch.commit();
+
+      count = booleanValues.length;
+      for (final Future<Boolean> value : booleans) {
+        Assert.assertTrue(value.isDone());
+        Assert.assertTrue(booleanValues[--count] == //
+        value.get().booleanValue());
+      }
+      count = longValues.length;
+      for (final Future<Long> value : longs) {
+        Assert.assertEquals(longValues[--count], value.get().longValue());
+      }
+      count = doubleValues.length;
+      for (final Future<Double> value : doubles) {
+        MathEngineTest._assertDoubleEquals(doubleValues[--count],
+            value.get().doubleValue());
+      }
+      MathEngineTest._compareMatrices(matrix, engine.getMatrix("m")); //$NON-NLS-1$
+
+      try {
+        batch.commit();
+        Assert.fail("A batch cannot be committed twice."); //$NON-NLS-1$
+      } catch (final IllegalStateException expected) {
+        // expected
+      }
+    } catch (final AssertionError ae) {
+      throw ae;
+    } catch (final Throwable error) {
+      throw new AssertionError(error);
+    }
+  }
+
   /**
    * Compare two matrices
    *
@@ -0,0 +1,227 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.BufferMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.BufferMatrixBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+import shared.junit.TestBase;
+
+/** A test for the off-heap matrix builder */
+public class BufferMatrixBuilderTest extends TestBase {
+
+  /** the supported element types */
+  static final EPrimitiveType[] TYPES = { EPrimitiveType.BYTE,
+      EPrimitiveType.SHORT, EPrimitiveType.INT, EPrimitiveType.LONG,
+      EPrimitiveType.FLOAT, EPrimitiveType.DOUBLE };
+
+  /** create */
+  public BufferMatrixBuilderTest() {
+    super();
+  }
+
+  /**
+   * Create a random value which can be represented by the given type
+   *
+   * @param type
+   *          the type
+   * @param rand
+   *          the random number generator
+   * @return the value
+   */
+  static final Number _value(final EPrimitiveType type,
+      final Random rand) {
+    switch (type) {
+      case BYTE: {
+        return Long.valueOf((byte) (rand.nextInt()));
+      }
+      case SHORT: {
+        return Long.valueOf((short) (rand.nextInt()));
+      }
+      case INT: {
+        return Long.valueOf(rand.nextInt());
+      }
+      case LONG: {
+        return Long.valueOf(rand.nextLong());
+      }
+      case FLOAT: {
+        return Double.valueOf(rand.nextFloat() * rand.nextInt());
+      }
+      default: {
+        return Double.valueOf(rand.nextGaussian());
+      }
+    }
+  }
+
+  /**
+   * Fill a builder and a reference builder with the same random data
+   *
+   * @param builder
+   *          the builder
+   * @param type
+   *          the element type
+   * @param m
+   *          the number of rows
+   * @param n
+   *          the number of columns
+   * @param rand
+   *          the random number generator
+   * @return the reference matrix
+   */
+  static final IMatrix _fill(final BufferMatrixBuilder builder,
+      final EPrimitiveType type, final int m, final int n,
+      final Random rand) {
+    final MatrixBuilder reference;
+    Number value;
+    int i;
+
+    reference = new MatrixBuilder();
+    reference.setM(m);
+    reference.setN(n);
+    for (i = (m * n); (--i) >= 0;) {
+      value = BufferMatrixBuilderTest._value(type, rand);
+      if (value instanceof Double) {
+        builder.append(value.doubleValue());
+        reference.append(value.doubleValue());
+      } else {
+        builder.append(value.longValue());
+        reference.append(value.longValue());
+      }
+    }
+    return reference.make();
+  }
+
+  /**
+   * Check that a matrix equals the reference
+   *
+   * @param reference
+   *          the reference
+   * @param matrix
+   *          the matrix
+   */
+  private static final void __check(final IMatrix reference,
+      final BufferMatrix matrix) {
+    StableSum expected, actual;
+    int i, j;
+
+    Assert.assertEquals(reference.m(), matrix.m());
+    Assert.assertEquals(reference.n(), matrix.n());
+    for (i = reference.m(); (--i) >= 0;) {
+      for (j = reference.n(); (--j) >= 0;) {
+        Assert.assertEquals(reference.getDouble(i, j),
+            matrix.getDouble(i, j), 0d);
+        if (matrix.isIntegerMatrix()) {
+          Assert.assertEquals(reference.getLong(i, j),
+              matrix.getLong(i, j));
+        }
+      }
+    }
+
+    j = (reference.n() - 1);
+    expected = new StableSum();
+    actual = new StableSum();
+    reference.aggregateColumn(j, expected);
+    matrix.aggregateColumn(j, actual);
+    Assert.assertEquals(expected.doubleValue(), actual.doubleValue(), 0d);
+  }
+
+  /** test building matrices in direct buffers */
+  @Test(timeout = 3600000)
+  public final void testDirect() {
+    final Random rand;
+    BufferMatrixBuilder builder;
+    IMatrix reference;
+    BufferMatrix matrix;
+    int m, n;
+
+    rand = new Random();
+    for (final EPrimitiveType type : BufferMatrixBuilderTest.TYPES) {
+      // large enough to span several chunks for all but byte
+      m = (1 + rand.nextInt(700));
+      n = (1 + rand.nextInt(400));
+      builder = new BufferMatrixBuilder(type, n);
+      reference = BufferMatrixBuilderTest._fill(builder, type, m, n, rand);
+      matrix = builder.make();
+      Assert.assertSame(type, matrix.getElementType());
+      BufferMatrixBuilderTest.__check(reference, matrix);
+    }
+  }
+
+  /**
+   * test streaming matrices into files and mapping them
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testFile() throws IOException {
+    final Random rand;
+    final Path file;
+    IMatrix reference;
+    BufferMatrix matrix;
+    int m, n;
+
+    rand = new Random();
+    file = Files.createTempFile("matrix", ".bin"); //$NON-NLS-1$//$NON-NLS-2$
+    try {
+      for (final EPrimitiveType type : BufferMatrixBuilderTest.TYPES) {
+        m = (1 + rand.nextInt(300));
+        n = (1 + rand.nextInt(300));
+        try (final BufferMatrixBuilder builder = new BufferMatrixBuilder(
+            file, type, n)) {
+          reference = BufferMatrixBuilderTest._fill(builder, type, m, n,
+              rand);
+          matrix = builder.make();
+        }
+        Assert.assertSame(type, matrix.getElementType());
+        BufferMatrixBuilderTest.__check(reference, matrix);
+        BufferMatrixBuilderTest.__check(reference, BufferMatrix.map(file));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** test that values which cannot be represented are rejected */
+  @Test(timeout = 3600000, expected = IllegalArgumentException.class)
+  public final void testUnrepresentable() {
+    final BufferMatrixBuilder builder;
+
+    builder = new BufferMatrixBuilder(EPrimitiveType.SHORT, 2);
+    builder.append(1);
+    builder.append(1.5d);
+  }
+
+  /**
+   * test that files which are not matrix files are rejected
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testInvalidFile() throws IOException {
+    final Path file;
+
+    file = Files.createTempFile("matrix", ".bin"); //$NON-NLS-1$//$NON-NLS-2$
+    try {
+      Files.write(file, new byte[64]);
+      try {
+        BufferMatrix.map(file);
+        Assert.fail("An invalid matrix file must be rejected."); //$NON-NLS-1$
+      } catch (final IOException expected) {
+        // expected
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
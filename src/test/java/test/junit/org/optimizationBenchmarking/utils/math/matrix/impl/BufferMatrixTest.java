@@ -0,0 +1,36 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.math.matrix.impl.BufferMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.BufferMatrixBuilder;
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+import shared.junit.org.optimizationBenchmarking.utils.math.matrix.MatrixTest;
+
+/** test the off-heap matrix */
+public class BufferMatrixTest extends MatrixTest<BufferMatrix> {
+
+  /** the constructor */
+  public BufferMatrixTest() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected BufferMatrix getInstance() {
+    final Random r;
+    final EPrimitiveType type;
+    final BufferMatrixBuilder builder;
+    final int m, n;
+
+    r = new Random();
+    type = BufferMatrixBuilderTest.TYPES[r
+        .nextInt(BufferMatrixBuilderTest.TYPES.length)];
+    m = (1 + r.nextInt(r.nextBoolean() ? 3 : 100));
+    n = (1 + r.nextInt(r.nextBoolean() ? 3 : 100));
+    builder = new BufferMatrixBuilder(type, n);
+    BufferMatrixBuilderTest._fill(builder, type, m, n, r);
+    return builder.make();
+  }
+}
@@ -0,0 +1,174 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrixBuilder;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+
+import shared.junit.TestBase;
+
+/** A test for the column matrix builder */
+public class ColumnMatrixBuilderTest extends TestBase {
+
+  /** the number of column kinds */
+  private static final int KINDS = 9;
+
+  /** create */
+  public ColumnMatrixBuilderTest() {
+    super();
+  }
+
+  /**
+   * Create the value of a column of the given kind
+   *
+   * @param kind
+   *          the kind of column
+   * @param row
+   *          the row
+   * @param previous
+   *          the value in the previous row
+   * @param rand
+   *          the random number generator
+   * @return the value
+   */
+  static final Number _value(final int kind, final int row,
+      final Number previous, final Random rand) {
+    switch (kind) {
+      case 0: {// constant
+        return Long.valueOf(-7L);
+      }
+      case 1: {// small values
+        return Long.valueOf(rand.nextInt(11));
+      }
+      case 2: {// values with an odd range
+        return Long.valueOf(1000000L + rand.nextInt(3000));
+      }
+      case 3: {// monotone, large values
+        return Long.valueOf(((previous == null) ? 1000000000000L
+            : previous.longValue()) + rand.nextInt(100));
+      }
+      case 4: {// arbitrary longs
+        return Long.valueOf(rand.nextLong());
+      }
+      case 5: {// extreme values
+        return Long.valueOf(
+            rand.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE);
+      }
+      case 6: {// floats
+        return Double.valueOf((rand.nextInt(1000) + 0.5f) / 8f);
+      }
+      case 7: {// doubles
+        return Double.valueOf(rand.nextDouble());
+      }
+      default: {// integers which switch to doubles late
+        if (row > 100) {
+          return Double.valueOf(rand.nextGaussian());
+        }
+        return Long.valueOf(rand.nextInt());
+      }
+    }
+  }
+
+  /** test building matrices of columns with different value ranges */
+  @Test(timeout = 3600000)
+  public final void testMixedColumns() {
+    final Random rand;
+    Number[][] data;
+    int[] kinds;
+    int testIt, i, j;
+    boolean isInteger, isColumnInteger;
+    ColumnMatrixBuilder builder;
+    ColumnMatrix result;
+    IMatrix column;
+    MaximumAggregate max;
+    StableSum sum, expectedSum;
+    long expectedMax;
+    double scale;
+    Number value;
+
+    rand = new Random();
+    for (testIt = 1; testIt <= 200; testIt++) {
+      data = new Number[1 + rand.nextInt(rand.nextBoolean() ? 3 : 300)]//
+      [1 + rand.nextInt(6)];
+      kinds = new int[data[0].length];
+      isInteger = true;
+      for (j = kinds.length; (--j) >= 0;) {
+        kinds[j] = rand.nextInt(ColumnMatrixBuilderTest.KINDS);
+      }
+
+      builder = new ColumnMatrixBuilder(kinds.length,
+          (rand.nextBoolean() ? -1 : data.length));
+      for (i = 0; i < data.length; i++) {
+        for (j = 0; j < kinds.length; j++) {
+          data[i][j] = value = ColumnMatrixBuilderTest._value(kinds[j], i,
+              ((i > 0) ? data[i - 1][j] : null), rand);
+          if (value instanceof Double) {
+            builder.append(value.doubleValue());
+          } else {
+            builder.append(value.longValue());
+          }
+        }
+      }
+
+      result = builder.make();
+      Assert.assertEquals(data.length, result.m());
+      Assert.assertEquals(kinds.length, result.n());
+
+      for (j = kinds.length; (--j) >= 0;) {
+        isColumnInteger = true;
+        max = new MaximumAggregate();
+        sum = new StableSum();
+        expectedSum = new StableSum();
+        expectedMax = Long.MIN_VALUE;
+        scale = 0d;
+        for (i = data.length; (--i) >= 0;) {
+          value = data[i][j];
+          scale += Math.abs(value.doubleValue());
+          if (value instanceof Double) {
+            isColumnInteger = false;
+            Assert.assertEquals(value.doubleValue(),
+                result.getDouble(i, j), 0d);
+            expectedSum.append(value.doubleValue());
+          } else {
+            Assert.assertEquals(value.longValue(), result.getLong(i, j));
+            Assert.assertEquals(value.doubleValue(),
+                result.getDouble(i, j), 0d);
+            expectedMax = Math.max(expectedMax, value.longValue());
+            expectedSum.append(value.longValue());
+          }
+        }
+
+        column = result.selectColumns(j);
+        Assert.assertEquals(1, column.n());
+        Assert.assertEquals(isColumnInteger, column.isIntegerMatrix());
+        isInteger &= isColumnInteger;
+
+        result.aggregateColumn(j, sum);
+        Assert.assertEquals(expectedSum.doubleValue(), sum.doubleValue(),
+            1e-12 * scale);
+        if (isColumnInteger) {
+          result.aggregateColumn(j, max);
+          Assert.assertEquals(expectedMax, max.longValue());
+        }
+      }
+      Assert.assertEquals(isInteger, result.isIntegerMatrix());
+    }
+  }
+
+  /** test that an incomplete row is rejected */
+  @Test(timeout = 3600000, expected = IllegalStateException.class)
+  public final void testIncompleteRow() {
+    final ColumnMatrixBuilder builder;
+
+    builder = new ColumnMatrixBuilder(2);
+    builder.append(1);
+    builder.append(2);
+    builder.append(3);
+    builder.make();
+  }
+}
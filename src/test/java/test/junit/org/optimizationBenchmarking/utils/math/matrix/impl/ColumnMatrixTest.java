@@ -0,0 +1,52 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrixBuilder;
+
+import shared.junit.org.optimizationBenchmarking.utils.math.matrix.MatrixTest;
+
+/** test the column matrix */
+public class ColumnMatrixTest extends MatrixTest<ColumnMatrix> {
+
+  /** the constructor */
+  public ColumnMatrixTest() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected ColumnMatrix getInstance() {
+    final Random r;
+    final int m, n;
+    final int[] kinds;
+    final Number[] previous;
+    final ColumnMatrixBuilder builder;
+    Number value;
+    int i, j;
+
+    r = new Random();
+    m = (1 + r.nextInt(r.nextBoolean() ? 3 : 200));
+    n = (1 + r.nextInt(r.nextBoolean() ? 3 : 10));
+    kinds = new int[n];
+    for (j = n; (--j) >= 0;) {
+      kinds[j] = r.nextInt(9);
+    }
+
+    previous = new Number[n];
+    builder = new ColumnMatrixBuilder(n);
+    for (i = 0; i < m; i++) {
+      for (j = 0; j < n; j++) {
+        previous[j] = value = ColumnMatrixBuilderTest._value(kinds[j], i,
+            previous[j], r);
+        if (value instanceof Double) {
+          builder.append(value.doubleValue());
+        } else {
+          builder.append(value.longValue());
+        }
+      }
+    }
+    return builder.make();
+  }
+}
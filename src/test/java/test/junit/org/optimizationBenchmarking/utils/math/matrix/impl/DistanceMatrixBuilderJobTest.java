@@ -0,0 +1,236 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DistanceMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DistanceMatrixBuilderJob;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IAggregate;
+import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
+
+import shared.junit.TestBase;
+
+/** A test for the sequential and parallel distance matrix construction */
+public class DistanceMatrixBuilderJobTest extends TestBase {
+
+  /** create */
+  public DistanceMatrixBuilderJobTest() {
+    super();
+  }
+
+  /**
+   * build a matrix from random points
+   *
+   * @param points
+   *          the points
+   * @param integer
+   *          should integer distances be used?
+   * @param type
+   *          the expected distance type
+   * @param parallelism
+   *          the parallelism
+   * @return the matrix
+   */
+  private static final DistanceMatrix __build(final double[] points,
+      final boolean integer, final EPrimitiveType type,
+      final int parallelism) {
+    final __Job job;
+    final DistanceMatrix matrix;
+    int i;
+
+    job = new __Job(points, integer, type, parallelism);
+    matrix = job.call();
+    for (i = points.length; (--i) >= 0;) {
+      Assert.assertTrue(job.m_released[i]);
+    }
+    return matrix;
+  }
+
+  /** test that the parallel mode yields the same matrices */
+  @Test(timeout = 3600000)
+  public final void testParallel() {
+    final Random rand;
+    final EPrimitiveType[] types;
+    double[] points;
+    DistanceMatrix sequential, parallel;
+    EPrimitiveType type;
+    int i, k;
+    boolean integer;
+
+    rand = new Random();
+    types = new EPrimitiveType[] { EPrimitiveType.BYTE,
+        EPrimitiveType.INT, EPrimitiveType.LONG, EPrimitiveType.FLOAT,
+        EPrimitiveType.DOUBLE };
+    for (i = 0; i < 30; i++) {
+      points = new double[1 + rand.nextInt(400)];
+      integer = rand.nextBoolean();
+      for (k = points.length; (--k) >= 0;) {
+        points[k] = (integer ? rand.nextInt(1 << rand.nextInt(31))
+            : (rand.nextBoolean() ? (rand.nextInt(1000) + 0.5d)
+                : rand.nextDouble()));
+      }
+      type = types[rand.nextInt(types.length)];
+
+      sequential = DistanceMatrixBuilderJobTest.__build(points, integer,
+          type, 1);
+      parallel = DistanceMatrixBuilderJobTest.__build(points, integer,
+          type, (2 + rand.nextInt(7)));
+      Assert.assertEquals(sequential, parallel);
+    }
+  }
+
+  /** test that an invalid number of appended distances is detected */
+  @Test(timeout = 3600000, expected = IllegalStateException.class)
+  public final void testInvalidAppend() {
+    new DistanceMatrixBuilderJob() {
+
+      @Override
+      protected final int getElementCount() {
+        return 100;
+      }
+
+      @Override
+      protected final int getParallelism() {
+        return 4;
+      }
+
+      @Override
+      protected final void setDistance(final int i, final int j,
+          final IAggregate appendTo) {
+        if ((i != 50) || (j != 70)) {
+          appendTo.append(i + j);
+        }
+      }
+    }.call();
+  }
+
+  /**
+   * test that a second distance appended for the same pair is rejected
+   * before it is stored
+   */
+  @Test(timeout = 3600000)
+  public final void testExtraAppend() {
+    final boolean[] rejected;
+
+    rejected = new boolean[1];
+    try {
+      new DistanceMatrixBuilderJob() {
+
+        @Override
+        protected final int getElementCount() {
+          return 100;
+        }
+
+        @Override
+        protected final int getParallelism() {
+          return 4;
+        }
+
+        @Override
+        protected final void setDistance(final int i, final int j,
+            final IAggregate appendTo) {
+          appendTo.append(i + j);
+          if ((i == 50) && (j == 70)) {
+            try {
+              appendTo.append(0.5d);
+            } catch (final IllegalStateException expected) {
+              rejected[0] = true;
+              throw expected;
+            }
+          }
+        }
+      }.call();
+    } catch (final IllegalStateException expected) {
+      // ok
+    }
+    Assert.assertTrue(rejected[0]);
+  }
+
+  /** the job */
+  private static final class __Job extends DistanceMatrixBuilderJob {
+
+    /** the points */
+    private final double[] m_points;
+
+    /** should integer distances be used? */
+    private final boolean m_integer;
+
+    /** the expected type */
+    private final EPrimitiveType m_type;
+
+    /** the parallelism */
+    private final int m_parallelism;
+
+    /** the released elements */
+    final boolean[] m_released;
+
+    /**
+     * create
+     *
+     * @param points
+     *          the points
+     * @param integer
+     *          should integer distances be used?
+     * @param type
+     *          the expected distance type
+     * @param parallelism
+     *          the parallelism
+     */
+    __Job(final double[] points, final boolean integer,
+        final EPrimitiveType type, final int parallelism) {
+      super();
+      this.m_points = points;
+      this.m_integer = integer;
+      this.m_type = type;
+      this.m_parallelism = parallelism;
+      this.m_released = new boolean[points.length];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final int getElementCount() {
+      return this.m_points.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final EPrimitiveType getDistanceType() {
+      return this.m_type;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final int getParallelism() {
+      return this.m_parallelism;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final void setDistance(final int i, final int j,
+        final IAggregate appendTo) {
+      final double distance;
+
+      Assert.assertFalse(this.m_released[i]);
+      Assert.assertFalse(this.m_released[j]);
+      distance = Math.abs(this.m_points[i] - this.m_points[j]);
+      if (this.m_integer) {
+        appendTo.append((long) distance);
+      } else {
+        appendTo.append(distance);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected final void releaseElement(final int i) {
+      int k;
+
+      Assert.assertFalse(this.m_released[i]);
+      for (k = i; (--k) >= 0;) {
+        Assert.assertTrue(this.m_released[k]);
+      }
+      this.m_released[i] = true;
+    }
+  }
+}
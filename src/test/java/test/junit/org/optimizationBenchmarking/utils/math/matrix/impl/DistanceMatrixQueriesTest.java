@@ -0,0 +1,340 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.impl.Dendrogram;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DistanceMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DistanceMatrixQueries;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleDistanceMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ELinkage;
+import org.optimizationBenchmarking.utils.math.matrix.impl.IntDistanceMatrix1D;
+
+import shared.junit.TestBase;
+
+/** A test for the distance matrix queries */
+public class DistanceMatrixQueriesTest extends TestBase {
+
+  /** create */
+  public DistanceMatrixQueriesTest() {
+    super();
+  }
+
+  /**
+   * Create a random distance matrix
+   *
+   * @param m
+   *          the dimension
+   * @param rand
+   *          the random number generator
+   * @param integer
+   *          may the matrix contain integer distances (and thus ties)?
+   * @return the matrix
+   */
+  private static final DistanceMatrix __random(final int m,
+      final Random rand, final boolean integer) {
+    final double[] doubles;
+    final int[] ints;
+    int i;
+
+    if (integer && rand.nextBoolean()) {
+      ints = new int[(m * (m - 1)) >>> 1];
+      for (i = ints.length; (--i) >= 0;) {
+        ints[i] = rand.nextInt(1 + rand.nextInt(100));
+      }
+      return new IntDistanceMatrix1D(ints, m);
+    }
+    doubles = new double[(m * (m - 1)) >>> 1];
+    for (i = doubles.length; (--i) >= 0;) {
+      doubles[i] = rand.nextDouble();
+    }
+    return new DoubleDistanceMatrix1D(doubles, m);
+  }
+
+  /** test the neighbourhood queries */
+  @Test(timeout = 3600000)
+  public final void testNeighbours() {
+    final Random rand;
+    DistanceMatrix matrix;
+    DistanceMatrixQueries queries;
+    int[] neighbours, nearest;
+    int iteration, m, element, i, k;
+    double previous, current;
+
+    rand = new Random();
+    for (iteration = 0; iteration < 20; iteration++) {
+      m = (1 + rand.nextInt((iteration < 2) ? 1000 : 100));
+      matrix = DistanceMatrixQueriesTest.__random(m, rand, true);
+      queries = new DistanceMatrixQueries(matrix);
+      if (rand.nextBoolean()) {
+        queries.computeAllNeighbours();
+      }
+
+      for (element = 0; element < m; element++) {
+        neighbours = queries.getNeighbours(element);
+        Assert.assertEquals(m - 1, neighbours.length);
+        previous = Double.NEGATIVE_INFINITY;
+        for (i = 0; i < neighbours.length; i++) {
+          Assert.assertNotEquals(element, neighbours[i]);
+          current = matrix.getDouble(element, neighbours[i]);
+          Assert.assertTrue(current >= previous);
+          if ((i > 0) && (current == previous)) {
+            Assert.assertTrue(neighbours[i] > neighbours[i - 1]);
+          }
+          previous = current;
+        }
+
+        k = rand.nextInt(m + 2);
+        nearest = queries.getNearestNeighbours(element, k);
+        Assert.assertEquals(Math.min(k, m - 1), nearest.length);
+        for (i = nearest.length; (--i) >= 0;) {
+          Assert.assertEquals(neighbours[i], nearest[i]);
+        }
+        Assert.assertEquals(((m > 1) ? neighbours[0] : (-1)),
+            queries.getNearestNeighbour(element));
+      }
+    }
+  }
+
+  /** test the medoid queries */
+  @Test(timeout = 3600000)
+  public final void testMedoid() {
+    final Random rand;
+    DistanceMatrix matrix;
+    DistanceMatrixQueries queries;
+    int[] subset;
+    int iteration, m, i, j, best;
+    double sum, bestSum;
+
+    rand = new Random();
+    for (iteration = 0; iteration < 20; iteration++) {
+      m = (1 + rand.nextInt((iteration < 2) ? 1000 : 100));
+      matrix = DistanceMatrixQueriesTest.__random(m, rand, true);
+      queries = new DistanceMatrixQueries(matrix);
+
+      best = -1;
+      bestSum = Double.POSITIVE_INFINITY;
+      for (i = 0; i < m; i++) {
+        sum = 0d;
+        for (j = 0; j < m; j++) {
+          sum += matrix.getDouble(i, j);
+        }
+        if (sum < (bestSum - 1e-9d)) {
+          bestSum = sum;
+          best = i;
+        }
+      }
+      Assert.assertEquals(bestSum,
+          DistanceMatrixQueriesTest.__sum(matrix, queries.getMedoid()),
+          1e-9d);
+      if (matrix.isIntegerMatrix()) {
+        Assert.assertEquals(best, queries.getMedoid());
+      }
+
+      subset = new int[1 + rand.nextInt(m)];
+      for (i = subset.length; (--i) >= 0;) {
+        subset[i] = rand.nextInt(m);
+      }
+      best = subset[0];
+      bestSum = Double.POSITIVE_INFINITY;
+      for (final int a : subset) {
+        sum = 0d;
+        for (final int b : subset) {
+          sum += matrix.getDouble(a, b);
+        }
+        if (sum < bestSum) {
+          bestSum = sum;
+          best = a;
+        }
+      }
+      j = queries.getMedoid(subset);
+      sum = 0d;
+      for (final int b : subset) {
+        sum += matrix.getDouble(j, b);
+      }
+      Assert.assertEquals(bestSum, sum, 1e-9d);
+    }
+  }
+
+  /**
+   * Compute the sum of distances of an element
+   *
+   * @param matrix
+   *          the matrix
+   * @param element
+   *          the element
+   * @return the sum
+   */
+  private static final double __sum(final DistanceMatrix matrix,
+      final int element) {
+    double sum;
+    int j;
+
+    sum = 0d;
+    for (j = matrix.m(); (--j) >= 0;) {
+      sum += matrix.getDouble(element, j);
+    }
+    return sum;
+  }
+
+  /**
+   * Compute the merge heights of a clustering with the naive
+   * {@code O(m^3)} algorithm
+   *
+   * @param matrix
+   *          the matrix
+   * @param linkage
+   *          the linkage
+   * @return the sorted heights
+   */
+  private static final double[] __naiveHeights(final DistanceMatrix matrix,
+      final ELinkage linkage) {
+    final int m;
+    final int[][] clusters;
+    final double[] heights;
+    int merge, a, b, bestA, bestB;
+    double distance, best;
+
+    m = matrix.m();
+    clusters = new int[m][];
+    for (a = m; (--a) >= 0;) {
+      clusters[a] = new int[] { a };
+    }
+    heights = new double[m - 1];
+    for (merge = 0; merge < (m - 1); merge++) {
+      best = Double.POSITIVE_INFINITY;
+      bestA = bestB = -1;
+      for (a = 0; a < m; a++) {
+        if (clusters[a] == null) {
+          continue;
+        }
+        for (b = (a + 1); b < m; b++) {
+          if (clusters[b] == null) {
+            continue;
+          }
+          distance = DistanceMatrixQueriesTest.__linkage(matrix, linkage,
+              clusters[a], clusters[b]);
+          if (distance < best) {
+            best = distance;
+            bestA = a;
+            bestB = b;
+          }
+        }
+      }
+      heights[merge] = best;
+      clusters[bestA] = DistanceMatrixQueriesTest.__join(clusters[bestA],
+          clusters[bestB]);
+      clusters[bestB] = null;
+    }
+    return heights;
+  }
+
+  /**
+   * join two arrays
+   *
+   * @param a
+   *          the first array
+   * @param b
+   *          the second array
+   * @return the joined array
+   */
+  private static final int[] __join(final int[] a, final int[] b) {
+    final int[] result;
+    result = new int[a.length + b.length];
+    System.arraycopy(a, 0, result, 0, a.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /**
+   * compute the linkage distance between two clusters
+   *
+   * @param matrix
+   *          the matrix
+   * @param linkage
+   *          the linkage
+   * @param a
+   *          the first cluster
+   * @param b
+   *          the second cluster
+   * @return the distance
+   */
+  private static final double __linkage(final DistanceMatrix matrix,
+      final ELinkage linkage, final int[] a, final int[] b) {
+    double result, distance;
+
+    result = ((linkage == ELinkage.SINGLE) ? Double.POSITIVE_INFINITY
+        : 0d);
+    for (final int x : a) {
+      for (final int y : b) {
+        distance = matrix.getDouble(x, y);
+        switch (linkage) {
+          case SINGLE: {
+            result = Math.min(result, distance);
+            break;
+          }
+          case COMPLETE: {
+            result = Math.max(result, distance);
+            break;
+          }
+          default: {
+            result += distance;
+          }
+        }
+      }
+    }
+    if (linkage == ELinkage.AVERAGE) {
+      result /= (a.length * b.length);
+    }
+    return result;
+  }
+
+  /** test the hierarchical clustering */
+  @Test(timeout = 3600000)
+  public final void testCluster() {
+    final Random rand;
+    DistanceMatrix matrix;
+    DistanceMatrixQueries queries;
+    Dendrogram dendrogram;
+    double[] expected;
+    int[] labels;
+    int iteration, m, merge, i, clusters, max;
+
+    rand = new Random();
+    for (iteration = 0; iteration < 30; iteration++) {
+      m = (1 + rand.nextInt(40));
+      // ties may lead to different, equally valid dendrograms
+      matrix = DistanceMatrixQueriesTest.__random(m, rand, false);
+      queries = new DistanceMatrixQueries(matrix);
+      for (final ELinkage linkage : ELinkage.values()) {
+        dendrogram = queries.cluster(linkage);
+        Assert.assertEquals(m, dendrogram.getElementCount());
+        Assert.assertEquals(m - 1, dendrogram.getMergeCount());
+
+        expected = DistanceMatrixQueriesTest.__naiveHeights(matrix,
+            linkage);
+        for (merge = 0; merge < (m - 1); merge++) {
+          Assert.assertEquals(expected[merge],
+              dendrogram.getHeight(merge), 1e-9d);
+          Assert.assertTrue(dendrogram.getLeft(merge) < dendrogram
+              .getRight(merge));
+          Assert.assertTrue(dendrogram.getRight(merge) < (m + merge));
+        }
+        if (m > 1) {
+          Assert.assertEquals(m, dendrogram.getSize(m - 2));
+        }
+
+        clusters = (1 + rand.nextInt(m));
+        labels = dendrogram.cut(clusters);
+        Assert.assertEquals(m, labels.length);
+        max = -1;
+        for (i = 0; i < m; i++) {
+          Assert.assertTrue(labels[i] <= (max + 1));
+          max = Math.max(max, labels[i]);
+        }
+        Assert.assertEquals(clusters - 1, max);
+      }
+    }
+  }
+}
@@ -5,7 +5,13 @@ import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ByteMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.FloatMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.IntMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
 import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ShortMatrix1D;
 import org.optimizationBenchmarking.utils.reflection.EPrimitiveType;
 
 import shared.junit.TestBase;
@@ -400,4 +406,122 @@ public class MatrixBuilderTest extends TestBase {
       }
     }
   }
+
+  /**
+   * Create a random value of the given kind
+   *
+   * @param kind
+   *          the kind: {@code 0} for {@code byte}, {@code 1} for
+   *          {@code short}, {@code 2} for {@code int}, {@code 3} for
+   *          {@code long}, {@code 4} for {@code float}, and {@code 5} for
+   *          {@code double}
+   * @param rand
+   *          the random number generator
+   * @return the value
+   */
+  private static final double __chunkedValue(final int kind,
+      final Random rand) {
+    switch (kind) {
+      case 0: {
+        return ((byte) (rand.nextInt()));
+      }
+      case 1: {
+        return ((short) (rand.nextInt()));
+      }
+      case 2: {
+        return rand.nextInt();
+      }
+      case 3: {
+        return (rand.nextInt() * 4096d);
+      }
+      case 4: {
+        return ((rand.nextInt(1000) + 0.5f) / 8f);
+      }
+      default: {
+        return rand.nextDouble();
+      }
+    }
+  }
+
+  /** test building matrices in chunked mode */
+  @Test(timeout = 3600000)
+  public final void testChunkedMatrixBuilding() {
+    final Random rand;
+    double[] data;
+    long[] row;
+    double value;
+    int testIt, i, j, m, n, kind;
+    long min, max;
+    boolean isInteger, isFloat;
+    MatrixBuilder builder;
+    IMatrix result;
+    Class<?> expected;
+
+    rand = new Random();
+    for (testIt = 1; testIt <= 100; testIt++) {
+      m = (1 + rand.nextInt(200));
+      n = (1 + rand.nextInt(100));
+      kind = rand.nextInt(6);
+      data = new double[m * n];
+      row = new long[n];
+      builder = new MatrixBuilder(true);
+      builder.setN(n);
+
+      isInteger = isFloat = true;
+      min = max = 0L;
+      for (i = 0; i < m; i++) {
+        for (j = 0; j < n; j++) {
+          value = MatrixBuilderTest.__chunkedValue(rand.nextInt(kind + 1),
+              rand);
+          data[(i * n) + j] = value;
+          row[j] = ((long) value);
+          if (value == row[j]) {
+            min = Math.min(min, row[j]);
+            max = Math.max(max, row[j]);
+          } else {
+            isInteger = false;
+          }
+          if (((float) value) != value) {
+            isFloat = false;
+          }
+        }
+        if (rand.nextBoolean() && (kind < 4)) {
+          builder.append(row);
+        } else {
+          for (j = 0; j < n; j++) {
+            builder.append(data[(i * n) + j]);
+          }
+        }
+      }
+
+      result = builder.make();
+      Assert.assertEquals(m, result.m());
+      Assert.assertEquals(n, result.n());
+      for (i = m; (--i) >= 0;) {
+        for (j = n; (--j) >= 0;) {
+          Assert.assertEquals(data[(i * n) + j], result.getDouble(i, j),
+              0d);
+        }
+      }
+
+      if (isInteger) {
+        if ((min >= Byte.MIN_VALUE) && (max <= Byte.MAX_VALUE)) {
+          expected = ByteMatrix1D.class;
+        } else {
+          if ((min >= Short.MIN_VALUE) && (max <= Short.MAX_VALUE)) {
+            expected = ShortMatrix1D.class;
+          } else {
+            if ((min >= Integer.MIN_VALUE) && (max <= Integer.MAX_VALUE)) {
+              expected = IntMatrix1D.class;
+            } else {
+              expected = LongMatrix1D.class;
+            }
+          }
+        }
+      } else {
+        expected = (isFloat ? FloatMatrix1D.class : DoubleMatrix1D.class);
+      }
+      Assert.assertSame(expected, result.getClass());
+    }
+  }
 }
@@ -0,0 +1,88 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixColumnReader;
+
+import shared.junit.TestBase;
+
+/** test the column readers */
+public class MatrixColumnReaderTest extends TestBase {
+
+  /** the constructor */
+  public MatrixColumnReaderTest() {
+    super();
+  }
+
+  /**
+   * check whether the column readers of a matrix return the same values
+   * as the matrix itself
+   *
+   * @param matrix
+   *          the matrix
+   */
+  private static final void __check(final IMatrix matrix) {
+    MatrixColumnReader reader;
+    int i, j;
+
+    for (j = matrix.n(); (--j) >= 0;) {
+      reader = MatrixColumnReader.forColumn(matrix, j);
+      Assert.assertEquals(j, reader.getColumn());
+      Assert.assertEquals(
+          matrix.selectColumns(j).isIntegerMatrix(), reader.isInteger());
+      for (i = matrix.m(); (--i) >= 0;) {
+        Assert.assertEquals(matrix.getLong(i, j), reader.getLong(i));
+        Assert.assertEquals(matrix.getDouble(i, j), reader.getDouble(i),
+            0d);
+      }
+    }
+  }
+
+  /** test the column readers for array-backed matrices */
+  @Test(timeout = 3600000)
+  public void testArrayBackedMatrices() {
+    final Random r;
+    int i, j, k;
+
+    r = new Random();
+    for (k = 100; (--k) >= 0;) {
+      i = (1 + r.nextInt(20));
+      j = (1 + r.nextInt(20));
+      MatrixColumnReaderTest.__check(ByteMatrix1DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(ShortMatrix1DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(IntMatrix1DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(LongMatrix1DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(FloatMatrix1DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(DoubleMatrix1DTest._create(i, j, r));
+    }
+  }
+
+  /** test the column readers for other matrices */
+  @Test(timeout = 3600000)
+  public void testOtherMatrices() {
+    final Random r;
+    int i, j, k;
+
+    r = new Random();
+    for (k = 100; (--k) >= 0;) {
+      i = (1 + r.nextInt(20));
+      j = (1 + r.nextInt(20));
+      MatrixColumnReaderTest.__check(LongMatrix2DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(DoubleMatrix2DTest._create(i, j, r));
+      MatrixColumnReaderTest.__check(//
+          LongMatrix1DTest._create(i, j, r).transpose());
+      MatrixColumnReaderTest.__check(//
+          DoubleMatrix1DTest._create(i, j, r).transpose());
+    }
+  }
+
+  /** test that invalid columns are rejected */
+  @Test(timeout = 3600000, expected = IllegalArgumentException.class)
+  public void testInvalidColumn() {
+    MatrixColumnReader.forColumn(
+        LongMatrix1DTest._create(3, 2, new Random()), 2);
+  }
+}
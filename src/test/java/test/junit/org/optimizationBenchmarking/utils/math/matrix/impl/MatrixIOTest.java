@@ -0,0 +1,280 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.BufferDistanceMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ByteDistanceMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ByteMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ColumnMatrixBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleDistanceMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.FloatMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.IntDistanceMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixIO;
+import org.optimizationBenchmarking.utils.math.matrix.impl.ShortMatrix1D;
+
+import shared.junit.TestBase;
+
+/** A test for reading and writing matrices */
+public class MatrixIOTest extends TestBase {
+
+  /** create */
+  public MatrixIOTest() {
+    super();
+  }
+
+  /**
+   * Write a matrix to memory and read it back
+   *
+   * @param matrix
+   *          the matrix
+   * @param compress
+   *          should the matrix be compressed?
+   * @return the matrix read back
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final IMatrix __roundTrip(final IMatrix matrix,
+      final boolean compress) throws IOException {
+    final ByteArrayOutputStream out;
+    final IMatrix result;
+
+    out = new ByteArrayOutputStream();
+    MatrixIO.write(matrix, out, compress);
+    try (final ByteArrayInputStream in = new ByteArrayInputStream(
+        out.toByteArray())) {
+      result = MatrixIO.read(in);
+      Assert.assertEquals(-1, in.read());
+    }
+    Assert.assertEquals(matrix, result);
+    return result;
+  }
+
+  /**
+   * test that general matrices are read back into the narrowest class
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testNarrowestDense() throws IOException {
+    Assert.assertSame(ByteMatrix1D.class, MatrixIOTest.__roundTrip(
+        new LongMatrix1D(new long[] { 1L, -2L, 3L, 127L }, 2, 2), false)
+        .getClass());
+    Assert.assertSame(ShortMatrix1D.class, MatrixIOTest.__roundTrip(
+        new LongMatrix1D(new long[] { 1L, -2L, 3L, 1270L }, 2, 2), true)
+        .getClass());
+    Assert.assertSame(LongMatrix1D.class,
+        MatrixIOTest.__roundTrip(new LongMatrix1D(
+            new long[] { 1L, Long.MIN_VALUE, 3L, 1270L }, 2, 2), false)
+            .getClass());
+    Assert.assertSame(FloatMatrix1D.class, MatrixIOTest.__roundTrip(
+        new DoubleMatrix1D(new double[] { 1.5d, -2d, 0.25d }, 3, 1),
+        true).getClass());
+    Assert.assertSame(DoubleMatrix1D.class,
+        MatrixIOTest.__roundTrip(
+            new DoubleMatrix1D(new double[] { 0.1d, -2d, 3d }, 1, 3),
+            false).getClass());
+  }
+
+  /**
+   * test that distance matrices are read back into the narrowest
+   * distance matrix class
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testNarrowestDistance() throws IOException {
+    Assert.assertSame(ByteDistanceMatrix1D.class,
+        MatrixIOTest.__roundTrip(
+            new IntDistanceMatrix1D(new int[] { 1, 2, 3 }, 3), true)
+            .getClass());
+    Assert.assertSame(IntDistanceMatrix1D.class,
+        MatrixIOTest.__roundTrip(
+            new IntDistanceMatrix1D(new int[] { 1, 2, 300000 }, 3),
+            false).getClass());
+    Assert.assertSame(DoubleDistanceMatrix1D.class,
+        MatrixIOTest.__roundTrip(new DoubleDistanceMatrix1D(
+            new double[] { 0.1d, 2d, 3d, 4d, 5d, 6d }, 4), false)
+            .getClass());
+    Assert.assertSame(ByteDistanceMatrix1D.class, MatrixIOTest
+        .__roundTrip(new IntDistanceMatrix1D(new int[0], 1), false)
+        .getClass());
+  }
+
+  /**
+   * test that empty matrices are rejected when written, before anything
+   * is written, and when read, as a file of an empty matrix could not be
+   * read back into any matrix class
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testEmptyRoundTrip() throws IOException {
+    final ByteArrayOutputStream out;
+    final byte[] bytes;
+
+    out = new ByteArrayOutputStream();
+    for (final IMatrix empty : new IMatrix[] { //
+        new AbstractMatrix() {
+          // a 0*0 matrix
+        }, //
+        new AbstractMatrix() {
+          /** {@inheritDoc} */
+          @Override
+          public final int n() {
+            return 3;
+          }
+        } }) {
+      for (final boolean compress : new boolean[] { false, true }) {
+        try {
+          MatrixIO.write(empty, out, compress);
+          Assert.fail("Empty matrix was written."); //$NON-NLS-1$
+        } catch (final IllegalArgumentException expected) {
+          Assert.assertEquals(0, out.size());
+        }
+      }
+    }
+
+    // a file whose header claims a 0*1 matrix must not be read
+    MatrixIO.write(new ByteMatrix1D(new byte[] { 1 }, 1, 1), out, false);
+    bytes = out.toByteArray();
+    bytes[16] = bytes[17] = bytes[18] = bytes[19] = 0;
+    try (final ByteArrayInputStream in = new ByteArrayInputStream(bytes)) {
+      MatrixIO.read(in);
+      Assert.fail("Empty matrix was read."); //$NON-NLS-1$
+    } catch (final IOException expected) {
+      // the header check rejects the empty matrix
+    }
+  }
+
+  /**
+   * test that sections larger than the chunks in which uncompressed
+   * sections are written and read are transferred correctly
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testLargeSections() throws IOException {
+    final Random rand;
+    final double[] distances, values;
+    int k;
+
+    rand = new Random();
+    distances = new double[(301 * 300) >>> 1];
+    for (k = distances.length; (--k) >= 0;) {
+      distances[k] = rand.nextDouble();
+    }
+    values = new double[3 * 10001];
+    for (k = values.length; (--k) >= 0;) {
+      values[k] = ((k % 3) == 0) ? k : rand.nextGaussian();
+    }
+
+    for (final boolean compress : new boolean[] { false, true }) {
+      MatrixIOTest.__roundTrip(new DoubleDistanceMatrix1D(distances, 301),
+          compress);
+      MatrixIOTest.__roundTrip(new DoubleMatrix1D(values, 10001, 3),
+          compress);
+    }
+  }
+
+  /**
+   * Create a random matrix with columns of different types
+   *
+   * @param rand
+   *          the random number generator
+   * @return the matrix
+   */
+  private static final ColumnMatrix __randomMatrix(final Random rand) {
+    final ColumnMatrixBuilder builder;
+    final int m, n;
+    final int[] kinds;
+    final Number[] previous;
+    Number value;
+    int i, j;
+
+    m = (1 + rand.nextInt(300));
+    n = (1 + rand.nextInt(8));
+    kinds = new int[n];
+    for (j = n; (--j) >= 0;) {
+      kinds[j] = rand.nextInt(9);
+    }
+    previous = new Number[n];
+    builder = new ColumnMatrixBuilder(n);
+    for (i = 0; i < m; i++) {
+      for (j = 0; j < n; j++) {
+        previous[j] = value = ColumnMatrixBuilderTest._value(kinds[j], i,
+            previous[j], rand);
+        if (value instanceof Double) {
+          builder.append(value.doubleValue());
+        } else {
+          builder.append(value.longValue());
+        }
+      }
+    }
+    return builder.make();
+  }
+
+  /**
+   * test writing random matrices to files, reading them, and mapping
+   * them
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testFiles() throws IOException {
+    final Random rand;
+    final Path file;
+    IMatrix matrix, result;
+    int[] distances;
+    int i, k, m;
+    boolean compress;
+
+    rand = new Random();
+    file = Files.createTempFile("matrix", ".bin"); //$NON-NLS-1$//$NON-NLS-2$
+    try {
+      for (i = 0; i < 50; i++) {
+        if (rand.nextBoolean()) {
+          matrix = MatrixIOTest.__randomMatrix(rand);
+        } else {
+          m = (1 + rand.nextInt(60));
+          distances = new int[(m * (m - 1)) >>> 1];
+          for (k = distances.length; (--k) >= 0;) {
+            distances[k] = rand.nextInt(1 << rand.nextInt(31));
+          }
+          matrix = new IntDistanceMatrix1D(distances, m);
+        }
+
+        compress = rand.nextBoolean();
+        MatrixIO.write(matrix, file, compress);
+        Assert.assertEquals(matrix, MatrixIO.read(file));
+
+        result = MatrixIO.map(file);
+        Assert.assertEquals(matrix, result);
+        if (!compress) {
+          Assert.assertSame(
+              ((matrix instanceof IntDistanceMatrix1D)
+                  ? BufferDistanceMatrix.class : ColumnMatrix.class),
+              result.getClass());
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
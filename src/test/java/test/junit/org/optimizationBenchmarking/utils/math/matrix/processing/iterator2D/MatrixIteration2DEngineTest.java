@@ -0,0 +1,203 @@
+package test.junit.org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.collections.visitors.IVisitor;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationDirection;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationEngine;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EMissingValueMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState;
+
+import shared.junit.TestBase;
+
+/**
+ * Test that all iteration engines produce exactly the same sequence of
+ * {@code x} and {@code y} coordinates on random data with many matrices,
+ * in which only few matrices advance in each step.
+ */
+public class MatrixIteration2DEngineTest extends TestBase {
+
+  /** create */
+  public MatrixIteration2DEngineTest() {
+    super();
+  }
+
+  /**
+   * create random matrices with sorted {@code x} coordinates
+   *
+   * @param rand
+   *          the random number generator
+   * @param integer
+   *          should the matrices be integer matrices?
+   * @param direction
+   *          the iteration direction
+   * @return the matrices
+   */
+  private static final IMatrix[] __matrices(final Random rand,
+      final boolean integer, final EIterationDirection direction) {
+    final IMatrix[] matrices;
+    final int count;
+    long[] longs;
+    double[] doubles;
+    int index, m, row, x;
+
+    count = (1 + rand.nextInt(40));
+    matrices = new IMatrix[count];
+    for (index = 0; index < count; index++) {
+      m = (1 + rand.nextInt(12));
+      x = rand.nextInt(50);
+      if (integer) {
+        longs = new long[m << 1];
+        for (row = 0; row < m; row++) {
+          x += rand.nextInt(4);
+          longs[row << 1] = ((direction == EIterationDirection.INCREASING)
+              ? x : (-x));
+          longs[(row << 1) + 1] = rand.nextInt(100);
+        }
+        matrices[index] = new LongMatrix1D(longs, m, 2);
+      } else {
+        doubles = new double[m << 1];
+        for (row = 0; row < m; row++) {
+          x += rand.nextInt(4);
+          doubles[row << 1] = ((direction == EIterationDirection.INCREASING)
+              ? (0.5d * x) : (-0.5d * x));
+          doubles[(row << 1) + 1] = (rand.nextBoolean()
+              ? rand.nextInt(100) : rand.nextDouble());
+        }
+        matrices[index] = new DoubleMatrix1D(doubles, m, 2);
+      }
+    }
+    return matrices;
+  }
+
+  /**
+   * record all steps of an iteration
+   *
+   * @param matrices
+   *          the matrices
+   * @param direction
+   *          the iteration direction
+   * @param mode
+   *          the iteration mode
+   * @param start
+   *          the start mode
+   * @param end
+   *          the end mode
+   * @param engine
+   *          the iteration engine
+   * @return the steps, or {@code null} if the modes cannot be combined
+   */
+  private static final ArrayList<String> __steps(final IMatrix[] matrices,
+      final EIterationDirection direction, final EIterationMode mode,
+      final EMissingValueMode start, final EMissingValueMode end,
+      final EIterationEngine engine) {
+    final MatrixIteration2DBuilder builder;
+    final ArrayList<String> steps;
+
+    steps = new ArrayList<>();
+    builder = new MatrixIteration2DBuilder();
+    builder.setMatrices(matrices);
+    builder.setXDimension(0);
+    builder.setYDimension(1);
+    builder.setXDirection(direction);
+    builder.setIterationMode(mode);
+    builder.setIterationEngine(engine);
+    try {
+      if (start == EMissingValueMode.SET_TO_VALUE) {
+        builder.setStartReplacement(Integer.valueOf(-1));
+      } else {
+        builder.setStartMode(start);
+      }
+      if (end == EMissingValueMode.SET_TO_VALUE) {
+        builder.setEndReplacement(Integer.valueOf(-2));
+      } else {
+        builder.setEndMode(end);
+      }
+      builder.setVisitor(new IVisitor<MatrixIteration2DState>() {
+        @Override
+        public final boolean visit(final MatrixIteration2DState state) {
+          final AbstractMatrix y;
+          final StringBuilder sb;
+          final int[] changed;
+          int index;
+
+          y = state.getY();
+          sb = new StringBuilder();
+          sb.append(state.getX());
+          sb.append(':');
+          sb.append(y.isIntegerMatrix());
+          for (index = 0; index < y.n(); index++) {
+            sb.append(' ');
+            sb.append(state.getSourceMatrixIndex(index));
+            sb.append('=');
+            sb.append(y.getDouble(0, index));
+          }
+
+          // the engines may report the changed matrices in any order
+          changed = new int[state.getChangedSourceMatrixCount()];
+          for (index = 0; index < changed.length; index++) {
+            changed[index] = state.getChangedSourceMatrixIndex(index);
+          }
+          Arrays.sort(changed);
+          sb.append(" changed ");//$NON-NLS-1$
+          sb.append(Arrays.toString(changed));
+          steps.add(sb.toString());
+          return true;
+        }
+      }).create().run();
+    } catch (final IllegalArgumentException invalidCombination) {
+      return null;
+    }
+    return steps;
+  }
+
+  /** compare the engines on random data */
+  @Test(timeout = 3600000)
+  public void testEnginesAreEquivalent() {
+    final long seed;
+    final Random rand;
+    IMatrix[] matrices;
+    ArrayList<String> expected, actual;
+    int round;
+    boolean integer;
+
+    seed = 1234567L;
+    rand = new Random(seed);
+    for (round = 0; round < 100; round++) {
+      integer = rand.nextBoolean();
+      for (final EIterationDirection direction : EIterationDirection
+          .values()) {
+        matrices = MatrixIteration2DEngineTest.__matrices(rand, integer,
+            direction);
+        for (final EIterationMode mode : EIterationMode.values()) {
+          for (final EMissingValueMode start : EMissingValueMode
+              .values()) {
+            for (final EMissingValueMode end : EMissingValueMode
+                .values()) {
+              expected = MatrixIteration2DEngineTest.__steps(matrices,
+                  direction, mode, start, end,
+                  EIterationEngine.LINEAR_SCAN);
+              actual = MatrixIteration2DEngineTest.__steps(matrices,
+                  direction, mode, start, end,
+                  EIterationEngine.PRIORITY_QUEUE);
+              Assert.assertEquals(((((((((("seed " + seed) + //$NON-NLS-1$
+                  ", round ") + round) + ", ") + direction) + ", ") //$NON-NLS-1$//$NON-NLS-2$
+                  + mode) + ", ") + Arrays.asList(start, end)), //$NON-NLS-1$
+                  expected, actual);
+            }
+          }
+        }
+      }
+    }
+  }
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 import org.optimizationBenchmarking.utils.collections.visitors.IVisitor;
 import org.optimizationBenchmarking.utils.math.BasicNumber;
 import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationEngine;
 import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DBuilder;
 import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState;
 
@@ -41,6 +42,23 @@ public abstract class MatrixIteration2DTest extends TestBase {
     this.checkTotalSteps(visitor.m_step);
   }
 
+  /**
+   * test whether the iteration proceeds exactly as expected when using the
+   * priority queue-based engine
+   */
+  @Test(timeout = 3600000)
+  public void testIterationWithPriorityQueue() {
+    final MatrixIteration2DBuilder builder;
+    final __Visitor visitor;
+
+    visitor = new __Visitor();
+    builder = new MatrixIteration2DBuilder();
+    this.setup(builder);
+    builder.setIterationEngine(EIterationEngine.PRIORITY_QUEUE);
+    builder.setVisitor(visitor).create().run();
+    this.checkTotalSteps(visitor.m_step);
+  }
+
   /**
    * Check the state at the given index
    *
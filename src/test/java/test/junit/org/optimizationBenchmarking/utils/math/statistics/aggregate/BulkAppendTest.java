@@ -0,0 +1,324 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.MatrixBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IBulkAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuickStableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.VarianceAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.statisticInfo.StatisticInfo;
+import org.optimizationBenchmarking.utils.math.statistics.statisticInfo.StatisticInfoBuilder;
+
+/**
+ * A test of appending slices of arrays to aggregates: The results must be
+ * the same as when appending the values one by one.
+ */
+public class BulkAppendTest {
+
+  /** test the minimum */
+  @Test(timeout = 3600000)
+  public void testMinimum() {
+    BulkAppendTest.__testScalar(new MinimumAggregate(),
+        new MinimumAggregate());
+  }
+
+  /** test the maximum */
+  @Test(timeout = 3600000)
+  public void testMaximum() {
+    BulkAppendTest.__testScalar(new MaximumAggregate(),
+        new MaximumAggregate());
+  }
+
+  /** test the stable sum */
+  @Test(timeout = 3600000)
+  public void testStableSum() {
+    BulkAppendTest.__testScalar(new StableSum(), new StableSum());
+  }
+
+  /** test the quick stable sum */
+  @Test(timeout = 3600000)
+  public void testQuickStableSum() {
+    BulkAppendTest.__testScalar(new QuickStableSum(), new QuickStableSum());
+  }
+
+  /** test the arithmetic mean */
+  @Test(timeout = 3600000)
+  public void testArithmeticMean() {
+    BulkAppendTest.__testScalar(new ArithmeticMeanAggregate(),
+        new ArithmeticMeanAggregate());
+  }
+
+  /** test the variance, which uses the default bulk append */
+  @Test(timeout = 3600000)
+  public void testVariance() {
+    BulkAppendTest.__testScalar(new VarianceAggregate(),
+        new VarianceAggregate());
+  }
+
+  /** test the median */
+  @Test(timeout = 3600000)
+  public void testMedian() {
+    final Random random;
+    QuantileAggregate single, bulk;
+    double p;
+    int round;
+
+    random = new Random();
+    for (round = 0; round < 300; round++) {
+      p = random.nextDouble();
+      single = new QuantileAggregate(p);
+      bulk = new QuantileAggregate(p);
+      BulkAppendTest.__fill(random, single, bulk, true);
+      BulkAppendTest.__assertEquals(single, bulk);
+    }
+  }
+
+  /** test the statistic info builder */
+  @Test(timeout = 3600000)
+  public void testStatisticInfo() {
+    final Random random;
+    StatisticInfoBuilder single, bulk;
+    StatisticInfo a, b;
+    int round;
+
+    random = new Random();
+    for (round = 0; round < 100; round++) {
+      single = new StatisticInfoBuilder();
+      bulk = new StatisticInfoBuilder();
+      if (BulkAppendTest.__fill(random, single, bulk, false) <= 0) {
+        continue;
+      }
+      a = single.build();
+      b = bulk.build();
+      Assert.assertEquals(a.getSampleSize(), b.getSampleSize());
+      Assert.assertEquals(a.getMinimum(), b.getMinimum());
+      Assert.assertEquals(a.getMaximum(), b.getMaximum());
+      Assert.assertEquals(a.getArithmeticMean(), b.getArithmeticMean());
+      Assert.assertEquals(a.getMedian(), b.getMedian());
+      Assert.assertEquals(a.get05Quantile(), b.get05Quantile());
+      Assert.assertEquals(a.get95Quantile(), b.get95Quantile());
+    }
+  }
+
+  /** test the matrix builder */
+  @Test(timeout = 3600000)
+  public void testMatrixBuilder() {
+    final Random random;
+    MatrixBuilder single, bulk;
+    AbstractMatrix a, b;
+    int round, index;
+
+    random = new Random();
+    for (round = 0; round < 300; round++) {
+      single = new MatrixBuilder();
+      bulk = new MatrixBuilder();
+      if (BulkAppendTest.__fill(random, single, bulk, true) <= 0) {
+        continue;
+      }
+      a = single.make();
+      b = bulk.make();
+      Assert.assertEquals(a.m(), b.m());
+      Assert.assertEquals(a.n(), b.n());
+      Assert.assertEquals(a.isIntegerMatrix(), b.isIntegerMatrix());
+      for (index = a.m(); (--index) >= 0;) {
+        Assert.assertEquals(a.getDouble(index, 0), b.getDouble(index, 0),
+            0d);
+        if (a.isIntegerMatrix()) {
+          Assert.assertEquals(a.getLong(index, 0), b.getLong(index, 0));
+        }
+      }
+    }
+  }
+
+  /** test aggregating matrix columns and rows via the bulk path */
+  @Test(timeout = 3600000)
+  public void testMatrixAggregation() {
+    final Random random;
+    final long[] longs;
+    final double[] doubles;
+    final LongMatrix1D longMatrix;
+    final DoubleMatrix1D doubleMatrix;
+    StableSum single, bulk;
+    int index, row;
+
+    random = new Random();
+    longs = new long[3 * 3001];
+    doubles = new double[longs.length];
+    for (index = longs.length; (--index) >= 0;) {
+      longs[index] = (random.nextInt(2000001) - 1000000);
+      doubles[index] = (random.nextGaussian() * 1000d);
+    }
+    longMatrix = new LongMatrix1D(longs, 3001, 3);
+    doubleMatrix = new DoubleMatrix1D(doubles, 3001, 3);
+
+    for (index = 0; index < 3; index++) {
+      single = new StableSum();
+      bulk = new StableSum();
+      for (row = 3001; (--row) >= 0;) {
+        single.append(longMatrix.getLong(row, index));
+      }
+      longMatrix.aggregateColumn(index, bulk);
+      BulkAppendTest.__assertEquals(single, bulk);
+
+      single = new StableSum();
+      bulk = new StableSum();
+      for (row = 3001; (--row) >= 0;) {
+        single.append(doubleMatrix.getDouble(row, index));
+      }
+      doubleMatrix.aggregateColumn(index, bulk);
+      Assert.assertEquals(single.doubleValue(), bulk.doubleValue(),
+          Math.abs(1e-12d * single.doubleValue()));
+    }
+
+    single = new StableSum();
+    bulk = new StableSum();
+    for (index = 0; index < 3; index++) {
+      single.append(longs[(17 * 3) + index]);
+    }
+    longMatrix.aggregateRow(17, bulk);
+    BulkAppendTest.__assertEquals(single, bulk);
+  }
+
+  /**
+   * Fill two aggregates with the same random data, one value by value and
+   * the other via random slices of {@code long} and {@code double} arrays
+   *
+   * @param random
+   *          the random number generator
+   * @param single
+   *          the aggregate to append to value by value
+   * @param bulk
+   *          the aggregate to append to in slices
+   * @param special
+   *          should we generate infinities and {@code NaN}s?
+   * @return the number of values appended
+   */
+  private static final int __fill(final Random random,
+      final IBulkAggregate single, final IBulkAggregate bulk,
+      final boolean special) {
+    final int mode;
+    int total, chunk, size, start, index;
+    long[] longs;
+    double[] doubles;
+
+    total = 0;
+    mode = random.nextInt(3);
+    for (chunk = random.nextInt(10); (--chunk) >= 0;) {
+      size = random.nextInt(300);
+      start = random.nextInt(5);
+      if ((mode == 0) || ((mode == 2) && random.nextBoolean())) {
+        longs = new long[start + size + random.nextInt(5)];
+        for (index = start; index < (start + size); index++) {
+          longs[index] = (random.nextInt(2001) - 1000);
+          single.append(longs[index]);
+        }
+        bulk.append(longs, start, (start + size));
+      } else {
+        doubles = new double[start + size + random.nextInt(5)];
+        for (index = start; index < (start + size); index++) {
+          doubles[index] = BulkAppendTest.__double(random, special);
+          single.append(doubles[index]);
+        }
+        bulk.append(doubles, start, (start + size));
+      }
+      total += size;
+    }
+    return total;
+  }
+
+  /**
+   * Create a random {@code double}, which is integer in about half of the
+   * cases
+   *
+   * @param random
+   *          the random number generator
+   * @param special
+   *          should we generate infinities and {@code NaN}s?
+   * @return the value
+   */
+  private static final double __double(final Random random,
+      final boolean special) {
+    if (special) {
+      switch (random.nextInt(400)) {
+        case 0: {
+          return Double.POSITIVE_INFINITY;
+        }
+        case 1: {
+          return Double.NEGATIVE_INFINITY;
+        }
+        case 2: {
+          return Double.NaN;
+        }
+        default: {
+          // normal value
+        }
+      }
+    }
+    if (random.nextBoolean()) {
+      return (random.nextInt(2001) - 1000);
+    }
+    return (random.nextGaussian() * 1000d);
+  }
+
+  /**
+   * Fill two scalar aggregates with random data and compare them
+   *
+   * @param single
+   *          the aggregate to append to value by value
+   * @param bulk
+   *          the aggregate to append to in slices
+   */
+  private static final void __testScalar(final ScalarAggregate single,
+      final ScalarAggregate bulk) {
+    final Random random;
+    int round;
+
+    random = new Random();
+    for (round = 0; round < 300; round++) {
+      single.reset();
+      bulk.reset();
+      BulkAppendTest.__fill(random, single, bulk, true);
+      BulkAppendTest.__assertEquals(single, bulk);
+    }
+  }
+
+  /**
+   * Assert that two aggregates have the same result
+   *
+   * @param single
+   *          the aggregate appended to value by value
+   * @param bulk
+   *          the aggregate appended to in slices
+   */
+  private static final void __assertEquals(final ScalarAggregate single,
+      final ScalarAggregate bulk) {
+    final double expected;
+
+    Assert.assertEquals(single.getState(), bulk.getState());
+    if (single.getState() == BasicNumber.STATE_EMPTY) {
+      return;
+    }
+    expected = single.doubleValue();
+    if ((expected != expected) || Double.isInfinite(expected)) {
+      Assert.assertEquals(expected, bulk.doubleValue(), 0d);
+    } else {
+      Assert.assertEquals(expected, bulk.doubleValue(),
+          Math.max(1e-12d, Math.abs(1e-12d * expected)));
+    }
+    if (single.isInteger()) {
+      Assert.assertEquals(single.longValue(), bulk.longValue());
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IIncrementalAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalMaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalMinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalQuantileDataStore;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalVarianceAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.InterQuantileRangeAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.VarianceAggregate;
+
+/**
+ * A test of the incremental aggregates: Values are randomly appended and
+ * removed, and the result is compared with a normal aggregate computed
+ * from scratch.
+ */
+public class IncrementalAggregateTest {
+
+  /** test the incremental minimum with {@code long}s */
+  @Test(timeout = 3600000)
+  public void testMinimumLongs() {
+    IncrementalAggregateTest.__test(new IncrementalMinimumAggregate(),
+        new MinimumAggregate(), false, false, 0d);
+  }
+
+  /** test the incremental minimum with {@code double}s */
+  @Test(timeout = 3600000)
+  public void testMinimumDoubles() {
+    IncrementalAggregateTest.__test(new IncrementalMinimumAggregate(),
+        new MinimumAggregate(), true, false, 0d);
+  }
+
+  /** test the incremental minimum with infinities and {@code NaN}s */
+  @Test(timeout = 3600000)
+  public void testMinimumSpecial() {
+    IncrementalAggregateTest.__test(new IncrementalMinimumAggregate(),
+        new MinimumAggregate(), true, true, 0d);
+  }
+
+  /** test the incremental maximum with {@code long}s */
+  @Test(timeout = 3600000)
+  public void testMaximumLongs() {
+    IncrementalAggregateTest.__test(new IncrementalMaximumAggregate(),
+        new MaximumAggregate(), false, false, 0d);
+  }
+
+  /** test the incremental maximum with {@code double}s */
+  @Test(timeout = 3600000)
+  public void testMaximumDoubles() {
+    IncrementalAggregateTest.__test(new IncrementalMaximumAggregate(),
+        new MaximumAggregate(), true, false, 0d);
+  }
+
+  /** test the incremental maximum with infinities and {@code NaN}s */
+  @Test(timeout = 3600000)
+  public void testMaximumSpecial() {
+    IncrementalAggregateTest.__test(new IncrementalMaximumAggregate(),
+        new MaximumAggregate(), true, true, 0d);
+  }
+
+  /** test the incremental arithmetic mean with {@code long}s */
+  @Test(timeout = 3600000)
+  public void testArithmeticMeanLongs() {
+    IncrementalAggregateTest.__test(
+        new IncrementalArithmeticMeanAggregate(),
+        new ArithmeticMeanAggregate(), false, false, 1e-14d);
+  }
+
+  /** test the incremental arithmetic mean with {@code double}s */
+  @Test(timeout = 3600000)
+  public void testArithmeticMeanDoubles() {
+    IncrementalAggregateTest.__test(
+        new IncrementalArithmeticMeanAggregate(),
+        new ArithmeticMeanAggregate(), true, false, 1e-10d);
+  }
+
+  /** test the incremental arithmetic mean with infinities and NaNs */
+  @Test(timeout = 3600000)
+  public void testArithmeticMeanSpecial() {
+    IncrementalAggregateTest.__test(
+        new IncrementalArithmeticMeanAggregate(),
+        new ArithmeticMeanAggregate(), true, true, 1e-10d);
+  }
+
+  /** test the incremental variance with {@code long}s */
+  @Test(timeout = 3600000)
+  public void testVarianceLongs() {
+    IncrementalAggregateTest.__test(new IncrementalVarianceAggregate(),
+        new VarianceAggregate(), false, false, 1e-10d);
+  }
+
+  /** test the incremental variance with {@code double}s */
+  @Test(timeout = 3600000)
+  public void testVarianceDoubles() {
+    IncrementalAggregateTest.__test(new IncrementalVarianceAggregate(),
+        new VarianceAggregate(), true, false, 1e-8d);
+  }
+
+  /** test the quantile with an incremental store and {@code long}s */
+  @Test(timeout = 3600000)
+  public void testIncrementalQuantileLongs() {
+    IncrementalAggregateTest.__test(
+        new QuantileAggregate(0.3d, new IncrementalQuantileDataStore()),
+        new QuantileAggregate(0.3d), false, false, 0d);
+  }
+
+  /** test the median with an incremental store and {@code double}s */
+  @Test(timeout = 3600000)
+  public void testIncrementalMedianDoubles() {
+    IncrementalAggregateTest.__test(
+        new QuantileAggregate(0.5d, new IncrementalQuantileDataStore()),
+        new QuantileAggregate(0.5d), true, false, 0d);
+  }
+
+  /**
+   * test the quantile with an incremental store, infinities and
+   * {@code NaN}s
+   */
+  @Test(timeout = 3600000)
+  public void testIncrementalQuantileSpecial() {
+    IncrementalAggregateTest.__test(
+        new QuantileAggregate(0.9d, new IncrementalQuantileDataStore()),
+        new QuantileAggregate(0.9d), true, true, 0d);
+  }
+
+  /**
+   * test the inter-quantile range with an incremental store and
+   * {@code double}s
+   */
+  @Test(timeout = 3600000)
+  public void testIncrementalInterQuantileRangeDoubles() {
+    IncrementalAggregateTest.__test(
+        new InterQuantileRangeAggregate(0.25d, 0.75d,
+            new IncrementalQuantileDataStore()),
+        new InterQuantileRangeAggregate(0.25d, 0.75d), true, false, 0d);
+  }
+
+  /** test removing values from the array-based quantile data store */
+  @Test(timeout = 3600000)
+  public void testQuantileRemoveLongs() {
+    IncrementalAggregateTest.__test(new QuantileAggregate(0.7d),
+        new QuantileAggregate(0.7d), false, false, 0d);
+  }
+
+  /**
+   * test that the incremental extrema correctly compare {@code long}s
+   * with nearby {@code double}s
+   */
+  @Test(timeout = 3600000)
+  public void testExtremaOfMixedValues() {
+    final IncrementalMinimumAggregate min;
+    final IncrementalMaximumAggregate max;
+
+    min = new IncrementalMinimumAggregate();
+    max = new IncrementalMaximumAggregate();
+    min.append(-98L);
+    min.append(-98.5d);
+    max.append(98L);
+    max.append(98.5d);
+    Assert.assertEquals(-98.5d, min.doubleValue(), 0d);
+    Assert.assertEquals(98.5d, max.doubleValue(), 0d);
+
+    min.remove(-98.5d);
+    max.remove(98.5d);
+    Assert.assertEquals(-98L, min.longValue());
+    Assert.assertEquals(98L, max.longValue());
+
+    min.append(-97.5d);
+    max.append(97.5d);
+    Assert.assertEquals(-98L, min.longValue());
+    Assert.assertEquals(98L, max.longValue());
+  }
+
+  /**
+   * test that the incremental variance stays precise if huge values are
+   * appended first and removed later
+   */
+  @Test(timeout = 3600000)
+  public void testVarianceAfterRemovingHugeValues() {
+    final IncrementalVarianceAggregate incremental;
+    final VarianceAggregate reference;
+    final Random random;
+    long longValue;
+    double doubleValue;
+    int i;
+
+    random = new Random();
+    incremental = new IncrementalVarianceAggregate();
+    reference = new VarianceAggregate();
+
+    incremental.append(Long.MAX_VALUE);
+    incremental.append(1e300d);
+    for (i = 0; i < 100; i++) {
+      longValue = (random.nextInt(1000) + 1000000000L);
+      incremental.append(longValue);
+      reference.append(longValue);
+      doubleValue = (random.nextDouble() + 1000000000d);
+      incremental.append(doubleValue);
+      reference.append(doubleValue);
+    }
+    incremental.remove(1e300d);
+    incremental.remove(Long.MAX_VALUE);
+
+    Assert.assertEquals(reference.doubleValue(),
+        incremental.doubleValue(), (reference.doubleValue() * 1e-10d));
+  }
+
+  /**
+   * Create a random value
+   *
+   * @param random
+   *          the random number generator
+   * @param doubles
+   *          should {@code double} values be created?
+   * @param special
+   *          should infinities and {@code NaN}s be created?
+   * @return the value
+   */
+  private static final Number __value(final Random random,
+      final boolean doubles, final boolean special) {
+    if (special && (random.nextInt(50) <= 0)) {
+      switch (random.nextInt(3)) {
+        case 0: {
+          return Double.valueOf(Double.NaN);
+        }
+        case 1: {
+          return Double.valueOf(Double.POSITIVE_INFINITY);
+        }
+        default: {
+          return Double.valueOf(Double.NEGATIVE_INFINITY);
+        }
+      }
+    }
+    if (doubles && random.nextBoolean()) {
+      return Double.valueOf((random.nextDouble() - 0.5d) * 1e6d);
+    }
+    if (random.nextInt(20) <= 0) {
+      return Long.valueOf(random.nextLong() >> random.nextInt(24));
+    }
+    return Long.valueOf(random.nextInt(2001) - 1000);
+  }
+
+  /**
+   * Add a value to an aggregate
+   *
+   * @param aggregate
+   *          the aggregate
+   * @param value
+   *          the value
+   */
+  private static final void __append(final ScalarAggregate aggregate,
+      final Number value) {
+    if (value instanceof Long) {
+      aggregate.append(value.longValue());
+    } else {
+      aggregate.append(value.doubleValue());
+    }
+  }
+
+  /**
+   * Perform a test
+   *
+   * @param incremental
+   *          the incremental aggregate
+   * @param reference
+   *          the reference aggregate
+   * @param doubles
+   *          should {@code double} values be created?
+   * @param special
+   *          should infinities and {@code NaN}s be created?
+   * @param tolerance
+   *          the relative tolerance
+   */
+  private static final void __test(final ScalarAggregate incremental,
+      final ScalarAggregate reference, final boolean doubles,
+      final boolean special, final double tolerance) {
+    final Random random;
+    final ArrayList<Number> values;
+    Number value;
+    double expected;
+    int step, index;
+
+    random = new Random();
+    values = new ArrayList<>();
+
+    for (step = 0; step < 3000; step++) {
+      if ((values.size() > 0) && (random.nextInt(5) <= 1)) {
+        value = values.remove(random.nextInt(values.size()));
+        if (value instanceof Long) {
+          ((IIncrementalAggregate) incremental).remove(value.longValue());
+        } else {
+          ((IIncrementalAggregate) incremental)
+              .remove(value.doubleValue());
+        }
+      } else {
+        value = IncrementalAggregateTest.__value(random, doubles, special);
+        values.add(value);
+        IncrementalAggregateTest.__append(incremental, value);
+      }
+
+      reference.reset();
+      for (index = values.size(); (--index) >= 0;) {
+        IncrementalAggregateTest.__append(reference, values.get(index));
+      }
+
+      if (reference.getState() == BasicNumber.STATE_EMPTY) {
+        Assert.assertEquals(BasicNumber.STATE_EMPTY,
+            incremental.getState());
+        continue;
+      }
+
+      expected = reference.doubleValue();
+      if ((tolerance <= 0d) || (expected != expected)
+          || Double.isInfinite(expected)) {
+        Assert.assertEquals(reference.getState(), incremental.getState());
+        Assert.assertEquals(expected, incremental.doubleValue(), 0d);
+        if (reference.isInteger()) {
+          Assert.assertEquals(reference.longValue(),
+              incremental.longValue());
+        }
+      } else {
+        Assert.assertEquals(expected, incremental.doubleValue(),
+            Math.max(tolerance, (Math.abs(expected) * tolerance)));
+      }
+    }
+  }
+}
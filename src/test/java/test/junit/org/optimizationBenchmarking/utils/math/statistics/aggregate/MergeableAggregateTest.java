@@ -0,0 +1,319 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.BasicNumber;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.CoefficientOfVariationAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IMergeableAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MaximumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.MinimumAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ParallelColumnAggregationJob;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuickStableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ScalarAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StableSum;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.StandardDeviationAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.VarianceAggregate;
+
+/**
+ * A test of merging aggregates: The data is split into random chunks,
+ * each chunk is aggregated separately, and the merged result is compared
+ * with an aggregate computed over all the data.
+ */
+public class MergeableAggregateTest {
+
+  /** test merging minima */
+  @Test(timeout = 3600000)
+  public void testMinimum() {
+    MergeableAggregateTest.__test(new MinimumAggregate(), false, false,
+        0d);
+    MergeableAggregateTest.__test(new MinimumAggregate(), true, false,
+        0d);
+    MergeableAggregateTest.__test(new MinimumAggregate(), true, true, 0d);
+  }
+
+  /** test merging maxima */
+  @Test(timeout = 3600000)
+  public void testMaximum() {
+    MergeableAggregateTest.__test(new MaximumAggregate(), false, false,
+        0d);
+    MergeableAggregateTest.__test(new MaximumAggregate(), true, false,
+        0d);
+    MergeableAggregateTest.__test(new MaximumAggregate(), true, true, 0d);
+  }
+
+  /** test merging stable sums */
+  @Test(timeout = 3600000)
+  public void testStableSum() {
+    MergeableAggregateTest.__test(new StableSum(), false, false, 0d);
+    MergeableAggregateTest.__test(new StableSum(), true, false, 1e-12d);
+    MergeableAggregateTest.__test(new StableSum(), true, true, 1e-12d);
+  }
+
+  /** test merging quick stable sums */
+  @Test(timeout = 3600000)
+  public void testQuickStableSum() {
+    MergeableAggregateTest.__test(new QuickStableSum(), false, false, 0d);
+    MergeableAggregateTest.__test(new QuickStableSum(), true, false,
+        1e-12d);
+  }
+
+  /** test merging stable sums which have overflown */
+  @Test(timeout = 3600000)
+  public void testStableSumOverflow() {
+    final StableSum a, b, all;
+    int index;
+
+    a = new StableSum();
+    b = new StableSum();
+    all = new StableSum();
+    for (index = 0; index < 10; index++) {
+      a.append(0.75d * Double.MAX_VALUE);
+      all.append(0.75d * Double.MAX_VALUE);
+    }
+    for (index = 0; index < 3; index++) {
+      b.append(-0.75d * Double.MAX_VALUE);
+      all.append(-0.75d * Double.MAX_VALUE);
+    }
+    Assert.assertEquals(BasicNumber.STATE_POSITIVE_OVERFLOW, a.getState());
+    a.merge(b);
+    Assert.assertEquals(all.getState(), a.getState());
+
+    b.reset();
+    b.append(0.75d * Double.MAX_VALUE);
+    b.append(0.75d * Double.MAX_VALUE);
+    all.append(0.75d * Double.MAX_VALUE);
+    all.append(0.75d * Double.MAX_VALUE);
+    a.merge(b);
+    Assert.assertEquals(all.getState(), a.getState());
+    for (index = 0; index < 9; index++) {
+      a.append(-0.75d * Double.MAX_VALUE);
+      all.append(-0.75d * Double.MAX_VALUE);
+    }
+    Assert.assertEquals(all.getState(), a.getState());
+    Assert.assertEquals(all.doubleValue(), a.doubleValue(),
+        Math.abs(1e-12d * all.doubleValue()));
+  }
+
+  /** test merging arithmetic means */
+  @Test(timeout = 3600000)
+  public void testArithmeticMean() {
+    MergeableAggregateTest.__test(new ArithmeticMeanAggregate(), false,
+        false, 1e-14d);
+    MergeableAggregateTest.__test(new ArithmeticMeanAggregate(), true,
+        false, 1e-12d);
+  }
+
+  /** test merging variances */
+  @Test(timeout = 3600000)
+  public void testVariance() {
+    MergeableAggregateTest.__test(new VarianceAggregate(), false, false,
+        1e-12d);
+    MergeableAggregateTest.__test(new VarianceAggregate(), true, false,
+        1e-10d);
+  }
+
+  /** test merging standard deviations */
+  @Test(timeout = 3600000)
+  public void testStandardDeviation() {
+    MergeableAggregateTest.__test(new StandardDeviationAggregate(), false,
+        false, 1e-12d);
+    MergeableAggregateTest.__test(new StandardDeviationAggregate(), true,
+        false, 1e-10d);
+  }
+
+  /** test merging coefficients of variation */
+  @Test(timeout = 3600000)
+  public void testCoefficientOfVariation() {
+    MergeableAggregateTest.__test(new CoefficientOfVariationAggregate(),
+        false, false, 1e-12d);
+    MergeableAggregateTest.__test(new CoefficientOfVariationAggregate(),
+        true, false, 1e-10d);
+  }
+
+  /** test aggregating a large {@code long} matrix column in parallel */
+  @Test(timeout = 3600000)
+  public void testParallelColumnAggregationLongs() {
+    final Random random;
+    final long[] data;
+    final LongMatrix1D matrix;
+    final VarianceAggregate sequential, parallel;
+    int index;
+
+    random = new Random();
+    data = new long[2 * 100000];
+    for (index = 0; index < data.length; index++) {
+      data[index] = (random.nextInt(2000001) - 1000000);
+    }
+    matrix = new LongMatrix1D(data, (data.length >>> 1), 2);
+
+    sequential = new VarianceAggregate();
+    matrix.aggregateColumn(1, sequential);
+    parallel = new ParallelColumnAggregationJob<>(matrix, 1,
+        new VarianceAggregate(), 4).call();
+
+    Assert.assertEquals(sequential.getCountValue(),
+        parallel.getCountValue());
+    Assert.assertEquals(sequential.getSum().longValue(),
+        parallel.getSum().longValue());
+    Assert.assertEquals(sequential.doubleValue(), parallel.doubleValue(),
+        (1e-12d * sequential.doubleValue()));
+  }
+
+  /** test aggregating a large {@code double} matrix column in parallel */
+  @Test(timeout = 3600000)
+  public void testParallelColumnAggregationDoubles() {
+    final Random random;
+    final double[] data;
+    final DoubleMatrix1D matrix;
+    final StableSum sequential, parallel;
+    final MinimumAggregate min;
+    int index;
+
+    random = new Random();
+    data = new double[3 * 50000];
+    for (index = 0; index < data.length; index++) {
+      data[index] = (random.nextGaussian() * 1000d);
+    }
+    matrix = new DoubleMatrix1D(data, (data.length / 3), 3);
+
+    sequential = new StableSum();
+    matrix.aggregateColumn(2, sequential);
+    parallel = new ParallelColumnAggregationJob<>(matrix, 2,
+        new StableSum(), 5).call();
+    Assert.assertEquals(sequential.doubleValue(), parallel.doubleValue(),
+        Math.abs(1e-12d * sequential.doubleValue()));
+
+    min = new MinimumAggregate();
+    matrix.aggregateColumn(0, min);
+    Assert.assertEquals(min.doubleValue(),
+        new ParallelColumnAggregationJob<>(matrix, 0,
+            new MinimumAggregate(), 3).call().doubleValue(),
+        0d);
+  }
+
+  /**
+   * Create a random value
+   *
+   * @param random
+   *          the random number generator
+   * @param doubles
+   *          should we generate {@code double}s?
+   * @param special
+   *          should we generate infinities and {@code NaN}s?
+   * @return the value
+   */
+  private static final Number __value(final Random random,
+      final boolean doubles, final boolean special) {
+    if (special) {
+      switch (random.nextInt(200)) {
+        case 0: {
+          return Double.valueOf(Double.POSITIVE_INFINITY);
+        }
+        case 1: {
+          return Double.valueOf(Double.NEGATIVE_INFINITY);
+        }
+        case 2: {
+          return Double.valueOf(Double.NaN);
+        }
+        default: {
+          // normal value
+        }
+      }
+    }
+    if (doubles && random.nextBoolean()) {
+      return Double.valueOf(
+          1000d + (random.nextGaussian() * random.nextInt(100)));
+    }
+    return Long.valueOf(1000L + random.nextInt(100001));
+  }
+
+  /**
+   * Append a value to an aggregate
+   *
+   * @param aggregate
+   *          the aggregate
+   * @param value
+   *          the value
+   */
+  private static final void __append(final ScalarAggregate aggregate,
+      final Number value) {
+    if (value instanceof Long) {
+      aggregate.append(value.longValue());
+    } else {
+      aggregate.append(value.doubleValue());
+    }
+  }
+
+  /**
+   * Split random data into chunks, aggregate each chunk, merge the
+   * results, and compare them with the aggregate over all the data
+   *
+   * @param reference
+   *          the reference aggregate
+   * @param doubles
+   *          should we generate {@code double}s?
+   * @param special
+   *          should we generate infinities and {@code NaN}s?
+   * @param tolerance
+   *          the relative tolerance, or {@code 0} if the results must be
+   *          identical
+   * @param <T>
+   *          the aggregate type
+   */
+  @SuppressWarnings("unchecked")
+  private static final <T extends ScalarAggregate & IMergeableAggregate<T>> void __test(
+      final T reference, final boolean doubles, final boolean special,
+      final double tolerance) {
+    final Random random;
+    Number[] values;
+    T merged, part;
+    double expected;
+    int round, index, start, end;
+
+    random = new Random();
+    for (round = 0; round < 300; round++) {
+      values = new Number[random.nextInt(1000)];
+      reference.reset();
+      for (index = 0; index < values.length; index++) {
+        values[index] = MergeableAggregateTest.__value(random, doubles,
+            special);
+        MergeableAggregateTest.__append(reference, values[index]);
+      }
+
+      merged = ((T) (reference.createEmptyCopy()));
+      start = 0;
+      do {
+        end = (start + random.nextInt((values.length - start) + 1));
+        part = ((T) (reference.createEmptyCopy()));
+        for (index = start; index < end; index++) {
+          MergeableAggregateTest.__append(part, values[index]);
+        }
+        merged.merge(part);
+        start = end;
+      } while (start < values.length);
+
+      if (reference.getState() == BasicNumber.STATE_EMPTY) {
+        Assert.assertEquals(BasicNumber.STATE_EMPTY, merged.getState());
+        continue;
+      }
+
+      expected = reference.doubleValue();
+      if ((tolerance <= 0d) || (expected != expected)
+          || Double.isInfinite(expected)) {
+        Assert.assertEquals(reference.getState(), merged.getState());
+        Assert.assertEquals(expected, merged.doubleValue(), 0d);
+        if (reference.isInteger()) {
+          Assert.assertEquals(reference.longValue(), merged.longValue());
+        }
+      } else {
+        Assert.assertEquals(expected, merged.doubleValue(),
+            Math.max(tolerance, (Math.abs(expected) * tolerance)));
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileSketch;
+
+/**
+ * A test of the quantile sketch: The approximate quantiles must be within
+ * the rank error of the exact quantiles.
+ */
+public class QuantileSketchTest {
+
+  /** the quantiles to check */
+  private static final double[] QUANTILES = { 0d, 0.01d, 0.05d, 0.25d,
+      0.5d, 0.75d, 0.95d, 0.99d, 1d };
+
+  /**
+   * Check the accuracy of a sketch
+   *
+   * @param sketch
+   *          the sketch
+   * @param data
+   *          the data, which will be sorted
+   */
+  private static final void __check(final QuantileSketch sketch,
+      final double[] data) {
+    final double error;
+    double value, p;
+    int lower, upper;
+
+    Arrays.sort(data);
+    Assert.assertEquals(data.length, sketch.getCount());
+    error = (2d * sketch.getRankError() * data.length);
+
+    for (final double quantile : QuantileSketchTest.QUANTILES) {
+      value = new QuantileAggregate(quantile, sketch).doubleValue();
+
+      // find the range of ranks of the value in the exact data
+      lower = Arrays.binarySearch(data, value);
+      if (lower < 0) {
+        lower = upper = (-(lower + 1));
+      } else {
+        upper = lower;
+        while ((lower > 0) && (data[lower - 1] >= value)) {
+          lower--;
+        }
+        while ((upper < data.length) && (data[upper] <= value)) {
+          upper++;
+        }
+      }
+
+      p = (quantile * data.length);
+      Assert.assertTrue((("quantile " + quantile) + " has rank ") //$NON-NLS-1$//$NON-NLS-2$
+          + lower + "..." + upper + " instead of " + p, //$NON-NLS-1$//$NON-NLS-2$
+          (((lower - error) <= p) && (p <= (upper + error))));
+    }
+  }
+
+  /** test the accuracy of the sketch on {@code double}s */
+  @Test(timeout = 3600000)
+  public void testAccuracyDoubles() {
+    final QuantileSketch sketch;
+    final Random random;
+    final double[] data;
+    int index;
+
+    random = new Random();
+    sketch = new QuantileSketch();
+    data = new double[200000];
+    for (index = 0; index < data.length; index++) {
+      data[index] = (random.nextDouble()
+          * Math.exp(5d * random.nextGaussian()));
+      sketch.append(data[index]);
+    }
+    QuantileSketchTest.__check(sketch, data);
+  }
+
+  /** test the accuracy of the sketch on {@code long}s */
+  @Test(timeout = 3600000)
+  public void testAccuracyLongs() {
+    final QuantileSketch sketch;
+    final Random random;
+    final double[] data;
+    long value;
+    int index;
+
+    random = new Random();
+    sketch = QuantileSketch.createForRankError(0.02d);
+    data = new double[300000];
+    for (index = 0; index < data.length; index++) {
+      value = (random.nextInt(1001) - 500);
+      data[index] = value;
+      sketch.append(value);
+    }
+    QuantileSketchTest.__check(sketch, data);
+  }
+
+  /** test the accuracy of the sketch on sorted data */
+  @Test(timeout = 3600000)
+  public void testAccuracySorted() {
+    final QuantileSketch sketch;
+    final double[] data;
+    int index;
+
+    sketch = new QuantileSketch(100);
+    data = new double[250000];
+    for (index = 0; index < data.length; index++) {
+      data[index] = index;
+      sketch.append(index);
+    }
+    QuantileSketchTest.__check(sketch, data);
+  }
+
+  /** test merging sketches built from different parts of the data */
+  @Test(timeout = 3600000)
+  public void testMerge() {
+    final QuantileSketch[] sketches;
+    final Random random;
+    final double[] data;
+    int index;
+
+    random = new Random();
+    sketches = new QuantileSketch[7];
+    for (index = sketches.length; (--index) >= 0;) {
+      sketches[index] = new QuantileSketch();
+    }
+
+    data = new double[210000];
+    for (index = 0; index < data.length; index++) {
+      data[index] = (random.nextGaussian() * (1 + (index % 3)));
+      sketches[random.nextInt(sketches.length)].append(data[index]);
+    }
+
+    for (index = 1; index < sketches.length; index++) {
+      sketches[0].merge(sketches[index]);
+    }
+    QuantileSketchTest.__check(sketches[0], data);
+  }
+
+  /** test that a quantile sketch does not allow removing values */
+  @Test(timeout = 3600000, expected = UnsupportedOperationException.class)
+  public void testRemove() {
+    final QuantileAggregate median;
+
+    median = new QuantileAggregate(0.5d, new QuantileSketch());
+    median.append(1L);
+    median.remove(1L);
+  }
+}
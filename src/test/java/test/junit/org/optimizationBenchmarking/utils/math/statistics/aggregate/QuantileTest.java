@@ -6,6 +6,7 @@ import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.junit.Assert;
 import org.junit.Test;
 import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileDataStore;
 
 /** A test of the quantiles. */
 public class QuantileTest {
@@ -109,4 +110,58 @@ public class QuantileTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Test computing many quantiles from one shared
+   * {@link org.optimizationBenchmarking.utils.math.statistics.aggregate.QuantileDataStore}
+   * at once, both for {@code long} and for {@code double} data with many
+   * duplicates, by comparing with
+   * {@link org.apache.commons.math3.stat.descriptive.rank.Percentile}.
+   */
+  @Test(timeout = 3600000)
+  public final void testComputeQuantiles() {
+    final QuantileDataStore store;
+    final Percentile perc;
+    final Random rand;
+    double[] ddata, p;
+    Number[] result;
+    double a, b;
+    int i, j, round;
+
+    rand = new Random();
+    store = new QuantileDataStore();
+    perc = new Percentile();
+
+    for (round = 0; round < 40; round++) {
+      store.reset();
+      ddata = new double[1 + rand.nextInt(3000)];
+      for (i = 0; i < ddata.length; i++) {
+        if ((round & 1) == 0) {
+          ddata[i] = (rand.nextInt(100) - 50);
+          store.append((long) (ddata[i]));
+        } else {
+          ddata[i] = (rand.nextInt(20) * rand.nextDouble());
+          store.append(ddata[i]);
+        }
+      }
+
+      p = new double[1 + rand.nextInt(60)];
+      for (i = p.length; (--i) >= 0;) {
+        p[i] = rand.nextDouble();
+      }
+      p[0] = 0d;
+      p[p.length - 1] = 1d;
+
+      perc.setData(ddata);
+      result = store.computeQuantiles(p);
+      for (j = p.length; (--j) >= 0;) {
+        a = perc.evaluate(Math.max(Double.MIN_NORMAL, 100d * p[j]));
+        b = result[j].doubleValue();
+        Assert.assertEquals(a, b,
+            (Math.max(Math.abs(a), Math.abs(b)) * 1e-9d));
+        Assert.assertEquals(b,
+            store.getQuantile(p[j]).doubleValue(), 0d);
+      }
+    }
+  }
+}
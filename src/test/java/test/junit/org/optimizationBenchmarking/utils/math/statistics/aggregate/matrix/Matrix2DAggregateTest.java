@@ -39,12 +39,32 @@ public abstract class Matrix2DAggregateTest extends TestBase {
   /** test whether the iteration proceeds as expected */
   @Test(timeout = 3600000)
   public void testAggregate() {
+    this.__testAggregate(1);
+  }
+
+  /**
+   * test whether the iteration proceeds as expected if it is divided into
+   * partitions which are processed in parallel
+   */
+  @Test(timeout = 3600000)
+  public void testAggregateInParallel() {
+    this.__testAggregate(3);
+  }
+
+  /**
+   * test whether the iteration proceeds as expected
+   *
+   * @param partitions
+   *          the number of partitions
+   */
+  private final void __testAggregate(final int partitions) {
     final AbstractMatrix expected, result;
     CallableMatrixIteration2DBuilder<AbstractMatrix> builder;
     int i, j;
 
     builder = new CallableMatrixIteration2DBuilder<>();
     this.setup(builder);
+    builder.setPartitions(partitions);
     result = builder.create().call();
     builder = null;
     Assert.assertNotNull(result);
@@ -0,0 +1,28 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate.matrix;
+
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.CallableMatrixIteration2DBuilder;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.Matrix2DAggregate;
+
+/**
+ * The same test as {@link Matrix2DAggregateTestArithmeticMean6}, but
+ * with an incrementally updated mean aggregate
+ */
+public class Matrix2DAggregateTestIncrementalArithmeticMean6
+    extends Matrix2DAggregateTestArithmeticMean6 {
+
+  /** create */
+  public Matrix2DAggregateTestIncrementalArithmeticMean6() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setup(
+      final CallableMatrixIteration2DBuilder<AbstractMatrix> builder) {
+    super.setup(builder);
+    builder.setVisitor(new Matrix2DAggregate(
+        new IncrementalArithmeticMeanAggregate(), null));
+  }
+}
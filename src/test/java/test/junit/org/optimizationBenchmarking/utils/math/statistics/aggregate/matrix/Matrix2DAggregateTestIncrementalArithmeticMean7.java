@@ -0,0 +1,144 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.aggregate.matrix;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.collections.visitors.IVisitor;
+import org.optimizationBenchmarking.utils.math.matrix.AbstractMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.IMatrix;
+import org.optimizationBenchmarking.utils.math.matrix.impl.LongMatrix1D;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.CallableMatrixIteration2DBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationDirection;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationEngine;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EIterationMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.EMissingValueMode;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DBuilder;
+import org.optimizationBenchmarking.utils.math.matrix.processing.iterator2D.MatrixIteration2DState;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.IncrementalArithmeticMeanAggregate;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.Matrix2DAggregate;
+
+/**
+ * A test for an incrementally updated mean aggregate over many matrices,
+ * of which exactly one changes in each step. The result must be the same
+ * as when the mean is re-computed from scratch in each step.
+ */
+public class Matrix2DAggregateTestIncrementalArithmeticMean7
+    extends Matrix2DAggregateTest {
+
+  /** the number of matrices */
+  private static final int MATRICES = 25;
+
+  /** the number of rows per matrix */
+  private static final int ROWS = 8;
+
+  /** create */
+  public Matrix2DAggregateTestIncrementalArithmeticMean7() {
+    super();
+  }
+
+  /**
+   * Create the matrices: Matrix {@code i} has rows at the {@code x}
+   * coordinates {@code i}, {@code i+MATRICES}, {@code i+2*MATRICES}, and
+   * so on, with a different {@code y} value in each row. Thus, exactly
+   * one matrix advances at each {@code x} coordinate.
+   *
+   * @return the matrices
+   */
+  private static final IMatrix[] __matrices() {
+    final IMatrix[] matrices;
+    final int count, rows;
+    long[] data;
+    int index, row;
+
+    count = Matrix2DAggregateTestIncrementalArithmeticMean7.MATRICES;
+    rows = Matrix2DAggregateTestIncrementalArithmeticMean7.ROWS;
+    matrices = new IMatrix[count];
+    for (index = 0; index < count; index++) {
+      data = new long[rows << 1];
+      for (row = 0; row < rows; row++) {
+        data[row << 1] = (index + (row * count));
+        data[(row << 1) + 1] = ((((index * 37) + (row * 11)) % 50) * 100)
+            + row;
+      }
+      matrices[index] = new LongMatrix1D(data, rows, 2);
+    }
+    return matrices;
+  }
+
+  /**
+   * set up the iteration without the visitor
+   *
+   * @param builder
+   *          the builder
+   */
+  private static final void __setup(
+      final CallableMatrixIteration2DBuilder<AbstractMatrix> builder) {
+    builder.setStartMode(EMissingValueMode.SKIP);
+    builder.setEndMode(EMissingValueMode.USE_ITERATION_MODE);
+    builder.setIterationMode(EIterationMode.KEEP_PREVIOUS);
+    builder.setXDirection(EIterationDirection.INCREASING);
+    builder.setMatrices(
+        Matrix2DAggregateTestIncrementalArithmeticMean7.__matrices());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setup(
+      final CallableMatrixIteration2DBuilder<AbstractMatrix> builder) {
+    super.setup(builder);
+    Matrix2DAggregateTestIncrementalArithmeticMean7.__setup(builder);
+    builder.setIterationEngine(EIterationEngine.PRIORITY_QUEUE);
+    builder.setVisitor(new Matrix2DAggregate(
+        new IncrementalArithmeticMeanAggregate(), null));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected AbstractMatrix getExpectedResult() {
+    final CallableMatrixIteration2DBuilder<AbstractMatrix> builder;
+
+    builder = new CallableMatrixIteration2DBuilder<>();
+    super.setup(builder);
+    Matrix2DAggregateTestIncrementalArithmeticMean7.__setup(builder);
+    builder.setIterationEngine(EIterationEngine.LINEAR_SCAN);
+    builder.setVisitor(
+        new Matrix2DAggregate(new ArithmeticMeanAggregate(), null));
+    return builder.create().call();
+  }
+
+  /** test that exactly one matrix is reported as changed per step */
+  @Test(timeout = 3600000)
+  public void testOneChangePerStep() {
+    final MatrixIteration2DBuilder builder;
+    final int[] steps;
+
+    steps = new int[1];
+    builder = new MatrixIteration2DBuilder();
+    builder.setXDimension(0);
+    builder.setYDimension(1);
+    builder.setIterationEngine(EIterationEngine.PRIORITY_QUEUE);
+    builder.setMatrices(
+        Matrix2DAggregateTestIncrementalArithmeticMean7.__matrices());
+    builder.setVisitor(new IVisitor<MatrixIteration2DState>() {
+      @Override
+      public final boolean visit(final MatrixIteration2DState state) {
+        final int source;
+
+        source = ((int) (state.getX().longValue()
+            % Matrix2DAggregateTestIncrementalArithmeticMean7.MATRICES));
+        Assert.assertEquals(1, state.getChangedSourceMatrixCount());
+        Assert.assertEquals(source, state.getChangedSourceMatrixIndex(0));
+        Assert.assertEquals(source, state.getSourceMatrixIndex(//
+            state.getYIndexOfSourceMatrix(source)));
+        steps[0]++;
+        return true;
+      }
+    });
+    builder.create().run();
+
+    Assert.assertEquals(
+        (Matrix2DAggregateTestIncrementalArithmeticMean7.MATRICES
+            * Matrix2DAggregateTestIncrementalArithmeticMean7.ROWS),
+        steps[0]);
+  }
+}
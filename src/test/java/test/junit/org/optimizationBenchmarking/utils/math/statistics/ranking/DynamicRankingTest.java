@@ -0,0 +1,191 @@
+package test.junit.org.optimizationBenchmarking.utils.math.statistics.ranking;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.DynamicRanking;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.ENaNStrategy;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.ETieStrategy;
+import org.optimizationBenchmarking.utils.math.statistics.ranking.RankingStrategy;
+
+/** A test for the dynamic ranking. */
+public class DynamicRankingTest {
+
+  /** create */
+  public DynamicRankingTest() {
+    super();
+  }
+
+  /**
+   * create a random value
+   *
+   * @param rand
+   *          the random number generator
+   * @return the value
+   */
+  private static final double __value(final Random rand) {
+    switch (rand.nextInt(6)) {
+      case 0: {
+        return Double.NaN;
+      }
+      case 1: {
+        return (rand.nextBoolean() ? Double.POSITIVE_INFINITY
+            : Double.NEGATIVE_INFINITY);
+      }
+      case 2: {
+        return (rand.nextBoolean() ? 0d : -0d);
+      }
+      case 3: {
+        return rand.nextGaussian();
+      }
+      default: {
+        return rand.nextInt(8);
+      }
+    }
+  }
+
+  /**
+   * Check a dynamic ranking against a complete ranking of its values and
+   * check that all ranks which changed are in the reported range.
+   *
+   * @param ranking
+   *          the ranking
+   * @param strategy
+   *          the ranking strategy
+   * @param used
+   *          which ids are used
+   * @param oldRanks
+   *          the ranks before the modification, indexed by id, updated
+   *          with the new ranks
+   * @param changed
+   *          the id of the modified value, or {@code -1} if the ranks
+   *          are not checked against the reported range
+   */
+  private static final void __check(final DynamicRanking ranking,
+      final RankingStrategy strategy, final boolean[] used,
+      final double[] oldRanks, final int changed) {
+    final double[] values, expected, actual;
+    final int[] ids;
+    int id, count, position;
+
+    count = 0;
+    ids = new int[used.length];
+    for (id = 0; id < used.length; id++) {
+      if (used[id]) {
+        ids[count++] = id;
+      }
+    }
+    Assert.assertEquals(count, ranking.size());
+
+    values = new double[count];
+    for (id = count; (--id) >= 0;) {
+      values[id] = ranking.getValue(ids[id]);
+    }
+    expected = new double[count];
+    strategy.rank(values, expected);
+
+    actual = new double[used.length];
+    Arrays.fill(actual, -1d);
+    ranking.getRanks(actual);
+
+    for (id = count; (--id) >= 0;) {
+      Assert.assertEquals(expected[id], actual[ids[id]], 0d);
+      Assert.assertEquals(expected[id], ranking.getRank(ids[id]), 0d);
+      position = ranking.getPosition(ids[id]);
+      Assert.assertEquals(ids[id], ranking.getIdAt(position));
+      Assert.assertEquals(expected[id], ranking.getRankAt(position), 0d);
+
+      if ((changed >= 0) && (ids[id] != changed) && //
+          (Double.compare(oldRanks[ids[id]], actual[ids[id]]) != 0)) {
+        Assert.assertTrue(position >= ranking.getChangeStart());
+        Assert.assertTrue(position < ranking.getChangeEnd());
+      }
+      oldRanks[ids[id]] = actual[ids[id]];
+    }
+  }
+
+  /** test random modifications under all strategies */
+  @Test(timeout = 3600000)
+  public void testRandomModifications() {
+    final Random rand;
+    RankingStrategy strategy;
+    DynamicRanking ranking;
+    double[] initial, ranks;
+    boolean[] used;
+    int i, j, id, count;
+
+    rand = new Random();
+    for (final ENaNStrategy nan : ENaNStrategy.values()) {
+      if (nan == ENaNStrategy.ERROR) {
+        continue;
+      }
+      for (final ETieStrategy ties : ETieStrategy.values()) {
+        strategy = new RankingStrategy(nan, ties);
+        for (i = 0; i < 10; i++) {
+          initial = new double[rand.nextInt(40)];
+          for (j = initial.length; (--j) >= 0;) {
+            initial[j] = DynamicRankingTest.__value(rand);
+          }
+
+          ranking = (rand.nextBoolean()
+              ? new DynamicRanking(strategy, initial)
+              : new DynamicRanking(strategy));
+          used = new boolean[1000];
+          ranks = new double[used.length];
+          if (ranking.size() > 0) {
+            Arrays.fill(used, 0, initial.length, true);
+          } else {
+            for (j = 0; j < initial.length; j++) {
+              used[ranking.add(initial[j])] = true;
+            }
+          }
+          count = ranking.size();
+          DynamicRankingTest.__check(ranking, strategy, used, ranks, -1);
+
+          for (j = 0; j < 300; j++) {
+            switch (rand.nextInt(3)) {
+              case 0: {
+                id = ranking.add(DynamicRankingTest.__value(rand));
+                Assert.assertFalse(used[id]);
+                used[id] = true;
+                count++;
+                break;
+              }
+              case 1: {
+                if (count <= 0) {
+                  continue;
+                }
+                do {
+                  id = rand.nextInt(used.length);
+                } while (!(used[id]));
+                ranking.remove(id);
+                used[id] = false;
+                count--;
+                break;
+              }
+              default: {
+                if (count <= 0) {
+                  continue;
+                }
+                do {
+                  id = rand.nextInt(used.length);
+                } while (!(used[id]));
+                ranking.set(id, DynamicRankingTest.__value(rand));
+              }
+            }
+            DynamicRankingTest.__check(ranking, strategy, used, ranks, id);
+          }
+        }
+      }
+    }
+  }
+
+  /** test that NaNs are rejected under {@link ENaNStrategy#ERROR} */
+  @Test(timeout = 3600000, expected = IllegalArgumentException.class)
+  public void testNaNError() {
+    new DynamicRanking(new RankingStrategy(ENaNStrategy.ERROR, null))
+        .add(Double.NaN);
+  }
+}
@@ -2,7 +2,10 @@ package test.junit.org.optimizationBenchmarking.utils.math.statistics.ranking;
 
 import java.util.Random;
 
+import org.junit.Assert;
 import org.junit.Test;
+import org.optimizationBenchmarking.utils.math.matrix.impl.DoubleMatrix1D;
+import org.optimizationBenchmarking.utils.math.statistics.aggregate.ArithmeticMeanAggregate;
 import org.optimizationBenchmarking.utils.math.statistics.ranking.ENaNStrategy;
 import org.optimizationBenchmarking.utils.math.statistics.ranking.ETieStrategy;
 import org.optimizationBenchmarking.utils.math.statistics.ranking.RankingStrategy;
@@ -174,4 +177,309 @@ public class RankingTests {
     }
   }
 
+  /**
+   * Compare two values in the way prescribed by a NaN strategy
+   *
+   * @param a
+   *          the first value
+   * @param b
+   *          the second value
+   * @param nan
+   *          the NaN strategy
+   * @return the comparison result
+   */
+  private static final int __compare(final double a, final double b,
+      final ENaNStrategy nan) {
+    double x, y;
+
+    x = a;
+    y = b;
+    if ((x != x) || (y != y)) {
+      switch (nan) {
+        case NEGATIVE_INFINITY: {
+          x = ((x != x) ? Double.NEGATIVE_INFINITY : x);
+          y = ((y != y) ? Double.NEGATIVE_INFINITY : y);
+          break;
+        }
+        case POSITIVE_INFINITY: {
+          x = ((x != x) ? Double.POSITIVE_INFINITY : x);
+          y = ((y != y) ? Double.POSITIVE_INFINITY : y);
+          break;
+        }
+        default: {
+          if ((x != x) && (y != y)) {
+            return 0;
+          }
+          return ((((x != x) ? 1 : (-1)) * //
+          ((nan == ENaNStrategy.MINIMAL) ? (-1) : 1)));
+        }
+      }
+    }
+    return ((x < y) ? (-1) : ((x > y) ? 1 : 0));
+  }
+
+  /**
+   * Compute the ranks of some values by brute force
+   *
+   * @param data
+   *          the data
+   * @param nan
+   *          the NaN strategy
+   * @param ties
+   *          the tie strategy
+   * @return the ranks
+   */
+  private static final double[] __reference(final double[] data,
+      final ENaNStrategy nan, final ETieStrategy ties) {
+    final double[] ranks;
+    int i, j, less, equal, lessGroups, cmp;
+    boolean newGroup;
+
+    ranks = new double[data.length];
+    for (i = data.length; (--i) >= 0;) {
+      if ((nan == ENaNStrategy.NAN) && (data[i] != data[i])) {
+        ranks[i] = Double.NaN;
+        continue;
+      }
+      less = equal = lessGroups = 0;
+      for (j = data.length; (--j) >= 0;) {
+        cmp = RankingTests.__compare(data[j], data[i], nan);
+        if (cmp < 0) {
+          less++;
+          newGroup = true;
+          for (cmp = j; (++cmp) < data.length;) {
+            if (RankingTests.__compare(data[cmp], data[j], nan) == 0) {
+              newGroup = false;
+              break;
+            }
+          }
+          if (newGroup) {
+            lessGroups++;
+          }
+        } else {
+          if (cmp == 0) {
+            equal++;
+          }
+        }
+      }
+      switch (ties) {
+        case MINIMUM: {
+          ranks[i] = (less + 1);
+          break;
+        }
+        case MINIMUM_TIGHT: {
+          ranks[i] = (lessGroups + 1);
+          break;
+        }
+        case MAXIMUM: {
+          ranks[i] = (less + equal);
+          break;
+        }
+        default: {
+          ranks[i] = (less + (0.5d * (equal + 1)));
+        }
+      }
+    }
+    return ranks;
+  }
+
+  /**
+   * Test that random {@code double} and {@code long} arrays are ranked
+   * exactly as by a brute force reference ranking.
+   */
+  @Test(timeout = 3600000)
+  public void testRandomAgainstReference() {
+    final Random rand;
+    final double[] special;
+    double[] data, dest, expected;
+    long[] longs;
+    RankingStrategy strategy;
+    boolean hasNaN;
+    int i, k;
+
+    rand = new Random();
+    special = new double[] { Double.NaN, Double.NEGATIVE_INFINITY,
+        Double.POSITIVE_INFINITY, 0d, -0d, Double.MAX_VALUE,
+        (-Double.MAX_VALUE) };
+    for (i = 0; i < 1000; i++) {
+      data = new double[rand.nextInt(70)];
+      longs = new long[data.length];
+      hasNaN = false;
+      for (k = data.length; (--k) >= 0;) {
+        switch (rand.nextInt(4)) {
+          case 0: {
+            data[k] = special[rand.nextInt(special.length)];
+            break;
+          }
+          case 1: {
+            data[k] = (rand.nextInt(10) - 5);
+            break;
+          }
+          case 2: {
+            data[k] = (0.5d * (rand.nextInt(10) - 5));
+            break;
+          }
+          default: {
+            data[k] = rand.nextGaussian();
+          }
+        }
+        hasNaN |= (data[k] != data[k]);
+        longs[k] = (rand.nextInt(20) - 10);
+      }
+
+      for (final ENaNStrategy nan : ENaNStrategy.values()) {
+        for (final ETieStrategy ties : ETieStrategy.values()) {
+          strategy = new RankingStrategy(nan, ties);
+
+          dest = new double[data.length];
+          if (hasNaN && (nan == ENaNStrategy.ERROR)) {
+            try {
+              strategy.rank(data, dest);
+              Assert.fail("NaN must not be permitted by " + nan); //$NON-NLS-1$
+            } catch (final IllegalArgumentException expectedError) {
+              // expected
+            }
+          } else {
+            strategy.rank(data, dest);
+            expected = RankingTests.__reference(data, nan, ties);
+            Assert.assertArrayEquals(expected, dest, 0d);
+          }
+
+          dest = new double[longs.length];
+          strategy.rank(longs, dest);
+          expected = new double[longs.length];
+          for (k = longs.length; (--k) >= 0;) {
+            expected[k] = longs[k];
+          }
+          expected = RankingTests.__reference(expected, nan, ties);
+          Assert.assertArrayEquals(expected, dest, 0d);
+        }
+      }
+    }
+  }
+
+  /**
+   * Create a random matrix with ties and {@link java.lang.Double#NaN}s
+   *
+   * @param rand
+   *          the random number generator
+   * @param m
+   *          the number of rows
+   * @param n
+   *          the number of columns
+   * @return the matrix
+   */
+  private static final DoubleMatrix1D __randomMatrix(final Random rand,
+      final int m, final int n) {
+    final double[] data;
+    int i;
+
+    data = new double[m * n];
+    for (i = data.length; (--i) >= 0;) {
+      switch (rand.nextInt(4)) {
+        case 0: {
+          data[i] = Double.NaN;
+          break;
+        }
+        case 1: {
+          data[i] = rand.nextInt(5);
+          break;
+        }
+        default: {
+          data[i] = rand.nextGaussian();
+        }
+      }
+    }
+    return new DoubleMatrix1D(data, m, n);
+  }
+
+  /**
+   * Test that ranking all rows or columns of a matrix at once yields the
+   * same ranks as ranking them one by one
+   */
+  @Test(timeout = 3600000)
+  public void testRankRowsAndColumns() {
+    final Random rand;
+    DoubleMatrix1D matrix;
+    RankingStrategy strategy;
+    double[] line, rows, columns;
+    int i, m, n, row, column;
+
+    rand = new Random();
+    for (i = 0; i < 30; i++) {
+      m = (1 + rand.nextInt((i < 25) ? 20 : 500));
+      n = (1 + rand.nextInt((i < 25) ? 20 : 300));
+      matrix = RankingTests.__randomMatrix(rand, m, n);
+      strategy = new RankingStrategy(ENaNStrategy.MAXIMAL, ETieStrategy
+          .values()[rand.nextInt(ETieStrategy.values().length)]);
+
+      rows = new double[m * n];
+      strategy.rankRows(matrix, rows);
+      Assert.assertEquals(strategy.rankRows(matrix),
+          new DoubleMatrix1D(rows, m, n));
+      line = new double[n];
+      for (row = 0; row < m; row++) {
+        strategy.rankRow(matrix, row, line);
+        for (column = 0; column < n; column++) {
+          Assert.assertEquals(line[column], rows[(row * n) + column], 0d);
+        }
+      }
+
+      columns = new double[m * n];
+      strategy.rankColumns(matrix, columns);
+      Assert.assertEquals(strategy.rankColumns(matrix),
+          new DoubleMatrix1D(columns, m, n));
+      line = new double[m];
+      for (column = 0; column < n; column++) {
+        strategy.rankColumn(matrix, column, line);
+        for (row = 0; row < m; row++) {
+          Assert.assertEquals(line[row], columns[(row * n) + column], 0d);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that ranking all rows of a matrix into column aggregates yields
+   * the same mean ranks as ranking the rows one by one
+   */
+  @Test(timeout = 3600000)
+  public void testRankRowsIntoAggregates() {
+    final Random rand;
+    ArithmeticMeanAggregate[] expected, actual;
+    DoubleMatrix1D matrix;
+    RankingStrategy strategy;
+    double[] line;
+    int i, m, n, row, column;
+
+    rand = new Random();
+    for (i = 0; i < 30; i++) {
+      m = (1 + rand.nextInt((i < 25) ? 20 : 3000));
+      n = (1 + rand.nextInt((i < 25) ? 20 : 200));
+      matrix = RankingTests.__randomMatrix(rand, m, n);
+      strategy = new RankingStrategy(ENaNStrategy.MINIMAL, ETieStrategy
+          .values()[rand.nextInt(ETieStrategy.values().length)]);
+
+      expected = new ArithmeticMeanAggregate[n];
+      actual = new ArithmeticMeanAggregate[n];
+      for (column = n; (--column) >= 0;) {
+        expected[column] = new ArithmeticMeanAggregate();
+        actual[column] = new ArithmeticMeanAggregate();
+      }
+
+      line = new double[n];
+      for (row = 0; row < m; row++) {
+        strategy.rankRow(matrix, row, line);
+        for (column = 0; column < n; column++) {
+          expected[column].append(line[column]);
+        }
+      }
+
+      strategy.rankRows(matrix, actual);
+      for (column = n; (--column) >= 0;) {
+        Assert.assertEquals(expected[column].doubleValue(),
+            actual[column].doubleValue(), 1e-12d);
+      }
+    }
+  }
 }